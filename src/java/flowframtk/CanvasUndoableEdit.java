@@ -376,23 +376,30 @@ public abstract class CanvasUndoableEdit extends AbstractUndoableEdit
 
       bounds = bpBox;
 
-      double x = bpBox.getMinX();
-      double y = bpBox.getMinY();
+      updateRegion();
 
+      canvas.addDirtyRegion(region, false);
+   }
+
+   /**
+    * Converts the refresh bounds to component co-ordinates at the
+    * current magnification.
+    */
+   private void updateRegion()
+   {
       double bpToCompXScale = canvasGraphics.bpToComponentX(1.0);
       double bpToCompYScale = canvasGraphics.bpToComponentY(1.0);
 
       Dimension2D dim = canvasGraphics.getComponentPointSize();
 
       region = new Rectangle(
-                  (int)Math.floor(bpToCompXScale*x-0.5*dim.getWidth()),
-                  (int)Math.floor(bpToCompYScale*y-0.5*dim.getHeight()),
-                  (int)Math.ceil(bpToCompXScale*bpBox.getWidth()+dim.getWidth())+2,
-                  (int)Math.ceil(bpToCompYScale*bpBox.getHeight()+dim.getHeight())+2
+                  (int)Math.floor(bpToCompXScale*bounds.getMinX()-0.5*dim.getWidth()),
+                  (int)Math.floor(bpToCompYScale*bounds.getMinY()-0.5*dim.getHeight()),
+                  (int)Math.ceil(bpToCompXScale*bounds.getWidth()+dim.getWidth())+2,
+                  (int)Math.ceil(bpToCompYScale*bounds.getHeight()+dim.getHeight())+2
                );
 
       magnification = canvasGraphics.getMagnification();
-      canvas.repaint(region);
    }
 
    public void repaintRegion()
@@ -407,25 +414,12 @@ public abstract class CanvasUndoableEdit extends AbstractUndoableEdit
          canvas.markAsModified();
       }
 
-      if (magnification == canvasGraphics.getMagnification())
+      if (magnification != canvasGraphics.getMagnification())
       {
-         canvas.repaint(region);
-         return;
+         updateRegion();
       }
 
-      double x = bounds.getMinX();
-
-      double bpToCompXScale = canvasGraphics.bpToComponentX(1.0);
-      double bpToCompYScale = canvasGraphics.bpToComponentY(1.0);
-
-      region.setBounds
-      (
-         (int)Math.floor(bpToCompXScale*x),
-         (int)Math.floor(bpToCompYScale*bounds.getMinY()),
-         (int)Math.ceil(bpToCompXScale*bounds.getWidth()),
-         (int)Math.ceil(bpToCompYScale*bounds.getHeight())
-      );
-
+      canvas.addDirtyRegion(region, false);
    }
 
    public String getUndoPresentationName()
@@ -0,0 +1,130 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.flowframtk;
+
+import java.awt.Rectangle;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Accumulates the areas of a component that need repainting. The
+ * areas (in component co-ordinates) are merged into a single
+ * rectangle, which is repainted the next time the event dispatch
+ * thread is free. Several modifications made in the same event
+ * (for example, deselecting all objects and then selecting one)
+ * therefore result in a single repaint request covering only the
+ * affected area rather than the whole component.
+ */
+public class DirtyRegion implements Runnable
+{
+   public DirtyRegion(JComponent component)
+   {
+      this.component = component;
+   }
+
+   /**
+    * Adds an area to the dirty region.
+    * @param rect the area in component co-ordinates
+    */
+   public synchronized void add(Rectangle rect)
+   {
+      if (rect == null || rect.isEmpty() || all) return;
+
+      if (region == null)
+      {
+         region = new Rectangle(rect);
+      }
+      else
+      {
+         region.add(rect);
+      }
+
+      schedule();
+   }
+
+   /**
+    * Marks the entire component as dirty.
+    */
+   public synchronized void addAll()
+   {
+      all = true;
+      region = null;
+
+      schedule();
+   }
+
+   /**
+    * Gets a copy of the area waiting to be repainted.
+    * @return the area or null if nothing is pending or if the
+    * entire component is waiting to be repainted
+    */
+   public synchronized Rectangle getPending()
+   {
+      return region == null ? null : new Rectangle(region);
+   }
+
+   public synchronized boolean isPending()
+   {
+      return scheduled;
+   }
+
+   private void schedule()
+   {
+      if (!scheduled)
+      {
+         scheduled = true;
+         SwingUtilities.invokeLater(this);
+      }
+   }
+
+   /**
+    * Sends the accumulated repaint request to the component and
+    * clears the dirty region.
+    */
+   @Override
+   public void run()
+   {
+      Rectangle rect;
+      boolean repaintAll;
+
+      synchronized (this)
+      {
+         rect = region;
+         repaintAll = all;
+
+         region = null;
+         all = false;
+         scheduled = false;
+      }
+
+      if (repaintAll)
+      {
+         component.repaint();
+      }
+      else if (rect != null)
+      {
+         component.repaint(rect);
+      }
+   }
+
+   private JComponent component;
+   private Rectangle region = null;
+   private boolean all = false, scheduled = false;
+}
@@ -92,6 +92,11 @@ public abstract class ExportDocImage extends ExportImage
       finally
       {
          getMessageSystem().processDone();
+
+         if (exitCode != 0)
+         {
+            processFailed = true;
+         }
       }
    }
 
@@ -192,8 +197,46 @@ public abstract class ExportDocImage extends ExportImage
          out.close();
          out = null;
 
+         ExportCache cache = app.getExportCache();
+         String cacheKey = null;
+         String extension = ExportCache.getExtension(file);
+
+         if (cache != null)
+         {
+            cacheKey = cache.computeKey(texFile, exportSettings, image,
+              dir.toPath());
+
+            File cached = cache.get(cacheKey, extension);
+
+            if (cached != null)
+            {
+               publish(MessageInfo.createMessage(getResources().getMessage(
+                  "info.export_cache_hit", file)));
+
+               Files.copy(cached.toPath(), file.toPath(),
+                  StandardCopyOption.REPLACE_EXISTING);
+
+               return;
+            }
+         }
+
+         processFailed = false;
+
          File result = processImage();
 
+         if (cacheKey != null && !processFailed
+              && result != null && result.isFile())
+         {
+            try
+            {
+               cache.put(cacheKey, extension, result);
+            }
+            catch (IOException e)
+            {
+               publish(MessageInfo.createWarning(e));
+            }
+         }
+
          if (result != null && !result.equals(file))
          {
             if (file.exists())
@@ -236,4 +279,6 @@ public abstract class ExportDocImage extends ExportImage
    protected File texFile = null;
    protected File texDir = null;
    protected String texBase;
+
+   private boolean processFailed = false;
 }
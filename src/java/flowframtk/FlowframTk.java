@@ -108,6 +108,77 @@ public class FlowframTk extends JFrame
       {
          debugMessage(e);
       }
+
+      StartupTimer startupTimer = invoker.getStartupTimer();
+      startupTimer.markVisible();
+
+      debugMessage(startupTimer.getSummary(MAX_STARTUP_TIMES));
+
+      startWarmUp();
+   }
+
+   private <T> LazyComponent<T> addLazyComponent(LazyComponent<T> component)
+   {
+      lazyComponents.add(component);
+      return component;
+   }
+
+   /**
+    * Constructs the dialogs that haven't been used yet, one per
+    * timer event so that user input isn't held up. Swing components
+    * have to be constructed on the event dispatch thread, so this
+    * can't be done on a background thread.
+    */
+   private void startWarmUp()
+   {
+      final javax.swing.Timer timer = new javax.swing.Timer(
+         WARM_UP_DELAY, null);
+
+      timer.addActionListener(new ActionListener()
+      {
+         public void actionPerformed(ActionEvent evt)
+         {
+            if (!warmUpNext())
+            {
+               timer.stop();
+
+               debugMessage(invoker.getStartupTimer().getSummary(
+                  MAX_STARTUP_TIMES));
+            }
+         }
+      });
+
+      timer.setInitialDelay(WARM_UP_INITIAL_DELAY);
+      timer.start();
+   }
+
+   /**
+    * Constructs the next component that hasn't yet been created.
+    * @return false if there are no more components to construct
+    */
+   private boolean warmUpNext()
+   {
+      while (warmUpIndex < lazyComponents.size())
+      {
+         LazyComponent<?> component = lazyComponents.get(warmUpIndex++);
+
+         if (!component.isCreated())
+         {
+            try
+            {
+               component.get();
+            }
+            catch (Throwable e)
+            {
+               // try again on first use
+               debugMessage(e);
+            }
+
+            return true;
+         }
+      }
+
+      return false;
    }
 
    private void init()
@@ -156,12 +227,6 @@ public class FlowframTk extends JFrame
       setSize(width,height);
       setLocation((screenWidth-width)/2, (screenHeight-height)/2);
 
-      // set up available font families
-
-      GraphicsEnvironment env = 
-         GraphicsEnvironment.getLocalGraphicsEnvironment();
-      availableFontFamilies = env.getAvailableFontFamilyNames();
-
       // set up annotation font
 
       try
@@ -1023,8 +1088,16 @@ public class FlowframTk extends JFrame
             }
          });
 
-      allMarkersChooserBox = new ArrowStyleSelector(this,
-         ArrowStylePanel.ALL);
+      allMarkersChooserBox = addLazyComponent(
+         new LazyComponent<ArrowStyleSelector>("allMarkersChooserBox",
+           invoker.getStartupTimer())
+         {
+            protected ArrowStyleSelector create()
+            {
+               return new ArrowStyleSelector(FlowframTk.this,
+                  ArrowStylePanel.ALL);
+            }
+         });
 
       lineStyleM.addSeparator();
 
@@ -1200,8 +1273,16 @@ public class FlowframTk extends JFrame
          }
         );
 
-      startArrowChooserBox = new ArrowStyleSelector(this,
-         ArrowStylePanel.START);
+      startArrowChooserBox = addLazyComponent(
+         new LazyComponent<ArrowStyleSelector>("startArrowChooserBox",
+           invoker.getStartupTimer())
+         {
+            protected ArrowStyleSelector create()
+            {
+               return new ArrowStyleSelector(FlowframTk.this,
+                  ArrowStylePanel.START);
+            }
+         });
 
       incStartupProgress(editM, pathM, lineStyleM, startArrowItem);
 
@@ -1221,8 +1302,16 @@ public class FlowframTk extends JFrame
          }
         );
 
-      midArrowChooserBox = new ArrowStyleSelector(this,
-         ArrowStylePanel.MID);
+      midArrowChooserBox = addLazyComponent(
+         new LazyComponent<ArrowStyleSelector>("midArrowChooserBox",
+           invoker.getStartupTimer())
+         {
+            protected ArrowStyleSelector create()
+            {
+               return new ArrowStyleSelector(FlowframTk.this,
+                  ArrowStylePanel.MID);
+            }
+         });
 
       incStartupProgress(editM, pathM, lineStyleM, midArrowItem);
 
@@ -1242,8 +1331,16 @@ public class FlowframTk extends JFrame
          }
         );
 
-      endArrowChooserBox = new ArrowStyleSelector(this,
-         ArrowStylePanel.END);
+      endArrowChooserBox = addLazyComponent(
+         new LazyComponent<ArrowStyleSelector>("endArrowChooserBox",
+           invoker.getStartupTimer())
+         {
+            protected ArrowStyleSelector create()
+            {
+               return new ArrowStyleSelector(FlowframTk.this,
+                  ArrowStylePanel.END);
+            }
+         });
 
       incStartupProgress(editM, pathM, lineStyleM, endArrowItem);
 
@@ -1361,7 +1458,16 @@ public class FlowframTk extends JFrame
          appSettings.setDefaultUnicodeRanges();
       }
 
-      characterSelector = new CharacterSelector(this, getUnicodeRanges());
+      characterSelector = addLazyComponent(
+         new LazyComponent<CharacterSelector>("characterSelector",
+           invoker.getStartupTimer())
+         {
+            protected CharacterSelector create()
+            {
+               return new CharacterSelector(FlowframTk.this,
+                 getUnicodeRanges());
+            }
+         });
 
       editTextBox = new TextSelector(this);
 
@@ -2650,7 +2756,15 @@ public class FlowframTk extends JFrame
 
       // Create path from SVG
 
-      createPathFromSvgDialog = new CreatePathFromSvgDialog(this);
+      createPathFromSvgDialog = addLazyComponent(
+         new LazyComponent<CreatePathFromSvgDialog>("createPathFromSvgDialog",
+           invoker.getStartupTimer())
+         {
+            protected CreatePathFromSvgDialog create()
+            {
+               return new CreatePathFromSvgDialog(FlowframTk.this);
+            }
+         });
 
       createPathFromSvgItem = FlowframTkAction.createMenuItem(this,
          "menu.tools", "create_path_from_svg", toolsM,
@@ -2661,7 +2775,7 @@ public class FlowframTk extends JFrame
          {
             public void doAction(FlowframTkAction action, ActionEvent evt)
             {
-               createPathFromSvgDialog.display(action.getFrame());
+               createPathFromSvgDialog.get().display(action.getFrame());
             }
          });
 
@@ -2933,7 +3047,18 @@ public class FlowframTk extends JFrame
 
          incStartupProgress(bitmapM, vectorizeItem);
 
-         vectorizeBitmapDialog = new VectorizeBitmapDialog(this);
+         // Only available in experimental or debug mode and not
+         // often used, so it's not included in the warm-up list.
+
+         vectorizeBitmapDialog = 
+            new LazyComponent<VectorizeBitmapDialog>("vectorizeBitmapDialog",
+              invoker.getStartupTimer())
+            {
+               protected VectorizeBitmapDialog create()
+               {
+                  return new VectorizeBitmapDialog(FlowframTk.this);
+               }
+            };
       }
 
       // TeX/LaTeX
@@ -2965,9 +3090,25 @@ public class FlowframTk extends JFrame
             }
          });
 
-      texEditorDialog = new TeXEditorDialog(this);
+      texEditorDialog = addLazyComponent(
+         new LazyComponent<TeXEditorDialog>("texEditorDialog",
+           invoker.getStartupTimer())
+         {
+            protected TeXEditorDialog create()
+            {
+               return new TeXEditorDialog(FlowframTk.this);
+            }
+         });
 
-      texEditorUIDialog = new TeXEditorUIDialog(this);
+      texEditorUIDialog = addLazyComponent(
+         new LazyComponent<TeXEditorUIDialog>("texEditorUIDialog",
+           invoker.getStartupTimer())
+         {
+            protected TeXEditorUIDialog create()
+            {
+               return new TeXEditorUIDialog(FlowframTk.this);
+            }
+         });
 
       incStartupProgress(texM, preambleItem);
 
@@ -3010,11 +3151,19 @@ public class FlowframTk extends JFrame
          {
             public void doAction(FlowframTkAction action, ActionEvent evt)
             {
-               flfWizard.display(action.getFrame());
+               flfWizard.get().display(action.getFrame());
             }
          });
 
-      flfWizard = new FlowFrameWizard(this);
+      flfWizard = addLazyComponent(
+         new LazyComponent<FlowFrameWizard>("flfWizard",
+           invoker.getStartupTimer())
+         {
+            protected FlowFrameWizard create()
+            {
+               return new FlowFrameWizard(FlowframTk.this);
+            }
+         });
 
       incStartupProgress(texM, flowframeM);
 
@@ -3278,15 +3427,25 @@ public class FlowframTk extends JFrame
          {
             public void doAction(FlowframTkAction action, ActionEvent evt)
             {
-               styleChooserBox.display();
+               styleChooserBox.get().display();
             }
          });
 
-      styleChooserBox = new StyleSelector(this);
+      styleChooserBox = addLazyComponent(
+         new LazyComponent<StyleSelector>("styleChooserBox",
+           invoker.getStartupTimer())
+         {
+            protected StyleSelector create()
+            {
+               StyleSelector selector = new StyleSelector(FlowframTk.this);
 
-      // set style settings
+               // set style settings
 
-      styleChooserBox.set(appSettings);
+               selector.set(getSettings());
+
+               return selector;
+            }
+         });
 
       incStartupProgress(settingsM, stylesItem);
 
@@ -3671,11 +3830,19 @@ public class FlowframTk extends JFrame
          {
             public void doAction(FlowframTkAction action, ActionEvent evt)
             {
-               configDialog.display();
+               configDialog.get().display();
             }
          });
 
-      configDialog = new ConfigSettingsDialog(this, appSelector);
+      configDialog = addLazyComponent(
+         new LazyComponent<ConfigSettingsDialog>("configDialog",
+           invoker.getStartupTimer())
+         {
+            protected ConfigSettingsDialog create()
+            {
+               return new ConfigSettingsDialog(FlowframTk.this, appSelector);
+            }
+         });
 
       incStartupProgress(settingsM, configSettingsItem);
 
@@ -3687,11 +3854,19 @@ public class FlowframTk extends JFrame
          {
             public void doAction(FlowframTkAction action, ActionEvent evt)
             {
-               configTeXDialog.display(action.getFrame());
+               configTeXDialog.get().display(action.getFrame());
             }
          });
 
-      configTeXDialog = new ConfigTeXSettingsDialog(this);
+      configTeXDialog = addLazyComponent(
+         new LazyComponent<ConfigTeXSettingsDialog>("configTeXDialog",
+           invoker.getStartupTimer())
+         {
+            protected ConfigTeXSettingsDialog create()
+            {
+               return new ConfigTeXSettingsDialog(FlowframTk.this);
+            }
+         });
 
       incStartupProgress(settingsM, configTeXSettingsItem);
 
@@ -3703,11 +3878,19 @@ public class FlowframTk extends JFrame
          {
             public void doAction(FlowframTkAction action, ActionEvent evt)
             {
-               configUIDialog.display();
+               configUIDialog.get().display();
             }
          });
 
-      configUIDialog = new ConfigUISettingsDialog(this);
+      configUIDialog = addLazyComponent(
+         new LazyComponent<ConfigUISettingsDialog>("configUIDialog",
+           invoker.getStartupTimer())
+         {
+            protected ConfigUISettingsDialog create()
+            {
+               return new ConfigUISettingsDialog(FlowframTk.this);
+            }
+         });
 
       incStartupProgress(settingsM, configSettingsItem);
 
@@ -3928,6 +4111,52 @@ public class FlowframTk extends JFrame
          debugM.add(revalidateItem);
 
          incStartupProgress(debugM, revalidateItem);
+
+         FlowframTkAction renderOverlay = new FlowframTkAction(this,
+            "renderoverlay",
+            new FlowframTkActionListener()
+            {
+               public void doAction(FlowframTkAction action, ActionEvent evt)
+               {
+                  JDRFrame frame = getCurrentFrame();
+
+                  if (frame != null)
+                  {
+                     JDRCanvas canvas = frame.getCanvas();
+
+                     canvas.setRenderOverlayShown(!canvas.isRenderOverlayShown());
+                  }
+               }
+            },
+            "menu.debug.renderoverlay");
+ 
+         addAppAction(renderOverlay);
+
+         FlowframTkAction renderStats = new FlowframTkAction(this,
+            "renderstats",
+            new FlowframTkActionListener()
+            {
+               public void doAction(FlowframTkAction action, ActionEvent evt)
+               {
+                  debugMessage("Writing render statistics");
+                  writeRenderStatistics();
+               }
+            },
+            "menu.debug.renderstats");
+ 
+         addAppAction(renderStats);
+
+         JMenuItem renderOverlayItem = renderOverlay.createMenuItem(
+            "menu.debug.renderoverlay", null);
+         debugM.add(renderOverlayItem);
+
+         incStartupProgress(debugM, renderOverlayItem);
+
+         JMenuItem renderStatsItem = renderStats.createMenuItem(
+            "menu.debug.renderstats", null);
+         debugM.add(renderStatsItem);
+
+         incStartupProgress(debugM, renderStatsItem);
       }
       else
       {
@@ -4188,18 +4417,18 @@ public class FlowframTk extends JFrame
 
    public String displayTeXEditorDialog(String text)
    {
-      return texEditorDialog.display(text);
+      return texEditorDialog.get().display(text);
    }
 
    public void displayDefaultPreamble(JDRFrame frame)
    {
-      configTeXDialog.display(frame == null ? getCurrentFrame() : frame,
+      configTeXDialog.get().display(frame == null ? getCurrentFrame() : frame,
          ConfigTeXSettingsDialog.PREAMBLE_TAB);
    }
 
    public void displayTeXEditorUIDialog()
    {
-      texEditorUIDialog.display();
+      texEditorUIDialog.get().display();
    }
 
    public int getTeXEditorWidth()
@@ -4265,7 +4494,13 @@ public class FlowframTk extends JFrame
 
    public void updateTeXEditorStyles()
    {
-      texEditorDialog.updateStyles(getSettings());
+      // The style is set from the settings when the dialog is
+      // created, so only an existing dialog needs updating.
+
+      if (texEditorDialog.isCreated())
+      {
+         texEditorDialog.get().updateStyles(getSettings());
+      }
       editTextBox.updateStyles(getSettings());
 
       JInternalFrame[] frames = theDesktop.getAllFrames();
@@ -4463,39 +4698,58 @@ public class FlowframTk extends JFrame
    {
       if (vectorizeBitmapDialog != null)
       {
-         vectorizeBitmapDialog.display();
+         vectorizeBitmapDialog.get().display();
       }
    }
 
+   /**
+    * Gets the vectorize bitmap dialog if it has been created.
+    * @return the dialog or null if vectorizing isn't supported or
+    * the dialog hasn't been used yet
+    */
+   private VectorizeBitmapDialog getVectorizeBitmapDialogIfCreated()
+   {
+      return vectorizeBitmapDialog == null ? null
+           : vectorizeBitmapDialog.getIfCreated();
+   }
+
    public void repaintVectorizeBitmapDialog()
    {
-      if (vectorizeBitmapDialog != null && vectorizeBitmapDialog.isVisible())
+      VectorizeBitmapDialog dialog = getVectorizeBitmapDialogIfCreated();
+
+      if (dialog != null && dialog.isVisible())
       {
-         vectorizeBitmapDialog.repaint();
+         dialog.repaint();
       }
    }
 
    public boolean isVectorizeBitmapInProgress()
    {
-      return vectorizeBitmapDialog.getBitmap() != null;
+      VectorizeBitmapDialog dialog = getVectorizeBitmapDialogIfCreated();
+
+      return dialog != null && dialog.getBitmap() != null;
    }
 
    public boolean isVectorizeBitmapInProgress(JDRFrame frame)
    {
-      return vectorizeBitmapDialog.getBitmap() != null
-          && (frame == null || vectorizeBitmapDialog.getBitmapFrame() == frame);
+      VectorizeBitmapDialog dialog = getVectorizeBitmapDialogIfCreated();
+
+      return dialog != null && dialog.getBitmap() != null
+          && (frame == null || dialog.getBitmapFrame() == frame);
    }
 
    public boolean closeVectorizeBitmap(JDRFrame frame)
    {
-      if (vectorizeBitmapDialog == null)
+      VectorizeBitmapDialog dialog = getVectorizeBitmapDialogIfCreated();
+
+      if (dialog == null)
       {
          return true;
       }
 
       if (frame == null)
       {
-         frame = vectorizeBitmapDialog.getBitmapFrame();
+         frame = dialog.getBitmapFrame();
       }
 
       if (isVectorizeBitmapInProgress(frame))
@@ -4503,16 +4757,16 @@ public class FlowframTk extends JFrame
          if (getResources().confirm(this,
           getResources().getMessage(
             "message.vectorize_in_progress.confirm_close",
-            frame.getFilename(), vectorizeBitmapDialog.getBitmap().getName()),
+            frame.getFilename(), dialog.getBitmap().getName()),
             JOptionPane.YES_NO_OPTION)
             != JOptionPane.YES_OPTION)
          {
-            vectorizeBitmapDialog.redisplay();
+            dialog.redisplay();
 
             return false;
          }
 
-         vectorizeBitmapDialog.cancel(false);
+         dialog.cancel(false);
       }
 
       return true;
@@ -4606,22 +4860,22 @@ public class FlowframTk extends JFrame
 
    public void displayStartMarkerChooser()
    {
-      startArrowChooserBox.initialise();
+      startArrowChooserBox.get().initialise();
    }
 
    public void displayMidMarkerChooser()
    {
-      midArrowChooserBox.initialise();
+      midArrowChooserBox.get().initialise();
    }
 
    public void displayEndMarkerChooser()
    {
-      endArrowChooserBox.initialise();
+      endArrowChooserBox.get().initialise();
    }
 
    public void displayAllMarkerChooser()
    {
-      allMarkersChooserBox.initialise();
+      allMarkersChooserBox.get().initialise();
    }
 
    public void internalFrameClosing(InternalFrameEvent e)
@@ -4878,7 +5132,7 @@ public class FlowframTk extends JFrame
 
    public CharacterSelector getCharacterSelector()
    {
-      return characterSelector;
+      return characterSelector.get();
    }
 
    public void setSymbolText(String text)
@@ -5629,6 +5883,29 @@ public class FlowframTk extends JFrame
       }
    }
 
+   /**
+    * Gets the cache used for exports that require external
+    * processes. The cache is stored in the exportcache
+    * subdirectory of the configuration directory.
+    * @return the cache or null if there's no configuration
+    * directory
+    */
+   public synchronized ExportCache getExportCache()
+   {
+      if (exportCache == null)
+      {
+         String usersettings = invoker.getConfigDirName();
+
+         if (usersettings != null)
+         {
+            exportCache = new ExportCache(
+              new File(usersettings, "exportcache"));
+         }
+      }
+
+      return exportCache;
+   }
+
    public CanvasGraphics getDefaultCanvasGraphics()
    {
       return getSettings().getCanvasGraphics();
@@ -5644,7 +5921,7 @@ public class FlowframTk extends JFrame
 
    public String[] getFontFamilies()
    {
-      return availableFontFamilies;
+      return FontCatalogue.getFamilies();
    }
 
    public int initSettings()
@@ -6503,7 +6780,7 @@ public class FlowframTk extends JFrame
 
    private Font requestNewFontFamily()
    {
-      JComboBox<String> box = new JComboBox<String>(availableFontFamilies);
+      JComboBox<String> box = new JComboBox<String>(getFontFamilies());
 
       JOptionPane.showMessageDialog(this,
          new Object[]{
@@ -6519,7 +6796,10 @@ public class FlowframTk extends JFrame
       getSettings().setFontShape(JDRFont.SHAPE_UPRIGHT);
       getSettings().setFontSeries(JDRFont.SERIES_MEDIUM);
 
-      styleChooserBox.setFontName(getSettings().fontFamily);
+      if (styleChooserBox.isCreated())
+      {
+         styleChooserBox.get().setFontName(getSettings().fontFamily);
+      }
 
       return new Font(getCurrentFontFamily(),
          getCurrentFontWeight(), 
@@ -7736,10 +8016,22 @@ public class FlowframTk extends JFrame
          out.println(lineWidthChooserBox.info());
          out.println(dashPatternChooserBox.info());
          out.println(joinStyleChooserBox.info());
-         out.println(startArrowChooserBox.info());
-         out.println(midArrowChooserBox.info());
-         out.println(endArrowChooserBox.info());
-         out.println(allMarkersChooserBox.info());
+         if (startArrowChooserBox.isCreated())
+         {
+            out.println(startArrowChooserBox.get().info());
+         }
+         if (midArrowChooserBox.isCreated())
+         {
+            out.println(midArrowChooserBox.get().info());
+         }
+         if (endArrowChooserBox.isCreated())
+         {
+            out.println(endArrowChooserBox.get().info());
+         }
+         if (allMarkersChooserBox.isCreated())
+         {
+            out.println(allMarkersChooserBox.get().info());
+         }
          out.println(editTextBox.info());
          out.println(textPaintChooserBox.info());
          out.println(outlineFillPaintChooserBox.info());
@@ -7751,9 +8043,18 @@ public class FlowframTk extends JFrame
          out.println(fontAnchorChooserBox.info());
          out.println(fontHAnchorChooserBox.info());
          out.println(fontVAnchorChooserBox.info());
-         out.println(styleChooserBox.info());
-         out.println(configDialog.info());
-         out.println(configTeXDialog.info());
+         if (styleChooserBox.isCreated())
+         {
+            out.println(styleChooserBox.get().info());
+         }
+         if (configDialog.isCreated())
+         {
+            out.println(configDialog.get().info());
+         }
+         if (configTeXDialog.isCreated())
+         {
+            out.println(configTeXDialog.get().info());
+         }
          out.println(rotateDB.info());
          out.println(scaleDB.info());
          out.println(shearDB.info());
@@ -7773,6 +8074,78 @@ public class FlowframTk extends JFrame
       }
    }
 
+   /**
+    * Writes the render-time statistics for all open images to
+    * renderstats.json in the configuration directory. Statistics
+    * are only recorded in debug mode.
+    */
+   public void writeRenderStatistics()
+   {
+      String usersettings = invoker.getConfigDirName();
+
+      if (usersettings == null)
+      {
+         getResources().error(null, 
+            "Can't write render statistics - no configuration directory");
+         return;
+      }
+
+      File file = new File(usersettings, "renderstats.json");
+
+      JInternalFrame[] allFrames = theDesktop.getAllFrames();
+
+      PrintWriter out = null;
+
+      try
+      {
+         out = new PrintWriter(new FileWriter(file));
+
+         out.println("[");
+
+         for (int i = 0; i < allFrames.length; i++)
+         {
+            JDRFrame f = (JDRFrame)allFrames[i];
+
+            RenderStatistics stats = f.getCanvas().getRenderStatistics();
+
+            out.format("{\"title\": \"%s\", \"statistics\": ",
+              RenderStatistics.escapeJSON(f.getTitle()));
+
+            if (stats == null)
+            {
+               out.print("null");
+            }
+            else
+            {
+               stats.writeJSON(out);
+            }
+
+            out.println(i < allFrames.length-1 ? "}," : "}");
+         }
+
+         out.println("]");
+
+         out.close();
+         out = null;
+
+         JOptionPane.showMessageDialog(null,
+         "Render statistics written to '"+file.getAbsolutePath()+"'",
+         "Render Statistics",
+         JOptionPane.INFORMATION_MESSAGE);
+      }
+      catch (IOException e)
+      {
+         getResources().error(this, e);
+      }
+      finally
+      {
+         if (out != null)
+         {
+            out.close();
+         }
+      }
+   }
+
    public void objectInfo()
    {
       JDRFrame frame = (JDRFrame)theDesktop.getSelectedFrame();
@@ -7894,10 +8267,10 @@ public class FlowframTk extends JFrame
    private LineWidthSelector lineWidthChooserBox;
    private DashPatternSelector dashPatternChooserBox;
    private JoinStyleSelector joinStyleChooserBox;
-   private ArrowStyleSelector startArrowChooserBox;
-   private ArrowStyleSelector midArrowChooserBox;
-   private ArrowStyleSelector endArrowChooserBox;
-   private ArrowStyleSelector allMarkersChooserBox;
+   private LazyComponent<ArrowStyleSelector> startArrowChooserBox;
+   private LazyComponent<ArrowStyleSelector> midArrowChooserBox;
+   private LazyComponent<ArrowStyleSelector> endArrowChooserBox;
+   private LazyComponent<ArrowStyleSelector> allMarkersChooserBox;
    private TextSelector editTextBox;
    private TextPaintSelector textPaintChooserBox;
    private FontSelector textStyleChooserBox;
@@ -7909,18 +8282,18 @@ public class FlowframTk extends JFrame
    private FontHAnchorSelector fontHAnchorChooserBox;
    private FontVAnchorSelector fontVAnchorChooserBox;
    private BitmapProperties bitmapPropChooserBox;
-   private StyleSelector styleChooserBox;
+   private LazyComponent<StyleSelector> styleChooserBox;
    private GridSettings gridSettingsChooserBox;
    private ZoomSettings zoomSettingsChooserBox;
-   private ConfigSettingsDialog configDialog;
-   private ConfigTeXSettingsDialog configTeXDialog;
-   private ConfigUISettingsDialog configUIDialog;
+   private LazyComponent<ConfigSettingsDialog> configDialog;
+   private LazyComponent<ConfigTeXSettingsDialog> configTeXDialog;
+   private LazyComponent<ConfigUISettingsDialog> configUIDialog;
    private RotateDialogBox rotateDB;
    private ScaleDialogBox scaleDB;
    private ShearDialogBox shearDB;
    private FLFSelector flfSelector;
    private FLFSetTypeblock setTypeblockSelector;
-   private FlowFrameWizard flfWizard;
+   private LazyComponent<FlowFrameWizard> flfWizard;
    private DiscardDialogBox discardDB;
    private GoToDialogBox gotoDialog;
    private MoveByDialogBox moveByDialog;
@@ -7932,14 +8305,32 @@ public class FlowframTk extends JFrame
    private PaperDialogBox paperDialog;
    private SetTransformDialogBox textMatrixDialog;
    private PatternDialogBox patternBox;
-   private VectorizeBitmapDialog vectorizeBitmapDialog;
+   private LazyComponent<VectorizeBitmapDialog> vectorizeBitmapDialog;
    private ConvertToPolygonDialog convertToPolygonDialog;
    private ClipDialog clipDialog;
-   private CreatePathFromSvgDialog createPathFromSvgDialog;
+   private LazyComponent<CreatePathFromSvgDialog> createPathFromSvgDialog;
    private FadeDialogBox fadeDialog;
-   private TeXEditorDialog texEditorDialog;
-   private TeXEditorUIDialog texEditorUIDialog;
-   private CharacterSelector characterSelector;
+   private LazyComponent<TeXEditorDialog> texEditorDialog;
+   private LazyComponent<TeXEditorUIDialog> texEditorUIDialog;
+   private LazyComponent<CharacterSelector> characterSelector;
+
+   private Vector<LazyComponent<?>> lazyComponents
+     = new Vector<LazyComponent<?>>();
+   private int warmUpIndex = 0;
+
+   /**
+    * Delay (in milliseconds) after the main window is visible
+    * before unused dialogs start to be constructed.
+    */
+   private static final int WARM_UP_INITIAL_DELAY = 1000;
+
+   /**
+    * Delay (in milliseconds) between the construction of each unused
+    * dialog.
+    */
+   private static final int WARM_UP_DELAY = 50;
+
+   private static final int MAX_STARTUP_TIMES = 20;
    private SegmentInfoDialog segmentInfoDialog;
 
    // file choosers
@@ -8083,12 +8474,11 @@ public class FlowframTk extends JFrame
    private boolean activateFrameUndoRedo=false;
    private boolean iconifyFrameUndoRedo=false;
 
-   // available fonts
-   private String[] availableFontFamilies;
-
    // printer settings
    private HashPrintRequestAttributeSet printRequestAttributeSet;
 
+   private ExportCache exportCache = null;
+
    public JDRGuiMessage messageSystem;
 
    public static final int MAX_RERUN = 6;
@@ -52,6 +52,7 @@ public class FlowframTkInvoker
    public FlowframTkInvoker(String[] args)
      throws IOException,URISyntaxException,InvalidFormatException
    {
+      this.startupTimer = new StartupTimer();
       this.args = args;
       this.resources = new JDRResources(APP_NAME);
       this.resources.initialise();
@@ -1760,6 +1761,14 @@ public class FlowframTkInvoker
                {
                   exportSettings.pngUseAlpha = parseBoolean(value, line);
                }
+               else if (key.equals("eps_shared_resources"))
+               {
+                  exportSettings.epsSharedResources = parseBoolean(value, line);
+               }
+               else if (key.equals("tex_parallel_export"))
+               {
+                  exportSettings.parallelTeXExport = parseBoolean(value, line);
+               }
                else if (key.equals("png_encap")) // old version
                {
                   if (parseBoolean(value, line))
@@ -2497,6 +2506,10 @@ public class FlowframTkInvoker
       out.println("srcfilecomment="+(exportSettings.writeSrcFilename ? 1 : 0));
       out.println("datecomment="+(exportSettings.writeDateComment ? 1 : 0));
       out.println("png_alpha="+(exportSettings.pngUseAlpha ? 1 : 0));
+      out.println("eps_shared_resources="
+        +(exportSettings.epsSharedResources ? 1 : 0));
+      out.println("tex_parallel_export="
+        +(exportSettings.parallelTeXExport ? 1 : 0));
       out.println("textualshadingexport="
         + exportSettings.textualShading);
       out.println("textpathoutlineexport="
@@ -3322,6 +3335,8 @@ public class FlowframTkInvoker
 
    public void incStartupProgress(String text)
    {
+      startupTimer.mark(text);
+
       try
       {
         startup.incProgress(text);
@@ -3331,6 +3346,11 @@ public class FlowframTkInvoker
       }
    }
 
+   public StartupTimer getStartupTimer()
+   {
+      return startupTimer;
+   }
+
    public void setStartupDeterminate(int n)
    {
       try
@@ -3874,6 +3894,10 @@ public class FlowframTkInvoker
    {
       final String[] invokerArgs = args;
 
+      // find the available fonts while the GUI is being set up
+
+      FontCatalogue.warmUp();
+
       SwingUtilities.invokeLater(new Runnable()
       {
          public void run()
@@ -3948,6 +3972,8 @@ public class FlowframTkInvoker
 
    private StartupProgress startup=null;
 
+   private StartupTimer startupTimer;
+
    private JDRResources resources;
 }
 
@@ -91,6 +91,40 @@ public class JDRCanvas extends JPanel
       cg.setComponent(this);
       paths = new JDRGroup(cg);
 
+      dirtyRegion = new DirtyRegion(this);
+
+      currentPathListener = new JDRPathChangeListener()
+      {
+         public void pathChanged(JDRPathChangeEvent evt)
+         {
+            // Only the new or modified segment needs redrawing
+            // rather than the entire canvas.
+
+            JDRPathSegment segment = evt.getOldSegment();
+
+            if (segment != null)
+            {
+               addDirtyRegion(segment.getStorageControlBBox());
+            }
+
+            segment = evt.getNewSegment();
+
+            if (segment != null)
+            {
+               addDirtyRegion(segment.getStorageControlBBox());
+            }
+            else if (evt.getIndex() == -1)
+            {
+               addDirtyRegion(evt.getPath().getStorageControlBBox());
+            }
+         }
+      };
+
+      if (getResources().debugMode)
+      {
+         renderStatistics = new RenderStatistics();
+      }
+
       setBackground(Color.white);
       mouse = new Point2D.Double(0,0);
 
@@ -4459,6 +4493,7 @@ public class JDRCanvas extends JPanel
                                          currentFillPaint,
                                          (JDRBasicStroke)currentStroke.clone());
                   frame_.disableUndoRedo();
+                  currentPath.addPathChangeListener(currentPathListener);
                }
 
                currentSegment = new JDRLine(getCanvasGraphics(),
@@ -4480,6 +4515,7 @@ public class JDRCanvas extends JPanel
                                          currentFillPaint,
                                          (JDRBasicStroke)currentStroke.clone());
                   frame_.disableUndoRedo();
+                  currentPath.addPathChangeListener(currentPathListener);
                }
                currentSegment = new JDRBezier(getCanvasGraphics(), 
                                               currentPos,
@@ -4842,7 +4878,7 @@ public class JDRCanvas extends JPanel
 
       setBackgroundImage(true);
 
-      repaint();
+      markAllDirty();
    }
 
    public void dragEnter(DropTargetDragEvent dtde)
@@ -6424,6 +6460,8 @@ public class JDRCanvas extends JPanel
 
    protected void setSelectedStroke(JDRBasicStroke s)
    {
+      s = getCanvasGraphics().getStylePool().intern(s);
+
       JDRCanvasCompoundEdit ce = new JDRCanvasCompoundEdit(this);
 
       boolean flag = false;
@@ -7247,6 +7285,8 @@ public class JDRCanvas extends JPanel
 
    public void setSelectedLinePaint(JDRPaint paint)
    {
+      paint = getCanvasGraphics().getStylePool().intern(paint);
+
       JDRCanvasCompoundEdit ce = new JDRCanvasCompoundEdit(this);
 
       boolean flag = false;
@@ -7267,6 +7307,8 @@ public class JDRCanvas extends JPanel
 
    public void setSelectedTextPaint(JDRPaint paint)
    {
+      paint = getCanvasGraphics().getStylePool().intern(paint);
+
       JDRCanvasCompoundEdit ce = new JDRCanvasCompoundEdit(this);
 
       boolean flag = false;
@@ -7332,6 +7374,8 @@ public class JDRCanvas extends JPanel
 
    public void setSelectedShapeFillPaint(JDRPaint paint)
    {
+      paint = getCanvasGraphics().getStylePool().intern(paint);
+
       JDRCanvasCompoundEdit ce = new JDRCanvasCompoundEdit(this);
 
       boolean flag = false;
@@ -9128,6 +9172,7 @@ public class JDRCanvas extends JPanel
       {
          JDRCompleteObject object = (JDRCompleteObject)grp.get(i).clone();
          object.applyCanvasGraphics(cg);
+         object.internStyles(cg.getStylePool());
 
          object.setSelected(true);
 
@@ -9179,6 +9224,8 @@ public class JDRCanvas extends JPanel
 
       frame_.getLaTeXCodeEditor().setLaTeXCode(
         preamble, midPreamble, endPreamble, docEnv, magicComments);
+
+      markAllDirty();
    }
 
    public void updateBounds()
@@ -9827,10 +9874,18 @@ public class JDRCanvas extends JPanel
    {
       if (currentPath == null) return;
 
+      currentPath.removePathChangeListener(currentPathListener);
+
+      addDirtyRegion(currentPath.getStorageControlBBox());
+
+      if (currentSegment != null)
+      {
+         addDirtyRegion(currentSegment.getStorageControlBBox());
+      }
+
       currentPath    = null;
       currentSegment = null;
       anchor         = null;
-      repaint();
       getApplication().updateActionButtons(false);
       frame_.refreshUndoRedo();
    }
@@ -9839,6 +9894,11 @@ public class JDRCanvas extends JPanel
    {
       if (currentPath == null) return;
 
+      // the path is about to be committed (or abandoned) so its
+      // changes no longer need to be tracked
+
+      currentPath.removePathChangeListener(currentPathListener);
+
       int tool = frame_.currentTool();
 
       JDRPaint currentLinePaint = frame_.getCurrentLinePaint();
@@ -10034,7 +10094,7 @@ public class JDRCanvas extends JPanel
          // obtain printer job
          PrinterJob printJob = PrinterJob.getPrinterJob();
 
-         printJob.setPrintable(this);
+         printJob.setPrintable(new PrintSpooler(this));
 
          try
          {
@@ -10134,7 +10194,11 @@ public class JDRCanvas extends JPanel
 
    public int getNumberOfHiddenObjects()
    {
-      if (paths == null)
+      // All objects are visible when all pages are shown, so
+      // there's no need to check each object (this is called every
+      // time the image is modified).
+
+      if (paths == null || displayPage == PAGES_ALL)
       {
          return 0;
       }
@@ -10193,6 +10257,54 @@ public class JDRCanvas extends JPanel
       return frame_.getRenderingHints();
    }
 
+   /**
+    * Adds an area to the region to be repainted. Requests made
+    * while handling the same event are merged and only the
+    * affected area is repainted.
+    * @param rect the area in component co-ordinates
+    * @param shift true if the area needs to be shifted by the
+    * component origin
+    */
+   public void addDirtyRegion(Rectangle rect, boolean shift)
+   {
+      if (shift)
+      {
+         CanvasGraphics cg = getCanvasGraphics();
+
+         rect = new Rectangle(
+           (int)(rect.getX() + cg.getComponentOriginX()),
+           (int)(rect.getY() + cg.getComponentOriginY()),
+           rect.width, rect.height);
+      }
+
+      dirtyRegion.add(rect);
+   }
+
+   /**
+    * Marks the entire canvas as needing to be repainted. This is
+    * used where every object may be affected (such as a new image,
+    * a different display page or reloaded bitmaps). Any areas
+    * already added while handling the same event are merged into
+    * the single repaint request.
+    */
+   public void markAllDirty()
+   {
+      dirtyRegion.addAll();
+   }
+
+   /**
+    * Adds the area covered by the given storage bounding box to the
+    * region to be repainted.
+    * @param box the bounding box in storage units (may be null)
+    */
+   public void addDirtyRegion(BBox box)
+   {
+      if (box != null)
+      {
+         addDirtyRegion(box.getComponentRectangle(), true);
+      }
+   }
+
    public void repaint(Rectangle rect, boolean shift)
    {
       if (shift)
@@ -10238,9 +10350,18 @@ public class JDRCanvas extends JPanel
          return;
       }
 
+      long paintStartTime = 0L;
+
+      if (renderStatistics != null)
+      {
+         paintStartTime = renderStatistics.start();
+         renderStatistics.beginPaint();
+      }
+
       CanvasGraphics cg = getCanvasGraphics();
       cg.setGraphicsDevice(g2);
       cg.setResetTransform(oldAf);
+      cg.setRenderStatistics(renderStatistics);
 
       RenderingHints oldHints = g2.getRenderingHints();
 
@@ -10346,6 +10467,12 @@ public class JDRCanvas extends JPanel
                 {
                    BBox box = object.getStorageBBox();
                    boolean isShowing;
+                   boolean isGestureTarget = isGestureTarget(object);
+
+                   if (isGestureTarget && box != null)
+                   {
+                      box = transformBBox(box, gestureTransform);
+                   }
 
                    if (box == null)
                    {
@@ -10378,7 +10505,24 @@ public class JDRCanvas extends JPanel
                          g2.setTransform(oddAf);
                       }
 
-                      object.draw(false);
+                      if (isGestureTarget)
+                      {
+                         // preview of the object being dragged
+                         g2.transform(gestureTransform);
+                      }
+
+                      if (renderStatistics == null)
+                      {
+                         object.draw(false);
+                      }
+                      else
+                      {
+                         long startTime = renderStatistics.start();
+
+                         object.draw(false);
+
+                         renderStatistics.objectDrawn(object, i, startTime);
+                      }
 
                       if (object.isSelected())
                       {
@@ -10400,6 +10544,10 @@ public class JDRCanvas extends JPanel
                          selectedBBoxes.add(box);
                       }
                    }
+                   else if (renderStatistics != null)
+                   {
+                      renderStatistics.objectCulled(object);
+                   }
                 }
              }
          }
@@ -10480,6 +10628,42 @@ public class JDRCanvas extends JPanel
       }
 
       g2.setTransform(oldAf);
+
+      // the canvas graphics is also used outside of painting (for
+      // example, to compute bounds) so don't record those times
+
+      cg.setRenderStatistics(null);
+
+      if (renderStatistics != null)
+      {
+         renderStatistics.endPaint(paintStartTime);
+
+         if (showRenderOverlay)
+         {
+            renderStatistics.drawOverlay(g2, getVisibleRect());
+         }
+      }
+   }
+
+   /**
+    * Gets the render-time statistics. These are only recorded
+    * in debug mode.
+    * @return the statistics or null if not in debug mode
+    */
+   public RenderStatistics getRenderStatistics()
+   {
+      return renderStatistics;
+   }
+
+   public boolean isRenderOverlayShown()
+   {
+      return showRenderOverlay;
+   }
+
+   public void setRenderOverlayShown(boolean show)
+   {
+      showRenderOverlay = show;
+      repaint();
    }
 
    public void deselectAll()
@@ -10813,6 +10997,8 @@ public class JDRCanvas extends JPanel
       mouseDown = false;
       int tool = frame_.currentTool();
 
+      finishGesture();
+
       if (checkForPopupTrigger(evt)) return;
 
       if (evt.isMetaDown() || evt.isAltDown()) return;
@@ -11011,9 +11197,11 @@ public class JDRCanvas extends JPanel
                   }
 
                   ce.end();
+
+                  // The selection edits add the old and new
+                  // selection bounds to the dirty region.
                   if (done) frame_.postEdit(ce);
                }
-               repaint();
             }
             anchor = (Point2D)currentPos.clone();
             selectedIndex=index;
@@ -11055,8 +11243,9 @@ public class JDRCanvas extends JPanel
              tool == ACTION_CLOSED_LINE) &&
              currentSegment != null)
          {
+            addDirtyRegion(currentSegment.getStorageControlBBox());
             currentSegment.setEnd(currentStoragePos);
-            repaint();
+            addDirtyRegion(currentSegment.getStorageControlBBox());
          }
          else if ((tool == ACTION_OPEN_CURVE ||
                   tool == ACTION_CLOSED_CURVE) &&
@@ -11064,6 +11253,8 @@ public class JDRCanvas extends JPanel
          {
             if (currentSegment instanceof JDRBezier)
             {
+               addDirtyRegion(currentSegment.getStorageControlBBox());
+
                JDRBezier seg;
                JDRPathSegment prev = currentPath.getLastSegment();
 
@@ -11085,14 +11276,18 @@ public class JDRCanvas extends JPanel
 
                      if (beforePrev instanceof JDRBezier)
                      {
+                        addDirtyRegion(beforePrev.getStorageControlBBox());
+
                         JDRBezier.makeContinuous((JDRBezier)beforePrev,
                                               (JDRBezier)prev);
+
+                        addDirtyRegion(beforePrev.getStorageControlBBox());
                      }
                   }
                }
 
                currentSegment = seg;
-               repaint();
+               addDirtyRegion(currentSegment.getStorageControlBBox());
             }
             else
             {
@@ -11115,17 +11310,27 @@ public class JDRCanvas extends JPanel
          }
          else if (tool == ACTION_RECTANGLE)
          {
+            if (currentPath != null)
+            {
+               addDirtyRegion(currentPath.getStorageControlBBox());
+            }
+
             currentPath = JDRPath.constructRectangle(
                getCanvasGraphics(), anchor, new Point2D.Double(x,y));
-            repaint();
+            addDirtyRegion(currentPath.getStorageControlBBox());
          }
          else if (tool == ACTION_ELLIPSE)
          {
+            if (currentPath != null)
+            {
+               addDirtyRegion(currentPath.getStorageControlBBox());
+            }
+
             double w = Math.abs(mouse.getX()-anchor.getX());
             double h = Math.abs(mouse.getY()-anchor.getY());
             currentPath = JDRPath.constructEllipse(
                getCanvasGraphics(), anchor, w, h);
-            repaint();
+            addDirtyRegion(currentPath.getStorageControlBBox());
          }
       }
 
@@ -11222,178 +11427,111 @@ public class JDRCanvas extends JPanel
                setCursor(moveCursor);
             }
 
-            BBox bbox = dragScaleObject.getDragBBox();
-            double minX = dragScaleAnchor.x;
-            double minY = dragScaleAnchor.y;
+            if (gestureTransform == null)
+            {
+               beginGesture(dragScaleObject);
+            }
 
-            double mouseX = mouse.getX();
-            double mouseY = mouse.getY();
+            double px = dragScaleAnchor.x;
+            double py = dragScaleAnchor.y;
 
-            FlowFrame flowframe = dragScaleObject.getFlowFrame();
-            FlowFrame typeblock = paths.getFlowFrame();
+            // The net transformation is computed from the position at
+            // the start of the drag rather than applied incrementally
+            // so the object itself isn't modified until the mouse is
+            // released.
 
-            if (flowframe != null
-             && getCanvasGraphics().isEvenPage())
-            {
-               minX += flowframe.getEvenXShift();
-               minY += flowframe.getEvenYShift();
+            double x0 = gestureStart.getX();
+            double y0 = gestureStart.getY();
 
-               if (typeblock != null)
-               {
-                  minX += typeblock.getEvenXShift();
-               }
-            }
-
-            double dx = x < minX ? mouseX-x : x-mouseX;
-            double dy = y < minY ? mouseY-y : y-mouseY;
+            AffineTransform af = null;
 
             switch (dragScaleHotspot)
             {
                case BBox.HOTSPOT_E :
                // scale horizontally
-                  if (dx == 0) break;
-                  double width = bbox.getWidth();
+                  double width = gestureBBox.getWidth();
                   if (width == 0) return;
-                  double newWidth = width + dx;
-                  double factor = newWidth/width;
+                  double factor = 1.0 + (x-x0)/width;
 
                   if (Math.abs(factor) >= 1e-6)
                   {
-                     if ((x < minX && mouseX > minX)
-                      || (x > minX && mouseX < minX))
-                     {
-                        // flipped
-                        factor = -factor;
-                     }
-
-                     UndoableEdit edit = new ScaleX(dragScaleObject,
-                        factor, dragScaleIndex, dragScaleAnchor);
-                     cpedit.addEdit(edit);
-                  }
-                  else
-                  {
-                     x = mouseX;
+                     af = getScaleInstance(px, py, factor, 1.0);
                   }
+
+                  gesturePresentationTag = "undo.scale_x";
                break;
                case BBox.HOTSPOT_S :
                // scale vertically
-                  if (dy == 0) break;
-                  double height = bbox.getHeight();
+                  double height = gestureBBox.getHeight();
                   if (height == 0) return;
-                  double newHeight = height + dy;
-                  factor = newHeight/height;
+                  factor = 1.0 + (y-y0)/height;
 
                   if (Math.abs(factor) >= 1e-6)
                   {
-                     if ((y < minY && mouseY > minY)
-                      || (y > minY && mouseY < minY))
-                     {
-                        // flipped
-                        factor = -factor;
-                     }
-
-                     UndoableEdit edit = new ScaleY(dragScaleObject,
-                        factor, dragScaleIndex, dragScaleAnchor);
-                     cpedit.addEdit(edit);
-                  }
-                  else
-                  {
-                     y = mouseY;
+                     af = getScaleInstance(px, py, 1.0, factor);
                   }
+
+                  gesturePresentationTag = "undo.scale_y";
                break;
                case BBox.HOTSPOT_SE :
                // scale in both directions
-                  if (dx == 0 && dy == 0) break;
-                  height = bbox.getHeight();
-                  width = bbox.getWidth();
+                  height = gestureBBox.getHeight();
+                  width = gestureBBox.getWidth();
                   if (height == 0 || width == 0) return;
-                  newHeight = height + dy;
-                  newWidth = width + dx;
-                  double factorY = newHeight/height;
-                  double factorX = newWidth/width;
+                  double factorX = 1.0 + (x-x0)/width;
+                  double factorY = 1.0 + (y-y0)/height;
 
                   if (Math.abs(factorY) >= 1e-6
                     && Math.abs(factorX) >= 1e-6)
                   {
-                     if ((y < minY && mouseY > minY)
-                      || (y > minY && mouseY < minY))
-                     {
-                        // flipped
-                        factorY = -factorY;
-                     }
-
-                     if ((x < minX && mouseX > minX)
-                      || (x > minX && mouseX < minX))
-                     {
-                        // flipped
-                        factorX = -factorX;
-                     }
-
-                     UndoableEdit edit = new Scale(dragScaleObject,
-                        factorX, factorY, dragScaleIndex,
-                        dragScaleAnchor);
-                     cpedit.addEdit(edit);
-                  }
-                  else
-                  {
-                     x = mouseX;
-                     y = mouseY;
+                     af = getScaleInstance(px, py, factorX, factorY);
                   }
+
+                  gesturePresentationTag = "undo.scale";
                break;
 
                case BBox.HOTSPOT_SW :
                // rotate
-               // (ax,ay) is vector from centre to old position
+               // (ax,ay) is vector from centre to start position
                // (bx,by) is vector from centre to new position
-               double ax = mouseX-dragScaleAnchor.x;
-               double ay = mouseY-dragScaleAnchor.y;
-               double bx = x - dragScaleAnchor.x;
-               double by = y - dragScaleAnchor.y;
+               double ax = x0 - px;
+               double ay = y0 - py;
+               double bx = x - px;
+               double by = y - py;
 
-               // compute angle
-
-               double norma = Math.sqrt(ax*ax+ay*ay);
-               double normb = Math.sqrt(bx*bx+by*by);
-
-               if (norma != 0 && normb != 0)
+               if ((ax != 0 || ay != 0) && (bx != 0 || by != 0))
                {
-                  double cosA = ax/norma;
-                  double cosB = bx/normb;
-
-                  double theta = Math.acos(cosA)-Math.acos(cosB);
-
-                  if (by > 0) theta = -theta;
+                  double theta = Math.atan2(by, bx) - Math.atan2(ay, ax);
 
-                  UndoableEdit edit = new Rotate(dragScaleObject,
-                     theta, dragScaleIndex, dragScaleAnchor);
-                  cpedit.addEdit(edit);
+                  af = AffineTransform.getRotateInstance(theta, px, py);
                }
+
+               gesturePresentationTag = "undo.rotate";
                break; 
                case BBox.HOTSPOT_NW :
                // shear horizontally
-               double sx = ((double)(x-mouseX))
-                         / ((double)mouseY);
-
-               if (sx != 0)
+               if (y0 != 0)
                {
-                  UndoableEdit edit = new Shear(dragScaleObject,
-                     sx, 0.0, dragScaleIndex, dragScaleAnchor);
-                  cpedit.addEdit(edit);
+                  af = getShearInstance(px, py, (x-x0)/y0, 0.0);
                }
+
+               gesturePresentationTag = "undo.shear";
                break;
                case BBox.HOTSPOT_NE :
                // shear vertically
-               double sy = ((double)(mouseY-y))
-                         / ((double)mouseX);
-
-               if (sy != 0)
+               if (x0 != 0)
                {
-                  UndoableEdit edit = new Shear(dragScaleObject,
-                     0.0, sy, dragScaleIndex, dragScaleAnchor);
-                  cpedit.addEdit(edit);
+                  af = getShearInstance(px, py, 0.0, (y0-y)/x0);
                }
+
+               gesturePresentationTag = "undo.shear";
                break;
             }
+
+            if (af != null)
+            {
+               updateGesture(af);
+            }
          }
          else if (frame_.isObjectDistorting() &&
              editedDistortion != null
@@ -11446,21 +11584,14 @@ public class JDRCanvas extends JPanel
                }
 
                dragBBox = null;
-               double shift_left = mouse.getX()-x;
-               double shift_up   = mouse.getY()-y;
 
-               for (int i = 0, n=paths.size(); i < n; i++)
+               if (gestureTransform == null)
                {
-                  JDRCompleteObject object = paths.get(i);
-
-                  if (object.isSelected())
-                  {
-                     UndoableEdit edit = new MoveObject(
-                        object, shift_left, shift_up);
-
-                     if (cpedit != null) cpedit.addEdit(edit);
-                  }
+                  beginGesture(null);
                }
+
+               updateGesture(AffineTransform.getTranslateInstance(
+                 x-gestureStart.getX(), y-gestureStart.getY()));
             }
             else if (anchor != null && dragBBox != null)
             {
@@ -11483,6 +11614,172 @@ public class JDRCanvas extends JPanel
       setStatusCoordsFromStorage(x, y);
    }
 
+   /**
+    * Starts a drag gesture. During the gesture the affected objects
+    * are drawn with the net gesture transformation applied to the
+    * graphics device. The objects aren't modified until the gesture
+    * is finished.
+    * @param object the object being scaled, rotated or sheared or
+    * null if all selected objects are being moved
+    */
+   private void beginGesture(JDRCompleteObject object)
+   {
+      gestureObject = object;
+      gestureStart = (Point2D)mouse.clone();
+      gestureTransform = new AffineTransform();
+      gesturePresentationTag = null;
+      gestureBBox = null;
+      gestureShifted = false;
+
+      CanvasGraphics cg = getCanvasGraphics();
+
+      for (int i = 0, n = paths.size(); i < n; i++)
+      {
+         JDRCompleteObject obj = paths.get(i);
+
+         if (isGestureTarget(obj))
+         {
+            BBox box = obj.getStorageBBox();
+
+            if (box != null)
+            {
+               if (gestureBBox == null)
+               {
+                  gestureBBox = box;
+               }
+               else
+               {
+                  gestureBBox.encompass(box);
+               }
+            }
+
+            if (obj.getFlowFrame() != null && cg.isEvenPage())
+            {
+               gestureShifted = true;
+            }
+         }
+      }
+
+      if (gestureBBox == null)
+      {
+         gestureBBox = new BBox(cg, 0, 0, 0, 0);
+      }
+   }
+
+   /**
+    * Updates the net transformation of the current gesture and
+    * repaints the affected area.
+    */
+   private void updateGesture(AffineTransform af)
+   {
+      if (gestureShifted)
+      {
+         gestureTransform = af;
+         repaint();
+         return;
+      }
+
+      Rectangle rect = transformBBox(gestureBBox, gestureTransform)
+         .getComponentRectangle();
+
+      gestureTransform = af;
+
+      rect.add(transformBBox(gestureBBox, gestureTransform)
+         .getComponentRectangle());
+
+      repaint(rect, true);
+   }
+
+   /**
+    * Finishes the current gesture (if any) by applying the net
+    * transformation to the affected objects as a single edit.
+    */
+   private void finishGesture()
+   {
+      if (gestureTransform == null) return;
+
+      AffineTransform af = gestureTransform;
+      JDRCompleteObject object = gestureObject;
+
+      gestureTransform = null;
+      gestureObject = null;
+      gestureStart = null;
+      gestureBBox = null;
+
+      if (af.isIdentity()) return;
+
+      if (cpedit == null)
+      {
+         cpedit = new JDRCanvasCompoundEdit(this);
+      }
+
+      if (object != null)
+      {
+         int index = paths.indexOf(object);
+
+         if (index != -1)
+         {
+            cpedit.addEdit(new TransformObject(object, index, af,
+              gesturePresentationTag));
+         }
+      }
+      else
+      {
+         double dx = af.getTranslateX();
+         double dy = af.getTranslateY();
+
+         for (int i = 0, n=paths.size(); i < n; i++)
+         {
+            JDRCompleteObject obj = paths.get(i);
+
+            if (obj.isSelected())
+            {
+               cpedit.addEdit(new MoveObject(obj, -dx, -dy));
+            }
+         }
+      }
+
+      repaint();
+   }
+
+   private boolean isGestureTarget(JDRCompleteObject object)
+   {
+      if (gestureTransform == null) return false;
+
+      return gestureObject == null ? object.isSelected()
+        : object == gestureObject;
+   }
+
+   private static BBox transformBBox(BBox box, AffineTransform af)
+   {
+      Rectangle2D bounds = af.createTransformedShape(
+        new Rectangle2D.Double(box.getMinX(), box.getMinY(),
+          box.getWidth(), box.getHeight())).getBounds2D();
+
+      return new BBox(box.getCanvasGraphics(), bounds);
+   }
+
+   private static AffineTransform getScaleInstance(double px, double py,
+     double factorX, double factorY)
+   {
+      AffineTransform af = AffineTransform.getTranslateInstance(px, py);
+      af.scale(factorX, factorY);
+      af.translate(-px, -py);
+
+      return af;
+   }
+
+   // left handed co-ordinate system (see JDRPoint.shear)
+   private static AffineTransform getShearInstance(double px, double py,
+     double factorX, double factorY)
+   {
+      AffineTransform af = AffineTransform.getTranslateInstance(px, py);
+      af.shear(-factorX, -factorY);
+      af.translate(-px, -py);
+
+      return af;
+   }
+
    public void gap()
    {
       if (currentSegment != null)
@@ -11491,7 +11788,7 @@ public class JDRCanvas extends JPanel
          currentSegment = new JDRSegment(oldSegment.getStart(),
                                          oldSegment.getEnd());
        
-         repaint();
+         addDirtyRegion(oldSegment.getStorageControlBBox());
       }
    }
 
@@ -13181,10 +13478,23 @@ public class JDRCanvas extends JPanel
             originY = backgroundImageY/bpToCompYScale;
          }
 
+         long backgroundStartTime = 0L;
+
+         if (renderStatistics != null)
+         {
+            backgroundStartTime = renderStatistics.start();
+         }
+
          Graphics2D g = backgroundImage.createGraphics();
 
+         // this may be called while painting the canvas, which has
+         // its own statistics setting
+
+         RenderStatistics oldRenderStatistics = cg.getRenderStatistics();
+
          cg.setGraphicsDevice(g);
          cg.setResetTransform(g.getTransform());
+         cg.setRenderStatistics(renderStatistics);
 
          try
          {
@@ -13245,7 +13555,18 @@ public class JDRCanvas extends JPanel
                    {
                       if (object != editedPath && object != editedDistortion)
                       {
-                         object.draw(false);
+                         if (renderStatistics == null)
+                         {
+                            object.draw(false);
+                         }
+                         else
+                         {
+                            long startTime = renderStatistics.start();
+
+                            object.draw(false);
+
+                            renderStatistics.objectDrawn(object, i, startTime);
+                         }
                       }
                    }
                }
@@ -13254,7 +13575,13 @@ public class JDRCanvas extends JPanel
          finally
          {
             cg.setGraphicsDevice(null);
+            cg.setRenderStatistics(oldRenderStatistics);
             g.dispose();
+
+            if (renderStatistics != null)
+            {
+               renderStatistics.backgroundRebuilt(backgroundStartTime);
+            }
          }
       }
       else
@@ -14957,12 +15284,8 @@ public class JDRCanvas extends JPanel
 
          index_ = indexArray[0];
 
-         newPath = list.get(0).exclusiveOr(list.get(1));
-
-         for (int i = 2; i < n; i++)
-         {
-            newPath = newPath.exclusiveOr(list.get(i));
-         }
+         newPath = new PathBooleanOperation(
+           PathBooleanOperation.Operation.XOR).apply(list);
 
          for (int i = n-1; i >= 0; i--)
          {
@@ -15058,12 +15381,8 @@ public class JDRCanvas extends JPanel
 
          index_ = indexArray[0];
 
-         newPath = list.get(0).intersect(list.get(1));
-
-         for (int i = 2; i < n; i++)
-         {
-            newPath = newPath.intersect(list.get(i));
-         }
+         newPath = new PathBooleanOperation(
+           PathBooleanOperation.Operation.INTERSECT).apply(list);
 
          for (int i = n-1; i >= 0; i--)
          {
@@ -15159,12 +15478,8 @@ public class JDRCanvas extends JPanel
 
          index_ = indexArray[0];
 
-         newPath = list.get(0).subtract(list.get(1));
-
-         for (int i = 2; i < n; i++)
-         {
-            newPath = newPath.subtract(list.get(i));
-         }
+         newPath = new PathBooleanOperation(
+           PathBooleanOperation.Operation.SUBTRACT).apply(list);
 
          for (int i = n-1; i >= 0; i--)
          {
@@ -15249,12 +15564,8 @@ public class JDRCanvas extends JPanel
 
          index_ = indexArray[0];
 
-         newPath = list.get(0).pathUnion(list.get(1));
-
-         for (int i = 2; i < n; i++)
-         {
-            newPath = newPath.pathUnion(list.get(i));
-         }
+         newPath = new PathBooleanOperation(
+           PathBooleanOperation.Operation.UNION).apply(list);
 
          for (int i = n-1; i >= 0; i--)
          {
@@ -19169,6 +19480,55 @@ public class JDRCanvas extends JPanel
       }
    }
 
+   class TransformObject extends CanvasUndoableEdit
+   {
+      private JDRCompleteObject object_, oldobject_;
+      private int index_;
+      private String presentationName_;
+
+      public TransformObject(JDRCompleteObject object, int index,
+        AffineTransform af, String presentationTag)
+      {
+         super(getFrame());
+
+         oldobject_ = object;
+         object_ = (JDRCompleteObject)object.clone();
+         index_ = index;
+         presentationName_ = getResources().getMessage(presentationTag);
+
+         object_.transform(af);
+         paths.set(index_, object_);
+
+         if (dragScaleObject == oldobject_) dragScaleObject = object_;
+
+         setRefreshBounds(oldobject_, object_);
+      }
+
+      public void redo() throws CannotRedoException
+      {
+         frame_.selectThisFrame();
+         paths.set(index_, object_);
+
+         repaintRegion();
+      }
+
+      public void undo() throws CannotUndoException
+      {
+         frame_.selectThisFrame();
+         paths.set(index_, oldobject_);
+
+         repaintRegion();
+      }
+
+      public boolean canUndo() {return true;}
+      public boolean canRedo() {return true;}
+
+      public String getPresentationName()
+      {
+         return presentationName_;
+      }
+   }
+
    class ConvertToPolygon extends CanvasUndoableEdit
    {
       private JDRShape object_, oldobject_;
@@ -20087,21 +20447,22 @@ public class JDRCanvas extends JPanel
    class SetLineWidth extends CanvasUndoableEdit
    {
       private JDRShape object_;
-      private JDRLength oldStyle_, newStyle_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetLineWidth(JDRShape object, JDRLength style)
       {
          super(getFrame());
 
          object_ = object;
-         oldStyle_ = object.getBasicStroke().getPenWidth();
-         newStyle_ = (JDRLength)style.clone();
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setPenWidth(style);
 
-         BBox box = getRefreshBounds(object);
+         BBox box = getRefreshBounds(object_);
 
-         object_.getBasicStroke().setPenWidth(style);
+         object_.setBasicStroke(newstroke_);
 
-         mergeRefreshBounds(object, box);
+         mergeRefreshBounds(object_, box);
 
          setRefreshBounds(box);
       }
@@ -20110,7 +20471,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setPenWidth(newStyle_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20119,7 +20480,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setPenWidth(oldStyle_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20136,19 +20497,20 @@ public class JDRCanvas extends JPanel
    class SetDashPattern extends CanvasUndoableEdit
    {
       private JDRShape object_;
-      private DashPattern oldStyle_, newStyle_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetDashPattern(JDRShape object, DashPattern style)
       {
          super(getFrame());
 
          object_ = object;
-         oldStyle_ = object.getBasicStroke().getDashPattern();
-         newStyle_ = style;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setDashPattern(style);
 
          BBox box = getRefreshBounds(object_);
 
-         object_.getBasicStroke().setDashPattern(style);
+         object_.setBasicStroke(newstroke_);
 
          mergeRefreshBounds(object_, box);
 
@@ -20159,7 +20521,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setDashPattern(newStyle_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20168,7 +20530,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setDashPattern(oldStyle_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20185,19 +20547,20 @@ public class JDRCanvas extends JPanel
    class SetCapStyle extends CanvasUndoableEdit
    {
       private JDRShape object_;
-      private int oldStyle_, newStyle_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetCapStyle(JDRShape object, int style)
       {
          super(getFrame());
 
          object_ = object;
-         oldStyle_ = object.getBasicStroke().getCapStyle();
-         newStyle_ = style;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setCapStyle(style);
 
          BBox box = getRefreshBounds(object_);
 
-         object_.getBasicStroke().setCapStyle(style);
+         object_.setBasicStroke(newstroke_);
 
          mergeRefreshBounds(object_, box);
 
@@ -20208,7 +20571,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setCapStyle(newStyle_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20217,7 +20580,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setCapStyle(oldStyle_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20234,31 +20597,31 @@ public class JDRCanvas extends JPanel
    class SetJoinStyle extends CanvasUndoableEdit
    {
       private JDRShape object_;
-      private int oldStyle_, newStyle_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetJoinStyle(JDRShape object, int style)
       {
          super(getFrame());
 
          object_ = object;
-         oldStyle_ = object.getBasicStroke().getJoinStyle();
-         newStyle_ = style;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setJoinStyle(style);
 
          BBox box = getRefreshBounds(object_);
 
-         object_.getBasicStroke().setJoinStyle(style);
+         object_.setBasicStroke(newstroke_);
 
          mergeRefreshBounds(object_, box);
-         setRefreshBounds(box);
 
-         repaintRegion();
+         setRefreshBounds(box);
       }
 
       public void redo() throws CannotRedoException
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setJoinStyle(newStyle_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20267,7 +20630,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setJoinStyle(oldStyle_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20284,21 +20647,23 @@ public class JDRCanvas extends JPanel
    class SetMitreLimit extends CanvasUndoableEdit
    {
       private JDRShape object_;
-      private double oldLimit_, newLimit_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetMitreLimit(JDRShape object, double limit)
       {
          super(getFrame());
 
          object_ = object;
-         oldLimit_ = object.getBasicStroke().getMitreLimit();
-         newLimit_ = limit;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setMitreLimit(limit);
 
          BBox box = getRefreshBounds(object_);
 
-         object_.getBasicStroke().setMitreLimit(limit);
+         object_.setBasicStroke(newstroke_);
 
          mergeRefreshBounds(object_, box);
+
          setRefreshBounds(box);
       }
 
@@ -20306,7 +20671,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setMitreLimit(newLimit_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20315,7 +20680,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         object_.getBasicStroke().setMitreLimit(oldLimit_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20331,23 +20696,23 @@ public class JDRCanvas extends JPanel
 
    class SetStartArrow extends CanvasUndoableEdit
    {
-      private JDRBasicStroke stroke;
-      private JDRMarker oldMarker_, newMarker_;
+      private JDRShape object_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetStartArrow(JDRShape object, JDRMarker marker)
       {
          super(getFrame());
 
-         stroke = object.getBasicStroke();
-
-         oldMarker_     = stroke.getStartArrow();
-         newMarker_     = (JDRMarker)marker.clone();
+         object_ = object;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setStartArrow((JDRMarker)marker.clone());
 
-         BBox box = getRefreshBounds(object);
+         BBox box = getRefreshBounds(object_);
 
-         stroke.setStartArrow(newMarker_);
+         object_.setBasicStroke(newstroke_);
 
-         mergeRefreshBounds(object, box);
+         mergeRefreshBounds(object_, box);
 
          setRefreshBounds(box);
       }
@@ -20356,7 +20721,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setStartArrow(newMarker_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20365,7 +20730,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setStartArrow(oldMarker_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20381,23 +20746,23 @@ public class JDRCanvas extends JPanel
 
    class SetMidArrow extends CanvasUndoableEdit
    {
-      private JDRBasicStroke stroke;
-      private JDRMarker oldMarker_, newMarker_;
+      private JDRShape object_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetMidArrow(JDRShape object, JDRMarker marker)
       {
          super(getFrame());
 
-         stroke = object.getBasicStroke();
-
-         oldMarker_     = stroke.getMidArrow();
-         newMarker_     = (JDRMarker)marker.clone();
+         object_ = object;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setMidArrow((JDRMarker)marker.clone());
 
-         BBox box = getRefreshBounds(object);
+         BBox box = getRefreshBounds(object_);
 
-         stroke.setMidArrow(newMarker_);
+         object_.setBasicStroke(newstroke_);
 
-         mergeRefreshBounds(object, box);
+         mergeRefreshBounds(object_, box);
 
          setRefreshBounds(box);
       }
@@ -20406,7 +20771,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setMidArrow(newMarker_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20415,7 +20780,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setMidArrow(oldMarker_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20431,23 +20796,23 @@ public class JDRCanvas extends JPanel
 
    class SetEndArrow extends CanvasUndoableEdit
    {
-      private JDRBasicStroke stroke;
-      private JDRMarker oldMarker_, newMarker_;
+      private JDRShape object_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetEndArrow(JDRShape object, JDRMarker marker)
       {
          super(getFrame());
 
-         stroke = object.getBasicStroke();
-
-         oldMarker_      = stroke.getEndArrow();
-         newMarker_      = (JDRMarker)marker.clone();
+         object_ = object;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setEndArrow((JDRMarker)marker.clone());
 
-         BBox box = getRefreshBounds(object);
+         BBox box = getRefreshBounds(object_);
 
-         stroke.setEndArrow(newMarker_);
+         object_.setBasicStroke(newstroke_);
 
-         mergeRefreshBounds(object, box);
+         mergeRefreshBounds(object_, box);
 
          setRefreshBounds(box);
       }
@@ -20456,7 +20821,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setEndArrow(newMarker_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20465,7 +20830,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setEndArrow(oldMarker_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20481,31 +20846,25 @@ public class JDRCanvas extends JPanel
 
    class SetMarkers extends CanvasUndoableEdit
    {
-      private JDRBasicStroke stroke;
-      private JDRMarker newStartMarker_, newMidMarker_, newEndMarker_;
-      private JDRMarker oldStartMarker_, oldMidMarker_, oldEndMarker_;
+      private JDRShape object_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetMarkers(JDRShape object, JDRMarker marker)
       {
          super(getFrame());
 
-         stroke = object.getBasicStroke();
-
-         oldStartMarker_ = stroke.getStartArrow();
-         oldMidMarker_   = stroke.getMidArrow();
-         oldEndMarker_   = stroke.getEndArrow();
-
-         newStartMarker_      = (JDRMarker)marker.clone();
-         newMidMarker_      = (JDRMarker)marker.clone();
-         newEndMarker_      = (JDRMarker)marker.clone();
+         object_ = object;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setStartArrow((JDRMarker)marker.clone());
+         newstroke_.setMidArrow((JDRMarker)marker.clone());
+         newstroke_.setEndArrow((JDRMarker)marker.clone());
 
-         BBox box = getRefreshBounds(object);
+         BBox box = getRefreshBounds(object_);
 
-         stroke.setStartArrow(newStartMarker_);
-         stroke.setMidArrow(newMidMarker_);
-         stroke.setEndArrow(newEndMarker_);
+         object_.setBasicStroke(newstroke_);
 
-         mergeRefreshBounds(object, box);
+         mergeRefreshBounds(object_, box);
 
          setRefreshBounds(box);
       }
@@ -20514,9 +20873,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setStartArrow(newStartMarker_);
-         stroke.setMidArrow(newMidMarker_);
-         stroke.setEndArrow(newEndMarker_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20525,9 +20882,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setStartArrow(oldStartMarker_);
-         stroke.setMidArrow(oldMidMarker_);
-         stroke.setEndArrow(oldEndMarker_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -20543,22 +20898,23 @@ public class JDRCanvas extends JPanel
 
    class SetWindingRule extends CanvasUndoableEdit
    {
-      private JDRBasicStroke stroke;
-      private int oldStyle_, newStyle_;
+      private JDRShape object_;
+      private JDRBasicStroke oldstroke_, newstroke_;
 
       public SetWindingRule(JDRShape object, int style)
       {
          super(getFrame());
 
-         stroke = object.getBasicStroke();
-         oldStyle_ = stroke.getWindingRule();
-         newStyle_ = style;
+         object_ = object;
+         oldstroke_ = object.getBasicStroke();
+         newstroke_ = (JDRBasicStroke)oldstroke_.clone();
+         newstroke_.setWindingRule(style);
 
-         BBox box = getRefreshBounds(object);
+         BBox box = getRefreshBounds(object_);
 
-         stroke.setWindingRule(style);
+         object_.setBasicStroke(newstroke_);
 
-         mergeRefreshBounds(object, box);
+         mergeRefreshBounds(object_, box);
 
          setRefreshBounds(box);
       }
@@ -20567,7 +20923,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setWindingRule(newStyle_);
+         object_.setBasicStroke(newstroke_);
 
          repaintRegion();
       }
@@ -20576,7 +20932,7 @@ public class JDRCanvas extends JPanel
       {
          frame_.selectThisFrame();
 
-         stroke.setWindingRule(oldStyle_);
+         object_.setBasicStroke(oldstroke_);
 
          repaintRegion();
       }
@@ -21821,7 +22177,7 @@ public class JDRCanvas extends JPanel
 
          updateEven();
          setBackgroundImage(true);
-         repaint();
+         markAllDirty();
       }
 
       public void redo() throws CannotRedoException
@@ -21832,7 +22188,7 @@ public class JDRCanvas extends JPanel
          updateEven();
 
          setBackgroundImage(true);
-         repaint();
+         markAllDirty();
       }
 
       public void undo() throws CannotUndoException
@@ -21843,7 +22199,7 @@ public class JDRCanvas extends JPanel
          updateEven();
 
          setBackgroundImage(true);
-         repaint();
+         markAllDirty();
       }
 
       private void updateEven()
@@ -22006,6 +22362,7 @@ public class JDRCanvas extends JPanel
             getApplication().setCursor(
                Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
             newImage.applyCanvasGraphics(newCanvasGraphics);
+            newImage.internStyles(newCanvasGraphics.getStylePool());
             getApplication().setStatusStorageUnit(unitId);
          }
          finally
@@ -22100,6 +22457,11 @@ public class JDRCanvas extends JPanel
          return;
       }
 
+      if (currentPath != null)
+      {
+         currentPath.removePathChangeListener(currentPathListener);
+      }
+
       currentPath=null;
       editedPath = null;
       currentSegment=null;
@@ -22107,6 +22469,8 @@ public class JDRCanvas extends JPanel
       editedDistortionIndex=-1;
       cpedit=null;
       anchor=null;
+      gestureTransform=null;
+      gestureObject=null;
       editedSegmentDash=null;
       scanshape=null;
       canvasCount = 0;
@@ -22171,6 +22535,7 @@ public class JDRCanvas extends JPanel
    private Point2D mouse;
    private JDRCanvasCompoundEdit cpedit=null;
    private JDRPath currentPath=null;
+   private JDRPathChangeListener currentPathListener;
    private JDRShape editedPath=null;
    private JDRSegment currentSegment=null;
    private JDRDistortShape editedDistortion = null;
@@ -22185,6 +22550,14 @@ public class JDRCanvas extends JPanel
    private int dragScaleIndex = -1;
    private boolean mouseDown=false;
 
+   // current drag gesture
+   private AffineTransform gestureTransform=null;
+   private JDRCompleteObject gestureObject=null;
+   private Point2D gestureStart=null;
+   private BBox gestureBBox=null;
+   private boolean gestureShifted=false;
+   private String gesturePresentationTag=null;
+
    private BasicStroke editedSegmentDash 
       = new BasicStroke(1.0f,
                         BasicStroke.CAP_BUTT,
@@ -22224,6 +22597,11 @@ public class JDRCanvas extends JPanel
    private volatile BufferedImage backgroundImage=null;
    private double backgroundImageX=0, backgroundImageY=0;
 
+   private RenderStatistics renderStatistics = null;
+
+   private DirtyRegion dirtyRegion;
+   private boolean showRenderOverlay = true;
+
    private Vector<CanvasAction> generalActionList;
    private Vector<CanvasAction> textConstructionActionList;
    private Vector<CanvasSelectAction> selectPathActionList;
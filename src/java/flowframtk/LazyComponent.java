@@ -0,0 +1,94 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.flowframtk;
+
+/**
+ * Holder for a component (such as a dialog) that isn't
+ * constructed until it's first needed. Swing components must be
+ * created on the event dispatch thread, so {@link #get()} should
+ * only be called on that thread. The time taken to construct the
+ * component is recorded by the startup timer, if provided.
+ */
+public abstract class LazyComponent<T>
+{
+   public LazyComponent(String name, StartupTimer timer)
+   {
+      this.name = name;
+      this.timer = timer;
+   }
+
+   /**
+    * Constructs the component. This is called at most once.
+    * @return the new component
+    */
+   protected abstract T create();
+
+   /**
+    * Gets the component, constructing it if it hasn't already been
+    * created.
+    * @return the component
+    */
+   public T get()
+   {
+      if (component == null)
+      {
+         long start = System.nanoTime();
+
+         component = create();
+
+         if (timer != null)
+         {
+            timer.record(name, System.nanoTime()-start);
+         }
+      }
+
+      return component;
+   }
+
+   /**
+    * Gets the component only if it has already been created.
+    * @return the component or null if it hasn't been created yet
+    */
+   public T getIfCreated()
+   {
+      return component;
+   }
+
+   public boolean isCreated()
+   {
+      return component != null;
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   @Override
+   public String toString()
+   {
+      return String.format("%s[name=%s,created=%s]",
+        getClass().getSimpleName(), name, isCreated());
+   }
+
+   private String name;
+   private StartupTimer timer;
+   private T component;
+}
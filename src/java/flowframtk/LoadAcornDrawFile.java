@@ -67,43 +67,22 @@ public class LoadAcornDrawFile extends IOSwingWorker
 
       File drawFile = importSettings.currentFile;
 
-      DataInputStream din = null;
+      // the file is memory-mapped so there's no stream to close
 
-      try
-      {
-         din = new DataInputStream(new BufferedInputStream(new FileInputStream(drawFile)));
-
-         AcornDrawFile adf = new AcornDrawFile(cg, din, importSettings);
+      AcornDrawFile adf = new AcornDrawFile(cg, drawFile, importSettings);
 
-         if (importSettings.useMappings)
-         {     
-            adf.setTextModeMappings(app.getTextModeMappings());
-            adf.setMathModeMappings(app.getMathModeMappings());
-         }  
+      if (importSettings.useMappings)
+      {     
+         adf.setTextModeMappings(app.getTextModeMappings());
+         adf.setMathModeMappings(app.getMathModeMappings());
+      }  
 
-         image = adf.readData();
+      image = adf.readData();
 
-         if (image.anyDraftBitmaps())
-         {
-            publish(MessageInfo.createWarning(
-               getResources().getMessage("warning.draft_bitmaps")));
-         }
-      }
-      finally
+      if (image.anyDraftBitmaps())
       {
-         try
-         {
-            if (din != null)
-            {
-               din.close();
-            }
-         }
-         catch (IOException e)
-         {
-            publish(
-            MessageInfo.createError(getResources().getMessage("error.io.close")),
-            MessageInfo.createError(e));
-         }
+         publish(MessageInfo.createWarning(
+            getResources().getMessage("warning.draft_bitmaps")));
       }
 
       return image;
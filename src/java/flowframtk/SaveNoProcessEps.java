@@ -50,7 +50,8 @@ public class SaveNoProcessEps extends ExportImage
       try
       {
          out = new PrintWriter(Files.newBufferedWriter(file.toPath()));
-         EPS.save(image, out, jdrFrame.getResources().getApplicationName());
+         EPS.save(image, out, jdrFrame.getResources().getApplicationName(),
+           exportSettings.epsSharedResources);
       }
       finally
       {
@@ -0,0 +1,143 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.flowframtk;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Vector;
+
+/**
+ * Records how long each step of the startup takes, so that the
+ * slowest steps can be identified. Steps are either marked as they
+ * complete, in which case the time since the previous mark is
+ * attributed to the step, or recorded with an explicit duration
+ * (as for components constructed on demand). Steps recorded after
+ * the main window has been made visible are reported as deferred.
+ */
+public class StartupTimer
+{
+   public StartupTimer()
+   {
+      start = System.nanoTime();
+      lastMark = start;
+   }
+
+   /**
+    * Marks the end of a step. The time since the previous mark (or
+    * since this timer was created) is attributed to the step.
+    * @param label identifies the step
+    */
+   public synchronized void mark(String label)
+   {
+      long now = System.nanoTime();
+
+      add(label, now-lastMark);
+
+      lastMark = now;
+   }
+
+   /**
+    * Records a step with a known duration. This doesn't affect the
+    * time attributed to the next marked step.
+    * @param label identifies the step
+    * @param nanos the duration in nanoseconds
+    */
+   public synchronized void record(String label, long nanos)
+   {
+      add(label, nanos);
+   }
+
+   private void add(String label, long nanos)
+   {
+      entries.add(new Entry(label, nanos, visibleTime > 0L));
+   }
+
+   /**
+    * Marks the point at which the main window was made visible.
+    */
+   public synchronized void markVisible()
+   {
+      visibleTime = System.nanoTime();
+      lastMark = visibleTime;
+   }
+
+   /**
+    * Gets the time taken from creating this timer until the main
+    * window was made visible.
+    * @return the time in milliseconds or -1 if the main window
+    * hasn't been made visible
+    */
+   public synchronized long getTimeToVisible()
+   {
+      return visibleTime == 0L ? -1L : (visibleTime - start)/1000000L;
+   }
+
+   /**
+    * Gets a summary of the slowest steps, in descending order of
+    * duration.
+    * @param max the maximum number of steps to list
+    * @return the summary
+    */
+   public synchronized String getSummary(int max)
+   {
+      Entry[] sorted = entries.toArray(new Entry[entries.size()]);
+
+      Arrays.sort(sorted, new Comparator<Entry>()
+      {
+         public int compare(Entry e1, Entry e2)
+         {
+            return Long.compare(e2.nanos, e1.nanos);
+         }
+      });
+
+      StringBuilder builder = new StringBuilder();
+
+      builder.append(String.format("Time to visible: %dms", getTimeToVisible()));
+
+      for (int i = 0; i < sorted.length && i < max; i++)
+      {
+         Entry entry = sorted[i];
+
+         builder.append(String.format("%n%8.2fms %s%s",
+           entry.nanos/1.0e6, entry.label,
+           entry.deferred ? " (deferred)" : ""));
+      }
+
+      return builder.toString();
+   }
+
+   private static class Entry
+   {
+      Entry(String label, long nanos, boolean deferred)
+      {
+         this.label = label;
+         this.nanos = nanos;
+         this.deferred = deferred;
+      }
+
+      final String label;
+      final long nanos;
+      final boolean deferred;
+   }
+
+   private long start, lastMark, visibleTime=0L;
+
+   private Vector<Entry> entries = new Vector<Entry>();
+}
@@ -27,7 +27,7 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
 import java.awt.font.*;
-import java.beans.*;
+import java.util.HashMap;
 import java.util.Vector;
 
 import javax.swing.*;
@@ -49,8 +49,7 @@ import com.dickimawbooks.flowframtk.*;
  */
 
 public class CharacterSelector extends JDialog
-   implements ActionListener,PropertyChangeListener,
-              ListSelectionListener
+   implements ActionListener,ListSelectionListener
 {
    public CharacterSelector(FlowframTk gui, int[][] ranges)
    {
@@ -103,11 +102,11 @@ public class CharacterSelector extends JDialog
 
       getContentPane().add(unicodePanel, "East");
 
-      cardLayout = new CardLayout();
+      glyphGrid = new GlyphGrid(symbolListener_, this);
 
-      cardPanel = new JPanel(cardLayout);
+      JScrollPane gridScrollPane = new JScrollPane(glyphGrid);
 
-      blockPanels = new Vector<BlockPanel>();
+      blocks = new Vector<GlyphBlock>();
 
       cardIndexTable = new JTable(
        new DefaultTableModel(
@@ -131,22 +130,11 @@ public class CharacterSelector extends JDialog
       JSplitPane splitPane = new JSplitPane(
          JSplitPane.HORIZONTAL_SPLIT, 
          new JScrollPane(cardIndexTable),
-         cardPanel);
+         gridScrollPane);
 
       getContentPane().add(splitPane, "Center");
 
-      for (int i = 0; i < ranges.length; i++)
-      {
-
-         for (int codePoint = ranges[i][0]; codePoint <= ranges[i][1]; 
-              codePoint++)
-         {
-            if (!Character.isISOControl(codePoint))
-            {
-               addCodePoint(codePoint);
-            }
-         }
-      }
+      addRanges(ranges);
 
       JPanel bottomPanel = new JPanel(new BorderLayout());
 
@@ -197,60 +185,59 @@ public class CharacterSelector extends JDialog
             }
          });
 
-      KeyboardFocusManager focusManager =
-         KeyboardFocusManager.getCurrentKeyboardFocusManager();
-      focusManager.addPropertyChangeListener(this);
-
       cardIndexTable.getSelectionModel().setSelectionInterval(0, 0);
       splitPane.setDividerLocation(0.4);
    }
 
-   private BlockPanel addBlock(Character.UnicodeBlock block)
+   /**
+    * Sorts the code points in the given ranges into blocks. Only
+    * the list of code points in each block is stored. The grid
+    * cells are painted as required.
+    */
+   private void addRanges(int[][] ranges)
    {
-      BlockPanel panel = new BlockPanel(block, symbolListener_, this);
-
-      String name = resources.getMessage("unicode."+block.toString());
+      HashMap<Character.UnicodeBlock,GlyphBlock> map
+        = new HashMap<Character.UnicodeBlock,GlyphBlock>();
 
-      JScrollPane scrollPane = new JScrollPane(panel);
-      scrollPane.setName(name);
+      DefaultTableModel model = (DefaultTableModel)cardIndexTable.getModel();
 
-      scrollPane.getVerticalScrollBar().setUnitIncrement(
-         CharacterButton.HEIGHT);
-      scrollPane.getHorizontalScrollBar().setUnitIncrement(
-         CharacterButton.WIDTH);
+      for (int i = 0; i < ranges.length; i++)
+      {
+         GlyphBlock glyphBlock = null;
 
-      blockPanels.add(panel);
-      cardLayout.addLayoutComponent(scrollPane, name);
-      cardPanel.add(scrollPane);
+         for (int codePoint = ranges[i][0]; codePoint <= ranges[i][1]; 
+              codePoint++)
+         {
+            if (Character.isISOControl(codePoint))
+            {
+               continue;
+            }
 
-      DefaultTableModel model = (DefaultTableModel)cardIndexTable.getModel();
-      model.addRow(new Object[] {name});
+            Character.UnicodeBlock block = Character.UnicodeBlock.of(codePoint);
 
-      return panel;
-   }
+            if (block == null)
+            {
+               continue;
+            }
 
-   private void addCodePoint(int codePoint)
-   {
-      Character.UnicodeBlock block = null;
+            if (glyphBlock == null || glyphBlock.getBlock() != block)
+            {
+               glyphBlock = map.get(block);
 
-      block = Character.UnicodeBlock.of(codePoint);
+               if (glyphBlock == null)
+               {
+                  glyphBlock = new GlyphBlock(block);
+                  map.put(block, glyphBlock);
+                  blocks.add(glyphBlock);
 
-      if (block == null)
-      {
-         return;
-      }
+                  model.addRow(new Object[]
+                   {resources.getMessage("unicode."+block.toString())});
+               }
+            }
 
-      for (BlockPanel panel : blockPanels)
-      {
-         if (panel.getBlock().equals(block))
-         {
-            panel.addButton(codePoint);
-            return;
+            glyphBlock.addCodePoint(codePoint);
          }
       }
-
-      BlockPanel panel = addBlock(block);
-      panel.addButton(codePoint);
    }
 
    public void display(TeXMappings mapping)
@@ -273,19 +260,6 @@ public class CharacterSelector extends JDialog
       setVisible(true);
    }
 
-   public void propertyChange(PropertyChangeEvent e)
-   {
-      String propertyName = e.getPropertyName();
-
-      if (propertyName.equals("focusOwner")
-        && e.getNewValue() instanceof CharacterButton)
-      {
-         CharacterButton button = (CharacterButton)e.getNewValue();
-
-         unicodePanel.setHexString(button.getHexString());
-      }
-   }
-
    public void okay()
    {
       setVisible(false);
@@ -313,15 +287,15 @@ public class CharacterSelector extends JDialog
       {
          setVisible(false);
       }
-      else if (source instanceof CharacterButton)
+      else if (source == glyphGrid)
       {
-         CharacterButton charButton = (CharacterButton)source;
+         int codePoint = glyphGrid.getSelectedCodePoint();
 
-         unicodePanel.setHexString(charButton.getHexString());
+         unicodePanel.setHexString(String.format("%05X", codePoint));
 
          if (texMapping != null)
          {
-            TeXLookup lookup = texMapping.get(charButton.getCodePoint());
+            TeXLookup lookup = texMapping.get(codePoint);
 
             unicodePanel.setInfo(lookup == null ? "" : lookup.toString());
          }
@@ -330,9 +304,10 @@ public class CharacterSelector extends JDialog
             unicodePanel.setInfo("");
          }
 
-         if ((event.getModifiers() & ActionEvent.SHIFT_MASK) == 0)
+         if (action.equals("insert")
+              && (event.getModifiers() & ActionEvent.SHIFT_MASK) == 0)
          {
-            insert(charButton.getCodePoint());
+            insert(codePoint);
 
             textfield.requestFocusInWindow();
          }
@@ -349,8 +324,8 @@ public class CharacterSelector extends JDialog
 
          if (index == -1) return;
 
-         cardLayout.show(cardPanel,
-            cardIndexTable.getValueAt(index, 0).toString());
+         glyphGrid.setBlock(blocks.get(
+            cardIndexTable.convertRowIndexToModel(index)));
       }
    }
 
@@ -381,14 +356,12 @@ public class CharacterSelector extends JDialog
 
    private UnicodePanel unicodePanel;
 
-   private Vector<BlockPanel> blockPanels;
+   private Vector<GlyphBlock> blocks;
 
-   private JComponent cardPanel;
+   private GlyphGrid glyphGrid;
 
    private JTable cardIndexTable;
 
-   private CardLayout cardLayout;
-
    private TeXMappings texMapping;
 
    private static final int MAX_ROWS = 20;
@@ -400,41 +373,65 @@ public class CharacterSelector extends JDialog
    private JLabel modeLabel;
 }
 
-class BlockPanel extends JPanel
+/**
+ * The code points in a Unicode block that are included in the
+ * configured ranges. The code points are stored as a list of
+ * contiguous segments.
+ */
+class GlyphBlock
 {
-   public BlockPanel(Character.UnicodeBlock block, 
-      SymbolSelectorListener symbolListener,
-      ActionListener actionListener)
+   public GlyphBlock(Character.UnicodeBlock block)
    {
-      super(new GridBagLayout());
+      this.block = block;
+      segments = new int[4];
+   }
 
-      gbc = new GridBagConstraints();
+   public void addCodePoint(int codePoint)
+   {
+      if (segmentCount > 0 && segments[2*segmentCount-1] == codePoint-1)
+      {
+         segments[2*segmentCount-1] = codePoint;
+      }
+      else
+      {
+         if (2*segmentCount == segments.length)
+         {
+            int[] array = new int[2*segments.length];
+            System.arraycopy(segments, 0, array, 0, segments.length);
+            segments = array;
+         }
 
-      gbc.gridx=0;
-      gbc.gridy=0;
-      gbc.gridwidth=1;
-      gbc.gridheight=1;
-      gbc.fill=GridBagConstraints.NONE;
-      gbc.anchor=GridBagConstraints.LINE_START;
+         segments[2*segmentCount] = codePoint;
+         segments[2*segmentCount+1] = codePoint;
+         segmentCount++;
+      }
 
-      this.block = block;
-      this.symbolListener = symbolListener;
-      this.actionListener = actionListener;
+      size++;
    }
 
-   public void addButton(int codePoint)
+   public int size()
    {
-      gbc.gridx++;
+      return size;
+   }
+
+   public int getCodePoint(int index)
+   {
+      int offset = index;
 
-      if (gbc.gridx >= MAX_COLS)
+      for (int i = 0; i < segmentCount; i++)
       {
-         gbc.gridx=0;
-         gbc.gridy++;
+         int start = segments[2*i];
+         int n = segments[2*i+1] - start + 1;
+
+         if (offset < n)
+         {
+            return start + offset;
+         }
+
+         offset -= n;
       }
 
-      CharacterButton button = new CharacterButton(codePoint, symbolListener);
-      add(button, gbc);
-      button.addActionListener(actionListener);
+      throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
    }
 
    public Character.UnicodeBlock getBlock()
@@ -443,10 +440,9 @@ class BlockPanel extends JPanel
    }
 
    private Character.UnicodeBlock block;
-   private SymbolSelectorListener symbolListener;
-   private ActionListener actionListener;
 
-   private GridBagConstraints gbc;
+   // pairs of first and last code points
+   private int[] segments;
 
-   private static final int MAX_COLS = 10;
+   private int segmentCount = 0, size = 0;
 }
@@ -405,6 +405,14 @@ public class ExportDialog extends JDialog
       pngUseAlphaBox.setAlignmentX(Component.LEFT_ALIGNMENT);
       settingsPanel.add(pngUseAlphaBox);
 
+      // EPS shared resources
+
+      epsSharedResourcesBox = resources.createAppCheckBox(
+        "export", "eps_shared_resources", true, null);
+      epsSharedResourcesBox.addItemListener(this);
+      epsSharedResourcesBox.setAlignmentX(Component.LEFT_ALIGNMENT);
+      settingsPanel.add(epsSharedResourcesBox);
+
       // Object Markup
 
       markupComp = createRigidRow();
@@ -1150,6 +1158,7 @@ public class ExportDialog extends JDialog
       useExternalProcessBox.setSelected(exportSettings.useExternalProcess);
 
       pngUseAlphaBox.setSelected(exportSettings.pngUseAlpha);
+      epsSharedResourcesBox.setSelected(exportSettings.epsSharedResources);
 
       usePdfInfoBox.setSelected(exportSettings.usePdfInfo);
       useDefaultPreambleBox.setSelected(exportSettings.useDefaultPreamble);
@@ -1471,6 +1480,11 @@ public class ExportDialog extends JDialog
          exportSettings.pngUseAlpha = pngUseAlphaBox.isSelected();
       }
 
+      if (epsSharedResourcesBox.isVisible())
+      {
+         exportSettings.epsSharedResources = epsSharedResourcesBox.isSelected();
+      }
+
       if (usePdfInfoBox.isVisible())
       {
          exportSettings.usePdfInfo = usePdfInfoBox.isSelected();
@@ -1660,6 +1674,7 @@ public class ExportDialog extends JDialog
       boolean enablePaperSize = true;
       boolean showShapePar = false;
       boolean showBitmapsToEps = false;
+      boolean showEpsSharedResources = false;
       boolean showMarkup = false;
       boolean showDocClassComp = false;
       boolean showStrokeShading = true;
@@ -1705,6 +1720,7 @@ public class ExportDialog extends JDialog
             }
             else
             {// very limited support
+               showEpsSharedResources = true;
                showStrokeShading = false;
                showStrokeMarkers = false;
                showTextualShading = false;
@@ -1760,6 +1776,7 @@ public class ExportDialog extends JDialog
 
       boundsComp.setVisible(showBounds);
       pngUseAlphaBox.setVisible(showAlpha);
+      epsSharedResourcesBox.setVisible(showEpsSharedResources);
       usePaperSizeBoundsBox.setEnabled(enablePaperSize);
       shapeparUseHPaddingComp.setVisible(showShapePar);
       docClassComp.setVisible(showDocClassComp);
@@ -1876,6 +1893,7 @@ public class ExportDialog extends JDialog
    private SpinnerNumberModel timeoutModel;
 
    private JCheckBox useExternalProcessBox, rememberSettingsBox, pngUseAlphaBox,
+      epsSharedResourcesBox,
      usePdfInfoBox, bitmapsToEpsBox, writeSrcFilenameBox, writeDateCommentBox,
      useDefaultPreambleBox;
 
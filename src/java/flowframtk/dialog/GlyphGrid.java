@@ -0,0 +1,447 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.flowframtk.dialog;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.*;
+import java.awt.font.*;
+import java.util.BitSet;
+import java.util.WeakHashMap;
+
+import javax.swing.*;
+
+/**
+ * Grid of characters in a Unicode block. Rather than creating a
+ * component for each character, only the cells in the visible
+ * rows are painted. Whether or not the symbol font can display a
+ * character is only checked when the cell is painted and the
+ * result is cached for each font. Characters that can't be
+ * displayed by the font are shown on a grey background.
+ * <p>
+ * An action event with the command "select" is fired when the
+ * selected character is changed with the cursor keys, and an
+ * action event with the command "insert" is fired when a
+ * character is clicked or when the space or enter key is pressed.
+ */
+public class GlyphGrid extends JComponent implements Scrollable
+{
+   public GlyphGrid(SymbolSelectorListener symbolListener,
+      ActionListener actionListener)
+   {
+      super();
+
+      this.symbolListener = symbolListener;
+      this.actionListener = actionListener;
+
+      setFocusable(true);
+      setOpaque(true);
+      setBackground(Color.white);
+
+      // enables tool tips
+      setToolTipText("");
+
+      addMouseListener(new MouseAdapter()
+      {
+         public void mousePressed(MouseEvent evt)
+         {
+            requestFocusInWindow();
+
+            int index = getIndexAt(evt.getPoint());
+
+            if (index != -1 && isEnabled(index))
+            {
+               setSelectedIndex(index);
+               fireAction("insert", evt.getModifiers());
+            }
+         }
+      });
+
+      addKeyListener(new KeyAdapter()
+      {
+         public void keyPressed(KeyEvent evt)
+         {
+            int index = selectedIndex;
+
+            switch (evt.getKeyCode())
+            {
+               case KeyEvent.VK_LEFT:
+                  index--;
+               break;
+               case KeyEvent.VK_RIGHT:
+                  index++;
+               break;
+               case KeyEvent.VK_UP:
+                  index -= COLUMNS;
+               break;
+               case KeyEvent.VK_DOWN:
+                  index += COLUMNS;
+               break;
+               case KeyEvent.VK_HOME:
+                  index = 0;
+               break;
+               case KeyEvent.VK_END:
+                  index = getCellCount()-1;
+               break;
+               case KeyEvent.VK_SPACE:
+               case KeyEvent.VK_ENTER:
+
+                  if (selectedIndex != -1 && isEnabled(selectedIndex))
+                  {
+                     fireAction("insert", evt.getModifiers());
+                     evt.consume();
+                  }
+
+               return;
+               default:
+                  return;
+            }
+
+            evt.consume();
+
+            if (selectedIndex == -1)
+            {
+               index = 0;
+            }
+
+            if (index >= 0 && index < getCellCount())
+            {
+               setSelectedIndex(index);
+               fireAction("select", evt.getModifiers());
+            }
+         }
+      });
+
+      addFocusListener(new FocusListener()
+      {
+         public void focusGained(FocusEvent evt)
+         {
+            repaintCell(selectedIndex);
+         }
+
+         public void focusLost(FocusEvent evt)
+         {
+            repaintCell(selectedIndex);
+         }
+      });
+   }
+
+   /**
+    * Sets the block of characters to display.
+    * @param block the block or null for an empty grid
+    */
+   void setBlock(GlyphBlock block)
+   {
+      this.block = block;
+      selectedIndex = -1;
+
+      revalidate();
+      repaint();
+
+      scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+   }
+
+   GlyphBlock getBlock()
+   {
+      return block;
+   }
+
+   public int getCellCount()
+   {
+      return block == null ? 0 : block.size();
+   }
+
+   public int getSelectedIndex()
+   {
+      return selectedIndex;
+   }
+
+   public void setSelectedIndex(int index)
+   {
+      if (index == selectedIndex) return;
+
+      repaintCell(selectedIndex);
+
+      selectedIndex = index;
+
+      if (index != -1)
+      {
+         Rectangle rect = getCellBounds(index);
+         repaint(rect);
+         scrollRectToVisible(rect);
+      }
+   }
+
+   /**
+    * Gets the selected code point.
+    * @return the code point or -1 if nothing is selected
+    */
+   public int getSelectedCodePoint()
+   {
+      return selectedIndex == -1 ? -1 : block.getCodePoint(selectedIndex);
+   }
+
+   private void fireAction(String command, int modifiers)
+   {
+      actionListener.actionPerformed(new ActionEvent(this,
+         ActionEvent.ACTION_PERFORMED, command, modifiers));
+   }
+
+   private boolean isEnabled(int index)
+   {
+      return Character.getName(block.getCodePoint(index)) != null;
+   }
+
+   private int getIndexAt(Point p)
+   {
+      int col = p.x / CELL_WIDTH;
+      int row = p.y / CELL_HEIGHT;
+
+      if (col < 0 || col >= COLUMNS || row < 0)
+      {
+         return -1;
+      }
+
+      int index = row*COLUMNS + col;
+
+      return index < getCellCount() ? index : -1;
+   }
+
+   private Rectangle getCellBounds(int index)
+   {
+      return new Rectangle((index % COLUMNS)*CELL_WIDTH,
+        (index / COLUMNS)*CELL_HEIGHT, CELL_WIDTH, CELL_HEIGHT);
+   }
+
+   private void repaintCell(int index)
+   {
+      if (index != -1 && index < getCellCount())
+      {
+         repaint(getCellBounds(index));
+      }
+   }
+
+   private int getRowCount()
+   {
+      return (getCellCount() + COLUMNS - 1) / COLUMNS;
+   }
+
+   public String getToolTipText(MouseEvent evt)
+   {
+      int index = getIndexAt(evt.getPoint());
+
+      if (index == -1) return null;
+
+      int codePoint = block.getCodePoint(index);
+
+      String name = Character.getName(codePoint);
+
+      return name == null ? null
+        : String.format("U+%05X %s", codePoint, name);
+   }
+
+   /**
+    * Determines whether or not the given font can display the
+    * given character. The result is cached.
+    */
+   private boolean canDisplay(Font font, int codePoint)
+   {
+      GlyphAvailability availability = glyphAvailability.get(font);
+
+      if (availability == null)
+      {
+         availability = new GlyphAvailability();
+         glyphAvailability.put(font, availability);
+      }
+
+      if (!availability.checked.get(codePoint))
+      {
+         availability.checked.set(codePoint);
+
+         if (font.canDisplay(codePoint))
+         {
+            availability.displayable.set(codePoint);
+         }
+      }
+
+      return availability.displayable.get(codePoint);
+   }
+
+   protected void paintComponent(Graphics g)
+   {
+      Graphics2D g2 = (Graphics2D)g;
+
+      Rectangle clip = g2.getClipBounds();
+
+      if (clip == null)
+      {
+         clip = new Rectangle(0, 0, getWidth(), getHeight());
+      }
+
+      g2.setPaint(getBackground());
+      g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+      int n = getCellCount();
+
+      if (n == 0) return;
+
+      Font font = symbolListener.getSymbolButtonFont();
+
+      if (font == null)
+      {
+         font = getFont();
+      }
+
+      RenderingHints oldHints = g2.getRenderingHints();
+      RenderingHints newHints = symbolListener.getRenderingHints();
+
+      if (newHints != null)
+      {
+         g2.setRenderingHints(newHints);
+      }
+
+      Font oldFont = g2.getFont();
+      g2.setFont(font);
+
+      FontRenderContext frc = g2.getFontRenderContext();
+      FontMetrics fm = g2.getFontMetrics(font);
+
+      int firstRow = Math.max(0, clip.y / CELL_HEIGHT);
+      int lastRow = Math.min(getRowCount()-1,
+         (clip.y + clip.height) / CELL_HEIGHT);
+
+      for (int row = firstRow; row <= lastRow; row++)
+      {
+         for (int col = 0; col < COLUMNS; col++)
+         {
+            int index = row*COLUMNS + col;
+
+            if (index >= n) break;
+
+            paintCell(g2, index, col*CELL_WIDTH, row*CELL_HEIGHT,
+              font, frc, fm);
+         }
+      }
+
+      g2.setFont(oldFont);
+
+      if (newHints != null)
+      {
+         g2.setRenderingHints(oldHints);
+      }
+   }
+
+   private void paintCell(Graphics2D g2, int index, int x, int y,
+     Font font, FontRenderContext frc, FontMetrics fm)
+   {
+      int codePoint = block.getCodePoint(index);
+
+      if (Character.getName(codePoint) == null)
+      {
+         g2.setPaint(UIManager.getColor("Panel.background"));
+         g2.fillRect(x+1, y+1, CELL_WIDTH-2, CELL_HEIGHT-2);
+         return;
+      }
+
+      boolean displayable = canDisplay(font, codePoint);
+
+      g2.setPaint(displayable ? Color.white : Color.lightGray);
+      g2.fillRect(x+1, y+1, CELL_WIDTH-2, CELL_HEIGHT-2);
+
+      g2.setPaint(Color.lightGray);
+      g2.drawRect(x, y, CELL_WIDTH-1, CELL_HEIGHT-1);
+
+      TextLayout layout = new TextLayout(
+         new String(new int[]{codePoint}, 0, 1), font, frc);
+
+      Rectangle2D layoutBounds = layout.getBounds();
+
+      double tx = x + 0.5*CELL_WIDTH - 0.5*layoutBounds.getWidth();
+      double ty = y + CELL_HEIGHT - fm.getMaxDescent() - 4;
+
+      g2.setPaint(displayable ? Color.black : Color.gray);
+      layout.draw(g2, (float)tx, (float)ty);
+
+      if (index == selectedIndex)
+      {
+         g2.setPaint(hasFocus() ? Color.gray : Color.lightGray);
+         g2.drawRect(x+2, y+2, CELL_WIDTH-5, CELL_HEIGHT-5);
+      }
+   }
+
+   public Dimension getPreferredSize()
+   {
+      return new Dimension(COLUMNS*CELL_WIDTH,
+        Math.max(1, getRowCount())*CELL_HEIGHT);
+   }
+
+   public Dimension getPreferredScrollableViewportSize()
+   {
+      return new Dimension(COLUMNS*CELL_WIDTH, VISIBLE_ROWS*CELL_HEIGHT);
+   }
+
+   public int getScrollableUnitIncrement(Rectangle visibleRect,
+     int orientation, int direction)
+   {
+      return orientation == SwingConstants.VERTICAL ? CELL_HEIGHT : CELL_WIDTH;
+   }
+
+   public int getScrollableBlockIncrement(Rectangle visibleRect,
+     int orientation, int direction)
+   {
+      if (orientation == SwingConstants.VERTICAL)
+      {
+         return Math.max(CELL_HEIGHT,
+           (visibleRect.height/CELL_HEIGHT)*CELL_HEIGHT);
+      }
+
+      return Math.max(CELL_WIDTH, (visibleRect.width/CELL_WIDTH)*CELL_WIDTH);
+   }
+
+   public boolean getScrollableTracksViewportWidth()
+   {
+      return false;
+   }
+
+   public boolean getScrollableTracksViewportHeight()
+   {
+      return false;
+   }
+
+   private static class GlyphAvailability
+   {
+      final BitSet checked = new BitSet();
+      final BitSet displayable = new BitSet();
+   }
+
+   private SymbolSelectorListener symbolListener;
+   private ActionListener actionListener;
+
+   private GlyphBlock block;
+   private int selectedIndex = -1;
+
+   private WeakHashMap<Font,GlyphAvailability> glyphAvailability
+     = new WeakHashMap<Font,GlyphAvailability>();
+
+   public static final int CELL_WIDTH=40, CELL_HEIGHT=40;
+
+   public static final int COLUMNS = 10;
+
+   private static final int VISIBLE_ROWS = 10;
+}
@@ -0,0 +1,151 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.flowframtk.dialog;
+
+/**
+ * Hash map with primitive long keys and non-null values. This is
+ * used to memoise results keyed on a pair of indexes (see
+ * {@link #key(int,int)}) without creating a string or boxed key
+ * for each look up. Uses open addressing with linear probing.
+ */
+class LongHashMap<V>
+{
+   public LongHashMap()
+   {
+      this(16);
+   }
+
+   public LongHashMap(int initialCapacity)
+   {
+      int capacity = 16;
+
+      while (capacity < 2*initialCapacity)
+      {
+         capacity <<= 1;
+      }
+
+      keys = new long[capacity];
+      values = new Object[capacity];
+   }
+
+   /**
+    * Combines a pair of indexes into a single key.
+    */
+   public static long key(int idx1, int idx2)
+   {
+      return ((long)idx1 << 32) | (idx2 & 0xffffffffL);
+   }
+
+   @SuppressWarnings("unchecked")
+   public V get(long key)
+   {
+      int mask = keys.length-1;
+
+      for (int i = hash(key) & mask; values[i] != null; i = (i+1) & mask)
+      {
+         if (keys[i] == key)
+         {
+            return (V)values[i];
+         }
+      }
+
+      return null;
+   }
+
+   public void put(long key, V value)
+   {
+      if (value == null)
+      {
+         throw new NullPointerException();
+      }
+
+      int mask = keys.length-1;
+      int i = hash(key) & mask;
+
+      for (; values[i] != null; i = (i+1) & mask)
+      {
+         if (keys[i] == key)
+         {
+            values[i] = value;
+            return;
+         }
+      }
+
+      keys[i] = key;
+      values[i] = value;
+      size++;
+
+      if (2*size > keys.length)
+      {
+         resize(2*keys.length);
+      }
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public void clear()
+   {
+      if (size > 0)
+      {
+         java.util.Arrays.fill(values, null);
+         size = 0;
+      }
+   }
+
+   private void resize(int capacity)
+   {
+      long[] oldKeys = keys;
+      Object[] oldValues = values;
+
+      keys = new long[capacity];
+      values = new Object[capacity];
+
+      int mask = capacity-1;
+
+      for (int j = 0; j < oldKeys.length; j++)
+      {
+         if (oldValues[j] != null)
+         {
+            int i = hash(oldKeys[j]) & mask;
+
+            while (values[i] != null)
+            {
+               i = (i+1) & mask;
+            }
+
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+         }
+      }
+   }
+
+   private static int hash(long key)
+   {
+      long h = key * 0x9E3779B97F4A7C15L;
+
+      return (int)(h ^ (h >>> 32));
+   }
+
+   private long[] keys;
+   private Object[] values;
+   private int size = 0;
+}
@@ -1355,10 +1355,13 @@ class MarkerItem implements ListCellRenderer<MarkerItem>
       type = markerType;
       label = markerLabel;
 
-      CanvasGraphics cg = new CanvasGraphics(resources.getMessageSystem());
+      if (sharedCanvasGraphics == null)
+      {
+         sharedCanvasGraphics = new CanvasGraphics(resources.getMessageSystem());
+      }
 
-      JDRMarker marker = JDRMarker.getPredefinedMarker(cg, markerType,
-         penWidth, 1, false, 
+      JDRMarker marker = JDRMarker.getPredefinedMarker(sharedCanvasGraphics,
+         markerType, penWidth, 1, false, 
          new JDRLength(resources.getMessageDictionary(), 5.0, JDRUnit.bp));
 
       resizable = marker.isResizable();
@@ -1371,57 +1374,13 @@ class MarkerItem implements ListCellRenderer<MarkerItem>
 
       if (type != JDRMarker.ARROW_NONE)
       {
-         GeneralPath path = marker.getGeneralPath();
-
-         Rectangle bounds = path.getBounds();
-
-         BufferedImage image 
-            = new BufferedImage(maxWidth, (int)bounds.getHeight(),
-                BufferedImage.TYPE_INT_ARGB);
-
-         RenderingHints renderHints =
-            new RenderingHints(RenderingHints.KEY_ANTIALIASING,
-                               RenderingHints.VALUE_ANTIALIAS_ON);
-
-         renderHints.add(new RenderingHints(
-                           RenderingHints.KEY_RENDERING,
-                           RenderingHints.VALUE_RENDER_QUALITY));
-
-         double halfHeight = 0.5*bounds.getHeight();
-
-         Graphics2D g = image.createGraphics();
-
-         try
-         {
-            g.setRenderingHints(renderHints);
-            g.translate(-bounds.getX(), halfHeight);
-
-            g.setPaint(Color.black);
-            g.fill(path);
-         }
-         finally
-         {
-            g.dispose();
-         }
-
-         ic = new ImageIcon(image);
-
-         image 
-            = new BufferedImage(maxWidth,(int)bounds.getHeight(),
-                 BufferedImage.TYPE_INT_ARGB);
-
-         path = marker.getGeneralPath();
-
-         g = image.createGraphics();
-
-         g.translate(-bounds.getX(), halfHeight);
+         // The icons are only drawn (into the shared atlas) when
+         // they're first painted.
 
-         g.setPaint(disabledForeground);
-         g.fill(path);
-
-         g.dispose();
+         GeneralPath path = marker.getGeneralPath();
 
-         disabledIc = new ImageIcon(image);
+         ic = new MarkerIcon(path, maxWidth, Color.black);
+         disabledIc = new MarkerIcon(path, maxWidth, disabledForeground);
       }
    }
 
@@ -1542,7 +1501,175 @@ class MarkerItem implements ListCellRenderer<MarkerItem>
 
    private boolean cellHasFocus=false;
 
+   private static CanvasGraphics sharedCanvasGraphics = null;
+
    private static Color disabledBackground = Color.lightGray;
    private static Color disabledForeground = Color.gray;
 }
 
+/**
+ * Icon showing a marker shape. The shape is drawn into the shared
+ * {@link MarkerIconAtlas} the first time the icon is painted.
+ */
+class MarkerIcon implements Icon
+{
+   public MarkerIcon(Shape shape, int width, Paint paint)
+   {
+      this.shape = shape;
+      this.bounds = shape.getBounds();
+      this.width = width;
+      this.paint = paint;
+   }
+
+   public int getIconWidth()
+   {
+      return width;
+   }
+
+   public int getIconHeight()
+   {
+      return Math.max(1, bounds.height);
+   }
+
+   public void paintIcon(Component comp, Graphics g, int x, int y)
+   {
+      MarkerIconAtlas atlas = MarkerIconAtlas.getInstance();
+
+      if (slot == null)
+      {
+         slot = atlas.add(shape, bounds, getIconWidth(), getIconHeight(),
+           paint);
+
+         // no longer needed
+         shape = null;
+      }
+
+      atlas.paint(g, slot, x, y);
+   }
+
+   private Shape shape;
+   private Rectangle bounds, slot=null;
+   private int width;
+   private Paint paint;
+}
+
+/**
+ * Single image shared by all marker icons. Each icon is drawn once
+ * into its own slot in the image and then copied from there
+ * whenever the icon is painted, so every marker panel uses the
+ * same icons. Slots are allocated in rows ("shelves") and the image
+ * height is doubled whenever it's full.
+ */
+class MarkerIconAtlas
+{
+   private MarkerIconAtlas()
+   {
+      image = new BufferedImage(ATLAS_WIDTH, INITIAL_HEIGHT,
+         BufferedImage.TYPE_INT_ARGB);
+   }
+
+   public static synchronized MarkerIconAtlas getInstance()
+   {
+      if (instance == null)
+      {
+         instance = new MarkerIconAtlas();
+      }
+
+      return instance;
+   }
+
+   /**
+    * Allocates a slot and draws the given shape into it. The shape
+    * is positioned so that its left edge is at the left of the
+    * slot and its origin is half-way down.
+    * @return the slot
+    */
+   public synchronized Rectangle add(Shape shape, Rectangle bounds,
+     int width, int height, Paint paint)
+   {
+      width = Math.min(width, ATLAS_WIDTH);
+
+      if (shelfX + width > ATLAS_WIDTH)
+      {
+         shelfY += shelfHeight;
+         shelfX = 0;
+         shelfHeight = 0;
+      }
+
+      ensureHeight(shelfY + height);
+
+      Rectangle slot = new Rectangle(shelfX, shelfY, width, height);
+
+      shelfX += width;
+      shelfHeight = Math.max(shelfHeight, height);
+
+      Graphics2D g = image.createGraphics();
+
+      try
+      {
+         g.clip(slot);
+
+         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                            RenderingHints.VALUE_ANTIALIAS_ON);
+         g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                            RenderingHints.VALUE_RENDER_QUALITY);
+
+         g.translate(slot.x - bounds.getX(), slot.y + 0.5*bounds.getHeight());
+
+         g.setPaint(paint);
+         g.fill(shape);
+      }
+      finally
+      {
+         g.dispose();
+      }
+
+      return slot;
+   }
+
+   private void ensureHeight(int height)
+   {
+      int imageHeight = image.getHeight();
+
+      if (height <= imageHeight) return;
+
+      while (imageHeight < height)
+      {
+         imageHeight *= 2;
+      }
+
+      BufferedImage newImage = new BufferedImage(ATLAS_WIDTH, imageHeight,
+         BufferedImage.TYPE_INT_ARGB);
+
+      Graphics2D g = newImage.createGraphics();
+
+      try
+      {
+         g.drawImage(image, 0, 0, null);
+      }
+      finally
+      {
+         g.dispose();
+      }
+
+      image = newImage;
+   }
+
+   /**
+    * Copies the given slot to the graphics device.
+    */
+   public synchronized void paint(Graphics g, Rectangle slot, int x, int y)
+   {
+      g.drawImage(image, x, y, x+slot.width, y+slot.height,
+         slot.x, slot.y, slot.x+slot.width, slot.y+slot.height, null);
+   }
+
+   private BufferedImage image;
+
+   private int shelfX=0, shelfY=0, shelfHeight=0;
+
+   private static MarkerIconAtlas instance = null;
+
+   private static final int ATLAS_WIDTH=512, INITIAL_HEIGHT=128;
+}
+
@@ -0,0 +1,317 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.flowframtk.dialog;
+
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dickimawbooks.texjavahelplib.UserCancelledException;
+
+/**
+ * Runs a vectorizer stage on each shape in a list in parallel. The
+ * shapes are independent of each other, so each one is processed
+ * in its own task. Anything a task would normally send straight to
+ * the dialog (messages and new shapes) is collected in the task's
+ * {@link ShapeTaskOutput} and merged on the calling thread in the
+ * original shape order, so the results and the message log are the
+ * same as when the shapes are processed one after the other.
+ * <p>
+ * The tasks don't sleep, update the elapsed time or show the
+ * working shape. Instead they add to a shared progress count,
+ * which the calling thread sends to the status bar at regular
+ * intervals while it waits for the next result. The tasks still
+ * check for cancellation.
+ */
+abstract class ParallelShapeTasks
+{
+   public ParallelShapeTasks(VectorizeBitmapDialog dialog)
+   {
+      this.dialog = dialog;
+   }
+
+   /**
+    * Processes the given shape. This is called on a pool thread.
+    * @param index the index of the shape
+    * @param output the output for the shape
+    * @throws InterruptedException if the task is cancelled
+    */
+   protected abstract void processShape(int index, ShapeTaskOutput output)
+     throws InterruptedException;
+
+   /**
+    * Merges the output of the given shape. This is called on the
+    * thread that called {@link #run(int)} in shape order.
+    * @param index the index of the shape
+    * @param output the output for the shape
+    */
+   protected abstract void mergeShape(int index, ShapeTaskOutput output);
+
+   /**
+    * Updates the progress. This is called on the thread that called
+    * {@link #run(int)}.
+    * @param progress the total progress added by the tasks
+    */
+   protected abstract void updateProgress(int progress);
+
+   /**
+    * Adds to the progress count. This may be called by any task.
+    * @param increment the increment
+    */
+   public void addProgress(int increment)
+   {
+      progress.addAndGet(increment);
+   }
+
+   /**
+    * Processes the shapes and merges the results.
+    * @param numShapes the number of shapes
+    * @throws InterruptedException if the user cancels the
+    * process
+    */
+   public void run(int numShapes) throws InterruptedException
+   {
+      ForkJoinPool pool = ForkJoinPool.commonPool();
+
+      Vector<Future<ShapeTaskOutput>> futures
+         = new Vector<Future<ShapeTaskOutput>>(numShapes);
+
+      for (int i = 0; i < numShapes; i++)
+      {
+         final int index = i;
+
+         futures.add(pool.submit(new Callable<ShapeTaskOutput>()
+         {
+            @Override
+            public ShapeTaskOutput call() throws InterruptedException
+            {
+               ShapeTaskOutput output = new ShapeTaskOutput();
+
+               if (dialog.isCancelled())
+               {
+                  return output;
+               }
+
+               currentOutput.set(output);
+
+               try
+               {
+                  processShape(index, output);
+               }
+               finally
+               {
+                  currentOutput.remove();
+               }
+
+               return output;
+            }
+         }));
+      }
+
+      lastUpdate = System.currentTimeMillis();
+
+      try
+      {
+         for (int i = 0; i < numShapes; i++)
+         {
+            ShapeTaskOutput output = waitFor(futures.get(i));
+            futures.set(i, null);
+
+            mergeShape(i, output);
+
+            if (System.currentTimeMillis() - lastUpdate >= UPDATE_INTERVAL)
+            {
+               update();
+            }
+         }
+
+         update();
+      }
+      finally
+      {
+         for (Future<ShapeTaskOutput> future : futures)
+         {
+            if (future != null)
+            {
+               future.cancel(false);
+            }
+         }
+      }
+   }
+
+   private ShapeTaskOutput waitFor(Future<ShapeTaskOutput> future)
+     throws InterruptedException
+   {
+      while (true)
+      {
+         try
+         {
+            return future.get(UPDATE_INTERVAL, TimeUnit.MILLISECONDS);
+         }
+         catch (TimeoutException e)
+         {
+            update();
+         }
+         catch (ExecutionException e)
+         {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof InterruptedException)
+            {
+               throw (InterruptedException)cause;
+            }
+            else if (cause instanceof RuntimeException)
+            {
+               throw (RuntimeException)cause;
+            }
+            else if (cause instanceof Error)
+            {
+               throw (Error)cause;
+            }
+
+            throw new IllegalStateException(cause);
+         }
+      }
+   }
+
+   private void update() throws InterruptedException
+   {
+      lastUpdate = System.currentTimeMillis();
+
+      dialog.updateTimeElapsed();
+      updateProgress(progress.get());
+
+      if (dialog.isCancelled())
+      {
+         throw new UserCancelledException(dialog.getMessageSystem());
+      }
+   }
+
+   /**
+    * Gets the output of the task running on the current thread.
+    * @return the output or null if the current thread isn't
+    * running a parallel task
+    */
+   public static ShapeTaskOutput getCurrentOutput()
+   {
+      return currentOutput.get();
+   }
+
+   private VectorizeBitmapDialog dialog;
+   private AtomicInteger progress = new AtomicInteger();
+   private long lastUpdate;
+
+   private static final ThreadLocal<ShapeTaskOutput> currentOutput
+     = new ThreadLocal<ShapeTaskOutput>();
+
+   /**
+    * Interval (in milliseconds) between progress updates.
+    */
+   public static final long UPDATE_INTERVAL = 100L;
+}
+
+/**
+ * The output of a single {@link ParallelShapeTasks} task. The
+ * entries are kept in the order they were added and are either
+ * messages (strings), new shapes or {@link PathResultMessage}
+ * objects.
+ */
+class ShapeTaskOutput
+{
+   public void addMessage(String message)
+   {
+      entries.add(message);
+   }
+
+   public void addShape(ShapeComponentVector shape)
+   {
+      entries.add(shape);
+      numShapes++;
+   }
+
+   public void addPathResultMessage(int n, String id, Object... params)
+   {
+      entries.add(new PathResultMessage(n, id, params));
+   }
+
+   /**
+    * Gets the number of shapes added to this output so far.
+    */
+   public int getNumShapes()
+   {
+      return numShapes;
+   }
+
+   public Vector<Object> getEntries()
+   {
+      return entries;
+   }
+
+   public void setResult(ShapeComponentVector result)
+   {
+      this.result = result;
+   }
+
+   public ShapeComponentVector getResult()
+   {
+      return result;
+   }
+
+   private Vector<Object> entries = new Vector<Object>();
+   private int numShapes = 0;
+   private ShapeComponentVector result = null;
+}
+
+/**
+ * A message about a result path. The path number is relative to
+ * the shapes added by the same task until the output is merged.
+ */
+class PathResultMessage
+{
+   public PathResultMessage(int n, String id, Object[] params)
+   {
+      this.n = n;
+      this.id = id;
+      this.params = params;
+   }
+
+   public int getPathNumber()
+   {
+      return n;
+   }
+
+   public String getID()
+   {
+      return id;
+   }
+
+   public Object[] getParams()
+   {
+      return params;
+   }
+
+   private int n;
+   private String id;
+   private Object[] params;
+}
@@ -0,0 +1,180 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.flowframtk.dialog;
+
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+
+/**
+ * Numeric representation of a path used by the smoothing stage.
+ * The end point of each component is stored in primitive arrays
+ * together with a prefix count of the components that break a run
+ * of line segments, so whether or not any index range is a run of
+ * line segments can be found in constant time.
+ * <p>
+ * The smoothing stage measures how well a line fits the range of
+ * components [i, j] by the area between the original path and the
+ * line (the area of the symmetric difference of the two closed
+ * shapes). A line encloses no area, so this is simply the area
+ * enclosed by the path from the end of component i-1 to the end
+ * of component j, closed by the chord. If the path is monotonic
+ * along the chord, it never doubles back on itself so the enclosed
+ * region consists of the lobes between the path and the chord.
+ * The area is then the integral of the absolute distance from the
+ * chord, which can be computed exactly from the vertices without
+ * constructing an {@link java.awt.geom.Area}.
+ */
+class PolylineKernel
+{
+   public PolylineKernel(ShapeComponentVector vec)
+   {
+      int n = vec.size();
+
+      x = new double[n];
+      y = new double[n];
+      breaks = new int[n+1];
+
+      for (int k = 0; k < n; k++)
+      {
+         ShapeComponent comp = vec.get(k);
+         int type = comp.getType();
+
+         breaks[k+1] = breaks[k];
+
+         if (type == PathIterator.SEG_MOVETO || type == PathIterator.SEG_LINETO)
+         {
+            Point2D p = comp.getEnd();
+
+            x[k] = p.getX();
+            y[k] = p.getY();
+         }
+         else
+         {
+            x[k] = Double.NaN;
+            y[k] = Double.NaN;
+         }
+
+         if (type != PathIterator.SEG_LINETO || k == 0 || Double.isNaN(x[k-1]))
+         {
+            breaks[k+1]++;
+         }
+      }
+   }
+
+   /**
+    * Determines whether the components in the range
+    * [startIdx, endIdx] are all line segments joined to the end of
+    * the previous component.
+    */
+   public boolean isLineRun(int startIdx, int endIdx)
+   {
+      return startIdx > 0 && startIdx <= endIdx && endIdx < x.length
+        && !Double.isNaN(x[startIdx-1])
+        && breaks[endIdx+1] == breaks[startIdx];
+   }
+
+   /**
+    * Gets the area enclosed by the path from the end of component
+    * startIdx-1 to the end of component endIdx, closed by the
+    * chord between these points. This is only computed if the
+    * range is a line run that is monotonic along the chord.
+    * @param startIdx the index of the first component
+    * @param endIdx the index of the last component
+    * @return the enclosed area or NaN if it can't be computed here
+    */
+   public double getChordDeviationArea(int startIdx, int endIdx)
+   {
+      if (!isLineRun(startIdx, endIdx))
+      {
+         return Double.NaN;
+      }
+
+      return getChordDeviationArea(x, y, startIdx-1, endIdx);
+   }
+
+   /**
+    * Gets the area between the polyline through the given vertices
+    * and the chord joining the first and last.
+    * @param x the x co-ordinates of the vertices
+    * @param y the y co-ordinates of the vertices
+    * @param from the index of the first vertex
+    * @param to the index of the last vertex
+    * @return the area or NaN if the polyline doubles back along the
+    * chord or the chord has zero length
+    */
+   static double getChordDeviationArea(double[] x, double[] y,
+     int from, int to)
+   {
+      double x0 = x[from];
+      double y0 = y[from];
+      double dx = x[to]-x0;
+      double dy = y[to]-y0;
+
+      double lengthSq = dx*dx+dy*dy;
+
+      if (lengthSq == 0.0)
+      {
+         return Double.NaN;
+      }
+
+      // Position along the chord (t) and signed distance from it
+      // (s) are both scaled by the chord length.
+
+      double prevT = 0.0;
+      double prevS = 0.0;
+      double sum = 0.0;
+
+      for (int k = from+1; k <= to; k++)
+      {
+         double px = x[k]-x0;
+         double py = y[k]-y0;
+
+         double t = px*dx + py*dy;
+         double s = dx*py - dy*px;
+
+         double dt = t-prevT;
+
+         if (dt < 0.0)
+         {
+            return Double.NaN;
+         }
+
+         if ((prevS >= 0.0 && s >= 0.0) || (prevS <= 0.0 && s <= 0.0))
+         {
+            sum += dt*Math.abs(prevS+s);
+         }
+         else
+         {
+            // crosses the chord
+            sum += dt*(prevS*prevS+s*s)/(Math.abs(prevS)+Math.abs(s));
+         }
+
+         prevT = t;
+         prevS = s;
+      }
+
+      return 0.5*sum/lengthSq;
+   }
+
+   private double[] x, y;
+
+   // number of components up to (but not including) each index
+   // that don't continue a line run
+   private int[] breaks;
+}
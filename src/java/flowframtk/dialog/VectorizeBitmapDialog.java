@@ -238,6 +238,10 @@ public class VectorizeBitmapDialog extends JFrame
          "verbose", true, null);
       messageButtonPanel.add(verboseCheckBox);
 
+      parallelCheckBox = resources.createAppCheckBox("vectorize", 
+         "parallel", true, null);
+      messageButtonPanel.add(parallelCheckBox);
+
       copyMessagesButton = resources.createDialogButton("vectorize.copy_messages",
          "copyText", this, null);
       messageButtonPanel.add(copyMessagesButton);
@@ -618,11 +622,17 @@ public class VectorizeBitmapDialog extends JFrame
    public void updateTimeElapsedAndCheckCancel(boolean sleep)
       throws InterruptedException
    {
-      updateTimeElapsed();
+      // parallel tasks leave the time and pausing to the thread
+      // that's waiting for them
 
-      if (sleep)
+      if (!isParallelTask())
       {
-         Thread.sleep(SLEEP_DURATION);
+         updateTimeElapsed();
+
+         if (sleep)
+         {
+            Thread.sleep(SLEEP_DURATION);
+         }
       }
 
       // check for cancel
@@ -998,6 +1008,26 @@ public class VectorizeBitmapDialog extends JFrame
       return verboseCheckBox.isSelected();
    }
 
+   /**
+    * Determines whether stages that process each shape
+    * independently should process the shapes in parallel.
+    */
+   public boolean isParallelOn()
+   {
+      return parallelCheckBox.isSelected();
+   }
+
+   /**
+    * Determines whether the current thread is running a parallel
+    * task. Messages sent by the task are kept until its results
+    * are merged and the task doesn't update the working shape.
+    * @see ParallelShapeTasks
+    */
+   public boolean isParallelTask()
+   {
+      return ParallelShapeTasks.getCurrentOutput() != null;
+   }
+
    public void addVerboseMessageId(String id, Object... params)
    {
       if (isVerbose())
@@ -1042,22 +1072,34 @@ public class VectorizeBitmapDialog extends JFrame
 
    public void addMessage(String msg)
    {
-      messageArea.setText(messageArea.getText()+msg);
+      ShapeTaskOutput output = ParallelShapeTasks.getCurrentOutput();
+
+      if (output == null)
+      {
+         messageArea.setText(messageArea.getText()+msg);
+      }
+      else
+      {
+         output.addMessage(msg);
+      }
    }
 
    public void addMessageLn(String msg)
    {
-      messageArea.setText(String.format("%s%s%n", messageArea.getText(), msg));
+      addMessage(String.format("%s%n", msg));
    }
 
    public void addMessageLn()
    {
-      messageArea.setText(String.format("%s%n", messageArea.getText()));
+      addMessage(String.format("%n"));
    }
 
    public void setWorkingShape(Shape shape)
    {
-      mainPanel.setWorkingShape(shape);
+      if (!isParallelTask())
+      {
+         mainPanel.setWorkingShape(shape);
+      }
    }
 
    public void setShapes(Vector<Shape> shapes)
@@ -1138,6 +1180,8 @@ public class VectorizeBitmapDialog extends JFrame
 
    public void resetCurveFitProgress(int max, CubicCurve2D curve)
    {
+      if (isParallelTask()) return;
+
       setWorkingShape(curve);
       subTaskStatusBar.resetProgress();
       subTaskStatusBar.setMaximum(max);
@@ -1145,6 +1189,8 @@ public class VectorizeBitmapDialog extends JFrame
 
    public void setCurveFitProgress(int progress, CurveFitSample sample)
    {
+      if (isParallelTask()) return;
+
       mainPanel.updateWorkingCurve(sample);
       subTaskStatusBar.updateProgress(progress, 
          String.format("%f", sample.getDelta()));
@@ -2083,7 +2129,7 @@ public class VectorizeBitmapDialog extends JFrame
    private JDRButton applyButton, okayButton, cancelButton,
     copyMessagesButton, deleteMessagesButton;
 
-   private JCheckBox verboseCheckBox;
+   private JCheckBox verboseCheckBox, parallelCheckBox;
 
    private Cursor colourPickerCursor;
 
@@ -8679,10 +8725,41 @@ class LineDetection extends SwingWorker<Void,Rectangle> implements JDRConstants
       int numShapes = shapeList.size();
       maxProgress = numShapes;
 
-      Vector<ShapeComponentVector> oldShapeList = new Vector<ShapeComponentVector>();
+      final Vector<ShapeComponentVector> oldShapeList = new Vector<ShapeComponentVector>();
       oldShapeList.addAll(shapeList);
       shapeList.clear();
 
+      if (dialog.isParallelOn() && numShapes > 1)
+      {
+         ParallelShapeTasks tasks = new ParallelShapeTasks(dialog)
+         {
+            @Override
+            protected void processShape(int index, ShapeTaskOutput output)
+              throws InterruptedException
+            {
+               tryLineify(oldShapeList.get(index));
+               addProgress(1);
+            }
+
+            @Override
+            protected void mergeShape(int index, ShapeTaskOutput output)
+            {
+               mergeOutput(output);
+            }
+
+            @Override
+            protected void updateProgress(int value)
+            {
+               progress = value;
+               setProgress((int)Math.min((100.0*progress)/maxProgress, 100));
+            }
+         };
+
+         tasks.run(numShapes);
+
+         return null;
+      }
+
       for (int i = 0; i < numShapes; i++)
       {
          dialog.updateTimeElapsed();
@@ -8701,6 +8778,39 @@ class LineDetection extends SwingWorker<Void,Rectangle> implements JDRConstants
       return null;
    }
 
+   /**
+    * Adds the shapes and messages from a parallel task. Path
+    * numbers in the result messages are relative to the task's
+    * shapes, so they're offset by the number of shapes already
+    * added.
+    */
+   private void mergeOutput(ShapeTaskOutput output)
+   {
+      int offset = shapeList.size();
+
+      for (Object entry : output.getEntries())
+      {
+         if (entry instanceof ShapeComponentVector)
+         {
+            ShapeComponentVector newShape = (ShapeComponentVector)entry;
+
+            shapeList.add(newShape);
+            publish(newShape.getBounds());
+         }
+         else if (entry instanceof PathResultMessage)
+         {
+            PathResultMessage msg = (PathResultMessage)entry;
+
+            addPathResultMessage(msg.getPathNumber()+offset, msg.getID(),
+              msg.getParams());
+         }
+         else
+         {
+            dialog.addMessage(entry.toString());
+         }
+      }
+   }
+
    private void incProgress()
    {
       progress++;
@@ -8710,10 +8820,13 @@ class LineDetection extends SwingWorker<Void,Rectangle> implements JDRConstants
    private void updateCurrentShape(ShapeComponentVector path)
       throws InterruptedException
    {
-      dialog.setWorkingShape(path.getPath());
+      if (!dialog.isParallelTask())
+      {
+         dialog.setWorkingShape(path.getPath());
 
-      dialog.updateTimeElapsed();
-      Thread.sleep(VectorizeBitmapDialog.SLEEP_DURATION);
+         dialog.updateTimeElapsed();
+         Thread.sleep(VectorizeBitmapDialog.SLEEP_DURATION);
+      }
 
       // check for cancel
       if (dialog.isCancelled())
@@ -8751,29 +8864,51 @@ class LineDetection extends SwingWorker<Void,Rectangle> implements JDRConstants
 
    private void addShape(ShapeComponentVector newShape)
    {
-      shapeList.add(newShape);
-      publish(newShape.getBounds());
+      ShapeTaskOutput output = ParallelShapeTasks.getCurrentOutput();
+
+      if (output == null)
+      {
+         shapeList.add(newShape);
+         publish(newShape.getBounds());
+      }
+      else
+      {
+         output.addShape(newShape);
+      }
    }
 
    private void addShape(ShapeComponentVector newShape, String id,
      Object... params)
    {
-      shapeList.add(newShape);
+      addShape(newShape);
 
       addPathResultMessage(getNumShapes(), id, params);
-
-      publish(newShape.getBounds());
    }
 
    private void addPathResultMessage(int n, String id, Object... params)
    {
-      dialog.addMessageIdLn("vectorize.path_n_result",
-         n, dialog.getResources().getMessage(id, params));
+      ShapeTaskOutput output = ParallelShapeTasks.getCurrentOutput();
+
+      if (output == null)
+      {
+         dialog.addMessageIdLn("vectorize.path_n_result",
+            n, dialog.getResources().getMessage(id, params));
+      }
+      else
+      {
+         output.addPathResultMessage(n, id, params);
+      }
    }
 
+   /**
+    * Gets the number of shapes added so far. In a parallel task,
+    * this only counts the shapes added by the task.
+    */
    private int getNumShapes()
    {
-      return shapeList.size();
+      ShapeTaskOutput output = ParallelShapeTasks.getCurrentOutput();
+
+      return output == null ? shapeList.size() : output.getNumShapes();
    }
 
    private void setLineWidth(ShapeComponentVector shape, double delta)
@@ -15017,12 +15152,65 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
          return null;
       }
 
+      int numShapes = shapes.size();
+
+      if (dialog.isParallelOn() && numShapes > 1)
+      {
+         parallelTasks = new ParallelShapeTasks(dialog)
+         {
+            @Override
+            protected void processShape(int index, ShapeTaskOutput output)
+              throws InterruptedException
+            {
+               ShapeComponentVector orgShape = shapes.get(index);
+
+               output.setResult(smoothShape(orgShape));
+            }
+
+            @Override
+            protected void mergeShape(int index, ShapeTaskOutput output)
+            {
+               for (Object entry : output.getEntries())
+               {
+                  dialog.addMessage(entry.toString());
+               }
+
+               ShapeComponentVector shape = output.getResult();
+
+               if (shape != null)
+               {
+                  shapes.set(index, shape);
+                  publish(shape.getBounds());
+               }
+            }
+
+            @Override
+            protected void updateProgress(int value)
+            {
+               progress = 1 + value;
+               setProgress((int)Math.min(
+                 Math.max((100.0*progress)/maxProgress, 1), 100));
+            }
+         };
+
+         try
+         {
+            parallelTasks.run(numShapes);
+         }
+         finally
+         {
+            parallelTasks = null;
+         }
+
+         return null;
+      }
+
       if (tryBezier)
       {
          dialog.showSubTaskStatus();
       }
 
-      for (int i = 0; i < shapes.size(); i++)
+      for (int i = 0; i < numShapes; i++)
       {
          updateAndSleep();
 
@@ -15070,9 +15258,17 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
 
    private void incProgress(int inc) throws InterruptedException
    {
-      progress += inc;
-      setProgress((int)Math.min(
-        Math.max((100.0*progress)/maxProgress, 1), 100));
+      if (parallelTasks != null && dialog.isParallelTask())
+      {
+         parallelTasks.addProgress(inc);
+      }
+      else
+      {
+         progress += inc;
+         setProgress((int)Math.min(
+           Math.max((100.0*progress)/maxProgress, 1), 100));
+      }
+
       updateAndSleep();
    }
 
@@ -15195,16 +15391,14 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
      DeviationResult firstTry)
      throws InterruptedException
    {
+      SmoothingMemo memo = smoothingMemo.get();
+
+      memo.vec = vec;
+      memo.kernel = new PolylineKernel(vec);
+
       if (tryBezier)
       {
-         if (curveDeviations == null)
-         {
-            curveDeviations = new HashMap<String,DeviationResult>();
-         }
-         else
-         {
-            curveDeviations.clear();
-         }
+         memo.curveDeviations.clear();
       }
 
       ShapeComponentVector path = null;
@@ -15348,8 +15542,8 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
                changePt = vec.get(changeIdx).getMid();
                stat1 = changePt;
 
-               line1Result = DeviationResult.createLine(dialog,
-                 vec, i, changeIdx, startRunPt, changePt);
+               line1Result = createLine(vec, i, changeIdx,
+                 startRunPt, changePt);
 
                if (changeIdx2 != -1)
                {
@@ -15360,16 +15554,16 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
                      changePt.getX(), changePt.getY(),
                      changePt2.getX(), changePt2.getY());
 
-                  line2Result = DeviationResult.createLine(dialog,
-                    vec, changeIdx, changeIdx2, changePt, changePt2);
+                  line2Result = createLine(vec, changeIdx, changeIdx2,
+                    changePt, changePt2);
                }
                else
                {
                   dialog.addVerboseMessageIdLn("vectorize.smoothing_bend_found",
                      changePt.getX(), changePt.getY());
 
-                  line2Result = DeviationResult.createLine(dialog,
-                    vec, changeIdx, endIdx, changePt, endRunPt);
+                  line2Result = createLine(vec, changeIdx, endIdx,
+                    changePt, endRunPt);
 
                   changeIdx2 = endIdx;
                   changePt2 = endRunPt;
@@ -15377,8 +15571,7 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
             }
             else
             {
-               line1Result = DeviationResult.createLine(dialog,
-                 vec, i, endIdx, startRunPt, endRunPt);
+               line1Result = createLine(vec, i, endIdx, startRunPt, endRunPt);
                changeIdx = endIdx;
             }
 
@@ -15665,8 +15858,7 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
 
          Point2D p1 = endComp.getEnd();
 
-         DeviationResult result = DeviationResult.createLine(dialog,
-           vec, startIdx, j, p0, p1);
+         DeviationResult result = createLine(vec, startIdx, j, p0, p1);
 
          double delta = result.getDelta();
 
@@ -16242,13 +16434,25 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
       return bestResult;
    }
 
+   private DeviationResult createLine(ShapeComponentVector vec,
+      int startIdx, int endIdx, Point2D startPt, Point2D endPt)
+   {
+      SmoothingMemo memo = smoothingMemo.get();
+
+      return DeviationResult.createLine(dialog, vec,
+        memo.vec == vec ? memo.kernel : null,
+        startIdx, endIdx, startPt, endPt);
+   }
+
    private DeviationResult getCurveDeviation(ShapeComponentVector vec,
       int startIdx, int endIdx,
       int statIdx1, Point2D statPt1, int statIdx2, Point2D statPt2)
     throws InterruptedException
    {
-      String key = new String(""+startIdx+"-"+endIdx);
-      DeviationResult result = curveDeviations.get(key);
+      long key = LongHashMap.key(startIdx, endIdx);
+      LongHashMap<DeviationResult> deviations
+        = smoothingMemo.get().curveDeviations;
+      DeviationResult result = deviations.get(key);
 
       if (result == null)
       {
@@ -16258,7 +16462,7 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
          result = DeviationResult.createCurve(dialog, vec, startIdx, endIdx, 
            p0, p1, statIdx1, statPt1, statIdx2, statPt2);
 
-         curveDeviations.put(key, result);
+         deviations.put(key, result);
       }
 
       return result;
@@ -16273,11 +16477,36 @@ class Smooth extends SwingWorker<Void,Rectangle> implements JDRConstants
    private double curveStatPtThreshold=2.0,
      curveThresholdDiff, flatnessThreshold;
 
-   private HashMap<String,DeviationResult> curveDeviations = null;
+   // each thread has its own memo as parallel tasks smooth
+   // different shapes at the same time
+   private ThreadLocal<SmoothingMemo> smoothingMemo
+     = new ThreadLocal<SmoothingMemo>()
+   {
+      @Override
+      protected SmoothingMemo initialValue()
+      {
+         return new SmoothingMemo();
+      }
+   };
+
+   private ParallelShapeTasks parallelTasks = null;
    private int progress, maxProgress;
    private boolean continueToNextStep;
 }
 
+/**
+ * Results kept while smoothing a path. The kernel is for the
+ * path currently being smoothed and the curve deviations are keyed
+ * on the start and end indexes (see {@link LongHashMap#key(int,int)}).
+ */
+class SmoothingMemo
+{
+   ShapeComponentVector vec;
+   PolylineKernel kernel;
+   LongHashMap<DeviationResult> curveDeviations
+     = new LongHashMap<DeviationResult>();
+}
+
 class DeviationResult implements Comparable<DeviationResult>, JDRConstants
 {
    private DeviationResult(VectorizeBitmapDialog dialog)
@@ -16710,6 +16939,19 @@ class DeviationResult implements Comparable<DeviationResult>, JDRConstants
    public static DeviationResult createLine(VectorizeBitmapDialog dialog,
        ShapeComponentVector vec,
        int startIdx, int endIdx, Point2D startPt, Point2D endPt)
+   {
+      return createLine(dialog, vec, null, startIdx, endIdx, startPt, endPt);
+   }
+
+   /**
+    * Creates a line result. If the kernel is provided and can
+    * compute the deviation area directly, the area of the original
+    * path isn't constructed.
+    * @param kernel the numeric representation of vec or null
+    */
+   public static DeviationResult createLine(VectorizeBitmapDialog dialog,
+       ShapeComponentVector vec, PolylineKernel kernel,
+       int startIdx, int endIdx, Point2D startPt, Point2D endPt)
    {
       DeviationResult result = new DeviationResult(dialog);
 
@@ -16722,7 +16964,7 @@ class DeviationResult implements Comparable<DeviationResult>, JDRConstants
 
       result.originalLength = vec.getEstimatedLength(startIdx, endIdx);
 
-      result.originalArea = new Area(vec.getPath(startIdx-1, endIdx));
+      result.originalVec = vec;
 
       result.shape = new Line2D.Double(startPt.getX(), startPt.getY(),
          endPt.getX(), endPt.getY());
@@ -16730,7 +16972,20 @@ class DeviationResult implements Comparable<DeviationResult>, JDRConstants
       result.length = Point2D.distance(startPt.getX(), startPt.getY(),
          endPt.getX(), endPt.getY());
 
-      result.delta = result.computeWeightedDelta(result.shape);
+      // A line has no area, so the deviation is just the area
+      // enclosed by the original path closed by its chord.
+
+      double area = (kernel == null ? Double.NaN
+         : kernel.getChordDeviationArea(startIdx, endIdx));
+
+      if (Double.isNaN(area))
+      {
+         result.delta = result.computeWeightedDelta(result.shape);
+      }
+      else
+      {
+         result.delta = result.computeWeightedDelta(area);
+      }
 
       return result;
    }
@@ -16992,6 +17247,11 @@ class DeviationResult implements Comparable<DeviationResult>, JDRConstants
 
    public double computeDelta(Shape trialShape)
    {
+      if (originalArea == null)
+      {
+         originalArea = new Area(originalVec.getPath(startIdx-1, endIdx));
+      }
+
       Area area = new Area(trialShape);
       area.exclusiveOr(originalArea);
 
@@ -17355,6 +17615,9 @@ class DeviationResult implements Comparable<DeviationResult>, JDRConstants
    private Shape shape;
    private Area originalArea;
 
+   // used to create originalArea when it's needed
+   private ShapeComponentVector originalVec;
+
    private double[] statPtDeviation, statPtDeviationT;
    private Point2D statPt1, statPt2, curveStatPt1, curveStatPt2;
    private int statIdx1=-1, statIdx2=-1;
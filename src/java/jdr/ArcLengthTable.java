@@ -0,0 +1,303 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr;
+
+import java.awt.geom.*;
+
+/**
+ * Arc length parameterisation of a flattened path. The line
+ * segments of each sub-path are stored with their cumulative
+ * length from the start of the sub-path, so the point at a given
+ * distance along a sub-path can be found with a binary search
+ * rather than by walking along the path. Zero-length segments are
+ * omitted as they have no direction.
+ */
+public class ArcLengthTable
+{
+   /**
+    * Creates a table from the given path iterator. The iterator
+    * should be flattened (only contain move, line and close
+    * segments). Any curve segments are treated as a line to the
+    * end point.
+    * @param it the path iterator
+    */
+   public ArcLengthTable(PathIterator it)
+   {
+      double[] points = new double[6];
+      double moveX = 0, moveY = 0, lastX = 0, lastY = 0;
+      double cumulative = 0;
+
+      while (!it.isDone())
+      {
+         int type = it.currentSegment(points);
+
+         switch (type)
+         {
+            case PathIterator.SEG_MOVETO:
+
+               if (subpathCount > 0)
+               {
+                  subpathLength[subpathCount-1] = cumulative;
+               }
+
+               moveX = lastX = points[0];
+               moveY = lastY = points[1];
+               cumulative = 0;
+
+               addSubpath(moveX, moveY);
+
+            break;
+            case PathIterator.SEG_CLOSE:
+               points[0] = moveX;
+               points[1] = moveY;
+               // fall through
+            default:
+
+               double thisX, thisY;
+
+               if (type == PathIterator.SEG_QUADTO)
+               {
+                  thisX = points[2];
+                  thisY = points[3];
+               }
+               else if (type == PathIterator.SEG_CUBICTO)
+               {
+                  thisX = points[4];
+                  thisY = points[5];
+               }
+               else
+               {
+                  thisX = points[0];
+                  thisY = points[1];
+               }
+
+               if (subpathCount == 0)
+               {
+                  addSubpath(lastX, lastY);
+               }
+
+               double dx = thisX-lastX;
+               double dy = thisY-lastY;
+               double distance = Math.sqrt(dx*dx+dy*dy);
+
+               if (distance > 0)
+               {
+                  addSegment(lastX, lastY, dx, dy, distance, cumulative);
+                  cumulative += distance;
+               }
+
+               lastX = thisX;
+               lastY = thisY;
+         }
+
+         it.next();
+      }
+
+      if (subpathCount > 0)
+      {
+         subpathLength[subpathCount-1] = cumulative;
+      }
+
+      for (int i = 0; i < subpathCount; i++)
+      {
+         totalLength += subpathLength[i];
+      }
+   }
+
+   private void addSubpath(double x, double y)
+   {
+      if (subpathCount == subpathStart.length)
+      {
+         int n = 2*subpathCount;
+
+         subpathStart = copyOf(subpathStart, n);
+         subpathLength = copyOf(subpathLength, n);
+         subpathX = copyOf(subpathX, n);
+         subpathY = copyOf(subpathY, n);
+      }
+
+      subpathStart[subpathCount] = segmentCount;
+      subpathX[subpathCount] = x;
+      subpathY[subpathCount] = y;
+      subpathCount++;
+   }
+
+   private void addSegment(double x, double y, double dx, double dy,
+     double length, double cumulative)
+   {
+      if (segmentCount == segmentX.length)
+      {
+         int n = 2*segmentCount;
+
+         segmentX = copyOf(segmentX, n);
+         segmentY = copyOf(segmentY, n);
+         segmentDx = copyOf(segmentDx, n);
+         segmentDy = copyOf(segmentDy, n);
+         segmentLength = copyOf(segmentLength, n);
+         segmentEnd = copyOf(segmentEnd, n);
+      }
+
+      segmentX[segmentCount] = x;
+      segmentY[segmentCount] = y;
+      segmentDx[segmentCount] = dx;
+      segmentDy[segmentCount] = dy;
+      segmentLength[segmentCount] = length;
+      segmentEnd[segmentCount] = cumulative + length;
+      segmentCount++;
+   }
+
+   private static double[] copyOf(double[] array, int n)
+   {
+      double[] newArray = new double[n];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      return newArray;
+   }
+
+   private static int[] copyOf(int[] array, int n)
+   {
+      int[] newArray = new int[n];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      return newArray;
+   }
+
+   /**
+    * Gets the total length of all sub-paths.
+    */
+   public double getLength()
+   {
+      return totalLength;
+   }
+
+   public int getSubpathCount()
+   {
+      return subpathCount;
+   }
+
+   public double getSubpathLength(int subpath)
+   {
+      return subpathLength[subpath];
+   }
+
+   /**
+    * Gets the starting point of the given sub-path.
+    */
+   public Point2D getSubpathStart(int subpath)
+   {
+      return new Point2D.Double(subpathX[subpath], subpathY[subpath]);
+   }
+
+   private int getSubpathEnd(int subpath)
+   {
+      return subpath == subpathCount-1 ? segmentCount
+         : subpathStart[subpath+1];
+   }
+
+   /**
+    * Finds the segment containing the point at the given distance
+    * along the given sub-path. If the distance is negative, the
+    * first segment is returned. If there's a choice (the point is
+    * at the join between two segments) the earlier segment is
+    * returned.
+    * @param subpath the sub-path index
+    * @param distance the distance from the start of the sub-path
+    * @return the segment index or -1 if the distance is beyond the
+    * end of the sub-path or if the sub-path has no segments
+    */
+   public int findSegment(int subpath, double distance)
+   {
+      int lo = subpathStart[subpath];
+      int hi = getSubpathEnd(subpath);
+
+      if (lo == hi || distance > segmentEnd[hi-1])
+      {
+         return -1;
+      }
+
+      // find the first segment whose end is at or after the distance
+
+      hi--;
+
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+
+         if (segmentEnd[mid] >= distance)
+         {
+            hi = mid;
+         }
+         else
+         {
+            lo = mid+1;
+         }
+      }
+
+      return lo;
+   }
+
+   /**
+    * Gets the point at the given distance along the sub-path
+    * containing the given segment. The point is extrapolated along
+    * the segment if the distance lies outside of it.
+    * @param segment the segment index obtained from
+    * {@link #findSegment(int,double)}
+    * @param distance the distance from the start of the sub-path
+    * @param point the point in which to store the result
+    * @return the point
+    */
+   public Point2D getPoint(int segment, double distance, Point2D point)
+   {
+      double length = segmentLength[segment];
+      double t = (distance - (segmentEnd[segment] - length))/length;
+
+      point.setLocation(segmentX[segment] + t*segmentDx[segment],
+                        segmentY[segment] + t*segmentDy[segment]);
+
+      return point;
+   }
+
+   /**
+    * Gets the angle of the given segment.
+    * @param segment the segment index
+    * @return the angle in radians
+    */
+   public double getAngle(int segment)
+   {
+      return Math.atan2(segmentDy[segment], segmentDx[segment]);
+   }
+
+   private int subpathCount = 0;
+   private int[] subpathStart = new int[4];
+   private double[] subpathLength = new double[4];
+   private double[] subpathX = new double[4];
+   private double[] subpathY = new double[4];
+
+   private int segmentCount = 0;
+   private double[] segmentX = new double[32];
+   private double[] segmentY = new double[32];
+   private double[] segmentDx = new double[32];
+   private double[] segmentDy = new double[32];
+   private double[] segmentLength = new double[32];
+
+   // cumulative length at the end of each segment (relative to the
+   // start of its sub-path)
+   private double[] segmentEnd = new double[32];
+
+   private double totalLength = 0;
+}
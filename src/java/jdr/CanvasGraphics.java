@@ -306,21 +306,93 @@ public class CanvasGraphics
    {
       if (g2 == null) return;
 
-      g2.draw(shape);
+      if (renderStatistics == null)
+      {
+         g2.draw(shape);
+      }
+      else
+      {
+         long startTime = renderStatistics.start();
+
+         g2.draw(shape);
+
+         renderStatistics.addTime(RenderStatistics.DRAW, startTime);
+      }
    }
 
    public void fill(Shape shape)
    {
       if (g2 == null) return;
 
-      g2.fill(shape);
+      if (renderStatistics == null)
+      {
+         g2.fill(shape);
+      }
+      else
+      {
+         long startTime = renderStatistics.start();
+
+         g2.fill(shape);
+
+         renderStatistics.addTime(RenderStatistics.FILL, startTime);
+      }
    }
 
    public void drawImage(Image image, AffineTransform af)
    {
       if (g2 == null) return;
 
-      g2.drawImage(image, af, component);
+      if (renderStatistics == null)
+      {
+         g2.drawImage(image, af, component);
+      }
+      else
+      {
+         long startTime = renderStatistics.start();
+
+         g2.drawImage(image, af, component);
+
+         renderStatistics.bitmapDrawn(startTime);
+      }
+   }
+
+   /**
+    * Sets the object used to record render-time statistics.
+    * @param stats the statistics object or null to disable
+    */
+   public void setRenderStatistics(RenderStatistics stats)
+   {
+      renderStatistics = stats;
+   }
+
+   /**
+    * Gets the object used to record render-time statistics.
+    * @return the statistics object or null if disabled
+    */
+   public RenderStatistics getRenderStatistics()
+   {
+      return renderStatistics;
+   }
+
+   /**
+    * Gets the pool of shared styles used by objects in this
+    * image. The pool is created the first time it's needed.
+    * @return the style pool
+    */
+   public StylePool getStylePool()
+   {
+      if (stylePool == null)
+      {
+         synchronized (this)
+         {
+            if (stylePool == null)
+            {
+               stylePool = new StylePool();
+            }
+         }
+      }
+
+      return stylePool;
    }
 
    public void drawString(String string, double x, double y)
@@ -1803,6 +1875,8 @@ public class CanvasGraphics
    };
 
    private Graphics2D g2;
+   private transient RenderStatistics renderStatistics = null;
+   private transient volatile StylePool stylePool = null;
    private double magnification;
    private JComponent component;
 
@@ -0,0 +1,184 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.Vector;
+
+/**
+ * List of drawing operations recorded by {@link RecordingGraphics2D}.
+ * The list can be replayed on any number of devices.
+ */
+public class DisplayList
+{
+   DisplayList()
+   {
+      ops = new Vector<GraphicsOp>();
+   }
+
+   void add(GraphicsOp op)
+   {
+      ops.add(op);
+   }
+
+   /**
+    * Gets the number of recorded operations.
+    * @return the number of operations
+    */
+   public int size()
+   {
+      return ops.size();
+   }
+
+   /**
+    * Replays the recorded operations on the given device. The
+    * device's transformation and clip are taken as the user space
+    * the operations were recorded in. The device's state is left
+    * unchanged.
+    * @param g the device
+    */
+   public void replay(Graphics2D g)
+   {
+      Graphics2D g2 = (Graphics2D)g.create();
+
+      try
+      {
+         AffineTransform baseTransform = g2.getTransform();
+         Shape baseClip = g2.getClip();
+
+         GraphicsState current = null;
+
+         for (GraphicsOp op : ops)
+         {
+            if (op.state != current)
+            {
+               current = op.state;
+               current.apply(g2, baseTransform, baseClip);
+            }
+
+            op.replay(g2);
+         }
+      }
+      finally
+      {
+         g2.dispose();
+      }
+   }
+
+   private Vector<GraphicsOp> ops;
+
+   /**
+    * The graphics state in effect for a recorded operation. A state
+    * isn't modified once it has been shared with an operation.
+    */
+   static class GraphicsState
+   {
+      GraphicsState(Graphics2D g)
+      {
+         transform = new AffineTransform();
+         clip = null;
+         paint = g.getPaint();
+         color = g.getColor();
+         background = g.getBackground();
+         stroke = g.getStroke();
+         composite = g.getComposite();
+         font = g.getFont();
+         hints = g.getRenderingHints();
+      }
+
+      GraphicsState(GraphicsState state)
+      {
+         transform = state.transform;
+         clip = state.clip;
+         paint = state.paint;
+         color = state.color;
+         background = state.background;
+         stroke = state.stroke;
+         composite = state.composite;
+         xorColor = state.xorColor;
+         font = state.font;
+         hints = state.hints;
+      }
+
+      /**
+       * Applies this state to the given device.
+       * @param g the device
+       * @param baseTransform the device's original transformation
+       * @param baseClip the device's original clip
+       */
+      void apply(Graphics2D g, AffineTransform baseTransform, Shape baseClip)
+      {
+         g.setTransform(baseTransform);
+         g.setClip(baseClip);
+
+         if (clip != null)
+         {
+            g.clip(clip);
+         }
+
+         g.transform(transform);
+
+         g.setRenderingHints(hints);
+
+         if (xorColor == null)
+         {
+            g.setComposite(composite);
+         }
+         else
+         {
+            g.setXORMode(xorColor);
+         }
+
+         g.setColor(color);
+
+         if (!(paint instanceof Color))
+         {
+            g.setPaint(paint);
+         }
+
+         g.setBackground(background);
+         g.setStroke(stroke);
+         g.setFont(font);
+      }
+
+      AffineTransform transform;
+      Shape clip;
+      Paint paint;
+      Color color, background, xorColor = null;
+      Stroke stroke;
+      Composite composite;
+      Font font;
+      RenderingHints hints;
+   }
+
+   /**
+    * A recorded drawing operation.
+    */
+   abstract static class GraphicsOp
+   {
+      /**
+       * Performs this operation on the given device. The state has
+       * already been applied.
+       */
+      abstract void replay(Graphics2D g);
+
+      GraphicsState state;
+   }
+}
@@ -0,0 +1,227 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.util.IdentityHashMap;
+
+/**
+ * Compiles objects into display lists for repeated drawing. The
+ * first time an object is drawn through the compiler, its
+ * {@link JDRCompleteObject#draw(boolean,FlowFrame)} method is
+ * recorded in storage co-ordinates (see {@link RecordingGraphics2D})
+ * and the recorded list is replayed on the graphics device. The
+ * recording holds the shapes (including stroke outlines and
+ * markers), paints and fonts resolved when the object was drawn,
+ * so subsequent redraws don't need to rebuild the path, create the
+ * gradient paints or stroke the outline again.
+ * <p>
+ * Groups are compiled as a list of their compiled members, so when
+ * an object is changed only that object and the groups that contain
+ * it need to be compiled again (see {@link #invalidate(JDRCompleteObject)}).
+ * The compiler doesn't detect changes to objects itself, so it
+ * should only be used where the objects aren't modified or where
+ * every modification is followed by a call to
+ * {@link #invalidate(JDRCompleteObject)}.
+ * <p>
+ * The recordings depend on the magnification, the page parity and
+ * the rendering hints of the device, so all compiled lists are
+ * discarded if any of these change.
+ */
+public class DisplayListCompiler
+{
+   public DisplayListCompiler(CanvasGraphics cg)
+   {
+      this.cg = cg;
+   }
+
+   /**
+    * Draws the given object on the canvas graphics device (which
+    * should be in storage co-ordinates), compiling it first if
+    * there is no up to date recording.
+    * @param object the object
+    * @param draft true if the object should be drawn in draft mode
+    */
+   public void draw(JDRCompleteObject object, boolean draft)
+   {
+      Graphics2D g2 = cg.getGraphics();
+
+      if (g2 == null) return;
+
+      checkSettings(g2);
+
+      draw(g2, object, draft, null);
+   }
+
+   private void draw(Graphics2D g2, JDRCompleteObject object,
+      boolean draft, FlowFrame parentFrame)
+   {
+      CompiledObject compiled = cache.get(object);
+
+      if (compiled == null || compiled.draft != draft
+           || compiled.parentFrame != parentFrame)
+      {
+         compiled = compile(g2, object, draft, parentFrame);
+         cache.put(object, compiled);
+      }
+
+      if (compiled.members == null)
+      {
+         compiled.list.replay(g2);
+         return;
+      }
+
+      FlowFrame frame = (parentFrame == null ? object.getFlowFrame()
+                         : parentFrame);
+
+      for (JDRCompleteObject member : compiled.members)
+      {
+         draw(g2, member, draft, frame);
+      }
+
+      if (compiled.list != null)
+      {
+         compiled.list.replay(g2);
+      }
+   }
+
+   private CompiledObject compile(Graphics2D g2, JDRCompleteObject object,
+      boolean draft, FlowFrame parentFrame)
+   {
+      CompiledObject compiled = new CompiledObject(draft, parentFrame);
+
+      RecordingGraphics2D recorder = new RecordingGraphics2D(g2);
+      cg.setGraphicsDevice(recorder);
+
+      try
+      {
+         if (object instanceof JDRGroup)
+         {
+            // Members are compiled separately. Only the group's own
+            // flow frame annotation is recorded here.
+
+            JDRGroup group = (JDRGroup)object;
+
+            compiled.members = new JDRCompleteObject[group.size()];
+
+            for (int i = 0; i < compiled.members.length; i++)
+            {
+               compiled.members[i] = group.get(i);
+            }
+
+            group.drawFlowFrame();
+         }
+         else
+         {
+            object.draw(draft, parentFrame);
+         }
+      }
+      finally
+      {
+         cg.setGraphicsDevice(g2);
+      }
+
+      DisplayList list = recorder.getDisplayList();
+
+      if (compiled.members == null || list.size() > 0)
+      {
+         compiled.list = list;
+      }
+
+      return compiled;
+   }
+
+   /**
+    * Discards the recordings of the given object and the groups
+    * that contain it. This should be called after the object has
+    * been modified or, if the object is a group, after a member has
+    * been added or removed.
+    * @param object the modified object
+    */
+   public void invalidate(JDRCompleteObject object)
+   {
+      for (; object != null; object = object.getParent())
+      {
+         cache.remove(object);
+      }
+   }
+
+   /**
+    * Discards all recordings.
+    */
+   public void clear()
+   {
+      cache.clear();
+   }
+
+   /**
+    * Gets the number of objects that currently have a recording.
+    * @return the number of compiled objects
+    */
+   public int size()
+   {
+      return cache.size();
+   }
+
+   private void checkSettings(Graphics2D g2)
+   {
+      double mag = cg.getMagnification();
+      boolean even = cg.isEvenPage();
+      RenderingHints hints = g2.getRenderingHints();
+
+      if (mag != magnification || even != evenPage
+           || !hints.equals(renderingHints))
+      {
+         cache.clear();
+
+         magnification = mag;
+         evenPage = even;
+         renderingHints = hints;
+      }
+   }
+
+   private CanvasGraphics cg;
+
+   private IdentityHashMap<JDRCompleteObject,CompiledObject> cache
+     = new IdentityHashMap<JDRCompleteObject,CompiledObject>();
+
+   private double magnification = 0.0;
+   private boolean evenPage = false;
+   private RenderingHints renderingHints = null;
+
+   private static class CompiledObject
+   {
+      CompiledObject(boolean draft, FlowFrame parentFrame)
+      {
+         this.draft = draft;
+         this.parentFrame = parentFrame;
+      }
+
+      boolean draft;
+      FlowFrame parentFrame;
+
+      // recorded drawing (for a group, the flow frame annotation,
+      // which may be null if there isn't one)
+      DisplayList list = null;
+
+      // group members (null if not a group)
+      JDRCompleteObject[] members = null;
+   }
+}
@@ -0,0 +1,384 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr;
+
+import java.awt.BasicStroke;
+import java.awt.geom.Rectangle2D;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summary of the contents of an image. Objects are added one at a
+ * time, so the statistics can be collected while the image is
+ * being loaded rather than by scanning the complete image
+ * afterwards. This means that the objects don't need to be kept
+ * once they have been added (see
+ * {@link com.dickimawbooks.jdr.io.JDRAJR#setStatistics(DocumentStatistics)}).
+ * <p>
+ * Bounds are in storage units. Grouped objects are counted
+ * individually as well as the group itself, but the image's
+ * top-level group isn't counted.
+ */
+public class DocumentStatistics
+{
+   public DocumentStatistics(CanvasGraphics cg)
+   {
+      canvasGraphics = cg;
+   }
+
+   /**
+    * Adds the given object. If the object is a group, its members
+    * are also added.
+    * @param object the object
+    */
+   public synchronized void add(JDRCompleteObject object)
+   {
+      add(object, true);
+   }
+
+   /**
+    * Adds the given object using bounds that have already been
+    * computed. This avoids computing the bounds again (which, for
+    * text, requires the graphics device). If the object is a
+    * group, its members are also added.
+    * @param object the object
+    * @param bounds the object's bounds in storage units or null if
+    * not known
+    */
+   public synchronized void add(JDRCompleteObject object, BBox bounds)
+   {
+      add(object, false);
+
+      if (bounds != null)
+      {
+         mergeBounds(bounds.getMinX(), bounds.getMinY(),
+           bounds.getMaxX(), bounds.getMaxY());
+      }
+   }
+
+   private void add(JDRCompleteObject object, boolean updateBounds)
+   {
+      if (object.getFlowFrame() != null)
+      {
+         flowFrames++;
+      }
+
+      if (object instanceof JDRGroup)
+      {
+         objectCounts[GROUP]++;
+
+         JDRGroup group = (JDRGroup)object;
+
+         for (int i = 0, n = group.size(); i < n; i++)
+         {
+            add(group.get(i), updateBounds);
+         }
+
+         return;
+      }
+
+      objectCounts[getType(object)]++;
+
+      if (object instanceof JDRShape)
+      {
+         segments += ((JDRShape)object).size();
+      }
+
+      if (object.hasTextual())
+      {
+         JDRTextual textual = object.getTextual();
+
+         String text = textual.getText();
+
+         if (text != null)
+         {
+            characters += text.codePointCount(0, text.length());
+         }
+
+         increment(fonts, textual.getFontFamily());
+      }
+
+      if (object instanceof JDRBitmap)
+      {
+         increment(bitmapFiles, ((JDRBitmap)object).getFilename());
+      }
+
+      if (updateBounds && !isInsideBounds(object))
+      {
+         BBox box = object.getStorageBBox();
+
+         if (box != null)
+         {
+            mergeBounds(box.getMinX(), box.getMinY(),
+              box.getMaxX(), box.getMaxY());
+         }
+      }
+   }
+
+   /**
+    * Determines whether the given object is certain to lie within
+    * the bounds found so far. The exact bounds of a stroked path
+    * require the outline of the stroke, which is expensive to
+    * compute, but the stroke can't extend further from the path
+    * than the mitre limit or the square cap allows. So if the
+    * path's bounds expanded by that amount lie within the current
+    * bounds, the exact bounds won't change them.
+    */
+   private boolean isInsideBounds(JDRCompleteObject object)
+   {
+      if (minX > maxX || object.getClass() != JDRPath.class)
+      {
+         return false;
+      }
+
+      JDRPath path = (JDRPath)object;
+
+      if (path.isEmpty() || path.hasMarkers()
+           || !(path.getStroke() instanceof JDRBasicStroke))
+      {
+         return false;
+      }
+
+      Rectangle2D bounds = path.getGeneralPath().getBounds2D();
+
+      if (bounds.getWidth() == 0 && bounds.getHeight() == 0)
+      {
+         return false;
+      }
+
+      double margin = 0.0;
+
+      if (path.isStroked())
+      {
+         JDRBasicStroke stroke = (JDRBasicStroke)path.getStroke();
+
+         double factor = SQRT2;
+
+         if (stroke.getJoinStyle() == BasicStroke.JOIN_MITER)
+         {
+            factor = Math.max(factor, stroke.getMitreLimit());
+         }
+
+         margin = 0.5*factor
+           *stroke.getPenWidth().getValue(getStorageUnit());
+      }
+
+      // allow for rounding errors in the stroke outline
+      margin += 1e-3*(1.0+margin);
+
+      return bounds.getMinX()-margin >= minX
+          && bounds.getMinY()-margin >= minY
+          && bounds.getMaxX()+margin <= maxX
+          && bounds.getMaxY()+margin <= maxY;
+   }
+
+   /**
+    * Adds a bitmap that hasn't been loaded.
+    * @param filename the bitmap's file name
+    * @param bounds the bitmap's bounds in storage units or null if
+    * not known
+    */
+   public synchronized void addBitmap(String filename, Rectangle2D bounds)
+   {
+      objectCounts[BITMAP]++;
+
+      increment(bitmapFiles, filename);
+
+      if (bounds != null)
+      {
+         mergeBounds(bounds.getMinX(), bounds.getMinY(),
+           bounds.getMaxX(), bounds.getMaxY());
+      }
+   }
+
+   private void mergeBounds(double x0, double y0, double x1, double y1)
+   {
+      if (x0 < minX) minX = x0;
+      if (y0 < minY) minY = y0;
+      if (x1 > maxX) maxX = x1;
+      if (y1 > maxY) maxY = y1;
+   }
+
+   private static void increment(Map<String,Integer> map, String key)
+   {
+      if (key == null) return;
+
+      Integer count = map.get(key);
+
+      map.put(key, count == null ? 1 : count+1);
+   }
+
+   private static int getType(JDRCompleteObject object)
+   {
+      if (object instanceof JDRTextPath)
+      {
+         return TEXT_PATH;
+      }
+      else if (object instanceof JDRSymmetricPath)
+      {
+         return SYMMETRIC_PATH;
+      }
+      else if (object instanceof JDRPattern)
+      {
+         return PATTERN;
+      }
+      else if (object instanceof JDRPath)
+      {
+         return PATH;
+      }
+      else if (object instanceof JDRText)
+      {
+         return TEXT;
+      }
+      else if (object instanceof JDRBitmap)
+      {
+         return BITMAP;
+      }
+
+      return OTHER;
+   }
+
+   /**
+    * Gets the number of objects of the given type.
+    * @param type the object type, which must be one of:
+    * {@link #GROUP}, {@link #PATH}, {@link #TEXT},
+    * {@link #TEXT_PATH}, {@link #SYMMETRIC_PATH},
+    * {@link #PATTERN}, {@link #BITMAP} or {@link #OTHER}
+    * @return the number of objects
+    */
+   public synchronized int getObjectCount(int type)
+   {
+      return objectCounts[type];
+   }
+
+   /**
+    * Gets the total number of objects, including groups.
+    * @return the number of objects
+    */
+   public synchronized int getObjectCount()
+   {
+      int total = 0;
+
+      for (int count : objectCounts)
+      {
+         total += count;
+      }
+
+      return total;
+   }
+
+   /**
+    * Gets the total number of segments in all the shapes.
+    * @return the number of segments
+    */
+   public synchronized int getSegmentCount()
+   {
+      return segments;
+   }
+
+   /**
+    * Gets the total number of characters in all the text.
+    * @return the number of characters
+    */
+   public synchronized int getCharacterCount()
+   {
+      return characters;
+   }
+
+   /**
+    * Gets the number of objects that have a flow frame.
+    * @return the number of flow frames
+    */
+   public synchronized int getFlowFrameCount()
+   {
+      return flowFrames;
+   }
+
+   /**
+    * Gets the font families used by the text, each with the number
+    * of objects that use it.
+    * @return map of font family to number of objects
+    */
+   public synchronized Map<String,Integer> getFonts()
+   {
+      return new TreeMap<String,Integer>(fonts);
+   }
+
+   /**
+    * Gets the bitmap files, each with the number of bitmaps that
+    * link to it.
+    * @return map of file name to number of bitmaps
+    */
+   public synchronized Map<String,Integer> getBitmapFiles()
+   {
+      return new TreeMap<String,Integer>(bitmapFiles);
+   }
+
+   /**
+    * Gets the smallest box that contains all the objects.
+    * @return the bounding box in storage units or null if there are
+    * no objects with bounds
+    */
+   public synchronized BBox getStorageBBox()
+   {
+      if (minX > maxX)
+      {
+         return null;
+      }
+
+      return new BBox(canvasGraphics, minX, minY, maxX, maxY);
+   }
+
+   public JDRUnit getStorageUnit()
+   {
+      return canvasGraphics.getStorageUnit();
+   }
+
+   public CanvasGraphics getCanvasGraphics()
+   {
+      return canvasGraphics;
+   }
+
+   private CanvasGraphics canvasGraphics;
+
+   private int[] objectCounts = new int[NUM_TYPES];
+   private int segments = 0, characters = 0, flowFrames = 0;
+
+   private double minX = Double.POSITIVE_INFINITY;
+   private double minY = Double.POSITIVE_INFINITY;
+   private double maxX = Double.NEGATIVE_INFINITY;
+   private double maxY = Double.NEGATIVE_INFINITY;
+
+   private TreeMap<String,Integer> fonts = new TreeMap<String,Integer>();
+   private TreeMap<String,Integer> bitmapFiles
+     = new TreeMap<String,Integer>();
+
+   public static final int GROUP = 0;
+   public static final int PATH = 1;
+   public static final int TEXT = 2;
+   public static final int TEXT_PATH = 3;
+   public static final int SYMMETRIC_PATH = 4;
+   public static final int PATTERN = 5;
+   public static final int BITMAP = 6;
+   public static final int OTHER = 7;
+
+   private static final int NUM_TYPES = 8;
+
+   private static final double SQRT2 = Math.sqrt(2.0);
+}
@@ -256,10 +256,17 @@ public class FlowFrame implements Cloneable,Serializable
 
       g2.draw(rect);
 
+      LabelLayout cache = labelLayout;
       String str = getDisplayLabel();
-
       FontRenderContext frc = g2.getFontRenderContext();
-      TextLayout layout = new TextLayout(str, font, frc);
+
+      if (cache == null || !cache.matches(str, font, frc))
+      {
+         cache = new LabelLayout(str, font, frc);
+         labelLayout = cache;
+      }
+
+      TextLayout layout = cache.layout;
 
       int alignPos;
 
@@ -362,43 +369,24 @@ public class FlowFrame implements Cloneable,Serializable
 
       float y0 = pen.y;
 
-      String[] lines = contents.split("(\r\n|\n)");
+      ContentLayout cache = contentLayout;
 
-      for (String line : lines)
+      if (cache == null || !cache.matches(contents, font,
+            g2.getFontRenderContext(), wrappingWidth, wrappingHeight))
       {
-         if (!drawContent(g2, font, line, pen, wrappingWidth, wrappingHeight, y0))
-         {
-            break;
-         }
-      }
-   }
+         cache = new ContentLayout(contents, font,
+            g2.getFontRenderContext(), wrappingWidth, wrappingHeight);
 
-   protected boolean drawContent(Graphics2D g2, Font font, 
-      String line, Point2D.Float pen,
-      float wrappingWidth, float wrappingHeight, float y0)
-   {
-      if (line.isEmpty())
-      {
-         line = " ";
+         contentLayout = cache;
       }
 
-      FontRenderContext frc = g2.getFontRenderContext();
-
-      AttributedString attStr = new AttributedString(line);
-      attStr.addAttribute(TextAttribute.FONT, font);
-
-      AttributedCharacterIterator attrIter = attStr.getIterator();
-      LineBreakMeasurer measurer = new LineBreakMeasurer(attrIter, frc);
-
-      while (measurer.getPosition() < attrIter.getEndIndex())
+      for (TextLayout layout : cache.lines)
       {
-         TextLayout layout = measurer.nextLayout(wrappingWidth);
-
          pen.y += layout.getAscent();
 
          if (pen.y - y0 > wrappingHeight)
          {
-            return false; // no more room
+            break; // no more room
          }
 
          float dx = layout.isLeftToRight() ?
@@ -408,8 +396,6 @@ public class FlowFrame implements Cloneable,Serializable
 
          pen.y += layout.getDescent() + layout.getLeading();
       }
-
-      return true;
    }
 
    /**
@@ -441,9 +427,18 @@ public class FlowFrame implements Cloneable,Serializable
     */
    public Rectangle2D getLabelBounds(BBox bbox)
    {
-      FontRenderContext frc = new FontRenderContext(null,true,true);
-      TextLayout layout = new TextLayout(getDisplayLabel(),
-         JDRCompleteObject.annoteFont, frc);
+      LabelLayout cache = labelBoundsLayout;
+      String str = getDisplayLabel();
+
+      if (cache == null
+           || !cache.matches(str, JDRCompleteObject.annoteFont, LABEL_BOUNDS_FRC))
+      {
+         cache = new LabelLayout(str, JDRCompleteObject.annoteFont,
+            LABEL_BOUNDS_FRC);
+         labelBoundsLayout = cache;
+      }
+
+      TextLayout layout = cache.layout;
 
       double x = bbox.getMinX()+left;
       double y = bbox.getMinY()+top;
@@ -2036,6 +2031,19 @@ public class FlowFrame implements Cloneable,Serializable
    private int shape=STANDARD;
    private int valign=CENTER;
 
+   /**
+    * Cached layouts of the annotation (as drawn and as used for the
+    * bounds) and the contents preview. These are replaced whenever
+    * the text, font, rendering context or available area no longer
+    * match.
+    */
+   private transient volatile LabelLayout labelLayout = null;
+   private transient volatile LabelLayout labelBoundsLayout = null;
+   private transient volatile ContentLayout contentLayout = null;
+
+   private static final FontRenderContext LABEL_BOUNDS_FRC
+     = new FontRenderContext(null, true, true);
+
    public static final Pattern THUMBTAB_LABEL
      = Pattern.compile("(even)?thumbtab(index)?\\d+");
 
@@ -2054,4 +2062,105 @@ public class FlowFrame implements Cloneable,Serializable
    public static int flowAnnotePos = ANNOTE_BOTTOM_LEFT;
    public static int staticAnnotePos = ANNOTE_BOTTOM_LEFT;
    public static int dynamicAnnotePos = ANNOTE_BOTTOM_LEFT;
+
+   /**
+    * Layout of the annotation text.
+    */
+   private static class LabelLayout
+   {
+      LabelLayout(String text, Font font, FontRenderContext frc)
+      {
+         this.text = text;
+         this.font = font;
+         this.frc = frc;
+
+         layout = new TextLayout(text, font, frc);
+      }
+
+      boolean matches(String text, Font font, FontRenderContext frc)
+      {
+         return this.text.equals(text) && this.font.equals(font)
+           && this.frc.equals(frc);
+      }
+
+      String text;
+      Font font;
+      FontRenderContext frc;
+      TextLayout layout;
+   }
+
+   /**
+    * Lines of the contents preview wrapped to a given width. Lines
+    * are only laid out while they fit in the available height, so a
+    * long text in a small frame isn't laid out in full. The layout
+    * can be reused for any height up to that limit, or for any
+    * height if all the lines fitted.
+    */
+   private static class ContentLayout
+   {
+      ContentLayout(String contents, Font font, FontRenderContext frc,
+        float wrappingWidth, float wrappingHeight)
+      {
+         this.contents = contents;
+         this.font = font;
+         this.frc = frc;
+         this.wrappingWidth = wrappingWidth;
+         this.wrappingHeight = wrappingHeight;
+
+         lines = new Vector<TextLayout>();
+
+         float y = 0f;
+
+         complete = true;
+
+         for (String line : contents.split("(\r\n|\n)"))
+         {
+            if (line.isEmpty())
+            {
+               line = " ";
+            }
+
+            AttributedString attStr = new AttributedString(line);
+            attStr.addAttribute(TextAttribute.FONT, font);
+
+            AttributedCharacterIterator attrIter = attStr.getIterator();
+            LineBreakMeasurer measurer = new LineBreakMeasurer(attrIter, frc);
+
+            while (measurer.getPosition() < attrIter.getEndIndex())
+            {
+               TextLayout layout = measurer.nextLayout(wrappingWidth);
+
+               lines.add(layout);
+
+               y += layout.getAscent();
+
+               if (y > wrappingHeight)
+               {
+                  // this line won't be drawn (but keep it in case of
+                  // rounding differences when the lines are drawn)
+                  complete = false;
+                  return;
+               }
+
+               y += layout.getDescent() + layout.getLeading();
+            }
+         }
+      }
+
+      boolean matches(String contents, Font font, FontRenderContext frc,
+        float wrappingWidth, float wrappingHeight)
+      {
+         return (this.contents == contents || this.contents.equals(contents))
+           && this.font.equals(font) && this.frc.equals(frc)
+           && this.wrappingWidth == wrappingWidth
+           && (complete || wrappingHeight <= this.wrappingHeight);
+      }
+
+      String contents;
+      Font font;
+      FontRenderContext frc;
+      float wrappingWidth, wrappingHeight;
+      boolean complete;
+      Vector<TextLayout> lines;
+   }
 }
@@ -0,0 +1,273 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr;
+
+import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Process-wide catalogue of the available font families. Finding
+ * the available font families can be slow, so the list is only
+ * obtained once, either when first required or in the background
+ * after {@link #warmUp()} is called. Family lookups are
+ * case-insensitive. This class also caches {@link Font} objects
+ * so that objects using the same font share the same instance.
+ */
+public class FontCatalogue
+{
+   private FontCatalogue()
+   {
+   }
+
+   /**
+    * Starts finding the available font families on a background
+    * thread, if not already started. This should be called as
+    * early as possible on startup by applications that will need
+    * the list of font families.
+    */
+   public static void warmUp()
+   {
+      if (started) return;
+
+      synchronized (FontCatalogue.class)
+      {
+         if (started) return;
+
+         started = true;
+      }
+
+      Thread thread = new Thread(task, "FontCatalogue");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      thread.start();
+   }
+
+   private static Catalogue getCatalogue()
+   {
+      // Find the families on this thread if the background task
+      // hasn't been started. (FutureTask only runs once, so if it
+      // has already been started this just waits for it to finish.)
+
+      if (!started)
+      {
+         synchronized (FontCatalogue.class)
+         {
+            started = true;
+         }
+
+         task.run();
+      }
+
+      boolean interrupted = false;
+
+      try
+      {
+         while (true)
+         {
+            try
+            {
+               return task.get();
+            }
+            catch (InterruptedException e)
+            {
+               interrupted = true;
+            }
+         }
+      }
+      catch (ExecutionException e)
+      {
+         throw new IllegalStateException(
+           "Unable to obtain available font families", e.getCause());
+      }
+      finally
+      {
+         if (interrupted)
+         {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   /**
+    * Gets the names of the available font families.
+    * @return array of font family names (shouldn't be modified)
+    */
+   public static String[] getFamilies()
+   {
+      return getCatalogue().families;
+   }
+
+   /**
+    * Determines whether or not the given font family is available.
+    * The logical families Serif, SansSerif, Monospaced, Dialog
+    * and DialogInput are always available.
+    * @param family the font family name (case-insensitive)
+    * @return true if the family is available
+    */
+   public static boolean isFamilyAvailable(String family)
+   {
+      return getCanonicalFamily(family) != null;
+   }
+
+   /**
+    * Gets the name of the given font family as listed in the
+    * catalogue.
+    * @param family the font family name (case-insensitive)
+    * @return the family name as listed or null if not available
+    */
+   public static String getCanonicalFamily(String family)
+   {
+      String key = family.toLowerCase(Locale.ROOT);
+
+      for (String logical : LOGICAL_FAMILIES)
+      {
+         if (logical.toLowerCase(Locale.ROOT).equals(key))
+         {
+            return logical;
+         }
+      }
+
+      return getCatalogue().lookup.get(key);
+   }
+
+   /**
+    * Gets a font with the given attributes. Font objects are
+    * immutable, so the same instance is returned for the same
+    * attributes.
+    * @param family the font family
+    * @param style the font style ({@link Font#PLAIN},
+    * {@link Font#BOLD}, {@link Font#ITALIC} or BOLD|ITALIC)
+    * @param size the font size
+    * @return the font
+    */
+   public static Font getFont(String family, int style, int size)
+   {
+      FontKey key = new FontKey(family, style, size);
+
+      Font font = fonts.get(key);
+
+      if (font == null)
+      {
+         if (fonts.size() >= MAX_FONTS)
+         {
+            fonts.clear();
+         }
+
+         font = new Font(family, style, size);
+
+         Font existing = fonts.putIfAbsent(key, font);
+
+         if (existing != null)
+         {
+            font = existing;
+         }
+      }
+
+      return font;
+   }
+
+   private static class Catalogue
+   {
+      Catalogue(String[] families)
+      {
+         this.families = families;
+
+         lookup = new HashMap<String,String>(2*families.length);
+
+         for (String family : families)
+         {
+            String key = family.toLowerCase(Locale.ROOT);
+
+            if (!lookup.containsKey(key))
+            {
+               lookup.put(key, family);
+            }
+         }
+      }
+
+      final String[] families;
+      final HashMap<String,String> lookup;
+   }
+
+   private static class FontKey
+   {
+      FontKey(String family, int style, int size)
+      {
+         this.family = family;
+         this.style = style;
+         this.size = size;
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (!(obj instanceof FontKey)) return false;
+
+         FontKey key = (FontKey)obj;
+
+         return size == key.size && style == key.style
+           && family.equals(key.family);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return (family.hashCode()*31 + style)*31 + size;
+      }
+
+      private final String family;
+      private final int style, size;
+   }
+
+   private static final String[] LOGICAL_FAMILIES = new String[]
+   {
+      Font.SERIF, Font.SANS_SERIF, Font.MONOSPACED, Font.DIALOG,
+      Font.DIALOG_INPUT
+   };
+
+   private static final FutureTask<Catalogue> task
+    = new FutureTask<Catalogue>(new Callable<Catalogue>()
+      {
+         public Catalogue call()
+         {
+            GraphicsEnvironment env =
+               GraphicsEnvironment.getLocalGraphicsEnvironment();
+
+            return new Catalogue(env.getAvailableFontFamilyNames());
+         }
+      });
+
+   private static volatile boolean started = false;
+
+   private static final ConcurrentHashMap<FontKey,Font> fonts
+    = new ConcurrentHashMap<FontKey,Font>();
+
+   /**
+    * Upper bound on the number of cached fonts. The cache is
+    * simply cleared if this is reached.
+    */
+   private static final int MAX_FONTS = 1024;
+}
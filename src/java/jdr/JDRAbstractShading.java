@@ -376,6 +376,4 @@ public abstract class JDRAbstractShading extends JDRPaint implements JDRShading
    }
 
    protected JDRPaint startColor, midColor, endColor;
-
-   protected static int pgfshadeid=0;
 }
@@ -2663,6 +2663,24 @@ public class JDRBasicStroke implements JDRStroke
       return canvasGraphics;
    }
 
+   /**
+    * Determines whether this line style is shared by several
+    * objects (see {@link StylePool}). A shared line style mustn't
+    * be modified. Objects that need to change a shared line style
+    * must replace it with a copy first (see
+    * {@link JDRCompleteObject#unshareStyles()}).
+    * @return true if this line style is shared
+    */
+   public boolean isShared()
+   {
+      return shared;
+   }
+
+   void markShared()
+   {
+      shared = true;
+   }
+
    /**
     * The dash pattern.
     */
@@ -2692,5 +2710,7 @@ public class JDRBasicStroke implements JDRStroke
       = new JDRBasicPathStyleListener();
 
    private volatile CanvasGraphics canvasGraphics;
+
+   private volatile boolean shared = false;
 }
 
@@ -29,6 +29,7 @@ import java.awt.image.*;
 import java.awt.geom.*;
 import java.awt.font.*;
 import java.util.*;
+import java.util.zip.DeflaterOutputStream;
 
 import javax.swing.*;
 import javax.imageio.*;
@@ -278,6 +279,77 @@ public class JDRBitmap extends JDRCompleteObject
       }
    }
 
+   /**
+    * Gets the bounds that a bitmap would have without loading the
+    * image. Only the image header is read to obtain the image
+    * dimensions.
+    * @param cg the canvas graphics
+    * @param file the image file
+    * @param matrix the bitmap's transformation matrix
+    * @return the bounds in storage units or null if the image
+    * can't be read
+    */
+   public static Rectangle2D getStorageBounds(CanvasGraphics cg, File file,
+     double[] matrix)
+   {
+      ImageInputStream stream = null;
+
+      try
+      {
+         stream = ImageIO.createImageInputStream(file);
+
+         if (stream == null)
+         {
+            return null;
+         }
+
+         Iterator<ImageReader> it = ImageIO.getImageReaders(stream);
+
+         if (!it.hasNext())
+         {
+            return null;
+         }
+
+         ImageReader reader = it.next();
+
+         try
+         {
+            reader.setInput(stream, true, true);
+
+            JDRUnit unit = cg.getStorageUnit();
+
+            Rectangle2D rect = new Rectangle2D.Double(0, 0,
+               unit.fromBp(reader.getWidth(0)),
+               unit.fromBp(reader.getHeight(0)));
+
+            return new AffineTransform(matrix)
+              .createTransformedShape(rect).getBounds2D();
+         }
+         finally
+         {
+            reader.dispose();
+         }
+      }
+      catch (IOException e)
+      {
+         cg.debugMessage(e);
+         return null;
+      }
+      finally
+      {
+         if (stream != null)
+         {
+            try
+            {
+               stream.close();
+            }
+            catch (IOException e)
+            {
+            }
+         }
+      }
+   }
+
    public boolean isDraft()
    {
       return !imageLoaded;
@@ -1142,6 +1214,14 @@ public class JDRBitmap extends JDRCompleteObject
          return;
       }
 
+      EPSWriter writer = EPS.getResourceWriter(out);
+
+      if (writer != null)
+      {
+         saveEPS(writer);
+         return;
+      }
+
       CanvasGraphics cg = getCanvasGraphics();
 
       JDRUnit unit = cg.getStorageUnit();
@@ -1228,6 +1308,153 @@ public class JDRBitmap extends JDRCompleteObject
       out.println("grestore");
    }
 
+   /**
+    * Saves this object in EPS format using shared resources. The
+    * image data is compressed and encoded as it's written, one row
+    * at a time. If the image is used more than once, the data is
+    * defined as a resource the first time it's used and the
+    * resource is referenced subsequently. Otherwise the data is
+    * streamed inline.
+    */
+   private void saveEPS(EPSWriter out)
+      throws IOException
+   {
+      Image image = ic.getImage();
+      Object key = EPSWriter.getImageKey(this);
+
+      boolean shared = out.isImageShared(key);
+      String name = null;
+
+      if (shared)
+      {
+         name = out.getResourceName(key);
+
+         if (name == null)
+         {
+            name = out.addResource(key, "Img");
+
+            out.println("/"+name+" [");
+            out.print("<~");
+            writeCompressedRGB(image, 
+              new ASCII85OutputStream(out, MAX_EPS_STRING_LENGTH));
+            out.println("] def");
+         }
+      }
+
+      JDRUnit unit = getCanvasGraphics().getStorageUnit();
+
+      out.println("gsave");
+
+      double[] flatmatrix = new double[6];
+      affineTransform.getMatrix(flatmatrix);
+
+      out.println("/bitmapmat ["+flatmatrix[0]+" "+flatmatrix[1]+" "
+                     +flatmatrix[2]+" "+flatmatrix[3]+" "
+                     +unit.toBp(flatmatrix[4])+" "
+                     +unit.toBp(flatmatrix[5])+"]def");
+      out.println("/bitmapinv matrix def");
+
+      out.println("/DeviceRGB setcolorspace");
+
+      String dataSource;
+
+      if (shared)
+      {
+         dataSource = name+" jdrsrc";
+      }
+      else
+      {
+         // The data follows the image operator. Any data left over
+         // after the image has been read (such as the end of the
+         // compressed stream) is discarded by flushfile.
+
+         out.println("/jdrA85 currentfile /ASCII85Decode filter def");
+         out.println("{");
+         dataSource = "jdrA85 /FlateDecode filter";
+      }
+
+      out.println("<<");
+      out.println("  /ImageType 1");
+      out.println("  /Width "+ic.getIconWidth());
+      out.println("  /Height "+ic.getIconHeight());
+      out.println("  /BitsPerComponent 8");
+      out.println("  /Decode [0 1 0 1 0 1]");
+      out.println("  /ImageMatrix bitmapmat bitmapinv invertmatrix");
+      out.println("  /DataSource "+dataSource);
+      out.println(">>");
+
+      if (shared)
+      {
+         out.println("image");
+      }
+      else
+      {
+         out.println("image jdrA85 flushfile} exec");
+         writeCompressedRGB(image, new ASCII85OutputStream(out));
+      }
+
+      out.println("grestore");
+   }
+
+   /**
+    * Writes the RGB samples of the given image, compressed with the
+    * deflate method. Only one row of samples is held in memory at
+    * a time.
+    * @param image the image
+    * @param encoder the encoder to which the compressed data should
+    * be written (finished on completion)
+    */
+   private void writeCompressedRGB(Image image, ASCII85OutputStream encoder)
+      throws IOException
+   {
+      BufferedImage buffImage;
+
+      if (image instanceof BufferedImage)
+      {
+         buffImage = (BufferedImage)image;
+      }
+      else
+      {
+         buffImage = new BufferedImage(ic.getIconWidth(),
+           ic.getIconHeight(), getColorType(image));
+
+         Graphics g = buffImage.createGraphics();
+         g.drawImage(image, 0, 0, null);
+         g.dispose();
+      }
+
+      int w = buffImage.getWidth();
+      int h = buffImage.getHeight();
+
+      int[] rgb = new int[w];
+      byte[] samples = new byte[3*w];
+
+      // closing the deflater stream finishes the encoder but
+      // doesn't close the underlying writer
+      DeflaterOutputStream deflater = new DeflaterOutputStream(encoder);
+
+      try
+      {
+         for (int y = 0; y < h; y++)
+         {
+            buffImage.getRGB(0, y, w, 1, rgb, 0, w);
+
+            for (int x = 0, i = 0; x < w; x++)
+            {
+               samples[i++] = (byte)((rgb[x] >> 16) & 0xff);
+               samples[i++] = (byte)((rgb[x] >> 8) & 0xff);
+               samples[i++] = (byte)(rgb[x] & 0xff);
+            }
+
+            deflater.write(samples);
+         }
+      }
+      finally
+      {
+         deflater.close();
+      }
+   }
+
    /**
     * Returns the EPS level supported by this object.
     */
@@ -1554,6 +1781,13 @@ public class JDRBitmap extends JDRCompleteObject
 
    private ImageIcon ic;
 
+   /**
+    * Maximum number of bytes in each string of image data when a
+    * bitmap is defined as an EPS resource. (PostScript strings
+    * can't be longer than 65535 bytes.)
+    */
+   private static final int MAX_EPS_STRING_LENGTH = 65532;
+
    private static JDRBitmapListener bitmapListener = new JDRBitmapListener();
 
    private boolean imageLoaded;
@@ -252,7 +252,7 @@ public class JDRColor extends JDRPaint implements Serializable
    public void saveEPS(PrintWriter out, BBox box)
       throws IOException
    {
-      out.println(""+red+" "+green+" "+blue+" setrgbcolor");
+      EPS.saveColour(out, ""+red+" "+green+" "+blue+" setrgbcolor");
    }
 
    public int psLevel()
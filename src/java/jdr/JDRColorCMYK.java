@@ -224,7 +224,7 @@ public class JDRColorCMYK extends JDRPaint implements Serializable
    public void saveEPS(PrintWriter out, BBox box)
       throws IOException
    {
-      out.println(""+cyan+" "+magenta+" "+yellow+" "+key
+      EPS.saveColour(out, ""+cyan+" "+magenta+" "+yellow+" "+key
                  +" setcmykcolor");
    }
 
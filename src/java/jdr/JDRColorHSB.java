@@ -187,7 +187,7 @@ public class JDRColorHSB extends JDRPaint implements Serializable
    public void saveEPS(PrintWriter out, BBox box)
       throws IOException
    {
-      out.println(""+(hue/360.0)+" "+saturation+" "+brightness +" sethsbcolor");
+      EPS.saveColour(out, ""+(hue/360.0)+" "+saturation+" "+brightness +" sethsbcolor");
    }
 
    public int psLevel()
@@ -1122,6 +1122,26 @@ public abstract class JDRCompleteObject extends JDRObject
       pathChanged();
    }
 
+   /**
+    * Replaces this object's styles with the shared instances in the
+    * given pool. This does nothing by default.
+    * @param pool the style pool
+    * @see #unshareStyles()
+    */
+   public void internStyles(StylePool pool)
+   {
+   }
+
+   /**
+    * Replaces any shared styles with this object's own copy. This
+    * must be called before any of this object's styles are
+    * modified in place. This does nothing by default.
+    * @see #internStyles(StylePool)
+    */
+   public void unshareStyles()
+   {
+   }
+
    public int getObjectFlag()
    {
       return SELECT_FLAG_OBJECT;
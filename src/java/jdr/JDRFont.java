@@ -127,7 +127,7 @@ public class JDRFont implements Cloneable,Serializable
 
    public Font getJavaFont()
    {
-      return new Font(family, getJavaFontStyle(), getBpSize());
+      return FontCatalogue.getFont(family, getJavaFontStyle(), getBpSize());
    }
 
    public int getJavaFontStyle()
@@ -325,6 +325,24 @@ public class JDRFont implements Cloneable,Serializable
       return "";
    }
 
+   /**
+    * Determines whether this font style is shared by several
+    * objects (see {@link StylePool}). A shared font style mustn't
+    * be modified. Objects that need to change a shared font style
+    * must replace it with a copy first (see
+    * {@link JDRCompleteObject#unshareStyles()}).
+    * @return true if this font style is shared
+    */
+   public boolean isShared()
+   {
+      return shared;
+   }
+
+   void markShared()
+   {
+      shared = true;
+   }
+
    /**
     * Gets a copy of this style.
     * @return a copy of this font style
@@ -471,5 +489,7 @@ public class JDRFont implements Cloneable,Serializable
    private volatile int weight=0, shape=0;
 
    private volatile JDRLength size;
+
+   private volatile boolean shared = false;
 }
 
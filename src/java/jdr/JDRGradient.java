@@ -240,7 +240,7 @@ public class JDRGradient extends JDRAbstractShading
       }
    }
 
-   private String pgfdeclareverticalshading(
+   private String pgfdeclareverticalshading(String shadeId,
       JDRPaint start, JDRPaint mid, JDRPaint end)
    {
       StringBuilder builder = new StringBuilder();
@@ -248,9 +248,9 @@ public class JDRGradient extends JDRAbstractShading
       String eol = System.getProperty("line.separator", "\n");
       boolean hasMid = (mid != null && !(mid instanceof JDRTransparent));
 
-      String startPaintID = "jdrlinear-start-"+pgfshadeid;
-      String midPaintID = "jdrlinear-mid-"+pgfshadeid;
-      String endPaintID = "jdrlinear-end-"+pgfshadeid;
+      String startPaintID = "jdrlinear-start-"+shadeId;
+      String midPaintID = "jdrlinear-mid-"+shadeId;
+      String endPaintID = "jdrlinear-end-"+shadeId;
 
       builder.append("\\definecolor{");
       builder.append(startPaintID);
@@ -283,7 +283,7 @@ public class JDRGradient extends JDRAbstractShading
       builder.append(eol);
 
       builder.append("\\pgfdeclareverticalshading{jdrlinear");
-      builder.append(pgfshadeid);
+      builder.append(shadeId);
       builder.append("}{100bp}{");
 
       builder.append("color(0bp)=(");
@@ -314,7 +314,7 @@ public class JDRGradient extends JDRAbstractShading
       return builder.toString();
    }
 
-   private String pgfdeclarehorizontalshading(
+   private String pgfdeclarehorizontalshading(String shadeId,
       JDRPaint start, JDRPaint mid, JDRPaint end)
    {
       StringBuilder builder = new StringBuilder();
@@ -322,9 +322,9 @@ public class JDRGradient extends JDRAbstractShading
 
       boolean hasMid = (mid != null && !(mid instanceof JDRTransparent));
 
-      String startPaintID = "jdrlinear-start-"+pgfshadeid;
-      String midPaintID = "jdrlinear-mid-"+pgfshadeid;
-      String endPaintID = "jdrlinear-end-"+pgfshadeid;
+      String startPaintID = "jdrlinear-start-"+shadeId;
+      String midPaintID = "jdrlinear-mid-"+shadeId;
+      String endPaintID = "jdrlinear-end-"+shadeId;
 
       builder.append("\\definecolor{");
       builder.append(startPaintID);
@@ -357,7 +357,7 @@ public class JDRGradient extends JDRAbstractShading
       builder.append(eol);
 
       builder.append("\\pgfdeclarehorizontalshading{jdrlinear");
-      builder.append(pgfshadeid);
+      builder.append(shadeId);
       builder.append("}{");
       builder.append("100bp}{");
 
@@ -398,6 +398,7 @@ public class JDRGradient extends JDRAbstractShading
       }
 
       String eol = System.getProperty("line.separator", "\n");
+      String shadeId = TeX.nextShadingId();
 
       String str = "";
       int angle=0;
@@ -407,35 +408,35 @@ public class JDRGradient extends JDRAbstractShading
       switch (direction)
       {
          case NORTH:
-           str = pgfdeclareverticalshading(startColor,midColor,endColor);
+           str = pgfdeclareverticalshading(shadeId, startColor,midColor,endColor);
            angle=0;
          break;
          case NORTH_EAST :
-           str = pgfdeclareverticalshading(startColor,midColor,endColor);
+           str = pgfdeclareverticalshading(shadeId, startColor,midColor,endColor);
            angle=45;
          break;
          case EAST :
-           str = pgfdeclarehorizontalshading(startColor,midColor,endColor);
+           str = pgfdeclarehorizontalshading(shadeId, startColor,midColor,endColor);
            angle = 0;
          break;
          case SOUTH_EAST :
-           str = pgfdeclarehorizontalshading(startColor,midColor,endColor);
+           str = pgfdeclarehorizontalshading(shadeId, startColor,midColor,endColor);
            angle = 45;
          break;
          case SOUTH :
-           str = pgfdeclareverticalshading(endColor,midColor,startColor);
+           str = pgfdeclareverticalshading(shadeId, endColor,midColor,startColor);
            angle = 0;
          break;
          case SOUTH_WEST :
-           str = pgfdeclareverticalshading(endColor,midColor,startColor);
+           str = pgfdeclareverticalshading(shadeId, endColor,midColor,startColor);
            angle = 45;
          break;
          case WEST :
-           str = pgfdeclarehorizontalshading(endColor,midColor,startColor);
+           str = pgfdeclarehorizontalshading(shadeId, endColor,midColor,startColor);
            angle = 0;
          break;
          case NORTH_WEST :
-           str = pgfdeclarehorizontalshading(endColor,midColor,startColor);
+           str = pgfdeclarehorizontalshading(shadeId, endColor,midColor,startColor);
            angle = 45;
          break;
       }
@@ -455,8 +456,7 @@ public class JDRGradient extends JDRAbstractShading
          str += "\\pgfsetfillopacity{"+PGF.format(opacity)+"}";
       }
 
-      str += eol+ "\\pgfshadepath{jdrlinear"+pgfshadeid+"}{"+PGF.format(-angle)+"}";
-      pgfshadeid++;
+      str += eol+ "\\pgfshadepath{jdrlinear"+shadeId+"}{"+PGF.format(-angle)+"}";
 
       return str;
    }
@@ -467,7 +467,7 @@ public class JDRGradient extends JDRAbstractShading
       if (hasMidColor())
       {
          return "gradient-"+startColor.getID()
-          +"-"+endColor.getID()+"-"+endColor.getID()+"-"+direction;
+          +"-"+midColor.getID()+"-"+endColor.getID()+"-"+direction;
       }
       else
       {
@@ -695,16 +695,12 @@ public class JDRGradient extends JDRAbstractShading
          break;
       }
 
-      out.println("<<");
-
-      out.println("   /ShadingType 2");
-
-      String c0, c1;
+      String colorSpace, c0, c1;
 
       if (startColor instanceof JDRColor)
       {
          JDRColor c = (JDRColor)startColor;
-         out.println("   /ColorSpace /DeviceRGB");
+         colorSpace = "/DeviceRGB";
          c0 = "/C0 ["+c.getRed()+" "+c.getGreen()+" "+c.getBlue()+"]";
 
          c = (endColor instanceof JDRColor) ? 
@@ -716,7 +712,7 @@ public class JDRGradient extends JDRAbstractShading
       else
       {
          JDRColorCMYK c = (JDRColorCMYK)startColor;
-         out.println("   /ColorSpace /DeviceCMYK");
+         colorSpace = "/DeviceCMYK";
          c0 = "/C0 ["+c.getCyan()+" "+c.getMagenta()+" "+c.getYellow()+" "+c.getKey()+"]";
 
          c = (endColor instanceof JDRColorCMYK) ? 
@@ -726,15 +722,30 @@ public class JDRGradient extends JDRAbstractShading
          c1 = "/C1 ["+c.getCyan()+" "+c.getMagenta()+" "+c.getYellow()+" "+c.getKey()+"]";
       }
 
+      String function = EPS.getShadingFunction(out, c0, c1);
+
+      out.println("<<");
+
+      out.println("   /ShadingType 2");
+      out.println("   /ColorSpace "+colorSpace);
       out.println("   /BBox ["+minX+" "+minY+" "+maxX+" "+maxY+"]");
       out.println("   /Coords ["+x0+" "+y0+" "+x1+" "+y1+"]");
-      out.println("      /Function <<");
-      out.println("         /FunctionType 2");
-      out.println("         /Domain [0 1]");
-      out.println("         "+c0);
-      out.println("         "+c1);
-      out.println("         /N 1");
-      out.println("   >>");
+
+      if (function == null)
+      {
+         out.println("      /Function <<");
+         out.println("         /FunctionType 2");
+         out.println("         /Domain [0 1]");
+         out.println("         "+c0);
+         out.println("         "+c1);
+         out.println("         /N 1");
+         out.println("   >>");
+      }
+      else
+      {
+         out.println("   /Function "+function);
+      }
+
       out.print(">> ");
    }
 
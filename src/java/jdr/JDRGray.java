@@ -178,7 +178,7 @@ public class JDRGray extends JDRPaint implements Serializable
    public void saveEPS(PrintWriter out, BBox box)
       throws IOException
    {
-      out.println(""+gray+" setgray");
+      EPS.saveColour(out, ""+gray+" setgray");
    }
 
    public int psLevel()
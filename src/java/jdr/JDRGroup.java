@@ -2343,14 +2343,7 @@ t
    public void savePgf(TeX tex)
     throws IOException
    {
-      for (int i = 0; i < size_; i++)
-      {
-         JDRCompleteObject obj = get(i);
-
-         int idx = tex.writeStartObject(obj);
-         obj.savePgf(tex);
-         tex.writeEndObject(idx, obj);
-      }
+      tex.savePgfObjects(this);
    }
 
    public void saveFlowframe(TeX pgf, Rectangle2D typeblock,
@@ -2693,6 +2686,24 @@ t
       }
    }
 
+   @Override
+   public void internStyles(StylePool pool)
+   {
+      for (int i = 0; i < size_; i++)
+      {
+         objectList_[i].internStyles(pool);
+      }
+   }
+
+   @Override
+   public void unshareStyles()
+   {
+      for (int i = 0; i < size_; i++)
+      {
+         objectList_[i].unshareStyles();
+      }
+   }
+
    public boolean isDistortable()
    {
       for (int i = 0; i < size_; i++)
@@ -317,9 +317,28 @@ public abstract class JDRPaint implements Serializable
       return canvasGraphics.getMessageWithFallback("class."+name, name);
    }
 
+   /**
+    * Determines whether this paint is shared by several objects
+    * (see {@link StylePool}). A shared paint mustn't be modified.
+    * Objects that need to change a shared paint must replace it with
+    * a copy first (see {@link JDRCompleteObject#unshareStyles()}).
+    * @return true if this paint is shared
+    */
+   public boolean isShared()
+   {
+      return shared;
+   }
+
+   void markShared()
+   {
+      shared = true;
+   }
+
    public abstract String getPdfStrokeSpecs();
 
    public abstract String getPdfFillSpecs();
 
    private CanvasGraphics canvasGraphics;
+
+   private volatile boolean shared = false;
 }
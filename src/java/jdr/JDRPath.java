@@ -1036,6 +1036,18 @@ public class JDRPath extends JDRShape
       return newpath;
    }
 
+   @Override
+   public JDRShape fromArea(Area area)
+      throws InvalidPathException
+   {
+      JDRPath newpath = getPath(getCanvasGraphics(),
+          area.getPathIterator(null));
+
+      newpath.setAttributes(this);
+
+      return newpath;
+   }
+
    /**
     * Returns a new path created from the segments of this path
     * clipped within the given bounds.
@@ -3926,6 +3938,8 @@ public class JDRPath extends JDRShape
 
    public void fade(double value)
    {
+      unshareStyles();
+
       getLinePaint().fade(value);
       getShapeFillPaint().fade(value);
       ((JDRBasicStroke)getStroke()).fade(value);
@@ -269,6 +269,13 @@ public abstract class JDRPattern extends JDRCompoundShape
       return getFullPath().pathUnion(shape);
    }
 
+   @Override
+   public JDRShape fromArea(Area area)
+      throws InvalidShapeException
+   {
+      return getFullPath().fromArea(area);
+   }
+
    @Override
    public JDRShape exclusiveOr(JDRShape shape)
       throws InvalidShapeException
@@ -2000,30 +2007,175 @@ public abstract class JDRPattern extends JDRCompoundShape
             svg.println("</title>");
          }
 
+         String id = svg.getPrototypeID(path_);
+
          // Do original
 
          if (showoriginal_)
          {
-            path_.saveSVG(svg, attr);
+            if (id == null)
+            {
+               path_.saveSVG(svg, attr);
+            }
+            else
+            {
+               saveSVGuse(svg, attr, id, null);
+            }
          }
 
          double[] matrix = new double[6];
 
          for (int i = 1; i <= replicas_; i++)
          {
-            JDRShape rep = (JDRShape)path_.clone();
-
             getReplicaTransform(matrix, i);
 
-            rep.transform(matrix);
+            if (id != null && isSVGReusable(matrix))
+            {
+               saveSVGuse(svg, attr, id, matrix);
+            }
+            else
+            {
+               JDRShape rep = (JDRShape)path_.clone();
+
+               rep.transform(matrix);
 
-            rep.saveSVG(svg, attr);
+               rep.saveSVG(svg, attr);
+            }
          }
 
          svg.print("</g>");
       }
    } 
 
+   private void saveSVGuse(SVG svg, String attr, String id,
+     double[] matrix)
+     throws IOException
+   {
+      String use = "<use xlink:href=\"#"+id+"\""
+         + (matrix == null ? "" : " "+svg.transform(matrix))+" />";
+
+      if (attr.isEmpty())
+      {
+         svg.println("   "+use);
+      }
+      else
+      {
+         // the attributes (such as a clipping path) are in the
+         // pattern's co-ordinate space so they mustn't be
+         // transformed along with the replica
+
+         svg.println("   <g "+attr+">"+use+"</g>");
+      }
+   }
+
+   /**
+    * Writes the underlying shape as a definition in multipath mode,
+    * so that the replicas can refer to it with
+    * <code>&lt;use&gt;</code> rather than repeating the geometry,
+    * if at least one replica can be drawn that way.
+    * @param svg the SVG data
+    * @throws IOException if I/O error occurs
+    */
+   @Override
+   public void writeSVGdefs(SVG svg) throws IOException
+   {
+      super.writeSVGdefs(svg);
+
+      if (singlemode_ || replicas_ < 1) return;
+
+      double[] matrix = new double[6];
+
+      for (int i = 1; i <= replicas_; i++)
+      {
+         getReplicaTransform(matrix, i);
+
+         if (isSVGReusable(matrix))
+         {
+            svg.addPrototype(path_);
+            return;
+         }
+      }
+   }
+
+   /**
+    * Determines whether applying the given replica transformation
+    * to the SVG code of the underlying shape produces the same
+    * result as transforming the shape itself. Transforming the shape
+    * only moves its control points, whereas an SVG transformation
+    * also transforms the line width, markers, text and the
+    * direction of gradient paint. A translation is always safe. An
+    * isometry (rotation or reflection) is safe for a path without
+    * shading or fixed-angle markers. Other linear transformations
+    * are only safe for a path that's filled but not stroked.
+    * @param matrix the replica transformation
+    * @return true if the transformation can be applied in SVG
+    */
+   protected boolean isSVGReusable(double[] matrix)
+   {
+      if (matrix[0] == 1.0 && matrix[1] == 0.0
+       && matrix[2] == 0.0 && matrix[3] == 1.0)
+      {
+         return true;
+      }
+
+      if (!(path_ instanceof JDRPath))
+      {
+         return false;
+      }
+
+      JDRStroke stroke = path_.getStroke();
+
+      if (!(stroke instanceof JDRBasicStroke))
+      {
+         return false;
+      }
+
+      JDRBasicStroke basicStroke = (JDRBasicStroke)stroke;
+
+      double col0 = matrix[0]*matrix[0]+matrix[1]*matrix[1];
+      double col1 = matrix[2]*matrix[2]+matrix[3]*matrix[3];
+      double dot = matrix[0]*matrix[2]+matrix[1]*matrix[3];
+
+      if (Math.abs(col0-1.0) < ISOMETRY_TOLERANCE
+       && Math.abs(col1-1.0) < ISOMETRY_TOLERANCE
+       && Math.abs(dot) < ISOMETRY_TOLERANCE)
+      {
+         return !(path_.getLinePaint() instanceof JDRAbstractShading)
+          && !(path_.getShapeFillPaint() instanceof JDRAbstractShading)
+          && isAutoOriented(basicStroke.getStartArrow())
+          && isAutoOriented(basicStroke.getMidArrow())
+          && isAutoOriented(basicStroke.getEndArrow());
+      }
+
+      // Shading is relative to the bounding box so it's only
+      // safe if the matrix doesn't rotate or shear.
+
+      if ((matrix[1] != 0.0 || matrix[2] != 0.0)
+           && path_.getShapeFillPaint() instanceof JDRAbstractShading)
+      {
+         return false;
+      }
+
+      return path_.getLinePaint() instanceof JDRTransparent
+          && basicStroke.getStartArrow().getType() == JDRMarker.ARROW_NONE
+          && basicStroke.getMidArrow().getType() == JDRMarker.ARROW_NONE
+          && basicStroke.getEndArrow().getType() == JDRMarker.ARROW_NONE;
+   }
+
+   private static boolean isAutoOriented(JDRMarker marker)
+   {
+      for (; marker != null; marker = marker.getCompositeMarker())
+      {
+         if (marker.getType() != JDRMarker.ARROW_NONE
+           && !marker.getAutoOrient())
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
    public void savePgf(TeX tex)
      throws IOException
    {
@@ -2199,4 +2351,6 @@ public abstract class JDRPattern extends JDRCompoundShape
 
    protected JDRPoint adjust_ = null;
 
+   private static final double ISOMETRY_TOLERANCE = 1e-9;
+
 }
@@ -345,14 +345,14 @@ public class JDRRadial extends JDRAbstractShading implements Paint
       }
    }
 
-   private String pgfdeclareradialshading(BBox box)
+   private String pgfdeclareradialshading(String shadeId, BBox box)
    {
       String eol = System.getProperty("line.separator", "\n");
       update(box);
 
-      String startPaintID = "jdrradial-start-"+pgfshadeid;
-      String midPaintID = "jdrradial-mid-"+pgfshadeid;
-      String endPaintID = "jdrradial-end-"+pgfshadeid;
+      String startPaintID = "jdrradial-start-"+shadeId;
+      String midPaintID = "jdrradial-mid-"+shadeId;
+      String endPaintID = "jdrradial-end-"+shadeId;
 
       StringBuilder builder = new StringBuilder();
 
@@ -387,7 +387,7 @@ public class JDRRadial extends JDRAbstractShading implements Paint
       builder.append(eol);
 
       builder.append("\\pgfdeclareradialshading{jdrradial");
-      builder.append(pgfshadeid);
+      builder.append(shadeId);
       builder.append("}{\\pgfpoint{");
 
       double midX = box.getMidX();
@@ -457,7 +457,9 @@ public class JDRRadial extends JDRAbstractShading implements Paint
 
       String str = "";
 
-      str = pgfdeclareradialshading(box);
+      String shadeId = TeX.nextShadingId();
+
+      str = pgfdeclareradialshading(shadeId, box);
 
       double opacity = getAlpha();
 
@@ -474,8 +476,7 @@ public class JDRRadial extends JDRAbstractShading implements Paint
          str += "\\pgfsetfillopacity{"+PGF.format(opacity)+"}";
       }
 
-      str += eol+ "\\pgfshadepath{jdrradial"+pgfshadeid+"}{0}";
-      pgfshadeid++;
+      str += eol+ "\\pgfshadepath{jdrradial"+shadeId+"}{0}";
 
       return str;
    }
@@ -699,16 +700,12 @@ public class JDRRadial extends JDRAbstractShading implements Paint
       update(box);
       double radius = getRadius();
 
-      out.println("<<");
-
-      out.println("   /ShadingType 3");
-
-      String c0, c1;
+      String colorSpace, c0, c1;
 
       if (startColor instanceof JDRColor)
       {
          JDRColor c = (JDRColor)startColor;
-         out.println("   /ColorSpace /DeviceRGB");
+         colorSpace = "/DeviceRGB";
          c0 = "/C0 ["+c.getRed()+" "+c.getGreen()+" "+c.getBlue()+"]";
 
          c = (endColor instanceof JDRColor) ? 
@@ -720,7 +717,7 @@ public class JDRRadial extends JDRAbstractShading implements Paint
       else
       {
          JDRColorCMYK c = (JDRColorCMYK)startColor;
-         out.println("   /ColorSpace /DeviceCMYK");
+         colorSpace = "/DeviceCMYK";
          c0 = "/C0 ["+c.getCyan()+" "+c.getMagenta()+" "+c.getYellow()+" "+c.getKey()+"]";
 
          c = (endColor instanceof JDRColorCMYK) ? 
@@ -730,16 +727,31 @@ public class JDRRadial extends JDRAbstractShading implements Paint
          c1 = "/C1 ["+c.getCyan()+" "+c.getMagenta()+" "+c.getYellow()+" "+c.getKey()+"]";
       }
 
+      String function = EPS.getShadingFunction(out, c0, c1);
+
+      out.println("<<");
+
+      out.println("   /ShadingType 3");
+      out.println("   /ColorSpace "+colorSpace);
       out.println("   /BBox ["+minX+" "+minY+" "+maxX+" "+maxY+"]");
       out.println("   /Coords ["+startPtx+" "+startPty
          +" 0 "+startPtx+" "+startPty+" "+radius+"]");
-      out.println("      /Function <<");
-      out.println("         /FunctionType 2");
-      out.println("         /Domain [0 1]");
-      out.println("         "+c0);
-      out.println("         "+c1);
-      out.println("         /N 1");
-      out.println("   >>");
+
+      if (function == null)
+      {
+         out.println("      /Function <<");
+         out.println("         /FunctionType 2");
+         out.println("         /Domain [0 1]");
+         out.println("         "+c0);
+         out.println("         "+c1);
+         out.println("         /N 1");
+         out.println("   >>");
+      }
+      else
+      {
+         out.println("   /Function "+function);
+      }
+
       out.print(">> ");
    }
 
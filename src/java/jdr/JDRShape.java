@@ -121,6 +121,17 @@ public abstract class JDRShape extends JDRCompleteObject
    public abstract JDRShape subtract(JDRShape shape)
       throws InvalidShapeException;
 
+   /**
+    * Returns a new shape with the outline of the given area that
+    * has the same attributes as this shape. This is used to
+    * convert the result of combining shapes back into a shape.
+    * @param area the area
+    * @return a new shape with the outline of the given area
+    * @see PathBooleanOperation
+    */
+   public abstract JDRShape fromArea(Area area)
+      throws InvalidShapeException;
+
    /**
     * Returns a new shape created by clipping this shape
     * to the given bounds. If closed, this is the same
@@ -1231,7 +1242,22 @@ public abstract class JDRShape extends JDRCompleteObject
          }
       }
 
-      Shape path = getGeneralPath();
+      RenderStatistics stats = cg.getRenderStatistics();
+
+      Shape path;
+
+      if (stats == null)
+      {
+         path = getGeneralPath();
+      }
+      else
+      {
+         long startTime = stats.start();
+
+         path = getGeneralPath();
+
+         stats.geometryRebuilt(startTime);
+      }
 
       if (doShift)
       {
@@ -2040,8 +2066,68 @@ public abstract class JDRShape extends JDRCompleteObject
 
    public abstract Object clone();
 
+   @Override
+   public void internStyles(StylePool pool)
+   {
+      JDRPaint paint = getLinePaint();
+      JDRPaint shared = pool.intern(paint);
+
+      if (shared != paint)
+      {
+         setLinePaint(shared);
+      }
+
+      paint = getShapeFillPaint();
+      shared = pool.intern(paint);
+
+      if (shared != paint)
+      {
+         setShapeFillPaint(shared);
+      }
+
+      JDRStroke stroke = getStroke();
+
+      if (stroke instanceof JDRBasicStroke)
+      {
+         JDRBasicStroke sharedStroke = pool.intern((JDRBasicStroke)stroke);
+
+         if (sharedStroke != stroke)
+         {
+            setStroke(sharedStroke);
+         }
+      }
+   }
+
+   @Override
+   public void unshareStyles()
+   {
+      JDRPaint paint = getLinePaint();
+
+      if (paint != null && paint.isShared())
+      {
+         setLinePaint((JDRPaint)paint.clone());
+      }
+
+      paint = getShapeFillPaint();
+
+      if (paint != null && paint.isShared())
+      {
+         setShapeFillPaint((JDRPaint)paint.clone());
+      }
+
+      JDRStroke stroke = getStroke();
+
+      if (stroke instanceof JDRBasicStroke
+           && ((JDRBasicStroke)stroke).isShared())
+      {
+         setStroke((JDRStroke)stroke.clone());
+      }
+   }
+
    public void applyCanvasGraphics(CanvasGraphics cg)
    {
+      unshareStyles();
+
       super.applyCanvasGraphics(cg);
 
       JDRStroke stroke = getStroke();
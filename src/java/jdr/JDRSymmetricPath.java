@@ -2251,6 +2251,13 @@ public class JDRSymmetricPath extends JDRCompoundShape
       return ensureFullPath().pathUnion(shape);
    }
 
+   @Override
+   public JDRShape fromArea(Area area)
+      throws InvalidShapeException
+   {
+      return ensureFullPath().fromArea(area);
+   }
+
    @Override
    public JDRShape exclusiveOr(JDRShape shape)
       throws InvalidShapeException
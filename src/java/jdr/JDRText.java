@@ -337,9 +337,43 @@ public class JDRText extends JDRCompleteObject
 
    public void fade(double value)
    {
+      unshareStyles();
+
       textPaint.fade(value);
    }
 
+   @Override
+   public void internStyles(StylePool pool)
+   {
+      textPaint = pool.intern(textPaint);
+      jdrFont = pool.intern(jdrFont);
+      latexFont = pool.intern(latexFont);
+   }
+
+   @Override
+   public void unshareStyles()
+   {
+      if (textPaint != null && textPaint.isShared())
+      {
+         textPaint = (JDRPaint)textPaint.clone();
+      }
+
+      unshareFonts();
+   }
+
+   private void unshareFonts()
+   {
+      if (jdrFont != null && jdrFont.isShared())
+      {
+         jdrFont = (JDRFont)jdrFont.clone();
+      }
+
+      if (latexFont != null && latexFont.isShared())
+      {
+         latexFont = (LaTeXFont)latexFont.clone();
+      }
+   }
+
    /**
     * Resets the transformation.
     */
@@ -433,6 +467,8 @@ public class JDRText extends JDRCompleteObject
    public void setFont(String name, int series, 
                        int shape, JDRLength size)
    {
+      unshareFonts();
+
       jdrFont.setFamily(name);
       jdrFont.setWeight(series);
       jdrFont.setShape(shape);
@@ -447,6 +483,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setFontFamily(String name)
    {
+      unshareFonts();
+
       jdrFont.setFamily(name);
       font = jdrFont.getJavaFont();
       updateBounds();
@@ -459,6 +497,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setFontSeries(int series)
    {
+      unshareFonts();
+
       jdrFont.setWeight(series);
       font = jdrFont.getJavaFont();
       updateBounds();
@@ -473,6 +513,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setFontShape(int shape)
    {
+      unshareFonts();
+
       jdrFont.setShape(shape);
       font = jdrFont.getJavaFont();
       updateBounds();
@@ -484,6 +526,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setFontSize(JDRLength size)
    {
+      unshareFonts();
+
       jdrFont.setSize(size);
       font = jdrFont.getJavaFont();
       updateBounds();
@@ -1288,6 +1332,7 @@ public class JDRText extends JDRCompleteObject
       setTextPaint((JDRPaint)t.getTextPaint().clone());
 
       text = t.getText();
+      unshareFonts();
       jdrFont.makeEqual(t.jdrFont);
       font = t.getFont();
       jdrtransform.makeEqual(t.getTransform());
@@ -1353,6 +1398,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setLaTeXFamily(String family)
    {
+      unshareFonts();
+
       latexFont.setFamily(family);
    }
 
@@ -1363,6 +1410,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setLaTeXSize(String size)
    {
+      unshareFonts();
+
       latexFont.setSize(size);
    }
 
@@ -1373,6 +1422,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setLaTeXSeries(String series)
    {
+      unshareFonts();
+
       latexFont.setWeight(series);
    }
 
@@ -1383,6 +1434,8 @@ public class JDRText extends JDRCompleteObject
     */
    public void setLaTeXShape(String shape)
    {
+      unshareFonts();
+
       latexFont.setShape(shape);
    }
 
@@ -1397,6 +1450,8 @@ public class JDRText extends JDRCompleteObject
    public void setLaTeXFont(String family, String size, String series,
                         String shape)
    {
+      unshareFonts();
+
       latexFont.setFamily(family);
       latexFont.setSize(size);
       latexFont.setWeight(series);
@@ -2257,6 +2312,7 @@ public class JDRText extends JDRCompleteObject
    @Override
    public void applyCanvasGraphics(CanvasGraphics cg)
    {
+      unshareStyles();
       setCanvasGraphics(cg);
       textPaint.applyCanvasGraphics(cg);
       jdrtransform.applyCanvasGraphics(cg);
@@ -1583,6 +1583,22 @@ public class JDRTextPath extends JDRCompoundShape implements JDRTextual
       return textPath;
    }
 
+   @Override
+   public JDRShape fromArea(Area area)
+   throws InvalidShapeException
+   {
+      JDRTextPath textPath = new JDRTextPath(path_.fromArea(area),
+         (JDRTextPathStroke)getStroke().clone());
+
+      textPath.description = description;
+      textPath.tag = tag;
+      textPath.isOutline = isOutline;
+
+      assignShowPathAttributesToTextPath(textPath);
+
+      return textPath;
+   }
+
    /**
     * Gets string representation of this textpath.
     * @return string representation of this textpath
@@ -1942,9 +1958,24 @@ public class JDRTextPath extends JDRCompoundShape implements JDRTextual
    @Override
    public void fade(double value)
    {
+      unshareStyles();
+
       getTextPaint().fade(value);
    }
 
+   @Override
+   public void unshareStyles()
+   {
+      super.unshareStyles();
+
+      JDRPaint paint = getTextPaint();
+
+      if (paint != null && paint.isShared())
+      {
+         setTextPaint((JDRPaint)paint.clone());
+      }
+   }
+
    @Override
    public JDRSymmetricPath getSymmetricPath()
    {
@@ -5,6 +5,7 @@
 
 package com.dickimawbooks.jdr;
 
+import java.util.Arrays;
 import java.util.Vector;
 import java.io.*;
 import java.awt.*;
@@ -45,8 +46,8 @@ public class JDRTextPathStroke implements JDRStroke
         new JDRLength(cg.getMessageSystem(), font.getSize(), JDRUnit.bp));
 
 
-      this.font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      this.font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
 
       affineTransform = new AffineTransform();
 
@@ -64,8 +65,8 @@ public class JDRTextPathStroke implements JDRStroke
       setLaTeXText(jdrtext.getLaTeXText());
 
       jdrFont = (JDRFont)jdrtext.getJDRFont().clone();
-      font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
       latexFont = (LaTeXFont)jdrtext.latexFont.clone();
       halign = jdrtext.pgfHalign;
       valign = jdrtext.pgfValign;
@@ -112,8 +113,8 @@ public class JDRTextPathStroke implements JDRStroke
       halign = hAlign;
       valign = vAlign;
 
-      font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
 
       affineTransform = new AffineTransform();
    }
@@ -149,8 +150,8 @@ public class JDRTextPathStroke implements JDRStroke
       JDRText jdrtext = new JDRText(cg);
 
       jdrtext.jdrFont = (JDRFont)jdrFont.clone();
-      jdrtext.font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      jdrtext.font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
       jdrtext.latexFont = (LaTeXFont)latexFont.clone();
 
       jdrtext.setText(text, latexText);
@@ -178,8 +179,8 @@ public class JDRTextPathStroke implements JDRStroke
    public void setFontFamily(String name)
    {
       jdrFont.setFamily(name);
-      font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
       requireUpdate();
    }
 
@@ -191,8 +192,8 @@ public class JDRTextPathStroke implements JDRStroke
    public void setFontSeries(int series)
    {
       jdrFont.setWeight(series);
-      font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
       requireUpdate();
    }
 
@@ -206,8 +207,8 @@ public class JDRTextPathStroke implements JDRStroke
    public void setFontShape(int shape)
    {
       jdrFont.setShape(shape);
-      font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
       requireUpdate();
    }
 
@@ -219,8 +220,8 @@ public class JDRTextPathStroke implements JDRStroke
    public void setFontSize(JDRLength size)
    {
       jdrFont.setSize(size);
-      font = new Font(jdrFont.getFamily(), getFontWeight(),
-         jdrFont.getBpSize());
+      font = FontCatalogue.getFont(jdrFont.getFamily(),
+         getFontWeight(), jdrFont.getBpSize());
       requireUpdate();
    }
 
@@ -837,6 +838,12 @@ public class JDRTextPathStroke implements JDRStroke
       bpTransformedFont = null;
       bpLayout = null;
       bpGlyphVector = null;
+
+      halfAdvances = null;
+      glyphOutlines = null;
+
+      placementCache[0] = null;
+      placementCache[1] = null;
    }
 
    protected void update()
@@ -852,6 +859,18 @@ public class JDRTextPathStroke implements JDRStroke
       bpTransformedFont = getFont().deriveFont(bpAf);
       bpGlyphVector = bpTransformedFont.createGlyphVector(frc, text);
       bpLayout = new TextLayout(text, bpTransformedFont, frc);
+
+      int n = storageGlyphVector.getNumGlyphs();
+
+      halfAdvances = new double[n];
+
+      for (int i = 0; i < n; i++)
+      {
+         halfAdvances[i] = storageGlyphVector.getGlyphMetrics(i)
+           .getAdvance() * 0.5f;
+      }
+
+      glyphOutlines = new Shape[n];
    }
 
    protected void ensureUpdated()
@@ -883,6 +902,86 @@ public class JDRTextPathStroke implements JDRStroke
     * @return outline of text along the given shape
     */
    public Shape createStrokedShape(Shape shape, JDRUnit unit)
+   {
+      GlyphPlacementCache cache = getPlacement(shape, unit);
+
+      if (cache.outline == null)
+      {
+         cache.outline = createOutline(cache.placement, cache.yoffset, unit);
+      }
+
+      // the cached outline is shared so return a copy
+      return new Path2D.Double(cache.outline);
+   }
+
+   private Shape createOutline(GlyphPlacement placement, double yoffset,
+     JDRUnit unit)
+   {
+      Path2D result = new Path2D.Double();
+
+      AffineTransform af = new AffineTransform();
+
+      int currentChar = 0;
+
+      for (int subpath = 0; subpath < placement.subpathsVisited; subpath++)
+      {
+         Point2D move = placement.table.getSubpathStart(subpath);
+
+         result.moveTo(move.getX(), move.getY());
+
+         while (currentChar < placement.count
+             && placement.subpath[currentChar] == subpath)
+         {
+            Shape glyph = getGlyphOutline(currentChar);
+            Point2D p = storageGlyphVector.getGlyphPosition(currentChar);
+            double px = p.getX();
+            double py = p.getY()+yoffset;
+
+            af.setToTranslation(placement.x[currentChar],
+                                placement.y[currentChar]);
+            af.rotate(placement.angle[currentChar]);
+            af.translate(-px-halfAdvances[currentChar], -py);
+
+            result.append(af.createTransformedShape(glyph),false);
+
+            currentChar++;
+         }
+      }
+
+      if (unit.getID() != JDRUnit.BP)
+      {
+         double bpToUnit = unit.fromBp(1.0);
+
+         return AffineTransform.getScaleInstance(bpToUnit, bpToUnit)
+           .createTransformedShape(result);
+      }
+
+      return result;
+   }
+
+   private Shape getGlyphOutline(int index)
+   {
+      Shape outline = glyphOutlines[index];
+
+      if (outline == null)
+      {
+         outline = storageGlyphVector.getGlyphOutline(index);
+         glyphOutlines[index] = outline;
+      }
+
+      return outline;
+   }
+
+   /**
+    * Gets the placement of the glyphs along the given path. The
+    * result is cached, so the path only needs to be flattened and
+    * the glyphs only need to be positioned again if the path,
+    * the text or the text attributes have changed.
+    * @param shape the shape along which the text should go
+    * @param unit the unit of the shape co-ordinates
+    * @return the glyph placement
+    */
+   private GlyphPlacementCache getPlacement(Shape shape, JDRUnit unit)
    {
       ensureUpdated();
 
@@ -916,126 +1015,97 @@ public class JDRTextPathStroke implements JDRStroke
          break;
       }
 
+      PathKey key = new PathKey(shape, unit.getID(), halign, xoffset);
+
+      for (int i = 0; i < placementCache.length; i++)
+      {
+         GlyphPlacementCache cache = placementCache[i];
+
+         if (cache != null && cache.yoffset == yoffset && cache.key.equals(key))
+         {
+            return cache;
+         }
+      }
+
       AffineTransform unitToBpAf 
         = AffineTransform.getScaleInstance(unitToBp, unitToBp);
 
-      PathIterator it = new FlatteningPathIterator(
-        shape.getPathIterator(unitToBpAf), FLATNESS);
+      ArcLengthTable table = new ArcLengthTable(new FlatteningPathIterator(
+        shape.getPathIterator(unitToBpAf), FLATNESS));
 
-      if (halign != LEFT)
+      if (halign == CENTER)
+      {
+         xoffset += (double)(table.getLength()-bounds.getWidth())*0.5f;
+      }
+      else if (halign == RIGHT)
       {
-         double pathLength = measurePathLength(it);
+         xoffset += (double)(table.getLength()-bounds.getWidth());
+      }
 
-         it = new FlatteningPathIterator(
-            shape.getPathIterator(unitToBpAf), FLATNESS);
+      GlyphPlacementCache cache = new GlyphPlacementCache(key, yoffset,
+        placeGlyphs(table, xoffset));
 
-         if (halign == CENTER)
-         {
-            xoffset += (double)(pathLength-bounds.getWidth())*0.5f;
-         }
-         else
-         {
-            xoffset += (double)(pathLength-bounds.getWidth());
-         }
-      }
+      // keep the most recent placements (typically one for the
+      // storage path and one for the bp path)
 
-      Path2D result = new Path2D.Double();
+      placementCache[1] = placementCache[0];
+      placementCache[0] = cache;
 
-      AffineTransform af = new AffineTransform();
-      double points[] = new double[6];
-      double moveX = 0;
-      double moveY = 0;
-      double lastX = 0;
-      double lastY = 0;
-      double thisX = 0;
-      double thisY = 0;
-
-      int type = 0;
-      boolean first = false;
-      double next = 0;
-      int currentChar = 0;
-      int length = storageGlyphVector.getNumGlyphs();
+      return cache;
+   }
+
+   /**
+    * Positions the glyphs along the flattened path. The first glyph
+    * in each sub-path is placed so that its centre is half its
+    * advance plus the offset from the start of the sub-path. Each
+    * glyph is placed on the segment found by searching on the
+    * cumulative length. Glyphs that don't fit on one sub-path
+    * continue on the next.
+    */
+   private GlyphPlacement placeGlyphs(ArcLengthTable table, double xoffset)
+   {
+      int length = halfAdvances.length;
 
-      if (length == 0) return result;
+      GlyphPlacement placement = new GlyphPlacement(table, length);
 
-      double nextAdvance = 0;
+      Point2D p = new Point2D.Double();
 
-      while (currentChar < length && !it.isDone())
+      int currentChar = 0;
+      int subpath = 0;
+
+      for ( ; subpath < table.getSubpathCount() && currentChar < length;
+            subpath++)
       {
-         type = it.currentSegment(points);
+         double nextAdvance = halfAdvances[currentChar];
+         double next = nextAdvance+xoffset;
 
-         switch (type)
+         while (currentChar < length)
          {
-            case PathIterator.SEG_MOVETO:
-               moveX = lastX = points[0];
-               moveY = lastY = points[1];
-               result.moveTo(moveX, moveY);
-               first = true;
-               nextAdvance = storageGlyphVector.getGlyphMetrics(currentChar)
-                 .getAdvance() * 0.5f;
-               next = nextAdvance+xoffset;
-            break;
-
-            case PathIterator.SEG_CLOSE:
-               points[0] = moveX;
-               points[1] = moveY;
-            case PathIterator.SEG_LINETO:
-               thisX = points[0];
-               thisY = points[1];
-               double dx = thisX-lastX;
-               double dy = thisY-lastY;
-               double distance = Math.sqrt(dx*dx+dy*dy);
-
-               if (distance >= next)
-               {
-                  double r = 1.0/distance;
-                  double angle = Math.atan2(dy,dx);
-
-                  while (currentChar < length && distance >= next)
-                  {
-                     Shape glyph = storageGlyphVector.getGlyphOutline(currentChar);
-                     Point2D p = storageGlyphVector.getGlyphPosition(currentChar);
-                     double px = p.getX();
-                     double py = p.getY()+yoffset;
-                     double x = lastX + next*dx*r;
-                     double y = lastY + next*dy*r;
-
-                     double advance = nextAdvance;
-                     nextAdvance = currentChar < length-1 ?
-                        storageGlyphVector.getGlyphMetrics(currentChar+1).getAdvance() * 0.5f :
-                        0.0f;
-
-                     af.setToTranslation(x, y);
-                     af.rotate(angle);
-                     af.translate(-px-advance, -py);
-
-                     result.append(af.createTransformedShape(glyph),false);
-
-                     currentChar++;
-
-                     next += advance+nextAdvance;
-                  }
-               }
-
-               next -= distance;
-               first = false;
-               lastX = thisX;
-               lastY = thisY;
-            break;
-         }
+            int segment = table.findSegment(subpath, next);
 
-         it.next();
-      }
+            if (segment == -1) break;
 
-      if (unit.getID() != JDRUnit.BP)
-      {
-         double bpToUnit = unit.fromBp(1.0);
+            table.getPoint(segment, next, p);
 
-         return AffineTransform.getScaleInstance(bpToUnit, bpToUnit)
-           .createTransformedShape(result);
+            double advance = nextAdvance;
+            nextAdvance = currentChar < length-1 ?
+               halfAdvances[currentChar+1] : 0.0f;
+
+            placement.subpath[currentChar] = subpath;
+            placement.x[currentChar] = p.getX();
+            placement.y[currentChar] = p.getY();
+            placement.angle[currentChar] = table.getAngle(segment);
+
+            currentChar++;
+
+            next += advance+nextAdvance;
+         }
       }
 
-      return result;
+      placement.count = currentChar;
+      placement.subpathsVisited = subpath;
+
+      return placement;
    }
 
    /**
@@ -1051,46 +1121,7 @@ public class JDRTextPathStroke implements JDRStroke
 
    public static double measurePathLength(PathIterator it)
    {
-      double points[] = new double[6];
-      double moveX = 0;
-      double moveY = 0;
-      double lastX = 0;
-      double lastY = 0;
-      double thisX = 0;
-      double thisY = 0;
-
-      int type = 0;
-      double total = 0;
-
-      while (!it.isDone())
-      {
-         type = it.currentSegment(points);
-
-         switch (type)
-         {
-            case PathIterator.SEG_MOVETO:
-               moveX = lastX = points[0];
-               moveY = lastY = points[1];
-            break;
-
-            case PathIterator.SEG_CLOSE:
-               points[0] = moveX;
-               points[1] = moveY;
-            case PathIterator.SEG_LINETO:
-               thisX = points[0];
-               thisY = points[1];
-               double dx = thisX-lastX;
-               double dy = thisY-lastY;
-               total += Math.sqrt(dx*dx+dy*dy);
-               lastX = thisX;
-               lastY = thisY;
-            break;
-         }
-
-         it.next();
-      }
-
-      return total;
+      return new ArcLengthTable(it).getLength();
    }
 
    public JDRGroup split(JDRTextPath textPath,
@@ -1133,186 +1164,76 @@ public class JDRTextPathStroke implements JDRStroke
       boolean useTextMappings
         = (!useMathMappings && textMappings != null);
 
-      double storageToBp = canvasGraphics.storageToBp(1.0);
       double bpToStorage = canvasGraphics.bpToStorage(1.0);
 
-      // Convert to bp to perform calculations since font size is in
-      // PostScript points
+      AffineTransform bpToStorageAf 
+        = AffineTransform.getScaleInstance(bpToStorage, bpToStorage);
 
-      double descent = (double)storageLayout.getDescent();
-      double ascent = (double)storageLayout.getAscent();
+      GlyphPlacementCache cache = getPlacement(bpGeneralPath, JDRUnit.bp);
 
-      Rectangle2D bounds = storageLayout.getBounds();
+      GlyphPlacement placement = cache.placement;
+      double yoffset = cache.yoffset;
 
-      double xoffset = (double)(storageToBp*affineTransform.getTranslateX());
-      double yoffset = (double)(storageToBp*affineTransform.getTranslateY());
+      AffineTransform af = new AffineTransform();
 
-      switch (valign)
-      {
-         case TOP:
-            yoffset += -ascent;
-         break;
+      Point2D dist = new Point2D.Double();
 
-         case MIDDLE:
-            yoffset += descent-(double)bounds.getHeight()*0.5f;
-         break;
+      for (int currentChar = 0; currentChar < placement.count; currentChar++)
+      {
+         double x = placement.x[currentChar];
+         double y = placement.y[currentChar];
+         double angle = placement.angle[currentChar];
+         double advance = halfAdvances[currentChar];
 
-         case BOTTOM:
-           yoffset += descent;
-         break;
-      }
+         int cp = text.codePointAt(
+              storageGlyphVector.getGlyphCharIndex(currentChar));
 
-      AffineTransform bpToStorageAf 
-        = AffineTransform.getScaleInstance(bpToStorage, bpToStorage);
+         if (!Character.isWhitespace(cp))
+         {
+            af.setToIdentity();
 
-      PathIterator it = new FlatteningPathIterator(
-        bpGeneralPath.getPathIterator(null), FLATNESS);
+            af.rotate(angle);
 
-      if (halign != LEFT)
-      {
-         double pathLength = measurePathLength(it);
+            dist.setLocation(-advance, -yoffset);
+            dist = af.deltaTransform(dist, dist);
 
-         it = new FlatteningPathIterator(
-            bpGeneralPath.getPathIterator(null), FLATNESS);
+            af.concatenate(new AffineTransform(
+              affineTransform.getScaleX(),
+              affineTransform.getShearY(),
+              affineTransform.getShearX(),
+              affineTransform.getScaleY(),
+              0.0, 0.0)
+            );
 
-         if (halign == CENTER)
-         {
-            xoffset += (double)(pathLength-bounds.getWidth())*0.5f;
-         }
-         else
-         {
-            xoffset += (double)(pathLength-bounds.getWidth());
-         }
-      }
+            dist.setLocation(dist.getX()+x, dist.getY()+y);
+            dist = bpToStorageAf.transform(dist, dist);
 
-      AffineTransform af = new AffineTransform();
-      double points[] = new double[6];
-      double moveX = 0;
-      double moveY = 0;
-      double lastX = 0;
-      double lastY = 0;
-      double thisX = 0;
-      double thisY = 0;
-
-      int type = 0;
-      boolean first = false;
-      double next = 0;
-      int currentChar = 0;
-      int length = storageGlyphVector.getNumGlyphs();
+            af.preConcatenate(
+              AffineTransform.getTranslateInstance
+                 (dist.getX(), dist.getY()));
 
-      if (length == 0) return group;
+            JDRText textArea = new JDRText(canvasGraphics,
+              new String(Character.toChars(cp)));
 
-      Point2D dist = new Point2D.Double();
+            applyAttributesTo(textArea, textPath);
 
-      double nextAdvance = 0;
+            textArea.transform(af);
 
-      while (currentChar < length && !it.isDone())
-      {
-         type = it.currentSegment(points);
+            if (useMathMappings)
+            {
+               textArea.setLaTeXText("$"
+                + mathMappings.applyMappings(textArea.getText(), styNames)
+                + "$");
+            }
+            else if (useTextMappings)
+            {
+               textArea.setLaTeXText(
+                  textMappings.applyMappings(textArea.getText(), styNames)
+                );
+            }
 
-         switch (type)
-         {
-            case PathIterator.SEG_MOVETO:
-               moveX = lastX = points[0];
-               moveY = lastY = points[1];
-               first = true;
-               nextAdvance = storageGlyphVector.getGlyphMetrics(currentChar)
-                 .getAdvance() * 0.5f;
-               next = nextAdvance+xoffset;
-            break;
-
-            case PathIterator.SEG_CLOSE:
-               points[0] = moveX;
-               points[1] = moveY;
-            case PathIterator.SEG_LINETO:
-               thisX = points[0];
-               thisY = points[1];
-               double dx = thisX-lastX;
-               double dy = thisY-lastY;
-               double distance = Math.sqrt(dx*dx+dy*dy);
-
-               if (distance >= next)
-               {
-                  double r = 1.0/distance;
-                  double angle = Math.atan2(dy,dx);
-
-                  while (currentChar < length && distance >= next)
-                  {
-                     Point2D p = storageGlyphVector.getGlyphPosition(currentChar);
-                     double px = p.getX();
-                     double py = p.getY()+yoffset;
-                     double x = lastX + next*dx*r;
-                     double y = lastY + next*dy*r;
-
-                     double advance = nextAdvance;
-                     nextAdvance = currentChar < length-1 ?
-                        storageGlyphVector.getGlyphMetrics(currentChar+1).getAdvance() * 0.5f :
-                        0.0f;
-
-                     int cp = text.codePointAt(
-                          storageGlyphVector.getGlyphCharIndex(currentChar));
-
-                     if (!Character.isWhitespace(cp))
-                     {
-                        af.setToIdentity();
-
-                        af.rotate(angle);
-
-                        dist.setLocation(-advance, -yoffset);
-                        dist = af.deltaTransform(dist, dist);
-
-                        af.concatenate(new AffineTransform(
-                          affineTransform.getScaleX(),
-                          affineTransform.getShearY(),
-                          affineTransform.getShearX(),
-                          affineTransform.getScaleY(),
-                          0.0, 0.0)
-                        );
-
-                        dist.setLocation(dist.getX()+x, dist.getY()+y);
-                        dist = bpToStorageAf.transform(dist, dist);
-
-                        af.preConcatenate(
-                          AffineTransform.getTranslateInstance
-                             (dist.getX(), dist.getY()));
-
-                        JDRText textArea = new JDRText(canvasGraphics,
-                          new String(Character.toChars(cp)));
-
-                        applyAttributesTo(textArea, textPath);
-
-                        textArea.transform(af);
-
-                        if (useMathMappings)
-                        {
-                           textArea.setLaTeXText("$"
-                            + mathMappings.applyMappings(textArea.getText(), styNames)
-                            + "$");
-                        }
-                        else if (useTextMappings)
-                        {
-                           textArea.setLaTeXText(
-                              textMappings.applyMappings(textArea.getText(), styNames)
-                            );
-                        }
-
-                        group.add(textArea);
-                     }
-
-                     currentChar++;
-
-                     next += advance+nextAdvance;
-                  }
-               }
-
-               next -= distance;
-               first = false;
-               lastX = thisX;
-               lastY = thisY;
-            break;
+            group.add(textArea);
          }
-
-         it.next();
       }
 
       return group;
@@ -1529,6 +1450,13 @@ public class JDRTextPathStroke implements JDRStroke
    private TextLayout storageLayout, bpLayout;
    private GlyphVector storageGlyphVector, bpGlyphVector;
 
+   // half the advance of each glyph and the (untransformed) glyph
+   // outlines, obtained from storageGlyphVector
+   private double[] halfAdvances;
+   private Shape[] glyphOutlines;
+
+   private GlyphPlacementCache[] placementCache = new GlyphPlacementCache[2];
+
    /**
     * Associated LaTeX font
     */
@@ -1565,4 +1493,119 @@ public class JDRTextPathStroke implements JDRStroke
 
    private static JDRPathStyleListener pathStyleListener
       = new JDRTextPathStyleListener();
+
+   /**
+    * Positions and angles of the glyphs placed along a path (in bp).
+    */
+   private static class GlyphPlacement
+   {
+      GlyphPlacement(ArcLengthTable table, int n)
+      {
+         this.table = table;
+         subpath = new int[n];
+         x = new double[n];
+         y = new double[n];
+         angle = new double[n];
+      }
+
+      final ArcLengthTable table;
+      final int[] subpath;
+      final double[] x, y, angle;
+
+      // number of glyphs that fit along the path
+      int count = 0;
+
+      // number of sub-paths reached before running out of glyphs
+      int subpathsVisited = 0;
+   }
+
+   private static class GlyphPlacementCache
+   {
+      GlyphPlacementCache(PathKey key, double yoffset,
+        GlyphPlacement placement)
+      {
+         this.key = key;
+         this.yoffset = yoffset;
+         this.placement = placement;
+      }
+
+      final PathKey key;
+      final double yoffset;
+      final GlyphPlacement placement;
+
+      // created when first required
+      Shape outline = null;
+   }
+
+   /**
+    * Identifies a path by its segment types and co-ordinates, along
+    * with the other values that affect where the glyphs are placed.
+    */
+   private static class PathKey
+   {
+      PathKey(Shape shape, int unitID, int halign, double xoffset)
+      {
+         this.unitID = unitID;
+         this.halign = halign;
+         this.xoffset = xoffset;
+
+         int[] types = new int[16];
+         double[] coords = new double[96];
+         int numTypes = 0, numCoords = 0;
+
+         double[] points = new double[6];
+
+         for (PathIterator it = shape.getPathIterator(null); !it.isDone();
+              it.next())
+         {
+            int type = it.currentSegment(points);
+
+            if (numTypes == types.length)
+            {
+               types = Arrays.copyOf(types, 2*numTypes);
+            }
+
+            types[numTypes++] = type;
+
+            int n = (type == PathIterator.SEG_CUBICTO ? 6 :
+                     type == PathIterator.SEG_QUADTO ? 4 :
+                     type == PathIterator.SEG_CLOSE ? 0 : 2);
+
+            if (numCoords + n > coords.length)
+            {
+               coords = Arrays.copyOf(coords, 2*coords.length);
+            }
+
+            System.arraycopy(points, 0, coords, numCoords, n);
+            numCoords += n;
+         }
+
+         this.types = Arrays.copyOf(types, numTypes);
+         this.coords = Arrays.copyOf(coords, numCoords);
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (!(obj instanceof PathKey)) return false;
+
+         PathKey key = (PathKey)obj;
+
+         return unitID == key.unitID && halign == key.halign
+           && xoffset == key.xoffset
+           && Arrays.equals(types, key.types)
+           && Arrays.equals(coords, key.coords);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return Arrays.hashCode(coords);
+      }
+
+      private final int unitID, halign;
+      private final double xoffset;
+      private final int[] types;
+      private final double[] coords;
+   }
 }
@@ -292,6 +292,24 @@ public class LaTeXFont implements Cloneable,Serializable
       }
    }
 
+   /**
+    * Determines whether this font style is shared by several
+    * objects (see {@link StylePool}). A shared font style mustn't
+    * be modified. Objects that need to change a shared font style
+    * must replace it with a copy first (see
+    * {@link JDRCompleteObject#unshareStyles()}).
+    * @return true if this font style is shared
+    */
+   public boolean isShared()
+   {
+      return shared;
+   }
+
+   void markShared()
+   {
+      shared = true;
+   }
+
    /**
     * Gets a copy of this font style.
     * @return a copy of this font style
@@ -645,6 +663,8 @@ public class LaTeXFont implements Cloneable,Serializable
    private String shape="\\upshape";
    private String size="\\normalsize";
 
+   private volatile boolean shared = false;
+
    /**
     * Map converting Java font name to LaTeX font declarations.
     * If this is null, default mapping used.
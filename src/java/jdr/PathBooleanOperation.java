@@ -0,0 +1,338 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr;
+
+import java.awt.geom.*;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.dickimawbooks.jdr.exceptions.*;
+
+/**
+ * Applies a boolean operation to a list of shapes. Rather than
+ * combining the shapes one at a time, which converts the
+ * intermediate result back into a path at each step, the shapes
+ * are converted into areas which are combined in a balanced tree
+ * on a fork/join pool. The result is only converted back into a
+ * shape once, using the attributes of the first shape in the list
+ * (as with {@link JDRShape#pathUnion(JDRShape)} etc).
+ * <p>
+ * Union, intersection and exclusive OR are associative so the
+ * shapes can be grouped in any order. Subtraction is evaluated as
+ * the first shape less the union of the remaining shapes.
+ * Shapes whose bounds don't intersect are skipped where they can't
+ * affect the result, and are appended to the same path rather than
+ * combined for union and exclusive OR.
+ */
+public class PathBooleanOperation
+{
+   public static enum Operation
+   {
+      UNION, INTERSECT, XOR, SUBTRACT;
+   }
+
+   public PathBooleanOperation(Operation operation)
+   {
+      this(operation, ForkJoinPool.commonPool());
+   }
+
+   public PathBooleanOperation(Operation operation, ForkJoinPool pool)
+   {
+      this.operation = operation;
+      this.pool = pool;
+   }
+
+   public Operation getOperation()
+   {
+      return operation;
+   }
+
+   /**
+    * Combines the given shapes.
+    * @param list the shapes (must have at least two elements)
+    * @return a new shape with the attributes of the first shape in
+    * the list
+    */
+   public JDRShape apply(List<? extends JDRShape> list)
+     throws InvalidShapeException
+   {
+      int n = list.size();
+
+      if (n < 2)
+      {
+         throw new IllegalArgumentException(
+           "At least two shapes required (found "+n+")");
+      }
+
+      // The paths are obtained on this thread. Only the
+      // construction and combination of the areas is done in
+      // parallel.
+
+      Path2D[] paths = new Path2D[n];
+      Rectangle2D[] bounds = new Rectangle2D[n];
+
+      for (int i = 0; i < n; i++)
+      {
+         paths[i] = list.get(i).getGeneralPath();
+         bounds[i] = paths[i].getBounds2D();
+      }
+
+      Area result;
+
+      switch (operation)
+      {
+         case UNION:
+         case XOR:
+
+            // Shapes that don't overlap have the same union and
+            // exclusive OR, which is just the shapes together, so
+            // they can share a path rather than being combined.
+
+            Path2D[] merged = mergeDisjoint(paths, bounds);
+
+            if (merged.length == 1)
+            {
+               result = new Area(merged[0]);
+            }
+            else
+            {
+               result = pool.invoke(new CombineTask(merged, 0,
+                 merged.length));
+            }
+
+         break;
+         case INTERSECT:
+
+            // The intersection is empty if any shape doesn't
+            // overlap the others.
+
+            Rectangle2D common = (Rectangle2D)bounds[0].clone();
+
+            for (int i = 1; i < n; i++)
+            {
+               if (!intersects(common, bounds[i]))
+               {
+                  common = null;
+                  break;
+               }
+
+               Rectangle2D.intersect(common, bounds[i], common);
+            }
+
+            if (common == null)
+            {
+               result = new Area();
+            }
+            else
+            {
+               result = pool.invoke(new CombineTask(paths, 0, n));
+            }
+
+         break;
+         case SUBTRACT:
+
+            // Only the shapes that overlap the first shape affect
+            // the result.
+
+            Path2D[] overlapping = new Path2D[n-1];
+            int m = 0;
+
+            for (int i = 1; i < n; i++)
+            {
+               if (intersects(bounds[0], bounds[i]))
+               {
+                  overlapping[m++] = paths[i];
+               }
+            }
+
+            result = new Area(paths[0]);
+
+            if (m > 0)
+            {
+               PathBooleanOperation union =
+                 new PathBooleanOperation(Operation.UNION, pool);
+
+               result.subtract(pool.invoke(
+                 union.new CombineTask(overlapping, 0, m)));
+            }
+
+         break;
+         default:
+            throw new AssertionError(operation);
+      }
+
+      return list.get(0).fromArea(result);
+   }
+
+   /**
+    * Appends each path to the first earlier group of paths whose
+    * bounds it doesn't intersect and that has the same winding
+    * rule. Since no point is inside more than one of the paths in
+    * a group, the group's path has the same area as the union
+    * of its members.
+    * @param paths the paths
+    * @param bounds the bounds of each path
+    * @return the grouped paths (the original array if no paths
+    * could be grouped)
+    */
+   private static Path2D[] mergeDisjoint(Path2D[] paths,
+     Rectangle2D[] bounds)
+   {
+      int n = paths.length;
+      Path2D[] merged = new Path2D[n];
+      Rectangle2D[] mergedBounds = new Rectangle2D[n];
+      boolean[] copied = new boolean[n];
+      int m = 0;
+
+      for (int i = 0; i < n; i++)
+      {
+         int j = 0;
+
+         for (; j < m; j++)
+         {
+            if (merged[j].getWindingRule() == paths[i].getWindingRule()
+                && !intersects(mergedBounds[j], bounds[i]))
+            {
+               break;
+            }
+         }
+
+         if (j == m)
+         {
+            merged[m] = paths[i];
+            mergedBounds[m] = bounds[i];
+            m++;
+         }
+         else
+         {
+            if (!copied[j])
+            {
+               // don't modify the original path or bounds
+
+               merged[j] = new Path2D.Double(merged[j]);
+               mergedBounds[j] = (Rectangle2D)mergedBounds[j].clone();
+               copied[j] = true;
+            }
+
+            merged[j].append(paths[i], false);
+            Rectangle2D.union(mergedBounds[j], bounds[i], mergedBounds[j]);
+         }
+      }
+
+      if (m == n)
+      {
+         return paths;
+      }
+
+      Path2D[] result = new Path2D[m];
+      System.arraycopy(merged, 0, result, 0, m);
+
+      return result;
+   }
+
+   private static boolean intersects(Rectangle2D r1, Rectangle2D r2)
+   {
+      // Rectangle2D.intersects() is false for empty rectangles,
+      // which is the case for horizontal and vertical lines.
+
+      return r1.getMinX() <= r2.getMaxX() && r2.getMinX() <= r1.getMaxX()
+          && r1.getMinY() <= r2.getMaxY() && r2.getMinY() <= r1.getMaxY();
+   }
+
+   private void combine(Area area1, Area area2)
+   {
+      switch (operation)
+      {
+         case UNION:
+            area1.add(area2);
+         break;
+         case INTERSECT:
+            area1.intersect(area2);
+         break;
+         case XOR:
+            area1.exclusiveOr(area2);
+         break;
+         default:
+            throw new AssertionError(operation);
+      }
+   }
+
+   /**
+    * Combines the paths in the range [start, end) by splitting
+    * the range in half until it's small enough to combine
+    * sequentially.
+    */
+   private class CombineTask extends RecursiveTask<Area>
+   {
+      CombineTask(Path2D[] paths, int start, int end)
+      {
+         this.paths = paths;
+         this.start = start;
+         this.end = end;
+      }
+
+      @Override
+      protected Area compute()
+      {
+         int n = end - start;
+
+         if (n <= SEQUENTIAL_THRESHOLD)
+         {
+            Area area = new Area(paths[start]);
+
+            for (int i = start+1; i < end; i++)
+            {
+               combine(area, new Area(paths[i]));
+            }
+
+            return area;
+         }
+
+         int mid = start + n/2;
+
+         CombineTask left = new CombineTask(paths, start, mid);
+         CombineTask right = new CombineTask(paths, mid, end);
+
+         left.fork();
+
+         Area area2 = right.compute();
+         Area area1 = left.join();
+
+         combine(area1, area2);
+
+         return area1;
+      }
+
+      private Path2D[] paths;
+      private int start, end;
+
+      private static final long serialVersionUID = 1L;
+   }
+
+   private Operation operation;
+   private ForkJoinPool pool;
+
+   /**
+    * Ranges with no more than this number of shapes are combined
+    * sequentially.
+    */
+   private static final int SEQUENTIAL_THRESHOLD = 2;
+}
@@ -0,0 +1,884 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.Map;
+
+import com.dickimawbooks.jdr.DisplayList.GraphicsOp;
+import com.dickimawbooks.jdr.DisplayList.GraphicsState;
+
+/**
+ * Graphics device that records drawing operations in a
+ * {@link DisplayList} rather than rendering them. Each operation is
+ * stored together with the graphics state (transformation, clip,
+ * paint, stroke, composite, font and rendering hints) that was in
+ * effect when it was called. The transformation and clip are
+ * relative to the user space of the device that the list is
+ * replayed on.
+ * <p>
+ * A reference device is used for anything that needs information
+ * about the real device, such as the device configuration and font
+ * metrics. Nothing is drawn on the reference device.
+ */
+public class RecordingGraphics2D extends Graphics2D
+{
+   /**
+    * Creates a new recorder.
+    * @param reference the device that the list will be replayed on
+    */
+   public RecordingGraphics2D(Graphics2D reference)
+   {
+      this(reference, new DisplayList(), new GraphicsState(reference));
+   }
+
+   private RecordingGraphics2D(Graphics2D reference, DisplayList list,
+      GraphicsState state)
+   {
+      this.reference = reference;
+      this.list = list;
+      this.state = state;
+      referenceTransform = reference.getTransform();
+   }
+
+   /**
+    * Gets the list of recorded operations.
+    * @return the display list
+    */
+   public DisplayList getDisplayList()
+   {
+      return list;
+   }
+
+   /**
+    * Adds an operation to the display list. The current state is
+    * shared with the operation, so it's copied before it's next
+    * modified.
+    */
+   private void record(GraphicsOp op)
+   {
+      op.state = state;
+      stateShared = true;
+      list.add(op);
+   }
+
+   /**
+    * Gets the current state for modification.
+    */
+   private GraphicsState editState()
+   {
+      if (stateShared)
+      {
+         state = new GraphicsState(state);
+         stateShared = false;
+      }
+
+      return state;
+   }
+
+   private static Shape copyShape(Shape shape)
+   {
+      if (shape instanceof RectangularShape)
+      {
+         return (Shape)((RectangularShape)shape).clone();
+      }
+      else if (shape instanceof Line2D)
+      {
+         return (Shape)((Line2D)shape).clone();
+      }
+      else
+      {
+         return new Path2D.Double(shape);
+      }
+   }
+
+   @Override
+   public Graphics create()
+   {
+      RecordingGraphics2D g = new RecordingGraphics2D(reference, list, state);
+
+      stateShared = true;
+      g.stateShared = true;
+
+      return g;
+   }
+
+   @Override
+   public void dispose()
+   {
+   }
+
+   // Drawing operations
+
+   @Override
+   public void draw(Shape s)
+   {
+      final Shape shape = copyShape(s);
+
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.draw(shape);
+         }
+      });
+   }
+
+   @Override
+   public void fill(Shape s)
+   {
+      final Shape shape = copyShape(s);
+
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.fill(shape);
+         }
+      });
+   }
+
+   @Override
+   public void drawGlyphVector(final GlyphVector gv, final float x,
+      final float y)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawGlyphVector(gv, x, y);
+         }
+      });
+   }
+
+   @Override
+   public void drawString(final String str, final int x, final int y)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawString(str, x, y);
+         }
+      });
+   }
+
+   @Override
+   public void drawString(final String str, final float x, final float y)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawString(str, x, y);
+         }
+      });
+   }
+
+   @Override
+   public void drawString(AttributedCharacterIterator iterator,
+      final int x, final int y)
+   {
+      final AttributedString text = new AttributedString(iterator);
+
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawString(text.getIterator(), x, y);
+         }
+      });
+   }
+
+   @Override
+   public void drawString(AttributedCharacterIterator iterator,
+      final float x, final float y)
+   {
+      final AttributedString text = new AttributedString(iterator);
+
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawString(text.getIterator(), x, y);
+         }
+      });
+   }
+
+   @Override
+   public boolean drawImage(final Image img, AffineTransform xform,
+      final ImageObserver obs)
+   {
+      final AffineTransform af = 
+         (xform == null ? null : new AffineTransform(xform));
+
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, af, obs);
+         }
+      });
+
+      return true;
+   }
+
+   @Override
+   public void drawImage(final BufferedImage img, final BufferedImageOp op,
+      final int x, final int y)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, op, x, y);
+         }
+      });
+   }
+
+   @Override
+   public void drawRenderedImage(final RenderedImage img,
+      AffineTransform xform)
+   {
+      final AffineTransform af = new AffineTransform(xform);
+
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawRenderedImage(img, af);
+         }
+      });
+   }
+
+   @Override
+   public void drawRenderableImage(final RenderableImage img,
+      AffineTransform xform)
+   {
+      final AffineTransform af = new AffineTransform(xform);
+
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawRenderableImage(img, af);
+         }
+      });
+   }
+
+   @Override
+   public boolean drawImage(final Image img, final int x, final int y,
+      final ImageObserver observer)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, x, y, observer);
+         }
+      });
+
+      return true;
+   }
+
+   @Override
+   public boolean drawImage(final Image img, final int x, final int y,
+      final int width, final int height, final ImageObserver observer)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, x, y, width, height, observer);
+         }
+      });
+
+      return true;
+   }
+
+   @Override
+   public boolean drawImage(final Image img, final int x, final int y,
+      final Color bgcolor, final ImageObserver observer)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, x, y, bgcolor, observer);
+         }
+      });
+
+      return true;
+   }
+
+   @Override
+   public boolean drawImage(final Image img, final int x, final int y,
+      final int width, final int height, final Color bgcolor,
+      final ImageObserver observer)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, x, y, width, height, bgcolor, observer);
+         }
+      });
+
+      return true;
+   }
+
+   @Override
+   public boolean drawImage(final Image img,
+      final int dx1, final int dy1, final int dx2, final int dy2,
+      final int sx1, final int sy1, final int sx2, final int sy2,
+      final ImageObserver observer)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+         }
+      });
+
+      return true;
+   }
+
+   @Override
+   public boolean drawImage(final Image img,
+      final int dx1, final int dy1, final int dx2, final int dy2,
+      final int sx1, final int sy1, final int sx2, final int sy2,
+      final Color bgcolor, final ImageObserver observer)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2,
+               bgcolor, observer);
+         }
+      });
+
+      return true;
+   }
+
+   @Override
+   public void drawLine(final int x1, final int y1, final int x2,
+      final int y2)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.drawLine(x1, y1, x2, y2);
+         }
+      });
+   }
+
+   @Override
+   public void fillRect(final int x, final int y, final int width,
+      final int height)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.fillRect(x, y, width, height);
+         }
+      });
+   }
+
+   @Override
+   public void clearRect(final int x, final int y, final int width,
+      final int height)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.clearRect(x, y, width, height);
+         }
+      });
+   }
+
+   @Override
+   public void drawRoundRect(int x, int y, int width, int height,
+      int arcWidth, int arcHeight)
+   {
+      draw(new RoundRectangle2D.Float(x, y, width, height,
+         arcWidth, arcHeight));
+   }
+
+   @Override
+   public void fillRoundRect(int x, int y, int width, int height,
+      int arcWidth, int arcHeight)
+   {
+      fill(new RoundRectangle2D.Float(x, y, width, height,
+         arcWidth, arcHeight));
+   }
+
+   @Override
+   public void drawOval(int x, int y, int width, int height)
+   {
+      draw(new Ellipse2D.Float(x, y, width, height));
+   }
+
+   @Override
+   public void fillOval(int x, int y, int width, int height)
+   {
+      fill(new Ellipse2D.Float(x, y, width, height));
+   }
+
+   @Override
+   public void drawArc(int x, int y, int width, int height,
+      int startAngle, int arcAngle)
+   {
+      draw(new Arc2D.Float(x, y, width, height, startAngle, arcAngle,
+         Arc2D.OPEN));
+   }
+
+   @Override
+   public void fillArc(int x, int y, int width, int height,
+      int startAngle, int arcAngle)
+   {
+      fill(new Arc2D.Float(x, y, width, height, startAngle, arcAngle,
+         Arc2D.PIE));
+   }
+
+   @Override
+   public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints)
+   {
+      if (nPoints > 0)
+      {
+         Path2D path = new Path2D.Float();
+
+         path.moveTo(xPoints[0], yPoints[0]);
+
+         for (int i = 1; i < nPoints; i++)
+         {
+            path.lineTo(xPoints[i], yPoints[i]);
+         }
+
+         draw(path);
+      }
+   }
+
+   @Override
+   public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints)
+   {
+      draw(new Polygon(xPoints, yPoints, nPoints));
+   }
+
+   @Override
+   public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints)
+   {
+      fill(new Polygon(xPoints, yPoints, nPoints));
+   }
+
+   @Override
+   public void copyArea(final int x, final int y, final int width,
+      final int height, final int dx, final int dy)
+   {
+      record(new GraphicsOp()
+      {
+         @Override
+         void replay(Graphics2D g)
+         {
+            g.copyArea(x, y, width, height, dx, dy);
+         }
+      });
+   }
+
+   @Override
+   public boolean hit(Rectangle rect, Shape s, boolean onStroke)
+   {
+      if (onStroke)
+      {
+         s = state.stroke.createStrokedShape(s);
+      }
+
+      s = state.transform.createTransformedShape(s);
+
+      if (state.clip != null && !state.clip.intersects(rect))
+      {
+         return false;
+      }
+
+      return s.intersects(rect);
+   }
+
+   // Graphics state
+
+   @Override
+   public GraphicsConfiguration getDeviceConfiguration()
+   {
+      return reference.getDeviceConfiguration();
+   }
+
+   @Override
+   public FontRenderContext getFontRenderContext()
+   {
+      AffineTransform af = new AffineTransform(referenceTransform);
+      af.concatenate(state.transform);
+
+      Object aaHint = state.hints.get(RenderingHints.KEY_TEXT_ANTIALIASING);
+      Object fmHint = state.hints.get(RenderingHints.KEY_FRACTIONALMETRICS);
+
+      return new FontRenderContext(af,
+         aaHint == null ? RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT : aaHint,
+         fmHint == null ? RenderingHints.VALUE_FRACTIONALMETRICS_DEFAULT : fmHint);
+   }
+
+   @Override
+   public FontMetrics getFontMetrics(Font f)
+   {
+      return reference.getFontMetrics(f);
+   }
+
+   @Override
+   public void setComposite(Composite comp)
+   {
+      GraphicsState s = editState();
+
+      s.composite = comp;
+      s.xorColor = null;
+   }
+
+   @Override
+   public Composite getComposite()
+   {
+      return state.composite;
+   }
+
+   @Override
+   public void setPaintMode()
+   {
+      setComposite(AlphaComposite.SrcOver);
+   }
+
+   @Override
+   public void setXORMode(Color c)
+   {
+      editState().xorColor = c;
+   }
+
+   @Override
+   public void setPaint(Paint paint)
+   {
+      if (paint != null)
+      {
+         GraphicsState s = editState();
+
+         s.paint = paint;
+
+         if (paint instanceof Color)
+         {
+            s.color = (Color)paint;
+         }
+      }
+   }
+
+   @Override
+   public Paint getPaint()
+   {
+      return state.paint;
+   }
+
+   @Override
+   public void setColor(Color c)
+   {
+      if (c != null)
+      {
+         GraphicsState s = editState();
+
+         s.paint = c;
+         s.color = c;
+      }
+   }
+
+   @Override
+   public Color getColor()
+   {
+      return state.color;
+   }
+
+   @Override
+   public void setBackground(Color color)
+   {
+      editState().background = color;
+   }
+
+   @Override
+   public Color getBackground()
+   {
+      return state.background;
+   }
+
+   @Override
+   public void setStroke(Stroke s)
+   {
+      editState().stroke = s;
+   }
+
+   @Override
+   public Stroke getStroke()
+   {
+      return state.stroke;
+   }
+
+   @Override
+   public void setFont(Font font)
+   {
+      if (font != null)
+      {
+         editState().font = font;
+      }
+   }
+
+   @Override
+   public Font getFont()
+   {
+      return state.font;
+   }
+
+   @Override
+   public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue)
+   {
+      GraphicsState s = editState();
+
+      s.hints = (RenderingHints)s.hints.clone();
+      s.hints.put(hintKey, hintValue);
+   }
+
+   @Override
+   public Object getRenderingHint(RenderingHints.Key hintKey)
+   {
+      return state.hints.get(hintKey);
+   }
+
+   @Override
+   public void setRenderingHints(Map<?,?> hints)
+   {
+      editState().hints = new RenderingHints(null);
+      state.hints.putAll(hints);
+   }
+
+   @Override
+   public void addRenderingHints(Map<?,?> hints)
+   {
+      GraphicsState s = editState();
+
+      s.hints = (RenderingHints)s.hints.clone();
+      s.hints.putAll(hints);
+   }
+
+   @Override
+   public RenderingHints getRenderingHints()
+   {
+      return (RenderingHints)state.hints.clone();
+   }
+
+   // Transformation
+
+   @Override
+   public void translate(int x, int y)
+   {
+      translate((double)x, (double)y);
+   }
+
+   @Override
+   public void translate(double tx, double ty)
+   {
+      GraphicsState s = editState();
+
+      s.transform = new AffineTransform(s.transform);
+      s.transform.translate(tx, ty);
+   }
+
+   @Override
+   public void rotate(double theta)
+   {
+      GraphicsState s = editState();
+
+      s.transform = new AffineTransform(s.transform);
+      s.transform.rotate(theta);
+   }
+
+   @Override
+   public void rotate(double theta, double x, double y)
+   {
+      GraphicsState s = editState();
+
+      s.transform = new AffineTransform(s.transform);
+      s.transform.rotate(theta, x, y);
+   }
+
+   @Override
+   public void scale(double sx, double sy)
+   {
+      GraphicsState s = editState();
+
+      s.transform = new AffineTransform(s.transform);
+      s.transform.scale(sx, sy);
+   }
+
+   @Override
+   public void shear(double shx, double shy)
+   {
+      GraphicsState s = editState();
+
+      s.transform = new AffineTransform(s.transform);
+      s.transform.shear(shx, shy);
+   }
+
+   @Override
+   public void transform(AffineTransform tx)
+   {
+      GraphicsState s = editState();
+
+      s.transform = new AffineTransform(s.transform);
+      s.transform.concatenate(tx);
+   }
+
+   /**
+    * Sets the transformation. The transformation is relative to the
+    * user space of the device the list will be replayed on, so the
+    * value returned by {@link #getTransform()} before any changes
+    * are made is the identity.
+    */
+   @Override
+   public void setTransform(AffineTransform tx)
+   {
+      editState().transform = new AffineTransform(tx);
+   }
+
+   @Override
+   public AffineTransform getTransform()
+   {
+      return new AffineTransform(state.transform);
+   }
+
+   // Clipping (the clip is stored relative to the base user space)
+
+   @Override
+   public void clip(Shape s)
+   {
+      if (s == null)
+      {
+         setClip(null);
+         return;
+      }
+
+      Shape shape = state.transform.createTransformedShape(s);
+
+      GraphicsState gs = editState();
+
+      if (gs.clip == null)
+      {
+         gs.clip = shape;
+      }
+      else
+      {
+         Area area = new Area(gs.clip);
+         area.intersect(new Area(shape));
+         gs.clip = area;
+      }
+   }
+
+   @Override
+   public void setClip(Shape clip)
+   {
+      editState().clip = 
+        (clip == null ? null : state.transform.createTransformedShape(clip));
+   }
+
+   @Override
+   public void setClip(int x, int y, int width, int height)
+   {
+      setClip(new Rectangle(x, y, width, height));
+   }
+
+   @Override
+   public void clipRect(int x, int y, int width, int height)
+   {
+      clip(new Rectangle(x, y, width, height));
+   }
+
+   @Override
+   public Shape getClip()
+   {
+      if (state.clip == null)
+      {
+         return null;
+      }
+
+      try
+      {
+         return state.transform.createInverse().createTransformedShape(state.clip);
+      }
+      catch (NoninvertibleTransformException e)
+      {
+         return null;
+      }
+   }
+
+   @Override
+   public Rectangle getClipBounds()
+   {
+      Shape clip = getClip();
+
+      return clip == null ? null : clip.getBounds();
+   }
+
+   private Graphics2D reference;
+   private AffineTransform referenceTransform;
+   private DisplayList list;
+   private GraphicsState state;
+   private boolean stateShared = false;
+}
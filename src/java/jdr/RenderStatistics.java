@@ -0,0 +1,620 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr;
+
+import java.io.*;
+import java.util.Vector;
+import java.util.TreeMap;
+import java.util.Locale;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+
+/**
+ * Render-time instrumentation. Records counters and timing
+ * histograms for the painting of an image. This is intended for
+ * debugging, so it's only used if debug mode is on. The canvas
+ * graphics object will update the drawing operation statistics
+ * if it has been assigned a <code>RenderStatistics</code> object
+ * (see {@link CanvasGraphics#setRenderStatistics(RenderStatistics)}).
+ * The painting component is responsible for calling
+ * {@link #beginPaint()}, {@link #endPaint(long)}, {@link
+ * #objectCulled(JDRCompleteObject)} and {@link
+ * #objectDrawn(JDRCompleteObject,int,long)}.
+ * <p>
+ * All times are measured with {@link System#nanoTime()}. The
+ * methods aren't synchronized as painting is done on the event
+ * dispatch thread.
+ */
+public class RenderStatistics
+{
+   public RenderStatistics()
+   {
+      reset();
+   }
+
+   /**
+    * Clears all statistics.
+    */
+   public void reset()
+   {
+      histograms = new Histogram[CATEGORY_NAMES.length];
+
+      for (int i = 0; i < histograms.length; i++)
+      {
+         histograms[i] = new Histogram();
+      }
+
+      typeStatistics = new TreeMap<String,Histogram>();
+      slowest = new Vector<SlowObject>(MAX_SLOW_OBJECTS+1);
+
+      paintCount = 0;
+      drawnCount = 0;
+      culledCount = 0;
+      geometryCount = 0;
+      bitmapCount = 0;
+      backgroundCount = 0;
+
+      lastPaintTime = 0L;
+      lastDrawn = 0;
+      lastCulled = 0;
+      lastGeometry = 0;
+      lastBitmaps = 0;
+   }
+
+   /**
+    * Gets the current time for use as the start time of an
+    * operation.
+    */
+   public long start()
+   {
+      return System.nanoTime();
+   }
+
+   /**
+    * Adds the time elapsed since the given start time to the
+    * given category.
+    * @param category the category (for example, {@link #FILL})
+    * @param startTime the value returned by {@link #start()}
+    * @return the elapsed time in nanoseconds
+    */
+   public long addTime(int category, long startTime)
+   {
+      long elapsed = System.nanoTime() - startTime;
+
+      histograms[category].add(elapsed);
+
+      return elapsed;
+   }
+
+   /**
+    * Indicates the start of a paint.
+    */
+   public void beginPaint()
+   {
+      lastDrawn = 0;
+      lastCulled = 0;
+      lastGeometry = 0;
+      lastBitmaps = 0;
+   }
+
+   /**
+    * Indicates the end of a paint.
+    * @param startTime the start time of the paint
+    */
+   public void endPaint(long startTime)
+   {
+      lastPaintTime = addTime(PAINT, startTime);
+      paintCount++;
+   }
+
+   /**
+    * Indicates that the background image has been recreated.
+    * @param startTime the start time of the update
+    */
+   public void backgroundRebuilt(long startTime)
+   {
+      addTime(BACKGROUND, startTime);
+      backgroundCount++;
+   }
+
+   /**
+    * Indicates that an object wasn't drawn as it's outside the clip
+    * bounds.
+    */
+   public void objectCulled(JDRCompleteObject object)
+   {
+      culledCount++;
+      lastCulled++;
+   }
+
+   /**
+    * Indicates that an object has been drawn.
+    * @param object the object
+    * @param index the index of the object in the image
+    * @param startTime the time the object started to be drawn
+    */
+   public void objectDrawn(JDRCompleteObject object, int index,
+     long startTime)
+   {
+      long elapsed = addTime(OBJECT, startTime);
+
+      drawnCount++;
+      lastDrawn++;
+
+      String type = object.getClass().getSimpleName();
+
+      Histogram histogram = typeStatistics.get(type);
+
+      if (histogram == null)
+      {
+         histogram = new Histogram();
+         typeStatistics.put(type, histogram);
+      }
+
+      histogram.add(elapsed);
+
+      updateSlowest(object, index, type, elapsed);
+   }
+
+   /**
+    * Indicates that a shape's path has been constructed for drawing.
+    * @param startTime the time the construction started
+    */
+   public void geometryRebuilt(long startTime)
+   {
+      addTime(GEOMETRY, startTime);
+      geometryCount++;
+      lastGeometry++;
+   }
+
+   /**
+    * Indicates that a bitmap has been drawn.
+    * @param startTime the time the bitmap started to be drawn
+    */
+   public void bitmapDrawn(long startTime)
+   {
+      addTime(IMAGE, startTime);
+      bitmapCount++;
+      lastBitmaps++;
+   }
+
+   private void updateSlowest(JDRCompleteObject object, int index,
+     String type, long elapsed)
+   {
+      int n = slowest.size();
+
+      if (n == MAX_SLOW_OBJECTS && elapsed <= slowest.lastElement().nanos)
+      {
+         return;
+      }
+
+      // The same object is likely to be drawn many times so only
+      // keep its slowest time.
+
+      for (int i = 0; i < n; i++)
+      {
+         SlowObject entry = slowest.get(i);
+
+         if (entry.object == object)
+         {
+            if (elapsed <= entry.nanos)
+            {
+               return;
+            }
+
+            slowest.remove(i);
+            break;
+         }
+      }
+
+      SlowObject entry = new SlowObject(object, index, type, elapsed);
+
+      int i = 0;
+
+      for (n = slowest.size(); i < n; i++)
+      {
+         if (elapsed > slowest.get(i).nanos)
+         {
+            break;
+         }
+      }
+
+      slowest.add(i, entry);
+
+      if (slowest.size() > MAX_SLOW_OBJECTS)
+      {
+         slowest.remove(slowest.size()-1);
+      }
+   }
+
+   public int getPaintCount()
+   {
+      return paintCount;
+   }
+
+   public int getDrawnCount()
+   {
+      return drawnCount;
+   }
+
+   public int getCulledCount()
+   {
+      return culledCount;
+   }
+
+   public int getGeometryCount()
+   {
+      return geometryCount;
+   }
+
+   public int getBitmapCount()
+   {
+      return bitmapCount;
+   }
+
+   public int getBackgroundCount()
+   {
+      return backgroundCount;
+   }
+
+   public Histogram getHistogram(int category)
+   {
+      return histograms[category];
+   }
+
+   /**
+    * Draws a summary of the most recent paint and the slowest
+    * objects in the given area.
+    * @param g2 the graphics device (in component co-ordinates)
+    * @param area the visible area of the component
+    */
+   public void drawOverlay(Graphics2D g2, Rectangle area)
+   {
+      Vector<String> lines = new Vector<String>();
+
+      lines.add(String.format(Locale.ROOT,
+        "paint: %s (mean %s, n=%d)",
+        formatNanos(lastPaintTime), formatNanos(histograms[PAINT].getMean()),
+        paintCount));
+
+      lines.add(String.format(Locale.ROOT,
+        "objects: %d drawn, %d culled", lastDrawn, lastCulled));
+
+      lines.add(String.format(Locale.ROOT,
+        "geometry: %d rebuilds; bitmaps: %d", lastGeometry, lastBitmaps));
+
+      lines.add(String.format(Locale.ROOT,
+        "background: %d rebuilds (mean %s)", backgroundCount,
+        formatNanos(histograms[BACKGROUND].getMean())));
+
+      for (int i = 0, n = Math.min(slowest.size(), OVERLAY_SLOW_OBJECTS);
+           i < n; i++)
+      {
+         SlowObject entry = slowest.get(i);
+
+         lines.add(String.format(Locale.ROOT, "#%d %s %s",
+           entry.index, entry.type, formatNanos(entry.nanos)));
+      }
+
+      Font oldFont = g2.getFont();
+
+      g2.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+
+      FontMetrics fm = g2.getFontMetrics();
+
+      int width = 0;
+
+      for (String line : lines)
+      {
+         width = Math.max(width, fm.stringWidth(line));
+      }
+
+      int lineHeight = fm.getHeight();
+      int height = lineHeight * lines.size();
+
+      int x = area.x + area.width - width - 2*OVERLAY_MARGIN;
+      int y = area.y;
+
+      g2.setColor(OVERLAY_BACKGROUND);
+      g2.fillRect(x, y, width+2*OVERLAY_MARGIN, height+2*OVERLAY_MARGIN);
+
+      g2.setColor(Color.white);
+
+      y += OVERLAY_MARGIN + fm.getAscent();
+
+      for (String line : lines)
+      {
+         g2.drawString(line, x+OVERLAY_MARGIN, y);
+         y += lineHeight;
+      }
+
+      g2.setFont(oldFont);
+   }
+
+   /**
+    * Writes all statistics in JSON format.
+    */
+   public void writeJSON(PrintWriter out)
+   {
+      out.println("{");
+      out.format(Locale.ROOT, "  \"paints\": %d,%n", paintCount);
+      out.format(Locale.ROOT, "  \"objects_drawn\": %d,%n", drawnCount);
+      out.format(Locale.ROOT, "  \"objects_culled\": %d,%n", culledCount);
+      out.format(Locale.ROOT, "  \"geometry_rebuilds\": %d,%n", geometryCount);
+      out.format(Locale.ROOT, "  \"bitmap_draws\": %d,%n", bitmapCount);
+      out.format(Locale.ROOT, "  \"background_rebuilds\": %d,%n",
+        backgroundCount);
+
+      out.println("  \"timings\": {");
+
+      for (int i = 0; i < histograms.length; i++)
+      {
+         out.format("    \"%s\": ", CATEGORY_NAMES[i]);
+         histograms[i].writeJSON(out);
+         out.println(i < histograms.length-1 ? "," : "");
+      }
+
+      out.println("  },");
+
+      out.println("  \"types\": {");
+
+      int i = 0;
+
+      for (String type : typeStatistics.keySet())
+      {
+         out.format("    \"%s\": ", escapeJSON(type));
+         typeStatistics.get(type).writeJSON(out);
+         out.println(++i < typeStatistics.size() ? "," : "");
+      }
+
+      out.println("  },");
+
+      out.println("  \"slowest\": [");
+
+      for (i = 0; i < slowest.size(); i++)
+      {
+         SlowObject entry = slowest.get(i);
+
+         String description = entry.object.getDescription();
+
+         out.format(Locale.ROOT,
+           "    {\"index\": %d, \"type\": \"%s\", \"description\": \"%s\", \"nanos\": %d}%s%n",
+           entry.index, escapeJSON(entry.type),
+           escapeJSON(description == null ? "" : description),
+           entry.nanos, i < slowest.size()-1 ? "," : "");
+      }
+
+      out.println("  ]");
+
+      out.print("}");
+   }
+
+   public String toJSON()
+   {
+      StringWriter writer = new StringWriter();
+      PrintWriter out = new PrintWriter(writer);
+
+      writeJSON(out);
+
+      out.flush();
+
+      return writer.toString();
+   }
+
+   public static String escapeJSON(String str)
+   {
+      StringBuilder builder = new StringBuilder(str.length());
+
+      for (int i = 0, n = str.length(); i < n; i++)
+      {
+         char c = str.charAt(i);
+
+         switch (c)
+         {
+            case '"': builder.append("\\\""); break;
+            case '\\': builder.append("\\\\"); break;
+            case '\n': builder.append("\\n"); break;
+            case '\r': builder.append("\\r"); break;
+            case '\t': builder.append("\\t"); break;
+            default:
+              if (c < 0x20)
+              {
+                 builder.append(String.format("\\u%04x", (int)c));
+              }
+              else
+              {
+                 builder.append(c);
+              }
+         }
+      }
+
+      return builder.toString();
+   }
+
+   public static String formatNanos(double nanos)
+   {
+      if (nanos >= 1e9)
+      {
+         return String.format(Locale.ROOT, "%.2fs", nanos*1e-9);
+      }
+      else if (nanos >= 1e6)
+      {
+         return String.format(Locale.ROOT, "%.2fms", nanos*1e-6);
+      }
+      else
+      {
+         return String.format(Locale.ROOT, "%.1f\u00B5s", nanos*1e-3);
+      }
+   }
+
+   /**
+    * Timing histogram. The buckets are powers of two in
+    * microseconds: bucket 0 is less than 1&micro;s, bucket
+    * <em>i</em> (for 0 &lt; <em>i</em> &lt; the last bucket) is
+    * from 2<sup><em>i</em>-1</sup> up to (but not including)
+    * 2<sup><em>i</em></sup> microseconds, and the last bucket
+    * contains all the remaining times.
+    */
+   public static class Histogram
+   {
+      public void add(long nanos)
+      {
+         count++;
+         total += nanos;
+
+         if (nanos > max)
+         {
+            max = nanos;
+         }
+
+         long micros = nanos/1000L;
+
+         int idx = (micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros));
+
+         buckets[Math.min(idx, NUM_BUCKETS-1)]++;
+      }
+
+      public long getCount()
+      {
+         return count;
+      }
+
+      public long getTotal()
+      {
+         return total;
+      }
+
+      public long getMax()
+      {
+         return max;
+      }
+
+      public double getMean()
+      {
+         return count == 0 ? 0.0 : (double)total/count;
+      }
+
+      public long getBucket(int idx)
+      {
+         return buckets[idx];
+      }
+
+      public void writeJSON(PrintWriter out)
+      {
+         out.format(Locale.ROOT,
+           "{\"count\": %d, \"total_nanos\": %d, \"mean_nanos\": %.1f, \"max_nanos\": %d, \"buckets_micros\": [",
+           count, total, getMean(), max);
+
+         // omit trailing empty buckets
+
+         int last = NUM_BUCKETS-1;
+
+         while (last >= 0 && buckets[last] == 0)
+         {
+            last--;
+         }
+
+         for (int i = 0; i <= last; i++)
+         {
+            if (i > 0)
+            {
+               out.print(", ");
+            }
+
+            out.print(buckets[i]);
+         }
+
+         out.print("]}");
+      }
+
+      private long count=0, total=0, max=0;
+      private long[] buckets = new long[NUM_BUCKETS];
+
+      public static final int NUM_BUCKETS=24;
+   }
+
+   private static class SlowObject
+   {
+      SlowObject(JDRCompleteObject object, int index, String type, long nanos)
+      {
+         this.object = object;
+         this.index = index;
+         this.type = type;
+         this.nanos = nanos;
+      }
+
+      JDRCompleteObject object;
+      int index;
+      String type;
+      long nanos;
+   }
+
+   private Histogram[] histograms;
+   private TreeMap<String,Histogram> typeStatistics;
+   private Vector<SlowObject> slowest;
+
+   private int paintCount, drawnCount, culledCount, geometryCount,
+     bitmapCount, backgroundCount;
+
+   private long lastPaintTime;
+   private int lastDrawn, lastCulled, lastGeometry, lastBitmaps;
+
+   /**
+    * Timing category for the complete paint of a component.
+    */
+   public static final int PAINT=0;
+   /**
+    * Timing category for creating the background image.
+    */
+   public static final int BACKGROUND=1;
+   /**
+    * Timing category for drawing a top-level object.
+    */
+   public static final int OBJECT=2;
+   /**
+    * Timing category for filling a shape.
+    */
+   public static final int FILL=3;
+   /**
+    * Timing category for drawing the outline of a shape.
+    */
+   public static final int DRAW=4;
+   /**
+    * Timing category for drawing a bitmap.
+    */
+   public static final int IMAGE=5;
+   /**
+    * Timing category for constructing a shape's path.
+    */
+   public static final int GEOMETRY=6;
+
+   public static final String[] CATEGORY_NAMES = new String[]
+   {
+      "paint", "background", "object", "fill", "draw", "image", "geometry"
+   };
+
+   public static final int MAX_SLOW_OBJECTS=20;
+   private static final int OVERLAY_SLOW_OBJECTS=5;
+   private static final int OVERLAY_MARGIN=4;
+   private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 180);
+}
@@ -0,0 +1,355 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.dickimawbooks.jdr.marker.JDRMarker;
+
+/**
+ * Document-level pool of shared style values. Documents are often
+ * made up of a large number of objects with identical paints, line
+ * styles and fonts, but each object normally has its own copy.
+ * The pool maps each distinct style value to a single shared
+ * instance, so identically styled objects can refer to the same
+ * instance.
+ * <p>
+ * An instance returned by the pool is marked as shared (see, for
+ * example, {@link JDRPaint#isShared()}) and mustn't be modified.
+ * An object that needs to modify one of its styles in place must
+ * first replace any shared style with its own copy (see
+ * {@link JDRCompleteObject#unshareStyles()}). Styles that are
+ * replaced rather than modified (for example, by
+ * {@link JDRShape#setLinePaint(JDRPaint)}) don't need to be copied.
+ * <p>
+ * Only solid paints, basic line styles and fonts are pooled. Two
+ * values are only considered the same if they are of the same
+ * class and would be saved identically, so replacing a style with
+ * the pooled instance doesn't change the document. Any other
+ * value is returned unchanged.
+ */
+public class StylePool
+{
+   public StylePool()
+   {
+   }
+
+   /**
+    * Gets the shared instance of the given paint.
+    * @param paint the paint
+    * @return the shared instance or the given paint if it
+    * can't be shared
+    */
+   public JDRPaint intern(JDRPaint paint)
+   {
+      if (paint == null || paint.isShared() || !isSolid(paint))
+      {
+         return paint;
+      }
+
+      return (JDRPaint)intern((Object)paint);
+   }
+
+   /**
+    * Gets the shared instance of the given line style.
+    * @param stroke the line style
+    * @return the shared instance or the given line style if it
+    * can't be shared
+    */
+   public JDRBasicStroke intern(JDRBasicStroke stroke)
+   {
+      if (stroke == null || stroke.isShared()
+           || stroke.getClass() != JDRBasicStroke.class)
+      {
+         return stroke;
+      }
+
+      return (JDRBasicStroke)intern((Object)stroke);
+   }
+
+   /**
+    * Gets the shared instance of the given font.
+    * @param font the font
+    * @return the shared instance or the given font if it
+    * can't be shared
+    */
+   public JDRFont intern(JDRFont font)
+   {
+      if (font == null || font.isShared()
+           || font.getClass() != JDRFont.class)
+      {
+         return font;
+      }
+
+      return (JDRFont)intern((Object)font);
+   }
+
+   /**
+    * Gets the shared instance of the given LaTeX font.
+    * @param font the font
+    * @return the shared instance or the given font if it
+    * can't be shared
+    */
+   public LaTeXFont intern(LaTeXFont font)
+   {
+      if (font == null || font.isShared()
+           || font.getClass() != LaTeXFont.class)
+      {
+         return font;
+      }
+
+      return (LaTeXFont)intern((Object)font);
+   }
+
+   /**
+    * Finds the shared instance that has the same value as the
+    * given style, adding a copy of the style if there isn't one.
+    * A copy is added rather than the style itself, as the caller
+    * may still be using it.
+    */
+   private synchronized Object intern(Object style)
+   {
+      StyleKey key = new StyleKey(style);
+
+      Object shared = pool.get(key);
+
+      if (shared == null)
+      {
+         shared = copy(style);
+         pool.put(new StyleKey(shared), shared);
+      }
+
+      return shared;
+   }
+
+   private static Object copy(Object style)
+   {
+      if (style instanceof JDRPaint)
+      {
+         JDRPaint paint = (JDRPaint)((JDRPaint)style).clone();
+         paint.markShared();
+         return paint;
+      }
+      else if (style instanceof JDRBasicStroke)
+      {
+         JDRBasicStroke stroke = (JDRBasicStroke)((JDRBasicStroke)style).clone();
+         stroke.markShared();
+         return stroke;
+      }
+      else if (style instanceof JDRFont)
+      {
+         JDRFont font = (JDRFont)((JDRFont)style).clone();
+         font.markShared();
+         return font;
+      }
+      else
+      {
+         LaTeXFont font = (LaTeXFont)((LaTeXFont)style).clone();
+         font.markShared();
+         return font;
+      }
+   }
+
+   /**
+    * Gets the number of distinct styles in this pool.
+    * @return the number of styles
+    */
+   public synchronized int size()
+   {
+      return pool.size();
+   }
+
+   /**
+    * Removes all styles from this pool. Objects that refer to
+    * the shared instances are unaffected, but new requests will
+    * create new shared instances.
+    */
+   public synchronized void clear()
+   {
+      pool.clear();
+   }
+
+   private static boolean isSolid(JDRPaint paint)
+   {
+      Class<?> type = paint.getClass();
+
+      return type == JDRColor.class || type == JDRColorCMYK.class
+          || type == JDRColorHSB.class || type == JDRGray.class
+          || type == JDRTransparent.class;
+   }
+
+   private static int hash(Object style)
+   {
+      int hash = style.getClass().hashCode();
+
+      if (style instanceof JDRPaint)
+      {
+         hash = 31*hash + ((JDRPaint)style).getColor().hashCode();
+      }
+      else if (style instanceof JDRBasicStroke)
+      {
+         JDRBasicStroke stroke = (JDRBasicStroke)style;
+
+         hash = 31*hash + stroke.getPenWidth().toString().hashCode();
+         hash = 31*hash + stroke.getCapStyle();
+         hash = 31*hash + stroke.getJoinStyle();
+         hash = 31*hash + stroke.getWindingRule();
+         hash = 31*hash + markerType(stroke.getStartArrow());
+         hash = 31*hash + markerType(stroke.getMidArrow());
+         hash = 31*hash + markerType(stroke.getEndArrow());
+      }
+      else if (style instanceof JDRFont)
+      {
+         JDRFont font = (JDRFont)style;
+
+         hash = 31*hash + font.getFamily().hashCode();
+         hash = 31*hash + font.getWeight();
+         hash = 31*hash + font.getShape();
+         hash = 31*hash + font.getSize().toString().hashCode();
+      }
+      else
+      {
+         LaTeXFont font = (LaTeXFont)style;
+
+         hash = 31*hash + font.getFamily().hashCode();
+         hash = 31*hash + font.getWeight().hashCode();
+         hash = 31*hash + font.getShape().hashCode();
+         hash = 31*hash + font.getSize().hashCode();
+      }
+
+      return hash;
+   }
+
+   private static int markerType(JDRMarker marker)
+   {
+      return marker == null ? -1 : marker.getType();
+   }
+
+   /**
+    * Determines whether two styles of the same class have the same
+    * value. The existing equals methods are more lenient (for
+    * example, lengths in different units are equal if they
+    * convert to the same value), so some attributes are compared
+    * by their string representation, which includes the unit.
+    */
+   private static boolean isSame(Object style1, Object style2)
+   {
+      if (style1 == style2) return true;
+
+      if (style1.getClass() != style2.getClass()) return false;
+
+      if (style1 instanceof JDRTransparent)
+      {
+         return true;
+      }
+      else if (style1 instanceof JDRPaint || style1 instanceof LaTeXFont)
+      {
+         return style1.equals(style2);
+      }
+      else if (style1 instanceof JDRFont)
+      {
+         return style1.equals(style2)
+           && ((JDRFont)style1).getSize().toString().equals(
+                ((JDRFont)style2).getSize().toString());
+      }
+
+      JDRBasicStroke s1 = (JDRBasicStroke)style1;
+      JDRBasicStroke s2 = (JDRBasicStroke)style2;
+
+      return s1.getPenWidth().toString().equals(s2.getPenWidth().toString())
+        && s1.getCapStyle() == s2.getCapStyle()
+        && s1.getJoinStyle() == s2.getJoinStyle()
+        && s1.getMitreLimit() == s2.getMitreLimit()
+        && s1.getWindingRule() == s2.getWindingRule()
+        && isSame(s1.getDashPattern(), s2.getDashPattern())
+        && isSame(s1.getStartArrow(), s2.getStartArrow())
+        && isSame(s1.getMidArrow(), s2.getMidArrow())
+        && isSame(s1.getEndArrow(), s2.getEndArrow());
+   }
+
+   private static boolean isSame(DashPattern dash1, DashPattern dash2)
+   {
+      if (dash1 == null || dash2 == null)
+      {
+         return dash1 == dash2;
+      }
+
+      return Arrays.equals(dash1.getStoragePattern(), dash2.getStoragePattern())
+        && dash1.getStorageOffset() == dash2.getStorageOffset();
+   }
+
+   private static boolean isSame(JDRMarker marker1, JDRMarker marker2)
+   {
+      if (marker1 == null || marker2 == null)
+      {
+         return marker1 == marker2;
+      }
+
+      if (marker1.getClass() != marker2.getClass()
+       || marker1.getType() != marker2.getType()
+       || !marker1.equals(marker2)
+       || !marker1.toString().equals(marker2.toString()))
+      {
+         return false;
+      }
+
+      JDRPaint paint1 = marker1.getFillPaint();
+      JDRPaint paint2 = marker2.getFillPaint();
+
+      if (paint1 != null && paint2 != null
+           && paint1.getClass() != paint2.getClass())
+      {
+         return false;
+      }
+
+      return isSame(marker1.getCompositeMarker(),
+                    marker2.getCompositeMarker());
+   }
+
+   private static class StyleKey
+   {
+      StyleKey(Object style)
+      {
+         this.style = style;
+         hash = StylePool.hash(style);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (!(obj instanceof StyleKey)) return false;
+
+         StyleKey key = (StyleKey)obj;
+
+         return hash == key.hash && isSame(style, key.style);
+      }
+
+      private Object style;
+      private int hash;
+   }
+
+   private HashMap<StyleKey,Object> pool = new HashMap<StyleKey,Object>();
+}
@@ -24,8 +24,11 @@
 
 package com.dickimawbooks.jdr;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Vector;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
@@ -100,25 +103,161 @@ public class TeXMappings extends HashMap<Integer,TeXLookup>
       return put(Integer.valueOf(code), new TeXLookup(map, styName));
    }
 
+   @Override
+   public TeXLookup put(Integer code, TeXLookup lookup)
+   {
+      invalidate();
+      return super.put(code, lookup);
+   }
+
+   @Override
+   public void putAll(Map<? extends Integer,? extends TeXLookup> map)
+   {
+      invalidate();
+      super.putAll(map);
+   }
+
+   @Override
+   public TeXLookup remove(Object key)
+   {
+      invalidate();
+      return super.remove(key);
+   }
+
+   @Override
+   public void clear()
+   {
+      invalidate();
+      super.clear();
+   }
+
+   @Override
+   public Object clone()
+   {
+      TeXMappings mappings = (TeXMappings)super.clone();
+
+      mappings.table = null;
+      mappings.memo = null;
+
+      return mappings;
+   }
+
+   /**
+    * Discards the compiled lookup table and the memo cache. This
+    * is done automatically by the put, remove and clear methods.
+    * It should also be called if the mappings are modified by any
+    * other means (such as through an iterator).
+    */
+   public synchronized void invalidate()
+   {
+      table = null;
+
+      if (memo != null)
+      {
+         memo.clear();
+      }
+   }
+
+   /**
+    * Gets the compiled lookup table, creating it if necessary.
+    */
+   private synchronized LookupTable getLookupTable()
+   {
+      if (table == null)
+      {
+         table = new LookupTable(this);
+      }
+
+      return table;
+   }
+
    public String applyMappings(String original, Vector<String> styNames)
    {
       if (original == null || original.isEmpty()) return "";
 
+      LookupTable lookupTable = getLookupTable();
+
+      // quick scan for the first code point that needs mapping
+
       int n = original.length();
+      int i = lookupTable.indexOfMapped(original, 0);
+
+      if (i == n)
+      {
+         return original;
+      }
+
+      MappedString mapped = null;
 
-      StringBuilder builder = new StringBuilder(
-       (int)Math.max(n, 10));
+      boolean cacheable = (n <= MAX_MEMO_LENGTH);
 
-      for (int i = 0; i < n; )
+      if (cacheable)
       {
-         Integer codePoint = Integer.valueOf(original.codePointAt(i));
-         i += Character.charCount(codePoint.intValue());
+         synchronized (this)
+         {
+            if (memo != null)
+            {
+               mapped = memo.get(original);
+            }
+         }
+      }
 
-         TeXLookup map = get(codePoint);
+      if (mapped == null)
+      {
+         mapped = applyMappings(lookupTable, original, i);
+
+         if (cacheable)
+         {
+            synchronized (this)
+            {
+               // don't cache if the table was invalidated in the
+               // meantime
+
+               if (table == lookupTable)
+               {
+                  if (memo == null)
+                  {
+                     memo = new MemoCache();
+                  }
+
+                  memo.put(original, mapped);
+               }
+            }
+         }
+      }
+
+      if (styNames != null)
+      {
+         for (String styName : mapped.styNames)
+         {
+            addStyName(styName, styNames);
+         }
+      }
+
+      return mapped.result;
+   }
+
+   private MappedString applyMappings(LookupTable lookupTable,
+     String original, int i)
+   {
+      int n = original.length();
+
+      StringBuilder builder = new StringBuilder(n+16);
+
+      builder.append(original, 0, i);
+
+      Vector<String> mappedStyNames = null;
+
+      while (i < n)
+      {
+         int codePoint = original.codePointAt(i);
+         i += Character.charCount(codePoint);
+
+         TeXLookup map = lookupTable.get(codePoint);
 
          if (map == null)
          {
-            builder.appendCodePoint(codePoint.intValue());
+            builder.appendCodePoint(codePoint);
          }
          else
          {
@@ -126,115 +265,146 @@ public class TeXMappings extends HashMap<Integer,TeXLookup>
 
             String styName = map.getStyName();
 
-            if (styNames != null && !styName.isEmpty() && !styName.equals("none"))
+            if (!styName.isEmpty() && !styName.equals("none"))
             {
-               Matcher m = STY_PATTERN.matcher(styName);
+               if (mappedStyNames == null)
+               {
+                  mappedStyNames = new Vector<String>();
+               }
 
-               while (m.find())
+               if (!mappedStyNames.contains(styName))
                {
-                  String opt = m.group(1);
-                  String name = m.group(2);
+                  mappedStyNames.add(styName);
+               }
+            }
+         }
 
-                  if (name.equals("none"))
-                  {
-                     continue;
-                  }
+         // copy the next run of unmapped characters in one go
+
+         int next = lookupTable.indexOfMapped(original, i);
+
+         if (next > i)
+         {
+            builder.append(original, i, next);
+            i = next;
+         }
+      }
+
+      return new MappedString(builder.toString(),
+        mappedStyNames == null ? NO_STY_NAMES
+         : mappedStyNames.toArray(NO_STY_NAMES));
+   }
 
-                  String[] optSplit = null;
+   /**
+    * Adds the package (or packages) identified by the given
+    * mapping package specification to the list of required
+    * packages, merging package options if the package is already
+    * in the list.
+    */
+   private static void addStyName(String styName, Vector<String> styNames)
+   {
+      Matcher m = STY_PATTERN.matcher(styName);
+
+      while (m.find())
+      {
+         String opt = m.group(1);
+         String name = m.group(2);
 
+         if (name.equals("none"))
+         {
+            continue;
+         }
+
+         String[] optSplit = null;
+
+         if (opt != null)
+         {
+            opt = opt.trim();
+
+            if (opt.isEmpty())
+            {
+               opt = null;
+            }
+            else
+            {
+               optSplit = opt.split(" *, *");
+            }
+         }
+
+         boolean found = false;
+
+         for (int j = 0; j < styNames.size(); j++)
+         {
+            String theSty = styNames.get(j);
+
+            Matcher theMatcher = STY_PATTERN.matcher(theSty);
+
+            if (theMatcher.matches())
+            {
+               String theOpt = theMatcher.group(1);
+               String theName = theMatcher.group(2);
+
+               if (theName.equals(name))
+               {
                   if (opt != null)
                   {
-                     opt = opt.trim();
-
-                     if (opt.isEmpty())
+                     if (theOpt == null)
                      {
-                        opt = null;
+                        styNames.set(j,
+                           String.format("[%s]%s", opt, name));
                      }
                      else
                      {
-                        optSplit = opt.split(" *, *");
-                     }
-                  }
+                        String[] theSplit = theOpt.split(",");
 
-                  boolean found = false;
-
-                  for (int j = 0; j < styNames.size(); j++)
-                  {
-                     String theSty = styNames.get(j);
-
-                     Matcher theMatcher = STY_PATTERN.matcher(theSty);
-
-                     if (theMatcher.matches())
-                     {
-                        String theOpt = theMatcher.group(1);
-                        String theName = theMatcher.group(2);
+                        boolean replace = false;
 
-                        if (theName.equals(name))
+                        for (int k1 = 0; k1 < optSplit.length; k1++)
                         {
-                           if (opt != null)
+                           boolean optFound = false;
+
+                           for (int k2 = 0; k2 < theSplit.length; k2++)
                            {
-                              if (theOpt == null)
-                              {
-                                 styNames.set(j,
-                                    String.format("[%s]%s", opt, name));
-                              }
-                              else
+                              if (optSplit[k1].equals(theSplit[k2]))
                               {
-                                 String[] theSplit = theOpt.split(",");
-
-                                 boolean replace = false;
-
-                                 for (int k1 = 0; k1 < optSplit.length; k1++)
-                                 {
-                                    boolean optFound = false;
-
-                                    for (int k2 = 0; k2 < theSplit.length; k2++)
-                                    {
-                                       if (optSplit[k1].equals(theSplit[k2]))
-                                       {
-                                          optFound = true;
-                                          break;
-                                       }
-                                    }
-
-                                    if (!optFound)
-                                    {
-                                       theOpt = theOpt+","+optSplit[k1];
-                                       replace = true;
-                                    }
-                                 }
-
-                                 if (replace)
-                                 {
-                                    styNames.set(j,
-                                       String.format("[%s]%s", theOpt, name));
-                                 }
+                                 optFound = true;
+                                 break;
                               }
                            }
 
-                           found = true;
-                           break;
+                           if (!optFound)
+                           {
+                              theOpt = theOpt+","+optSplit[k1];
+                              replace = true;
+                           }
                         }
-                     }
-                  }
 
-                  if (!found)
-                  {
-                     if (opt == null)
-                     {
-                        styNames.add(name);
-                     }
-                     else
-                     {
-                        styNames.add(String.format("[%s]%s", opt, name));
+                        if (replace)
+                        {
+                           styNames.set(j,
+                              String.format("[%s]%s", theOpt, name));
+                        }
                      }
                   }
+
+                  found = true;
+                  break;
                }
             }
          }
-      }
 
-      return builder.toString();
+         if (!found)
+         {
+            if (opt == null)
+            {
+               styNames.add(name);
+            }
+            else
+            {
+               styNames.add(String.format("[%s]%s", opt, name));
+            }
+         }
+      }
    }
 
    public void save(PrintWriter writer)
@@ -318,10 +488,202 @@ public class TeXMappings extends HashMap<Integer,TeXLookup>
       return modeName;
    }
 
+   /**
+    * Compact lookup table built from the mappings. Code points in
+    * the Basic Multilingual Plane are looked up in a two-level
+    * array (only the blocks of 256 characters that contain mappings
+    * are allocated). Code points above the BMP are looked up in a
+    * sorted table with a binary search. The mapped ASCII characters
+    * are also recorded in a bit mask so that runs of unmapped ASCII
+    * characters can be skipped without any lookups.
+    */
+   private static class LookupTable
+   {
+      LookupTable(TeXMappings mappings)
+      {
+         int numSupplementary = 0;
+
+         for (Integer key : mappings.keySet())
+         {
+            int cp = key.intValue();
+
+            if (cp < 0)
+            {
+               continue;
+            }
+
+            if (cp < 0x80)
+            {
+               if (cp < 64)
+               {
+                  asciiMask0 |= (1L << cp);
+               }
+               else
+               {
+                  asciiMask1 |= (1L << (cp - 64));
+               }
+            }
+
+            if (cp <= 0xFFFF)
+            {
+               int page = cp >> 8;
+
+               if (bmpPages[page] == null)
+               {
+                  bmpPages[page] = new TeXLookup[256];
+               }
+
+               bmpPages[page][cp & 0xFF] = mappings.get(key);
+            }
+            else
+            {
+               numSupplementary++;
+            }
+         }
+
+         supplementaryCodes = new int[numSupplementary];
+         supplementaryLookups = new TeXLookup[numSupplementary];
+
+         if (numSupplementary > 0)
+         {
+            int idx = 0;
+
+            for (Integer key : mappings.keySet())
+            {
+               if (key.intValue() > 0xFFFF)
+               {
+                  supplementaryCodes[idx++] = key.intValue();
+               }
+            }
+
+            Arrays.sort(supplementaryCodes);
+
+            for (idx = 0; idx < numSupplementary; idx++)
+            {
+               supplementaryLookups[idx]
+                 = mappings.get(Integer.valueOf(supplementaryCodes[idx]));
+            }
+         }
+      }
+
+      TeXLookup get(int cp)
+      {
+         if (cp <= 0xFFFF)
+         {
+            TeXLookup[] page = bmpPages[cp >> 8];
+
+            return page == null ? null : page[cp & 0xFF];
+         }
+
+         int idx = Arrays.binarySearch(supplementaryCodes, cp);
+
+         return idx < 0 ? null : supplementaryLookups[idx];
+      }
+
+      boolean isMappedAscii(int c)
+      {
+         return c < 64 ? (asciiMask0 & (1L << c)) != 0
+                       : (asciiMask1 & (1L << (c - 64))) != 0;
+      }
+
+      /**
+       * Gets the index of the first character at or after the given
+       * index that may need mapping or the length of the string if
+       * there are none.
+       */
+      int indexOfMapped(String str, int from)
+      {
+         int n = str.length();
+
+         for (int i = from; i < n; i++)
+         {
+            char c = str.charAt(i);
+
+            if (c < 0x80)
+            {
+               if (isMappedAscii(c))
+               {
+                  return i;
+               }
+            }
+            else if (Character.isSurrogate(c))
+            {
+               return i;
+            }
+            else
+            {
+               TeXLookup[] page = bmpPages[c >> 8];
+
+               if (page != null && page[c & 0xFF] != null)
+               {
+                  return i;
+               }
+            }
+         }
+
+         return n;
+      }
+
+      private long asciiMask0 = 0L, asciiMask1 = 0L;
+      private TeXLookup[][] bmpPages = new TeXLookup[256][];
+      private int[] supplementaryCodes;
+      private TeXLookup[] supplementaryLookups;
+   }
+
+   /**
+    * The result of applying the mappings to a string and the
+    * package specifications of the mappings used.
+    */
+   private static class MappedString
+   {
+      MappedString(String result, String[] styNames)
+      {
+         this.result = result;
+         this.styNames = styNames;
+      }
+
+      String result;
+      String[] styNames;
+   }
+
+   /**
+    * Bounded least-recently-used cache of mapped strings. Short
+    * strings, such as labels and axis ticks, tend to be repeated.
+    */
+   private static class MemoCache extends LinkedHashMap<String,MappedString>
+   {
+      MemoCache()
+      {
+         super(64, 0.75f, true);
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,MappedString> eldest)
+      {
+         return size() > MAX_MEMO_SIZE;
+      }
+   }
+
    private JDRMessageDictionary msgSys;
 
    private String modeName;
 
+   private transient LookupTable table = null;
+
+   private transient MemoCache memo = null;
+
+   private static final String[] NO_STY_NAMES = new String[0];
+
+   /**
+    * Maximum number of strings in the memo cache.
+    */
+   public static final int MAX_MEMO_SIZE=1024;
+
+   /**
+    * Strings longer than this aren't cached.
+    */
+   public static final int MAX_MEMO_LENGTH=256;
+
    public static final Pattern STY_PATTERN = 
      Pattern.compile("(?:\\[([^\\]]*)\\])?\\s*([\\w\\-]+)");
 }
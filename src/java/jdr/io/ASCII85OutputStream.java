@@ -0,0 +1,189 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr.io;
+
+import java.io.*;
+
+/**
+ * Encodes bytes in the PostScript ASCII base-85 format as they are
+ * written, so the data never needs to be held in memory. The
+ * encoded characters are written to a character stream with lines
+ * no longer than 75 characters.
+ * <p>
+ * If a maximum string length is supplied, the data is split into
+ * a sequence of ASCII base-85 string literals <code>&lt;~...~&gt;</code>
+ * each of which decodes to at most that many bytes. (PostScript
+ * strings are limited to 65535 bytes.) Otherwise the data is
+ * written as a single sequence suitable for reading through an
+ * <code>ASCII85Decode</code> filter. In either case the caller
+ * writes the opening delimiter (if required) and {@link #finish()}
+ * writes the end of data marker <code>~&gt;</code>.
+ */
+public class ASCII85OutputStream extends OutputStream
+{
+   /**
+    * Creates a new encoder for a single sequence.
+    * @param out the character stream
+    */
+   public ASCII85OutputStream(Writer out)
+   {
+      this(out, 0);
+   }
+
+   /**
+    * Creates a new encoder.
+    * @param out the character stream
+    * @param maxStringLength the maximum number of bytes to encode
+    * in each string literal (rounded down to a multiple of 4) or 0
+    * for a single sequence
+    */
+   public ASCII85OutputStream(Writer out, int maxStringLength)
+   {
+      this.out = out;
+      this.maxStringLength = maxStringLength - maxStringLength % 4;
+   }
+
+   @Override
+   public void write(int b) throws IOException
+   {
+      finished = false;
+
+      tuple = (tuple << 8) | (b & 0xff);
+      count++;
+
+      if (count == 4)
+      {
+         encodeTuple();
+
+         stringLength += 4;
+
+         if (maxStringLength > 0 && stringLength >= maxStringLength)
+         {
+            out.write("~>");
+            out.write(NEWLINE);
+            out.write("<~");
+            lineLength = 2;
+            stringLength = 0;
+         }
+      }
+   }
+
+   private void encodeTuple() throws IOException
+   {
+      if (tuple == 0)
+      {
+         put('z');
+      }
+      else
+      {
+         encode(5);
+      }
+
+      tuple = 0;
+      count = 0;
+   }
+
+   /**
+    * Encodes the current tuple (padded with zeros, if incomplete)
+    * and writes the first n characters.
+    */
+   private void encode(int n) throws IOException
+   {
+      long value = tuple & 0xffffffffL;
+
+      for (int i = 4; i >= 0; i--)
+      {
+         chars[i] = (char)('!' + (int)(value % 85));
+         value /= 85;
+      }
+
+      for (int i = 0; i < n; i++)
+      {
+         put(chars[i]);
+      }
+   }
+
+   private void put(char c) throws IOException
+   {
+      out.write(c);
+      lineLength++;
+
+      if (lineLength >= MAX_LINE_LENGTH)
+      {
+         out.write(NEWLINE);
+         lineLength = 0;
+      }
+   }
+
+   /**
+    * Encodes any remaining bytes and writes the end of data
+    * marker. This doesn't close the underlying character stream.
+    */
+   public void finish() throws IOException
+   {
+      if (finished) return;
+
+      if (count > 0)
+      {
+         int n = count;
+
+         tuple <<= 8*(4-count);
+
+         // a partial final tuple is never abbreviated to 'z'
+         encode(n+1);
+
+         tuple = 0;
+         count = 0;
+      }
+
+      out.write("~>");
+      out.write(NEWLINE);
+
+      lineLength = 0;
+      stringLength = 0;
+      finished = true;
+   }
+
+   @Override
+   public void flush() throws IOException
+   {
+      out.flush();
+   }
+
+   /**
+    * Finishes the encoding. The underlying character stream isn't
+    * closed.
+    */
+   @Override
+   public void close() throws IOException
+   {
+      finish();
+      flush();
+   }
+
+   private Writer out;
+   private int tuple = 0, count = 0;
+   private int lineLength = 0, stringLength = 0;
+   private int maxStringLength;
+   private boolean finished = false;
+   private char[] chars = new char[5];
+
+   private static final int MAX_LINE_LENGTH = 75;
+   private static final String NEWLINE = System.lineSeparator();
+}
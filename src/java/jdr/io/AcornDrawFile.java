@@ -20,7 +20,11 @@
 package com.dickimawbooks.jdr.io;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.*;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Vector;
@@ -28,7 +32,8 @@ import java.awt.BasicStroke;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
-import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
 
 import com.dickimawbooks.jdr.*;
 import com.dickimawbooks.jdr.exceptions.*;
@@ -39,6 +44,12 @@ import com.dickimawbooks.jdr.marker.*;
  * https://www.riscosopen.org/wiki/documentation/show/File%20formats:%20DrawFile
  * Note that the bytes are in a different order so 
  * DataInputStream.readInt() etc can't be used.
+ * The file may either be read through a DataInputStream or
+ * memory-mapped as a little-endian ByteBuffer (see
+ * {@link #AcornDrawFile(CanvasGraphics,File,ImportSettings)}). The
+ * latter decodes the data by absolute offset without copying each
+ * word through the data buffer and is the preferred method when the
+ * source is a file.
  */
 
 public class AcornDrawFile
@@ -55,6 +66,45 @@ public class AcornDrawFile
 
    public AcornDrawFile(CanvasGraphics cg,
      DataInputStream din, ImportSettings importSettings)
+   {
+      this(cg, importSettings);
+
+      this.din = din;
+   }
+
+   /**
+    * Reads the given file by mapping it into memory.
+    * @param cg the canvas graphics
+    * @param file the Acorn DrawFile
+    * @param importSettings the import settings (may be null)
+    * @throws IOException if the file can't be mapped
+    */
+   public AcornDrawFile(CanvasGraphics cg,
+     File file, ImportSettings importSettings)
+   throws IOException
+   {
+      this(cg, mapFile(file), importSettings);
+   }
+
+   /**
+    * Reads the data from the given buffer. The buffer's byte order
+    * will be set to little-endian. The data is read by absolute
+    * offset starting from the buffer's current position.
+    * @param cg the canvas graphics
+    * @param buffer the buffer containing the DrawFile data
+    * @param importSettings the import settings (may be null)
+    */
+   public AcornDrawFile(CanvasGraphics cg,
+     ByteBuffer buffer, ImportSettings importSettings)
+   {
+      this(cg, importSettings);
+
+      this.buffer = buffer;
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      bufferOffset = buffer.position();
+   }
+
+   private AcornDrawFile(CanvasGraphics cg, ImportSettings importSettings)
    {
       this(cg);
       cg.setStorageUnit(JDRUnit.cm);
@@ -63,7 +113,6 @@ public class AcornDrawFile
       affineTransform = new AffineTransform(
        DRAW_PT_TO_CM, 0, 0, -DRAW_PT_TO_CM, 0, 0);
 
-      this.din = din;
       this.importSettings = importSettings;
 
       styNames = new Vector<String>();
@@ -74,6 +123,38 @@ public class AcornDrawFile
       }
    }
 
+   /**
+    * Maps the given file into memory as a read-only little-endian
+    * buffer. The mapping remains valid after the channel has been
+    * closed.
+    * @param file the file
+    * @return the mapped buffer
+    * @throws IOException if I/O error occurs
+    */
+   public static ByteBuffer mapFile(File file) throws IOException
+   {
+      FileChannel channel = null;
+
+      try
+      {
+         channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+         ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+           0, channel.size());
+
+         buf.order(ByteOrder.LITTLE_ENDIAN);
+
+         return buf;
+      }
+      finally
+      {
+         if (channel != null)
+         {
+            channel.close();
+         }
+      }
+   }
+
    public void setTextModeMappings(TeXMappings texMappings)
    {
       this.textModeMappings = texMappings;
@@ -375,8 +456,7 @@ public class AcornDrawFile
    {
       if (getVerbosity() > 0)
       {
-         getMessageSystem().getPublisher().publishMessages(
-            MessageInfo.createIncProgress());
+         getMessageSystem().getProgressBus().incrementProgress();
       }
    }
 
@@ -961,7 +1041,7 @@ public class AcornDrawFile
      int objectId = readInt();
      readObject(objectId);
 
-     readBytes((objectSize-8)-(bytesRead-oldBytesRead));
+     skipBytes((objectSize-8)-(bytesRead-oldBytesRead));
    }
 
    protected void readFontTable() throws IOException,InvalidFormatException
@@ -978,7 +1058,7 @@ public class AcornDrawFile
 
       fontTables.put(Byte.valueOf(id), new FontTable(this, fontName));
 
-      readBytes((objectSize-8)-(bytesRead-oldBytesRead));
+      skipBytes((objectSize-8)-(bytesRead-oldBytesRead));
    }
 
    protected FontTable getFontTable(byte b)
@@ -1000,7 +1080,7 @@ public class AcornDrawFile
       JDRText jdrText = readTextSpecs();
       currentGroup.add(jdrText);
 
-      readBytes((objectSize-8)-(bytesRead-oldBytesRead));
+      skipBytes((objectSize-8)-(bytesRead-oldBytesRead));
    }
 
    protected JDRText readTextSpecs() throws IOException,InvalidFormatException
@@ -1016,7 +1096,7 @@ public class AcornDrawFile
       int textStyle = readInt();
       // lowest byte is the font number
       // the remainder should be 0
-      byte fontId = dataBuffer.get(0);
+      byte fontId = (byte)(textStyle & 0xFF);
 
       int xSize = readInt(); // 1/640 of a point
       int ySize = readInt(); // draw units
@@ -1134,15 +1214,13 @@ public class AcornDrawFile
       matrix[4] = readInt();
       matrix[5] = readInt();
 
-      affineTransform.transform(matrix, 4, matrix, 4, 1);
-
       CanvasGraphics cg = image.getCanvasGraphics();
 
       int dataLength = readInt();
 
       byte[] data = readBytes(dataLength);
 
-      if (!importSettings.extractBitmaps)
+      if (importSettings == null || !importSettings.extractBitmaps)
       {
          // warn and discard
 
@@ -1172,13 +1250,12 @@ public class AcornDrawFile
          }
 
          JDRBitmap bitmap = new JDRBitmap(cg, file);
-         bitmap.setTransformation(matrix);
-         Rectangle2D rect = bitmap.getStorageBounds();
-         bitmap.translate(0, -rect.getHeight());
+         bitmap.setTransformation(getBitmapTransformation(matrix,
+           bitmap.getStorageBounds().getHeight()));
          currentGroup.add(bitmap);
       }
 
-      readBytes((objectSize-8)-(bytesRead-oldBytesRead));
+      skipBytes((objectSize-8)-(bytesRead-oldBytesRead));
    }
 
    // NB the Acorn Draw File "text area" is a multi-line area.
@@ -1649,7 +1726,7 @@ public class AcornDrawFile
 
       if (remainder > 0)
       {
-         byte[] bytes = readBytes(4-remainder);
+         skipBytes(4-remainder);
       }
    }
 
@@ -1681,9 +1758,6 @@ public class AcornDrawFile
 
    protected void readSprite() throws IOException,InvalidFormatException
    {
-      warning(getMessageWithFallback("error.acorn_drawfile.not_implemented_object_id",
-       "Object identifier {0} not yet implemented", OBJECT_SPRITE));
-
       int oldBytesRead = bytesRead;
 
       // bounding box
@@ -1692,19 +1766,39 @@ public class AcornDrawFile
       int highX = readInt();
       int highY = readInt();
 
-      readBytes((objectSize-8)-(bytesRead-oldBytesRead));
+      AcornSprite sprite = readSpriteData(
+        (objectSize-8)-(bytesRead-oldBytesRead));
+
+      if (sprite != null)
+      {
+         // the sprite should be scaled to the bounding box
+
+         double[] coords = new double[4];
+         coords[0] = lowX;
+         coords[1] = highY;
+         coords[2] = highX;
+         coords[3] = lowY;
+
+         affineTransform.transform(coords, 0, coords, 0, 2);
+
+         JDRUnit unit = getCanvasGraphics().getStorageUnit();
 
-      // dataBuffer should now hold the sprite content which should
-      // be scaled to the bounding box.
-      // TODO convert to PNG or JPG.
+         double[] matrix = new double[6];
+         matrix[0] = (coords[2]-coords[0])/unit.fromBp(sprite.getWidth());
+         matrix[1] = 0.0;
+         matrix[2] = 0.0;
+         matrix[3] = (coords[3]-coords[1])/unit.fromBp(sprite.getHeight());
+         matrix[4] = coords[0];
+         matrix[5] = coords[1];
+
+         addSprite(sprite, matrix, false);
+      }
+
+      skipBytes((objectSize-8)-(bytesRead-oldBytesRead));
    }
 
    protected void readTransformedSprite() throws IOException,InvalidFormatException
    {
-      warning(getMessageWithFallback("error.acorn_drawfile.not_implemented_object_id",
-       "Object identifier {0} not yet implemented", OBJECT_TRANSFORMED_SPRITE));
-
-// TODO
       int oldBytesRead = bytesRead;
 
       // bounding box
@@ -1722,7 +1816,136 @@ public class AcornDrawFile
       matrix[4] = readInt();
       matrix[5] = readInt();
 
-      readBytes((objectSize-8)-(bytesRead-oldBytesRead));
+      AcornSprite sprite = readSpriteData(
+        (objectSize-8)-(bytesRead-oldBytesRead));
+
+      if (sprite != null)
+      {
+         addSprite(sprite, matrix, true);
+      }
+
+      skipBytes((objectSize-8)-(bytesRead-oldBytesRead));
+   }
+
+   /**
+    * Reads the sprite area from the current position. If the file
+    * has been mapped, the sprite is decoded directly from the
+    * mapped buffer, otherwise the data is first read into an array.
+    * @param size the number of bytes occupied by the sprite
+    * @return the sprite or null if the sprite isn't supported
+    */
+   protected AcornSprite readSpriteData(int size) throws IOException
+   {
+      if (size < AcornSprite.HEADER_SIZE)
+      {
+         return null;
+      }
+
+      AcornSprite sprite;
+
+      if (buffer != null)
+      {
+         checkAvailable(size);
+         sprite = new AcornSprite(this, buffer, bufferOffset, size);
+         skipBytes(size);
+      }
+      else
+      {
+         sprite = new AcornSprite(this, ByteBuffer.wrap(readBytes(size)),
+           0, size);
+      }
+
+      printlnDebug(sprite.toString());
+
+      if (!sprite.isSupported())
+      {
+         warning(getMessageWithFallback(
+          "error.acorn_drawfile.unsupported_sprite",
+          "Unsupported sprite format ''{0}''", sprite.getName()));
+
+         return null;
+      }
+
+      return sprite;
+   }
+
+   /**
+    * Converts a DrawFile transformation matrix into the
+    * transformation of a bitmap. The DrawFile matrix maps the
+    * image's y-up space (in draw units) into the drawing, whereas
+    * the bitmap's space is y-down in storage units, so the full
+    * matrix is conjugated by the coordinate conversion.
+    * @param matrix the DrawFile transformation matrix where the
+    * translation is in draw units
+    * @param height the untransformed height of the bitmap in
+    * storage units
+    * @return the bitmap's transformation
+    */
+   protected AffineTransform getBitmapTransformation(double[] matrix,
+     double height)
+   {
+      AffineTransform af = new AffineTransform(affineTransform);
+
+      af.concatenate(new AffineTransform(matrix));
+
+      af.concatenate(new AffineTransform(
+        1.0/affineTransform.getScaleX(), 0, 0,
+        1.0/affineTransform.getScaleY(), 0, 0));
+
+      af.translate(0, -height);
+
+      return af;
+   }
+
+   /**
+    * Extracts the sprite as a PNG and adds it as a bitmap.
+    * @param sprite the sprite
+    * @param matrix the transformation matrix
+    * @param isDrawMatrix true if the matrix is the DrawFile
+    * transformation (see {@link #getBitmapTransformation(double[],double)})
+    * or false if it's already the bitmap's transformation
+    */
+   protected void addSprite(AcornSprite sprite, double[] matrix,
+     boolean isDrawMatrix)
+   throws IOException,InvalidFormatException
+   {
+      if (importSettings == null || !importSettings.extractBitmaps)
+      {
+         // warn and discard
+
+         warning(getMessageWithFallback("message.acorn_drawfile.ignoring_sprite",
+           "Ignoring embedded sprite"));
+
+         return;
+      }
+
+      BufferedImage spriteImage = sprite.decode();
+
+      if (spriteImage == null)
+      {
+         return;
+      }
+
+      bitmapCount++;
+      File file = new File(importSettings.bitmapDir, 
+        String.format((Locale)null, "%s%06d.png",
+         importSettings.bitmapNamePrefix, bitmapCount));
+
+      ImageIO.write(spriteImage, "png", file);
+
+      JDRBitmap bitmap = new JDRBitmap(getCanvasGraphics(), file);
+
+      if (isDrawMatrix)
+      {
+         bitmap.setTransformation(getBitmapTransformation(matrix,
+           bitmap.getStorageBounds().getHeight()));
+      }
+      else
+      {
+         bitmap.setTransformation(matrix);
+      }
+
+      currentGroup.add(bitmap);
    }
 
    protected void readTransformedText() throws IOException,InvalidFormatException
@@ -1757,7 +1980,7 @@ public class AcornDrawFile
 
       currentGroup.add(jdrText);
 
-      readBytes((objectSize-8)-(bytesRead-oldBytesRead));
+      skipBytes((objectSize-8)-(bytesRead-oldBytesRead));
    }
 
    protected DataBuffer resetDataBuffer()
@@ -1805,7 +2028,22 @@ public class AcornDrawFile
 
    public byte readByte() throws IOException
    {
-      byte b = din.readByte();
+      byte b;
+
+      if (buffer != null)
+      {
+         if (bufferOffset >= buffer.limit())
+         {
+            throw new EOFException();
+         }
+
+         b = buffer.get(bufferOffset++);
+      }
+      else
+      {
+         b = din.readByte();
+      }
+
       bytesRead++;
       return b;
    }
@@ -1816,13 +2054,24 @@ public class AcornDrawFile
 
       byte[] array = new byte[length];
 
-      int r = din.read(array, 0, length);
+      if (buffer != null)
+      {
+         checkAvailable(length);
+
+         buffer.position(bufferOffset);
+         buffer.get(array, 0, length);
+         bufferOffset += length;
+      }
+      else
+      {
+         din.readFully(array, 0, length);
+      }
 
       if (isDebuggingOn())
       {
-         printlnDebug(String.format("readBytes: %d byte(s) read", r));
+         printlnDebug(String.format("readBytes: %d byte(s) read", length));
 
-         for (int i = 0; i < r; i++)
+         for (int i = 0; i < length; i++)
          {
             if (i > 0)
             {
@@ -1831,21 +2080,46 @@ public class AcornDrawFile
 
             printDebug(octet(array[i]));
          }
+      }
 
-         if (r == -1)
+      bytesRead += length;
+
+      return array;
+   }
+
+   /**
+    * Skips the given number of bytes. With a mapped buffer this
+    * simply moves the offset without copying any data.
+    */
+   public void skipBytes(int length) throws IOException
+   {
+      if (length <= 0) return;
+
+      if (buffer == null)
+      {
+         readBytes(length);
+      }
+      else
+      {
+         checkAvailable(length);
+
+         if (isDebuggingOn())
          {
-            printlnDebug("");
+            printlnDebug(String.format("skipBytes: %d byte(s) skipped", length));
          }
+
+         bufferOffset += length;
+         bytesRead += length;
       }
+   }
 
-      if (r == -1)
+   private void checkAvailable(int length) throws EOFException
+   {
+      if (bufferOffset + length > buffer.limit())
       {
+         bufferOffset = buffer.limit();
          throw new EOFException();
       }
-
-      bytesRead += length;
-
-      return array;
    }
 
    // read up to \0
@@ -1853,14 +2127,42 @@ public class AcornDrawFile
    {
       resetDataBuffer();
 
+      if (buffer != null)
+      {
+         int end = bufferOffset;
+         int limit = buffer.limit();
+
+         while (end < limit && buffer.get(end) != 0)
+         {
+            end++;
+         }
+
+         if (end == limit)
+         {
+            bufferOffset = limit;
+            throw new EOFException();
+         }
+
+         int n = end - bufferOffset;
+
+         dataBuffer.append(buffer, bufferOffset, n);
+
+         // the bytes and the terminating null
+         bytesRead += n+1;
+         bufferOffset = end+1;
+
+         return n;
+      }
+
       byte b;
 
+      // readByte() updates the byte count
+
       while ((b = readByte()) != 0)
       {
          if (b == -1) return -1;
 
          dataBuffer.append(b);
-         bytesRead++;
       }
 
       return dataBuffer.length();
@@ -1877,7 +2179,20 @@ public class AcornDrawFile
 
       resetDataBuffer(length);
 
-      int r = dataBuffer.read(din, length);
+      int r;
+
+      if (buffer != null)
+      {
+         checkAvailable(length);
+
+         dataBuffer.append(buffer, bufferOffset, length);
+         bufferOffset += length;
+         r = length;
+      }
+      else
+      {
+         r = dataBuffer.read(din, length);
+      }
 
       if (isDebuggingOn())
       {
@@ -1929,9 +2244,34 @@ public class AcornDrawFile
 
       resetDataBuffer();
 
-      while ((b = readByte()) != 0)
+      if (buffer != null)
       {
-         dataBuffer.append(b);
+         int end = bufferOffset;
+         int limit = buffer.limit();
+
+         while (end < limit && buffer.get(end) != 0)
+         {
+            end++;
+         }
+
+         if (end == limit)
+         {
+            bufferOffset = limit;
+            throw new EOFException();
+         }
+
+         int n = end - bufferOffset;
+
+         dataBuffer.append(buffer, bufferOffset, n);
+         bytesRead += n+1;
+         bufferOffset = end+1;
+      }
+      else
+      {
+         while ((b = readByte()) != 0)
+         {
+            dataBuffer.append(b);
+         }
       }
 
       return dataBuffer.toString(map);
@@ -1939,6 +2279,26 @@ public class AcornDrawFile
 
    public int readInt() throws IOException
    {
+      int value;
+
+      if (buffer != null)
+      {
+         checkAvailable(4);
+
+         value = buffer.getInt(bufferOffset);
+
+         if (isDebuggingOn())
+         {
+            printlnDebug(String.format("readInt: offset %d\t%d",
+              bufferOffset, value));
+         }
+
+         bufferOffset += 4;
+         bytesRead += 4;
+
+         return value;
+      }
+
       int length = 4;
 
       resetDataBuffer(length);
@@ -1972,15 +2332,7 @@ public class AcornDrawFile
 
       bytesRead += length;
 
-      resetStringBuffer(length);
-
-      stringBuffer.append(String.format("%s%s%s%s",
-        octet(dataBuffer.get(3)), 
-        octet(dataBuffer.get(2)),
-        octet(dataBuffer.get(1)), 
-        octet(dataBuffer.get(0))));
-
-      int value = (int)Long.parseLong(stringBuffer.toString(), 16);
+      value = dataBuffer.getLittleEndianInt(0);
 
       if (isDebuggingOn())
       {
@@ -1998,51 +2350,54 @@ public class AcornDrawFile
    public double readDouble() throws IOException
    {
       int length = 8;
+      long longHex;
 
-      resetDataBuffer(length);
-      int r = dataBuffer.read(din, length);
+      if (buffer != null)
+      {
+         checkAvailable(length);
 
-      if (isDebuggingOn())
+         // The high word comes first, each word is little-endian.
+         longHex = (((long)buffer.getInt(bufferOffset)) << 32)
+                 | (buffer.getInt(bufferOffset+4) & 0xFFFFFFFFL);
+
+         bufferOffset += length;
+      }
+      else
       {
-         printlnDebug(String.format("readDouble: %d byte(s) read", r));
+         resetDataBuffer(length);
+         int r = dataBuffer.read(din, length);
 
-         for (int i = 0; i < r; i++)
+         if (isDebuggingOn())
          {
-            if (i > 0)
+            printlnDebug(String.format("readDouble: %d byte(s) read", r));
+
+            for (int i = 0; i < r; i++)
             {
-               printDebug(" ");
+               if (i > 0)
+               {
+                  printDebug(" ");
+               }
+
+               printDebug(octet(dataBuffer.get(i)));
             }
 
-            printDebug(octet(dataBuffer.get(i)));
+            if (r == -1)
+            {
+               printlnDebug("");
+            }
          }
 
          if (r == -1)
          {
-            printlnDebug("");
+            throw new EOFException();
          }
-      }
 
-      if (r == -1)
-      {
-         throw new EOFException();
+         longHex = (((long)dataBuffer.getLittleEndianInt(0)) << 32)
+                 | (dataBuffer.getLittleEndianInt(4) & 0xFFFFFFFFL);
       }
 
       bytesRead += length;
 
-      resetStringBuffer(length);
-
-      stringBuffer.append(String.format("%s%s%s%s%s%s%s%s",
-        octet(dataBuffer.get(3)), 
-        octet(dataBuffer.get(2)),
-        octet(dataBuffer.get(1)), 
-        octet(dataBuffer.get(0)),
-        octet(dataBuffer.get(7)), 
-        octet(dataBuffer.get(6)),
-        octet(dataBuffer.get(5)), 
-        octet(dataBuffer.get(4))
-      ));
-
-      long longHex = Long.parseUnsignedLong(stringBuffer.toString(), 16); 
       double value = Double.longBitsToDouble(longHex);
 
       if (isDebuggingOn())
@@ -2114,6 +2469,8 @@ public class AcornDrawFile
 
    CanvasGraphics canvasGraphics;
    DataInputStream din;
+   ByteBuffer buffer;
+   int bufferOffset=0;
 
    ImportSettings importSettings;
    int bitmapCount=0;
@@ -2315,12 +2672,7 @@ class DataBuffer
       byte[] orgData = data;
       data = new byte[newCapacity];
 
-      for (int i = 0; i < orgData.length; i++)
-      {
-         data[i] = orgData[i];
-      }
-
-      length = orgData.length;
+      System.arraycopy(orgData, 0, data, 0, Math.min(length, newCapacity));
    }
 
    public void setMinimumCapacity(int newCapacity)
@@ -2354,10 +2706,9 @@ class DataBuffer
    public int append(DataInputStream din, int size)
    throws IOException
    {
-      if (size > data.length + size)
+      if (length + size > data.length)
       {
-         enlarge(data.length + size);
-         data = new byte[data.length + size];
+         enlarge(length + size);
       }
 
       int result = din.read(data, length, size);
@@ -2370,6 +2721,34 @@ class DataBuffer
       return result;
    }
 
+   /**
+    * Appends n bytes from the given buffer starting at the given
+    * absolute offset.
+    */
+   public void append(ByteBuffer buffer, int offset, int n)
+   {
+      if (length + n > data.length)
+      {
+         enlarge(Math.max(length + n, (int) Math.ceil(1.5 * data.length)));
+      }
+
+      buffer.position(offset);
+      buffer.get(data, length, n);
+
+      length += n;
+   }
+
+   /**
+    * Gets the little-endian int starting at the given index.
+    */
+   public int getLittleEndianInt(int i)
+   {
+      return (data[i] & 0xFF)
+          | ((data[i+1] & 0xFF) << 8)
+          | ((data[i+2] & 0xFF) << 16)
+          | ((data[i+3] & 0xFF) << 24);
+   }
+
    public String toString(AcornDrawFile.CharacterMap map)
    {
       return toString(0, length, map);
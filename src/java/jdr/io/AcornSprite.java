@@ -0,0 +1,396 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Decodes an Acorn sprite embedded in a DrawFile sprite object.
+ * The sprite data is read directly from a little-endian buffer
+ * (which may be a memory-mapped file) by absolute offset and the
+ * pixels are written straight into the backing array of the image
+ * raster.
+ * https://www.riscosopen.org/wiki/documentation/show/Sprite%20Format
+ */
+class AcornSprite
+{
+   /**
+    * Reads the sprite header.
+    * @param adf the DrawFile being read
+    * @param data buffer containing the sprite
+    * @param offset offset of the start of the sprite in the buffer
+    * @param size number of bytes available for the sprite
+    */
+   public AcornSprite(AcornDrawFile adf, ByteBuffer data, int offset,
+     int size)
+   {
+      this.adf = adf;
+      this.data = data.duplicate();
+      this.data.order(ByteOrder.LITTLE_ENDIAN);
+      this.offset = offset;
+      this.size = size;
+
+      if (size < HEADER_SIZE)
+      {
+         return;
+      }
+
+      StringBuilder builder = new StringBuilder(12);
+
+      for (int i = 0; i < 12; i++)
+      {
+         int c = this.data.get(offset+4+i) & 0xFF;
+
+         if (c == 0) break;
+
+         builder.append((char)c);
+      }
+
+      name = builder.toString().trim();
+
+      widthWords = this.data.getInt(offset+16)+1;
+      height = this.data.getInt(offset+20)+1;
+      firstBit = this.data.getInt(offset+24);
+      lastBit = this.data.getInt(offset+28);
+      imageOffset = this.data.getInt(offset+32);
+      maskOffset = this.data.getInt(offset+36);
+      mode = this.data.getInt(offset+40);
+
+      int type = (mode >>> 27);
+
+      if (type == 0)
+      {
+         bpp = getOldModeBitsPerPixel(mode & 0x7F);
+         newFormat = false;
+      }
+      else
+      {
+         newFormat = true;
+
+         switch (type)
+         {
+            case 1: bpp = 1; break;
+            case 2: bpp = 2; break;
+            case 3: bpp = 4; break;
+            case 4: bpp = 8; break;
+            case 5: bpp = 16; break;
+            case 6: bpp = 32; break;
+            default: bpp = 0;
+         }
+      }
+
+      if (bpp > 0)
+      {
+         width = (widthWords*32 - firstBit - (31-lastBit))/bpp;
+      }
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public int getWidth()
+   {
+      return width;
+   }
+
+   public int getHeight()
+   {
+      return height;
+   }
+
+   public int getBitsPerPixel()
+   {
+      return bpp;
+   }
+
+   public boolean hasMask()
+   {
+      return maskOffset != imageOffset && maskOffset > 0;
+   }
+
+   /**
+    * Determines whether or not this sprite can be decoded.
+    */
+   public boolean isSupported()
+   {
+      return bpp > 0 && width > 0 && height > 0
+        && imageOffset >= HEADER_SIZE
+        && imageOffset + widthWords * 4 * height <= size;
+   }
+
+   /**
+    * Decodes the sprite.
+    * @return the decoded image or null if the sprite format isn't
+    * supported
+    */
+   public BufferedImage decode()
+   {
+      if (!isSupported())
+      {
+         return null;
+      }
+
+      boolean masked = hasMask();
+
+      BufferedImage image = new BufferedImage(width, height,
+        masked ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+
+      int[] pixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+
+      int stride = widthWords * 4;
+      byte[] row = new byte[stride];
+
+      int[] palette = null;
+
+      if (bpp <= 8)
+      {
+         palette = getPalette();
+      }
+
+      int mask = (1 << bpp) - 1;
+
+      for (int y = 0, idx = 0; y < height; y++)
+      {
+         readRow(offset + imageOffset + y * stride, row);
+
+         switch (bpp)
+         {
+            case 8:
+              for (int x = 0, i = firstBit >> 3; x < width; x++, i++)
+              {
+                 pixels[idx++] = palette[row[i] & 0xFF];
+              }
+            break;
+            case 16:
+              for (int x = 0, i = firstBit >> 3; x < width; x++, i += 2)
+              {
+                 int value = (row[i] & 0xFF) | ((row[i+1] & 0xFF) << 8);
+
+                 pixels[idx++] = (expand5(value & 0x1F) << 16)
+                              | (expand5((value >> 5) & 0x1F) << 8)
+                              | expand5((value >> 10) & 0x1F);
+              }
+            break;
+            case 32:
+              for (int x = 0, i = firstBit >> 3; x < width; x++, i += 4)
+              {
+                 pixels[idx++] = ((row[i] & 0xFF) << 16)
+                              | ((row[i+1] & 0xFF) << 8)
+                              | (row[i+2] & 0xFF);
+              }
+            break;
+            default:
+              // pixels are packed with the leftmost pixel in the least
+              // significant bits
+              for (int x = 0, bit = firstBit; x < width; x++, bit += bpp)
+              {
+                 pixels[idx++] = palette[(row[bit >> 3] >> (bit & 7)) & mask];
+              }
+         }
+      }
+
+      if (masked)
+      {
+         applyMask(pixels);
+      }
+
+      return image;
+   }
+
+   private void readRow(int rowOffset, byte[] row)
+   {
+      data.position(rowOffset);
+      data.get(row, 0, row.length);
+   }
+
+   private void applyMask(int[] pixels)
+   {
+      int maskBpp = (newFormat ? 1 : bpp);
+      int maskFirstBit = (newFormat ? 0 : firstBit);
+
+      int stride = newFormat ? ((width + 31) / 32) * 4 : widthWords * 4;
+
+      if (maskOffset + stride * height > size)
+      {
+         adf.printlnDebug(String.format(
+           "sprite %s: mask exceeds object bounds, ignoring", name));
+
+         for (int i = 0; i < pixels.length; i++)
+         {
+            pixels[i] |= 0xFF000000;
+         }
+
+         return;
+      }
+
+      byte[] row = new byte[stride];
+      int mask = (1 << maskBpp) - 1;
+
+      for (int y = 0, idx = 0; y < height; y++)
+      {
+         readRow(offset + maskOffset + y * stride, row);
+
+         for (int x = 0, bit = maskFirstBit; x < width; x++, bit += maskBpp)
+         {
+            int value;
+
+            if (maskBpp >= 8)
+            {
+               value = row[bit >> 3];
+            }
+            else
+            {
+               value = (row[bit >> 3] >> (bit & 7)) & mask;
+            }
+
+            if (value != 0)
+            {
+               pixels[idx] |= 0xFF000000;
+            }
+            else
+            {
+               pixels[idx] &= 0x00FFFFFF;
+            }
+
+            idx++;
+         }
+      }
+   }
+
+   private int[] getPalette()
+   {
+      int n = 1 << bpp;
+      int[] palette = getDefaultPalette(bpp);
+
+      if (imageOffset > HEADER_SIZE)
+      {
+         int numEntries = Math.min((imageOffset - HEADER_SIZE)/8, n);
+
+         for (int i = 0; i < numEntries; i++)
+         {
+            // 0xBBGGRR00
+            int entry = data.getInt(offset + HEADER_SIZE + 8*i);
+
+            palette[i] = (((entry >> 8) & 0xFF) << 16)
+                       | (((entry >> 16) & 0xFF) << 8)
+                       | ((entry >> 24) & 0xFF);
+         }
+      }
+
+      return palette;
+   }
+
+   private static int expand5(int value)
+   {
+      return (value << 3) | (value >> 2);
+   }
+
+   private static int[] getDefaultPalette(int bpp)
+   {
+      int n = 1 << bpp;
+      int[] palette = new int[n];
+
+      switch (bpp)
+      {
+         case 1:
+           palette[0] = 0xFFFFFF;
+           palette[1] = 0x000000;
+         break;
+         case 2:
+           palette[0] = 0xFFFFFF;
+           palette[1] = 0xBBBBBB;
+           palette[2] = 0x777777;
+           palette[3] = 0x000000;
+         break;
+         case 4:
+           System.arraycopy(WIMP_PALETTE, 0, palette, 0, n);
+         break;
+         default:
+           // standard 256 colour palette: bits 0-1 tint,
+           // bit 2 red low, bit 3 blue low, bit 4 red high,
+           // bit 5 green low, bit 6 green high, bit 7 blue high
+
+           for (int i = 0; i < n; i++)
+           {
+              int tint = i & 3;
+              int red = (((i >> 4) & 1) << 3) | (((i >> 2) & 1) << 2) | tint;
+              int green = (((i >> 6) & 1) << 3) | (((i >> 5) & 1) << 2) | tint;
+              int blue = (((i >> 7) & 1) << 3) | (((i >> 3) & 1) << 2) | tint;
+
+              palette[i] = ((red * 17) << 16) | ((green * 17) << 8)
+                         | (blue * 17);
+           }
+      }
+
+      return palette;
+   }
+
+   private static int getOldModeBitsPerPixel(int modeNumber)
+   {
+      switch (modeNumber)
+      {
+         case 0: case 4: case 18: case 23: case 25: case 29:
+         case 33: case 37: case 41: case 44:
+           return 1;
+         case 1: case 5: case 8: case 11: case 19: case 26:
+         case 30: case 34: case 38: case 42: case 45:
+           return 2;
+         case 2: case 9: case 12: case 14: case 16: case 17:
+         case 20: case 27: case 31: case 35: case 39: case 43:
+         case 46:
+           return 4;
+         case 10: case 13: case 15: case 21: case 24: case 28:
+         case 32: case 36: case 40:
+           return 8;
+      }
+
+      return 0;
+   }
+
+   public String toString()
+   {
+      return String.format("%s[name=%s,width=%d,height=%d,bpp=%d,mode=0x%X]",
+        getClass().getSimpleName(), name, width, height, bpp, mode);
+   }
+
+   private AcornDrawFile adf;
+   private ByteBuffer data;
+   private int offset, size;
+
+   private String name="";
+   private int widthWords, width=0, height=0, firstBit, lastBit;
+   private int imageOffset, maskOffset, mode, bpp=0;
+   private boolean newFormat;
+
+   static final int HEADER_SIZE=44;
+
+   private static final int[] WIMP_PALETTE = new int[]
+   {
+      0xFFFFFF, 0xDDDDDD, 0xBBBBBB, 0x999999,
+      0x777777, 0x555555, 0x333333, 0x000000,
+      0x004499, 0xEEEE00, 0x00CC00, 0xDD0000,
+      0xEEEEBB, 0x558800, 0xFFBB00, 0x00BBFF
+   };
+}
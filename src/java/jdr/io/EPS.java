@@ -108,9 +108,53 @@ public class EPS
       String creator)
       throws IOException
    {
+      save(allObjects, out, creator, false);
+   }
+
+   /**
+    * Saves image in EPS format. If shared resources are enabled,
+    * colours, shading functions and marker outlines are defined as
+    * procedures in a private dictionary when they're first used
+    * and referenced by name subsequently, and bitmaps are
+    * compressed and encoded as they're written. Bitmaps that are
+    * used more than once are only written once. Shared resources
+    * require language level 2 (or level 3 if the image contains
+    * bitmaps). If the image only requires language level 1, shared
+    * resources aren't used.
+    * @param allObjects all the objects that define the image
+    * @param out the output stream
+    * @param creator the name of the application calling this method
+    * (for the %%Creator comment)
+    * @param sharedResources true if shared resources should be used
+    * @throws IOException if I/O error occurs
+    */
+   public static void save(JDRGroup allObjects, PrintWriter out,
+      String creator, boolean sharedResources)
+      throws IOException
+   {
+      int psLevel = allObjects.psLevel();
+
+      EPSWriter writer = null;
+
+      if (sharedResources && psLevel > 1)
+      {
+         writer = new EPSWriter(out);
+
+         countImageUses(allObjects, writer);
+
+         if (writer.hasImages())
+         {
+            // FlateDecode is a level 3 filter
+            psLevel = Math.max(psLevel, 3);
+         }
+
+         out = writer;
+      }
+
       CanvasGraphics cg = allObjects.getCanvasGraphics();
       JDRMessage msgSys = cg.getMessageSystem();
       MessageInfoPublisher publisher = msgSys.getPublisher();
+      ProgressBus progressBus = msgSys.getProgressBus();
          
       boolean indeter = (allObjects.size() <= 1);
 
@@ -135,7 +179,7 @@ public class EPS
 
       GregorianCalendar date = new GregorianCalendar();
       out.println("%%CreationDate: "+dateFormat.format(date.getTime()));
-      out.println("%%LanguageLevel: "+allObjects.psLevel());
+      out.println("%%LanguageLevel: "+psLevel);
 
       // shift bottom left corner to origin
 
@@ -148,6 +192,25 @@ public class EPS
       out.println("%%HiResBoundingBox: 0.0 0.0 "
                   +box.getWidth() +" " +box.getHeight());
       out.println("%%EndComments");
+
+      if (writer != null)
+      {
+         out.println("%%BeginProlog");
+         out.println("/"+RESOURCE_DICT+" 64 dict def");
+         out.println(RESOURCE_DICT+" begin");
+
+         // Data source for a bitmap stored as an array of strings
+         // of compressed data
+
+         out.println("/jdrsrc{/jdrsrcdata exch def/jdrsrcidx 0 def");
+         out.println(" {jdrsrcidx jdrsrcdata length lt");
+         out.println("  {jdrsrcdata jdrsrcidx get/jdrsrcidx jdrsrcidx 1 add def}");
+         out.println("  {()}ifelse}/FlateDecode filter}bind def");
+         out.println("end");
+         out.println("%%EndProlog");
+         out.println(RESOURCE_DICT+" begin");
+      }
+
       out.println("gsave");
       out.println(""+shiftX+" "+(-shiftY)+" translate");
       out.println("1 -1 scale");
@@ -159,14 +222,110 @@ public class EPS
 
       for (int i = 0; i < allObjects.size(); i++)
       {
-         publisher.publishMessages(MessageInfo.createIncProgress());
+         progressBus.incrementProgress();
 
          allObjects.get(i).saveEPS(out);
       }
 
       out.println("grestore");
+
+      if (writer != null)
+      {
+         out.println("end");
+      }
+
       out.println("%%Trailer");
       out.println("%%EOF");
+
+      if (writer != null)
+      {
+         writer.flush();
+      }
+   }
+
+   private static void countImageUses(JDRGroup group, EPSWriter writer)
+   {
+      for (int i = 0, n = group.size(); i < n; i++)
+      {
+         JDRCompleteObject object = group.get(i);
+
+         if (object instanceof JDRBitmap)
+         {
+            if (!((JDRBitmap)object).isDraft())
+            {
+               writer.addImageUse(EPSWriter.getImageKey((JDRBitmap)object));
+            }
+         }
+         else if (object instanceof JDRGroup)
+         {
+            countImageUses((JDRGroup)object, writer);
+         }
+      }
+   }
+
+   /**
+    * Gets the writer that manages shared resources.
+    * @param out the output stream
+    * @return the writer or null if shared resources aren't being
+    * used
+    */
+   public static EPSWriter getResourceWriter(PrintWriter out)
+   {
+      return (out instanceof EPSWriter) ? (EPSWriter)out : null;
+   }
+
+   /**
+    * Writes PostScript code that sets the current colour. If shared
+    * resources are being used, the code is defined as a procedure
+    * the first time it's used and the procedure name is written
+    * instead.
+    * @param out the output stream
+    * @param code the PostScript code
+    */
+   public static void saveColour(PrintWriter out, String code)
+   {
+      EPSWriter writer = getResourceWriter(out);
+
+      if (writer == null)
+      {
+         out.println(code);
+      }
+      else
+      {
+         out.println(writer.getProcedure(code, "C"));
+      }
+   }
+
+   /**
+    * Gets the name of the shared shading function that
+    * interpolates between the given colours. The function is
+    * defined if this is the first time it's been used. This must be
+    * called before the shading dictionary is started.
+    * @param out the output stream
+    * @param c0 the start colour entry
+    * @param c1 the end colour entry
+    * @return the function name or null if shared resources aren't
+    * being used
+    */
+   public static String getShadingFunction(PrintWriter out,
+      String c0, String c1)
+   {
+      EPSWriter writer = getResourceWriter(out);
+
+      if (writer == null) return null;
+
+      String key = "/FunctionType 2 /Domain [0 1] "+c0+" "+c1+" /N 1";
+
+      String name = writer.getResourceName(key);
+
+      if (name == null)
+      {
+         name = writer.addResource(key, "Fn");
+
+         out.println("/"+name+" << "+key+" >> def");
+      }
+
+      return name;
    }
 
    /**
@@ -302,6 +461,12 @@ public class EPS
       return canvasGraphics.getMessageSystem();
    }
 
+   /**
+    * Name of the private dictionary that contains the shared
+    * resources.
+    */
+   public static final String RESOURCE_DICT = "jdrdict";
+
    /**
     * Loads an Encapsulated PostScript file and returns the image
     * as a {@link JDRGroup}.
@@ -524,7 +689,7 @@ public class EPS
    {
       if (getVerbosity() > 0)
       {
-         getMessageSystem().getPublisher().publishMessages(MessageInfo.createIncProgress());
+         getMessageSystem().getProgressBus().incrementProgress();
       }
    }
 
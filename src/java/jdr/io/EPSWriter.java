@@ -0,0 +1,141 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr.io;
+
+import java.io.*;
+import java.util.HashMap;
+
+import com.dickimawbooks.jdr.JDRBitmap;
+import com.dickimawbooks.jdr.JDRGroup;
+
+/**
+ * Writer used by {@link EPS#save(JDRGroup,PrintWriter,String,boolean)}
+ * when shared resources are enabled. Objects that are written
+ * through this writer may define a PostScript procedure the first
+ * time some content (such as a colour, a shading function or a
+ * marker outline) is used and refer to it by name subsequently.
+ * The definitions are made in the image's private dictionary,
+ * which is on the dictionary stack while the objects are written.
+ * <p>
+ * The number of times each bitmap is used is counted before the
+ * objects are written, so that bitmaps that are only used once can
+ * be streamed inline rather than kept in the interpreter's memory.
+ */
+public class EPSWriter extends PrintWriter
+{
+   public EPSWriter(Writer out)
+   {
+      super(out);
+   }
+
+   /**
+    * Gets the name of the resource identified by the given key.
+    * @param key the key
+    * @return the name or null if the resource hasn't been defined
+    */
+   public String getResourceName(Object key)
+   {
+      return resources.get(key);
+   }
+
+   /**
+    * Creates a new name for the resource identified by the given
+    * key. The caller must write the definition.
+    * @param key the key
+    * @param prefix the name prefix (identifying the type of
+    * resource)
+    * @return the new name
+    */
+   public String addResource(Object key, String prefix)
+   {
+      String name = prefix + (resources.size()+1);
+
+      resources.put(key, name);
+
+      return name;
+   }
+
+   /**
+    * Gets the procedure that performs the given PostScript code,
+    * defining it if this is the first time the code has been used.
+    * @param code the PostScript code
+    * @param prefix the name prefix for a new procedure
+    * @return the procedure name
+    */
+   public String getProcedure(String code, String prefix)
+   {
+      String name = resources.get(code);
+
+      if (name == null)
+      {
+         name = addResource(code, prefix);
+
+         println("/"+name+" {"+code+"} bind def");
+      }
+
+      return name;
+   }
+
+   /**
+    * Gets the key that identifies the image data of the given
+    * bitmap. Bitmaps loaded from the same file share the same data,
+    * even if the file was loaded separately for each bitmap.
+    * @param bitmap the bitmap
+    * @return the key
+    */
+   public static Object getImageKey(JDRBitmap bitmap)
+   {
+      String filename = bitmap.getFilename();
+
+      return filename == null ? bitmap.getImage()
+           : new File(filename).getAbsoluteFile();
+   }
+
+   /**
+    * Increments the number of times the given bitmap is used.
+    * @param image the image key
+    */
+   public void addImageUse(Object image)
+   {
+      Integer count = imageUses.get(image);
+
+      imageUses.put(image, count == null ? 1 : count+1);
+   }
+
+   /**
+    * Determines whether the given bitmap is used more than once.
+    * @param image the image key
+    * @return true if the image is used more than once
+    */
+   public boolean isImageShared(Object image)
+   {
+      Integer count = imageUses.get(image);
+
+      return count != null && count > 1;
+   }
+
+   public boolean hasImages()
+   {
+      return !imageUses.isEmpty();
+   }
+
+   private HashMap<Object,String> resources = new HashMap<Object,String>();
+
+   private HashMap<Object,Integer> imageUses = new HashMap<Object,Integer>();
+}
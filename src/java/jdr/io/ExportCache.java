@@ -0,0 +1,360 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr.io;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.dickimawbooks.jdr.*;
+
+/**
+ * Content-addressed cache for exports that are created by running
+ * external processes (such as pdflatex, dvips, dvisvgm) on a
+ * temporary LaTeX document. The key is a hash of the LaTeX source,
+ * the export settings (including the process command lines) and
+ * the size and modification date of any bitmap files referenced by
+ * the image. Comment lines and the PDF creation date are ignored
+ * when hashing the source as they change every time the document
+ * is written but don't affect the result.
+ * <p>
+ * Each cached result is stored in the cache directory with the
+ * key as the base name. When the total size of the cache exceeds
+ * the maximum size, the least recently used files are removed.
+ */
+public class ExportCache
+{
+   public ExportCache(File dir)
+   {
+      this(dir, DEFAULT_MAX_SIZE);
+   }
+
+   /**
+    * Creates a new cache.
+    * @param dir the cache directory (created as required)
+    * @param maxSize the maximum total size of the cached files in
+    * bytes
+    */
+   public ExportCache(File dir, long maxSize)
+   {
+      this.dir = dir;
+      this.maxSize = maxSize;
+   }
+
+   public File getDirectory()
+   {
+      return dir;
+   }
+
+   public long getMaxSize()
+   {
+      return maxSize;
+   }
+
+   /**
+    * Computes the key identifying the result of processing the
+    * given LaTeX file.
+    * @param texFile the LaTeX file
+    * @param exportSettings the export settings
+    * @param image the image that was written to the LaTeX file (used
+    * to find referenced bitmaps) or null
+    * @param basePath the base path used by the exporter to resolve
+    * relative bitmap links or null
+    * @return the key
+    */
+   public String computeKey(File texFile, ExportSettings exportSettings,
+     JDRGroup image, Path basePath)
+   throws IOException
+   {
+      MessageDigest digest;
+
+      try
+      {
+         digest = MessageDigest.getInstance("SHA-256");
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         // every Java platform is required to support SHA-256
+         throw new IOException(e);
+      }
+
+      update(digest, KEY_VERSION);
+      update(digest, exportSettings.getProcessFingerprint());
+
+      BufferedReader reader = null;
+
+      try
+      {
+         reader = new BufferedReader(new FileReader(texFile));
+
+         String line;
+
+         while ((line = reader.readLine()) != null)
+         {
+            if (line.startsWith("%") || line.startsWith(" /CreationDate"))
+            {
+               continue;
+            }
+
+            update(digest, line);
+         }
+      }
+      finally
+      {
+         if (reader != null)
+         {
+            reader.close();
+         }
+      }
+
+      if (image != null)
+      {
+         updateBitmaps(digest, image, basePath);
+      }
+
+      byte[] hash = digest.digest();
+
+      StringBuilder builder = new StringBuilder(2*hash.length);
+
+      for (byte b : hash)
+      {
+         builder.append(String.format("%02x", b & 0xFF));
+      }
+
+      return builder.toString();
+   }
+
+   private void update(MessageDigest digest, String str)
+   {
+      digest.update(str.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte)'\n');
+   }
+
+   private void updateBitmaps(MessageDigest digest, JDRGroup group,
+     Path basePath)
+   {
+      for (int i = 0, n = group.size(); i < n; i++)
+      {
+         JDRCompleteObject object = group.get(i);
+
+         if (object instanceof JDRGroup)
+         {
+            updateBitmaps(digest, (JDRGroup)object, basePath);
+         }
+         else if (object instanceof JDRBitmap)
+         {
+            Path path = Paths.get(((JDRBitmap)object).getFilename());
+
+            if (basePath != null)
+            {
+               path = basePath.resolve(path);
+            }
+
+            File file = path.toFile();
+
+            update(digest, String.format("%s\t%d\t%d", file.getAbsolutePath(),
+              file.length(), file.lastModified()));
+         }
+      }
+   }
+
+   /**
+    * Gets the cached result for the given key.
+    * @param key the key obtained from
+    * {@link #computeKey(File,ExportSettings,JDRGroup,Path)}
+    * @param extension the file extension of the result
+    * @return the cached file or null if not in the cache
+    */
+   public synchronized File get(String key, String extension)
+   {
+      File file = getCacheFile(key, extension);
+
+      if (!file.isFile())
+      {
+         return null;
+      }
+
+      // mark as recently used
+
+      file.setLastModified(System.currentTimeMillis());
+
+      return file;
+   }
+
+   /**
+    * Adds a copy of the given result to the cache and then
+    * removes the least recently used files if the cache is too
+    * big.
+    * @param key the key obtained from
+    * {@link #computeKey(File,ExportSettings,JDRGroup,Path)}
+    * @param extension the file extension of the result
+    * @param result the file to add
+    * @return the cached file or null if the result was too big to
+    * cache
+    */
+   public synchronized File put(String key, String extension, File result)
+     throws IOException
+   {
+      if (result.length() > maxSize)
+      {
+         return null;
+      }
+
+      if (!dir.exists() && !dir.mkdirs())
+      {
+         throw new IOException(String.format(
+           "Unable to create directory '%s'", dir));
+      }
+
+      File file = getCacheFile(key, extension);
+
+      // Copy to a temporary file first so that an incomplete
+      // file is never found in the cache.
+
+      File tmpFile = File.createTempFile(key, ".tmp", dir);
+
+      try
+      {
+         Files.copy(result.toPath(), tmpFile.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+
+         Files.move(tmpFile.toPath(), file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+      finally
+      {
+         if (tmpFile.exists())
+         {
+            tmpFile.delete();
+         }
+      }
+
+      evict();
+
+      return file;
+   }
+
+   /**
+    * Removes the least recently used files until the total size of
+    * the cache is no more than the maximum size.
+    */
+   public synchronized void evict()
+   {
+      File[] files = dir.listFiles();
+
+      if (files == null)
+      {
+         return;
+      }
+
+      long total = 0L;
+
+      for (File file : files)
+      {
+         total += file.length();
+      }
+
+      if (total <= maxSize)
+      {
+         return;
+      }
+
+      final long[] lastModified = new long[files.length];
+      Integer[] indexes = new Integer[files.length];
+
+      for (int i = 0; i < files.length; i++)
+      {
+         lastModified[i] = files[i].lastModified();
+         indexes[i] = Integer.valueOf(i);
+      }
+
+      Arrays.sort(indexes, new Comparator<Integer>()
+      {
+         public int compare(Integer i1, Integer i2)
+         {
+            return Long.compare(lastModified[i1.intValue()],
+                                lastModified[i2.intValue()]);
+         }
+      });
+
+      for (int i = 0; i < indexes.length && total > maxSize; i++)
+      {
+         File file = files[indexes[i].intValue()];
+
+         long size = file.length();
+
+         if (file.delete())
+         {
+            total -= size;
+         }
+      }
+   }
+
+   /**
+    * Removes all files from the cache.
+    */
+   public synchronized void clear()
+   {
+      File[] files = dir.listFiles();
+
+      if (files != null)
+      {
+         for (File file : files)
+         {
+            file.delete();
+         }
+      }
+   }
+
+   protected File getCacheFile(String key, String extension)
+   {
+      return new File(dir,
+        extension.isEmpty() ? key : key + "." + extension);
+   }
+
+   public static String getExtension(File file)
+   {
+      String name = file.getName();
+      int idx = name.lastIndexOf(".");
+
+      return idx > 0 ? name.substring(idx+1) : "";
+   }
+
+   private File dir;
+   private long maxSize;
+
+   /**
+    * Default maximum cache size (64MiB).
+    */
+   public static final long DEFAULT_MAX_SIZE = 64L*1024L*1024L;
+
+   /**
+    * Included in the key so that old cache entries aren't used if
+    * the way the key is computed changes.
+    */
+   private static final String KEY_VERSION = "jdrexportcache/1";
+}
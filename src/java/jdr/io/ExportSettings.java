@@ -103,6 +103,8 @@ public class ExportSettings
       useFlowframTkSty = other.useFlowframTkSty;
       usePdfInfo = other.usePdfInfo;
       bitmapsToEps = other.bitmapsToEps;
+      epsSharedResources = other.epsSharedResources;
+      parallelTeXExport = other.parallelTeXExport;
       shapeparUseHpadding = other.shapeparUseHpadding;
       docClass = other.docClass;
       useDefaultPreamble = other.useDefaultPreamble;
@@ -342,10 +344,65 @@ public class ExportSettings
       writeSrcFilename = false;
       writeDateComment = false;
       bitmapsToEps = false;
+      epsSharedResources = true;
+      parallelTeXExport = true;
       docClass = null;
       useDefaultPreamble = true;
    }
 
+   /**
+    * Gets a string that identifies all the settings that may affect
+    * the result of processing an exported LaTeX document. This
+    * includes the processor applications and their options. Used
+    * by {@link ExportCache} to compute the cache key.
+    */
+   public String getProcessFingerprint()
+   {
+      StringBuilder builder = new StringBuilder();
+
+      builder.append("type=").append(type);
+      builder.append("\nbounds=").append(bounds);
+      builder.append("\nobjectMarkup=").append(objectMarkup);
+      builder.append("\ntextPath=").append(textPath);
+      builder.append("\ntextualShading=").append(textualShading);
+      builder.append("\ntextPathOutline=").append(textPathOutline);
+      builder.append("\ntextAreaOutline=").append(textAreaOutline);
+      builder.append("\nmarkers=").append(markers);
+      builder.append("\nstrokeShading=").append(strokeShading);
+
+      appendProcess(builder, "dvilatex", dviLaTeXApp, dviLaTeXOptions);
+      appendProcess(builder, "pdflatex", pdfLaTeXApp, pdfLaTeXOptions);
+      appendProcess(builder, "pdftopng", pdftopngApp, pdftopngOptions);
+      appendProcess(builder, "dvips", dvipsApp, dvipsOptions);
+      appendProcess(builder, "dvisvgm", dvisvgmApp, dvisvgmOptions);
+
+      builder.append("\nlibgs=").append(getLibGsPath());
+      builder.append("\nuseExternalProcess=").append(useExternalProcess);
+      builder.append("\npngUseAlpha=").append(pngUseAlpha);
+      builder.append("\nuseFlowframTkSty=").append(useFlowframTkSty);
+      builder.append("\nusePdfInfo=").append(usePdfInfo);
+      builder.append("\nbitmapsToEps=").append(bitmapsToEps);
+      builder.append("\nshapeparUseHpadding=").append(shapeparUseHpadding);
+      builder.append("\nuseDefaultPreamble=").append(useDefaultPreamble);
+      builder.append("\ndocClass=").append(docClass);
+
+      return builder.toString();
+   }
+
+   private void appendProcess(StringBuilder builder, String name,
+     String app, String[] options)
+   {
+      builder.append('\n').append(name).append('=').append(app);
+
+      if (options != null)
+      {
+         for (String opt : options)
+         {
+            builder.append('\t').append(opt);
+         }
+      }
+   }
+
    public Type type = Type.PGF;
    public Bounds bounds = Bounds.IMAGE;
    public ObjectMarkup objectMarkup = ObjectMarkup.NONE;
@@ -383,6 +440,14 @@ public class ExportSettings
    public boolean writeDateComment = false;
    public boolean bitmapsToEps = false;
 
+   // define repeated content as procedures and compress bitmaps
+   // (EPS export without an external process)
+   public boolean epsSharedResources = true;
+
+   // write independent objects in parallel (pgf and flowfram
+   // export)
+   public boolean parallelTeXExport = true;
+
    public boolean shapeparUseHpadding = true; // use \Shapepar instead of \shapepar
    public boolean useDefaultPreamble=true;
 
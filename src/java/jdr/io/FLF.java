@@ -85,6 +85,7 @@ public class FLF extends TeX
       CanvasGraphics cg = group.getCanvasGraphics();
       JDRMessage msgSys = cg.getMessageSystem();
       MessageInfoPublisher publisher = msgSys.getPublisher();
+      ProgressBus progressBus = msgSys.getProgressBus();
 
       writeCommentHeaderBlock();
 
@@ -267,21 +268,26 @@ public class FLF extends TeX
 
       resetThumbtabs();
 
-      for (int i = 0; i < group.size(); i++)
+      TeXFragments fragments = new TeXFragments(this)
       {
-         publisher.publishMessages(MessageInfo.createIncProgress());
+         @Override
+         protected void writeObject(TeX writer, JDRCompleteObject object)
+           throws IOException,InvalidFormatException
+         {
+            FlowFrame flowframe = object.getFlowFrame();
 
-         JDRCompleteObject object = group.get(i);
-         FlowFrame flowframe = object.getFlowFrame();
+            if (flowframe != null && flowframe.getType() == FlowFrame.TYPEBLOCK)
+            {
+               throw new MissplacedTypeBlockException(cg);
+            }
 
-         if (flowframe != null && flowframe.getType() == FlowFrame.TYPEBLOCK)
-         {
-            throw new MissplacedTypeBlockException(cg);
+            object.saveFlowframe(writer, typeblockRect, baselineskip, 
+               exportSettings.shapeparUseHpadding);
          }
+      };
 
-         object.saveFlowframe(this, typeblockRect, baselineskip, 
-            exportSettings.shapeparUseHpadding);
-      }
+      fragments.setProgressBus(progressBus);
+      writeObjects(fragments, group);
 
       if (isFlowframTkStyUsed())
       {
@@ -294,7 +300,7 @@ public class FLF extends TeX
 
       printThumbtabs();
 
-      publisher.publishMessages(MessageInfo.createIncProgress());
+      progressBus.incrementProgress();
 
       if (cg.hasEndPreamble())
       {
@@ -317,6 +323,7 @@ public class FLF extends TeX
       CanvasGraphics cg = group.getCanvasGraphics();
       JDRMessage msgSys = cg.getMessageSystem();
       MessageInfoPublisher publisher = msgSys.getPublisher();
+      ProgressBus progressBus = msgSys.getProgressBus();
 
       if (cg.hasMagicComments())
       {
@@ -426,12 +433,19 @@ public class FLF extends TeX
 
       resetThumbtabs();
 
-      for (int i = 0; i < group.size(); i++)
+      TeXFragments fragments = new TeXFragments(this)
       {
-         publisher.publishMessages(MessageInfo.createIncProgress());
+         @Override
+         protected void writeObject(TeX writer, JDRCompleteObject object)
+           throws IOException,InvalidFormatException
+         {
+            ((FLF)writer).writeAndUpdateMinPage(object, typeblockRect,
+              baselineskip);
+         }
+      };
 
-         writeAndUpdateMinPage(group.get(i), typeblockRect, baselineskip);
-      }
+      fragments.setProgressBus(progressBus);
+      writeObjects(fragments, group);
 
       if (isFlowframTkStyUsed())
       {
@@ -444,7 +458,7 @@ public class FLF extends TeX
 
       printThumbtabs();
 
-      publisher.publishMessages(MessageInfo.createIncProgress());
+      progressBus.incrementProgress();
 
       if (cg.hasEndPreamble())
       {
@@ -1105,6 +1119,68 @@ public class FLF extends TeX
       }
    }
 
+   /**
+    * Writes the objects using the given fragment writer.
+    */
+   private void writeObjects(TeXFragments fragments, JDRGroup group)
+   throws IOException,
+          InvalidShapeException,
+          MissplacedTypeBlockException
+   {
+      try
+      {
+         fragments.run(group);
+      }
+      catch (InvalidShapeException e)
+      {
+         throw e;
+      }
+      catch (MissplacedTypeBlockException e)
+      {
+         throw e;
+      }
+      catch (InvalidFormatException e)
+      {
+         // not thrown when writing flow frames
+         throw new IOException(e);
+      }
+   }
+
+   @Override
+   protected TeX createFragmentWriter(Writer out)
+   {
+      FLF flf = new FLF(getBasePath(), out, exportSettings);
+
+      flf.group = group;
+      flf.typeblockRect = typeblockRect;
+      flf.baselineskip = baselineskip;
+      flf.thumbtabLog = new Vector<JDRObject>();
+      flf.thumbtabHeightLog = new Vector<Double>();
+
+      return flf;
+   }
+
+   /**
+    * Merges the frame counts, minimum page and thumbtabs found
+    * while writing a fragment.
+    */
+   @Override
+   protected void mergeFragment(TeX fragmentWriter)
+   {
+      super.mergeFragment(fragmentWriter);
+
+      FLF flf = (FLF)fragmentWriter;
+
+      numFlows += flf.numFlows;
+      minPage = Math.max(minPage, flf.minPage);
+
+      for (int i = 0; i < flf.thumbtabLog.size(); i++)
+      {
+         foundThumbtab(flf.thumbtabLog.get(i),
+           flf.thumbtabHeightLog.get(i).doubleValue());
+      }
+   }
+
    protected String getDescription(JDRCompleteObject object)
    {
       JDRMessage msgSys = group.getCanvasGraphics().getMessageSystem();
@@ -1234,6 +1310,16 @@ public class FLF extends TeX
 
    public void foundThumbtab(JDRObject obj, double height)
    {
+      if (thumbtabLog != null)
+      {
+         // fragment writer: thumbtabs are numbered in stacking
+         // order when the fragment is merged
+
+         thumbtabLog.add(obj);
+         thumbtabHeightLog.add(Double.valueOf(height));
+         return;
+      }
+
       hasThumbtabs = true;
       numThumbtabs++;
       sumThumbtabHeight += height;
@@ -1327,6 +1413,10 @@ public class FLF extends TeX
    double sumThumbtabHeight=0;
    HashMap<String,JDRCompleteObject> thumbtabObjects;
 
+   // only used by fragment writers
+   private Vector<JDRObject> thumbtabLog = null;
+   private Vector<Double> thumbtabHeightLog = null;
+
    Rectangle2D typeblockRect;
    double baselineskip;
 }
@@ -324,6 +324,13 @@ public abstract class JDRAJR
       readSettings();
       readLaTeXSettings();
 
+      topLevelGroupPending = true;
+
+      if (imageLoadListener != null)
+      {
+         imageLoadListener.settingsLoaded(this);
+      }
+
       JDRGroup image = loadObjects();
 
       lastLoadedVersion = version;
@@ -459,6 +466,53 @@ public abstract class JDRAJR
       return (JDRGroup)allObjects;
    }
 
+   /**
+    * Sets the listener that's notified as each top-level object is
+    * loaded.
+    * @param listener the listener or null if not required
+    */
+   public void setImageLoadListener(JDRImageLoadListener listener)
+   {
+      imageLoadListener = listener;
+   }
+
+   public JDRImageLoadListener getImageLoadListener()
+   {
+      return imageLoadListener;
+   }
+
+   /**
+    * Sets the statistics that the objects should be added to
+    * instead of the image. Each object is added as soon as it has
+    * been read and then discarded, so only the statistics are kept
+    * and the image returned by the loader is empty. Bitmaps are
+    * added without loading the bitmap image.
+    * @param statistics the statistics or null if the objects should
+    * be added to the image
+    */
+   public void setStatistics(DocumentStatistics statistics)
+   {
+      this.statistics = statistics;
+   }
+
+   public DocumentStatistics getStatistics()
+   {
+      return statistics;
+   }
+
+   /**
+    * Called by the group listener when it starts to read a group.
+    * @return true if the group is the top-level group of the image
+    */
+   boolean startLoadingGroup()
+   {
+      boolean isTopLevel = topLevelGroupPending;
+
+      topLevelGroupPending = false;
+
+      return isTopLevel;
+   }
+
    /**
     * Adds all the supported listeners if not already done.
     */
@@ -1399,7 +1453,8 @@ public abstract class JDRAJR
 
             try
             {
-               jdr.currentIn = new DataInputStream(new FileInputStream(file));
+               jdr.currentIn = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(file)));
 
                jdrAjr = jdr;
                formatInfo = "JDR";
@@ -1483,6 +1538,21 @@ public abstract class JDRAJR
                {
                   image = jdrAjr.loadObjects();
                }
+               else if ((infoFlags & STATISTICS_FLAG) == STATISTICS_FLAG)
+               {
+                  statistics = new DocumentStatistics(canvasGraphics);
+
+                  jdrAjr.setStatistics(statistics);
+
+                  try
+                  {
+                     jdrAjr.loadObjects();
+                  }
+                  finally
+                  {
+                     jdrAjr.setStatistics(null);
+                  }
+               }
             }
          }
       }
@@ -1527,6 +1597,18 @@ public abstract class JDRAJR
          return image;
       }
 
+      /**
+       * Gets the statistics collected when the file was parsed with
+       * {@link #STATISTICS_FLAG} (and without {@link #IMAGE_FLAG}).
+       * The objects aren't kept, so this uses far less memory than
+       * loading the image.
+       * @return the statistics or null if not collected
+       */
+      public DocumentStatistics getStatistics()
+      {
+         return statistics;
+      }
+
       JDRAJR jdrAjr;
       String formatInfo, versionString;
       File file;
@@ -1534,23 +1616,27 @@ public abstract class JDRAJR
       Charset encoding;
       int infoFlags;
       JDRGroup image;
+      DocumentStatistics statistics;
 
       public static final int INFO_FORMAT = 0;
       public static final int INFO_STORAGE_UNIT = 1;
       public static final int INFO_SETTINGS = 2;
       public static final int INFO_LATEX_SETTINGS = 3;
       public static final int INFO_IMAGE = 4;
+      public static final int INFO_STATISTICS = 5;
 
       public static final int FORMAT_FLAG = (1 << INFO_FORMAT);
       public static final int STORAGE_UNIT_FLAG = (1 << INFO_STORAGE_UNIT);
       public static final int SETTINGS_FLAG = (1 << INFO_SETTINGS);
       public static final int LATEX_SETTINGS_FLAG = (1 << INFO_LATEX_SETTINGS);
       public static final int IMAGE_FLAG = (1 << INFO_IMAGE);
+      public static final int STATISTICS_FLAG = (1 << INFO_STATISTICS);
 
       public static final int LATEX_OR_IMAGE_FLAG =
        (
           LATEX_SETTINGS_FLAG
         | IMAGE_FLAG
+        | STATISTICS_FLAG
        );
 
       public static final int ANY_DETAILS_FLAG =
@@ -1616,6 +1702,12 @@ public abstract class JDRAJR
 
    protected boolean hasDraftBitmap = false;
 
+   private JDRImageLoadListener imageLoadListener = null;
+
+   private DocumentStatistics statistics = null;
+
+   private boolean topLevelGroupPending = false;
+
    protected CanvasGraphics canvasGraphics;
 
    /**
@@ -112,6 +112,20 @@ public class JDRBitmapListener implements JDRObjectLoaderListener
       double[] matrix = jdr.readTransform(
          InvalidFormatException.BITMAP_TRANSFORM);
 
+      DocumentStatistics statistics = jdr.getStatistics();
+
+      if (statistics != null)
+      {
+         // don't load the image
+
+         File file = jdr.resolveFile(filename);
+
+         statistics.addBitmap(file.getPath(), JDRBitmap.getStorageBounds(
+            jdr.getCanvasGraphics(), file, matrix));
+
+         return null;
+      }
+
       // check filename exists
 
       String oldFilename = filename;
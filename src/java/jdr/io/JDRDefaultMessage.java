@@ -43,6 +43,7 @@ public class JDRDefaultMessage extends JDRMessagePublisher
    {
       publisher = this;
       helpLib = helpLib;
+      updateProgressBus();
 
       appVersion = "??";
 
@@ -60,6 +61,7 @@ public class JDRDefaultMessage extends JDRMessagePublisher
    {
       publisher = this;
       helpLib = helpLib;
+      updateProgressBus();
       this.appName = appName;
       this.appVersion = appVersion;
    }
@@ -190,12 +192,15 @@ public class JDRDefaultMessage extends JDRMessagePublisher
    @Override
    public int getProgress()
    {
+      getProgressBus().flush();
+
       return progressValue;
    }
 
    @Override
    public void shutdown()
    {
+      getProgressBus().flush();
       clearEol();
    }
 
@@ -262,6 +267,7 @@ public class JDRDefaultMessage extends JDRMessagePublisher
       if (!suspended)
       {
          showMessages = false;
+         updateProgressBus();
       }
    }
 
@@ -270,17 +276,29 @@ public class JDRDefaultMessage extends JDRMessagePublisher
       if (!suspended)
       {
          showMessages = true;
+         updateProgressBus();
       }
    }
 
    public void suspend()
    {
       suspended = true;
+      updateProgressBus();
    }
 
    public void resume()
    {
       suspended = false;
+      updateProgressBus();
+   }
+
+   /**
+    * Progress and informational messages have no effect when
+    * messages aren't shown, so they can be discarded by the bus.
+    */
+   private void updateProgressBus()
+   {
+      getProgressBus().setEnabled(showMessages && !suspended);
    }
 
    public void message(String messageText)
@@ -604,7 +622,7 @@ public class JDRDefaultMessage extends JDRMessagePublisher
    }
 
    @Override
-   public void publishMessages(MessageInfo... chunks)
+   protected void dispatchMessages(MessageInfo... chunks)
    {
       for (MessageInfo info : chunks)
       {
@@ -66,8 +66,7 @@ public class JDRGroupListener implements JDRObjectLoaderListener
       {
          objectLoader.save(jdr, group.get(i));
 
-         jdr.getMessageSystem().getPublisher().publishMessages(
-            MessageInfo.createIncProgress());
+         jdr.getMessageSystem().getProgressBus().incrementProgress();
       }
 
       jdr.getMessageSystem().getPublisher().publishMessages(
@@ -80,6 +79,9 @@ public class JDRGroupListener implements JDRObjectLoaderListener
    {
       int n = jdr.readIntGe(InvalidFormatException.GROUP_SIZE, 0);
 
+      JDRImageLoadListener loadListener = 
+         jdr.startLoadingGroup() ? jdr.getImageLoadListener() : null;
+
       int maxProgress = jdr.getMessageSystem().getMaxProgress();
       int progress = jdr.getMessageSystem().getProgress();
 
@@ -90,12 +92,18 @@ public class JDRGroupListener implements JDRObjectLoaderListener
 
       JDRObjectLoader objectLoader = JDR.getObjectLoader();
 
+      DocumentStatistics statistics = jdr.getStatistics();
+
       for (int i = 0; i < n; i++)
       {
          JDRCompleteObject object 
             = (JDRCompleteObject)objectLoader.load(jdr);
 
-         if (object != null)
+         if (object != null && statistics != null)
+         {
+            statistics.add(object);
+         }
+         else if (object != null)
          {
             if (object instanceof JDRGroup)
             {
@@ -103,16 +111,29 @@ public class JDRGroupListener implements JDRObjectLoaderListener
                if (((JDRGroup)object).size() > 0)
                {
                   group.add(object);
+
+                  if (loadListener != null)
+                  {
+                     loadListener.objectLoaded(object);
+                  }
                }
             }
             else
             {
+               // Objects in subgroups have already been added to
+               // the pool when the subgroup was read.
+               object.internStyles(jdr.getCanvasGraphics().getStylePool());
+
                group.add(object);
+
+               if (loadListener != null)
+               {
+                  loadListener.objectLoaded(object);
+               }
             }
          }
 
-         jdr.getMessageSystem().getPublisher().publishMessages(
-            MessageInfo.createIncProgress());
+         jdr.getMessageSystem().getProgressBus().incrementProgress();
       }
 
       jdr.getMessageSystem().getPublisher().publishMessages(
@@ -0,0 +1,53 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr.io;
+
+import com.dickimawbooks.jdr.*;
+
+/**
+ * Listener that is notified as a JDR or AJR image is loaded, so
+ * that the image can be displayed before the entire file has been
+ * read. The methods are called on the thread that's loading the
+ * image. The objects passed to {@link #objectLoaded(JDRCompleteObject)}
+ * are complete and won't be modified any further by the loader.
+ * @author Nicola L C Talbot
+ * @see JDRAJR#setImageLoadListener(JDRImageLoadListener)
+ */
+
+public interface JDRImageLoadListener
+{
+   /**
+    * Called after the settings have been read, before any objects
+    * are loaded. The canvas graphics has been updated by this point.
+    * This may be called more than once for the same file if the
+    * loader has to restart (for example, if an AJR file uses a
+    * different encoding to the one first assumed), in which case any
+    * objects already received should be discarded.
+    * @param jdr the loader
+    */
+   public void settingsLoaded(JDRAJR jdr);
+
+   /**
+    * Called when a top-level object has been loaded. Objects within
+    * groups are only passed as part of their top-level group.
+    * @param object the object
+    */
+   public void objectLoaded(JDRCompleteObject object);
+}
@@ -48,4 +48,12 @@ public interface JDRMessage extends JDRMessageDictionary
 
    public MessageInfoPublisher getPublisher();
    public void setPublisher(MessageInfoPublisher publisher);
+
+   /**
+    * Gets the bus that coalesces progress updates. Code that
+    * increments the progress for each object should use
+    * {@link ProgressBus#incrementProgress()} rather than publishing
+    * a new message each time.
+    */
+   public ProgressBus getProgressBus();
 }
@@ -24,4 +24,35 @@ public abstract class JDRMessagePublisher implements JDRMessage,MessageInfoPubli
    public abstract void message(String messageText);
 
    public void shutdown() { }
+
+   /**
+    * Publishes the given messages through the progress bus.
+    */
+   @Override
+   public void publishMessages(MessageInfo... chunks)
+   {
+      progressBus.publishMessages(chunks);
+   }
+
+   /**
+    * Acts on the given messages. This is called by the progress
+    * bus, which has already coalesced the progress increments.
+    */
+   protected abstract void dispatchMessages(MessageInfo... chunks);
+
+   @Override
+   public ProgressBus getProgressBus()
+   {
+      return progressBus;
+   }
+
+   private ProgressBus progressBus = new ProgressBus(
+     new MessageInfoPublisher()
+     {
+        @Override
+        public void publishMessages(MessageInfo... chunks)
+        {
+           dispatchMessages(chunks);
+        }
+     });
 }
@@ -50,6 +50,12 @@ public class PGF extends TeX
       this(baseFile == null ? null : baseFile.toPath(), out, exportSettings);
    }
 
+   @Override
+   protected TeX createFragmentWriter(Writer out)
+   {
+      return new PGF(getBasePath(), out, exportSettings);
+   }
+
    /**
     * Saves the image as a pgfpicture environment.
     * @param allObjects all the objects that constitute the image
@@ -64,6 +70,7 @@ public class PGF extends TeX
       CanvasGraphics cg = allObjects.getCanvasGraphics();
       JDRMessage msgSys = cg.getMessageSystem();
       MessageInfoPublisher publisher = msgSys.getPublisher();
+      ProgressBus progressBus = msgSys.getProgressBus();
 
       writeCommentHeaderBlock();
 
@@ -135,15 +142,7 @@ public class PGF extends TeX
 
       println("\\pgfusepath{use as bounding box}");
 
-      for (int i = 0; i < allObjects.size(); i++)
-      {
-         publisher.publishMessages(MessageInfo.createIncProgress());
-
-         JDRCompleteObject obj = allObjects.get(i);
-         int idx = writeStartObject(obj);
-         obj.savePgf(this);
-         writeEndObject(idx, obj);
-      }
+      savePgfObjects(allObjects, progressBus);
 
       writeEndObject(objectId, allObjects);
       println("\\end{pgfpicture}");
@@ -173,6 +172,7 @@ public class PGF extends TeX
       CanvasGraphics cg = allObjects.getCanvasGraphics();
       JDRMessage msgSys = cg.getMessageSystem();
       MessageInfoPublisher publisher = msgSys.getPublisher();
+      ProgressBus progressBus = msgSys.getProgressBus();
 
       if (cg.hasMagicComments())
       {
@@ -358,15 +358,7 @@ public class PGF extends TeX
       println("\\pgfusepath{use as bounding box}");
 
 
-      for (int i = 0; i < allObjects.size(); i++)
-      {
-         publisher.publishMessages(MessageInfo.createIncProgress());
-
-         JDRCompleteObject obj = allObjects.get(i);
-         int idx = writeStartObject(obj);
-         obj.savePgf(this);
-         writeEndObject(idx, obj);
-      }
+      savePgfObjects(allObjects, progressBus);
 
       writeEndObject(objectId, allObjects);
 
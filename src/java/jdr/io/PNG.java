@@ -67,6 +67,7 @@ public class PNG
       CanvasGraphics cg = group.getCanvasGraphics();
       JDRMessage msgSys = cg.getMessageSystem();
       MessageInfoPublisher publisher = msgSys.getPublisher();
+      ProgressBus progressBus = msgSys.getProgressBus();
 
       boolean hasAlpha = exportSettings.pngUseAlpha;
       boolean cropimage = 
@@ -157,7 +158,7 @@ public class PNG
 
          for (int i = 0; i < group.size(); i++)
          {
-             publisher.publishMessages(MessageInfo.createIncProgress());
+             progressBus.incrementProgress();
 
              group.get(i).print(g2);
          }
@@ -0,0 +1,226 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr.io;
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces progress messages before they reach the message
+ * system. Loaders and exporters typically increment the progress
+ * once per object, which for large images means far more updates
+ * than can be seen. Increments are instead added to a lock-free
+ * counter, and the accumulated total is published as a single
+ * {@link MessageInfo#INCREMENT_PROGRESS} message no more than
+ * a fixed number of times a second. Only one thread publishes
+ * an update for each interval: the first to increment the counter
+ * after the interval has elapsed.
+ * <p>
+ * Any other message is published immediately, but first the
+ * pending increments are published, so the target receives the
+ * messages in the order they were sent. This also happens when
+ * {@link #flush()} is called.
+ * <p>
+ * When the bus is disabled (for example, in batch mode when no
+ * messages are shown), progress and informational messages are
+ * discarded and the increment methods return straight away.
+ * Warnings and errors are always published.
+ */
+public class ProgressBus implements MessageInfoPublisher
+{
+   /**
+    * Creates a new bus that publishes at the default rate.
+    * @param target the publisher that receives the coalesced
+    * messages
+    */
+   public ProgressBus(MessageInfoPublisher target)
+   {
+      this(target, DEFAULT_RATE);
+   }
+
+   /**
+    * Creates a new bus.
+    * @param target the publisher that receives the coalesced
+    * messages
+    * @param rate the maximum number of progress updates a second
+    */
+   public ProgressBus(MessageInfoPublisher target, int rate)
+   {
+      if (target == null)
+      {
+         throw new NullPointerException();
+      }
+
+      if (rate <= 0)
+      {
+         throw new IllegalArgumentException("Invalid rate "+rate);
+      }
+
+      this.target = target;
+      interval = TimeUnit.SECONDS.toNanos(1)/rate;
+      nextDispatch = new AtomicLong(System.nanoTime());
+   }
+
+   /**
+    * Enables or disables the bus. Any pending increments are
+    * published before the bus is disabled.
+    * @param enabled true if messages should be published
+    */
+   public void setEnabled(boolean enabled)
+   {
+      if (!enabled)
+      {
+         flush();
+      }
+
+      this.enabled = enabled;
+   }
+
+   public boolean isEnabled()
+   {
+      return enabled;
+   }
+
+   /**
+    * Increments the progress by 1. This may be called by any
+    * thread.
+    */
+   public void incrementProgress()
+   {
+      incrementProgress(1);
+   }
+
+   /**
+    * Increments the progress. This may be called by any thread.
+    * @param increment the increment
+    */
+   public void incrementProgress(int increment)
+   {
+      if (!enabled) return;
+
+      pending.addAndGet(increment);
+
+      long due = nextDispatch.get();
+      long now = System.nanoTime();
+
+      if (now - due >= 0L && nextDispatch.compareAndSet(due, now+interval))
+      {
+         flush();
+      }
+   }
+
+   /**
+    * Publishes the given messages. Progress increments are added to
+    * the counter. The other messages are published in order, each
+    * preceded by any pending increments.
+    * @param chunks the messages
+    */
+   @Override
+   public void publishMessages(MessageInfo... chunks)
+   {
+      if (chunks.length == 1 && isIncrement(chunks[0]))
+      {
+         incrementProgress(((Integer)chunks[0].getValue()).intValue());
+         return;
+      }
+
+      Vector<MessageInfo> list = null;
+
+      synchronized (this)
+      {
+         for (MessageInfo info : chunks)
+         {
+            if (!enabled && isInformational(info))
+            {
+               continue;
+            }
+
+            if (isIncrement(info))
+            {
+               pending.addAndGet(((Integer)info.getValue()).intValue());
+               continue;
+            }
+
+            if (list == null)
+            {
+               list = new Vector<MessageInfo>(chunks.length+1);
+            }
+
+            int increment = pending.getAndSet(0);
+
+            if (increment != 0)
+            {
+               list.add(MessageInfo.createIncProgress(increment));
+            }
+
+            list.add(info);
+         }
+
+         if (list != null)
+         {
+            target.publishMessages(list.toArray(new MessageInfo[list.size()]));
+         }
+      }
+   }
+
+   /**
+    * Publishes any pending increments.
+    */
+   public synchronized void flush()
+   {
+      int increment = pending.getAndSet(0);
+
+      if (increment != 0)
+      {
+         target.publishMessages(MessageInfo.createIncProgress(increment));
+      }
+   }
+
+   private static boolean isIncrement(MessageInfo info)
+   {
+      return info.getAction().equals(MessageInfo.INCREMENT_PROGRESS);
+   }
+
+   private static boolean isInformational(MessageInfo info)
+   {
+      String action = info.getAction();
+
+      return action.equals(MessageInfo.INCREMENT_PROGRESS)
+          || action.equals(MessageInfo.PROGRESS)
+          || action.equals(MessageInfo.SET_PROGRESS)
+          || action.equals(MessageInfo.MAX_PROGRESS)
+          || action.equals(MessageInfo.INDETERMINATE)
+          || action.equals(MessageInfo.MESSAGE)
+          || action.startsWith(MessageInfo.VERBOSE);
+   }
+
+   private MessageInfoPublisher target;
+   private volatile boolean enabled = true;
+
+   private AtomicInteger pending = new AtomicInteger();
+   private AtomicLong nextDispatch;
+   private long interval;
+
+   /**
+    * Default maximum number of progress updates a second.
+    */
+   public static final int DEFAULT_RATE = 30;
+}
@@ -32,6 +32,8 @@ import java.awt.geom.*;
 
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Vector;
 
 import org.xml.sax.SAXException;
@@ -89,6 +91,7 @@ public class SVG
       CanvasGraphics cg = image.getCanvasGraphics();
       JDRMessage msgSys = cg.getMessageSystem();
       MessageInfoPublisher publisher = msgSys.getPublisher();
+      ProgressBus progressBus = msgSys.getProgressBus();
 
       boolean indeter = (image.size() <= 1);
 
@@ -169,6 +172,8 @@ public class SVG
       }
 
       referenceIDs = null;
+      prototypeIDs = null;
+      prototypes = null;
 
       println("   <defs>");
       image.writeSVGdefs(this);
@@ -176,7 +181,7 @@ public class SVG
 
       for (int i = 0; i < image.size(); i++)
       {
-         publisher.publishMessages(MessageInfo.createIncProgress());
+         progressBus.incrementProgress();
 
          image.get(i).saveSVG(this);
       }
@@ -458,7 +463,7 @@ public class SVG
    {
       if (referenceIDs == null)
       {
-         referenceIDs = new Vector<String>();
+         referenceIDs = new HashSet<String>();
       }
 
       if (referenceIDs.contains(id))
@@ -472,6 +477,81 @@ public class SVG
       }
    }
 
+   /**
+    * Writes the given object as a definition that may be
+    * referenced by a <code>&lt;use&gt;</code> element. The object
+    * is written as a group containing its usual SVG code, but if
+    * an identical definition has already been written (for
+    * example, by a copy of the object) that definition is
+    * reused. This should only be called while the definitions are
+    * being written.
+    * @param object the object
+    * @return the identifier of the definition
+    * @throws IOException if I/O error occurs
+    * @see #getPrototypeID(JDRCompleteObject)
+    */
+   public String addPrototype(JDRCompleteObject object)
+      throws IOException
+   {
+      if (prototypes == null)
+      {
+         prototypeIDs = new HashMap<String,String>();
+         prototypes = new IdentityHashMap<JDRCompleteObject,String>();
+      }
+
+      String id = prototypes.get(object);
+
+      if (id != null)
+      {
+         return id;
+      }
+
+      Writer orgWriter = writer;
+      StringWriter content = new StringWriter();
+
+      writer = new PrintWriter(content);
+
+      try
+      {
+         object.saveSVG(this, "");
+         writer.flush();
+      }
+      finally
+      {
+         writer = orgWriter;
+      }
+
+      String code = content.toString();
+
+      id = prototypeIDs.get(code);
+
+      if (id == null)
+      {
+         id = "prototype"+(prototypeIDs.size()+1);
+
+         prototypeIDs.put(code, id);
+
+         println("      <g id=\""+id+"\">");
+         print(code);
+         println("      </g>");
+      }
+
+      prototypes.put(object, id);
+
+      return id;
+   }
+
+   /**
+    * Gets the identifier of the definition written for the given
+    * object by {@link #addPrototype(JDRCompleteObject)}.
+    * @param object the object
+    * @return the identifier or null if no definition was written
+    */
+   public String getPrototypeID(JDRCompleteObject object)
+   {
+      return prototypes == null ? null : prototypes.get(object);
+   }
+
    public void print(Object text)
       throws IOException
    {
@@ -660,5 +740,11 @@ public class SVG
    TeXMappings textModeMappings=null;
    TeXMappings mathModeMappings=null;
 
-   private Vector<String> referenceIDs;
+   private HashSet<String> referenceIDs;
+
+   // prototype definitions keyed on their content
+   private HashMap<String,String> prototypeIDs;
+
+   // prototype definitions keyed on the object
+   private IdentityHashMap<JDRCompleteObject,String> prototypes;
 }
@@ -27,12 +27,14 @@ import java.io.*;
 import java.util.Locale;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.nio.file.Path;
 import java.awt.*;
 import java.awt.geom.*;
 import java.util.*;
 import java.text.*;
 import com.dickimawbooks.jdr.*;
+import com.dickimawbooks.jdr.exceptions.InvalidFormatException;
 
 /**
  * Functions to TeX.
@@ -335,8 +337,8 @@ public class TeX
 
 
          String args = String.format(Locale.ROOT,
-          "{%d}{%s}{%s}{%s}{%s}{%s}{%s}",
-          objectId, obj.getClass().getSimpleName(),
+          "{%s}{%s}{%s}{%s}{%s}{%s}",
+          obj.getClass().getSimpleName(),
           TeXMappings.replaceSpecialChars(description),
           TeXMappings.replaceSpecialChars(obj.getTag()),
           point(cg, x1, y1),
@@ -349,11 +351,13 @@ public class TeX
          {
             case PAIRED:
              print("\\flowframtkstartobject");
+             printObjectId(objectId);
              print(args);
              println("%");
             break;
             case ENCAP:
              print("\\flowframtkencapobject");
+             printObjectId(objectId);
              print(args);
              println("{%");
             break;
@@ -375,6 +379,7 @@ public class TeX
          {
             case PAIRED:
                print("\\flowframtkendobject");
+               printObjectId(idx);
                print(objectArgs.get(idx));
                println("%");
             break;
@@ -385,6 +390,207 @@ public class TeX
       }
    }
 
+   /**
+    * Prints the object identifier argument. The identifiers of
+    * objects written to a fragment are relative to the first object
+    * in the fragment, so only their position is recorded and the
+    * actual identifier is inserted when the fragment is copied to
+    * the output.
+    * @param objectId the object identifier
+    * @throws IOException if I/O error occurs
+    */
+   protected void printObjectId(int objectId)
+   throws IOException
+   {
+      if (fragment == null)
+      {
+         print("{"+objectId+"}");
+      }
+      else
+      {
+         fragment.addObjectId(objectId);
+      }
+   }
+
+   /**
+    * Writes the pgf code for each object in the given group. Where
+    * possible, the objects are written in parallel (see
+    * {@link TeXFragments}).
+    * @param group the group
+    * @throws IOException if I/O error occurs
+    */
+   public void savePgfObjects(JDRGroup group)
+   throws IOException
+   {
+      savePgfObjects(group, null);
+   }
+
+   /**
+    * Writes the pgf code for each object in the given group,
+    * incrementing the progress as each object is written.
+    * @param group the group
+    * @param progressBus the progress bus or null if the progress
+    * shouldn't be updated
+    * @throws IOException if I/O error occurs
+    */
+   public void savePgfObjects(JDRGroup group, ProgressBus progressBus)
+   throws IOException
+   {
+      TeXFragments fragments = new TeXFragments(this)
+      {
+         @Override
+         protected void writeObject(TeX writer, JDRCompleteObject obj)
+           throws IOException
+         {
+            int idx = writer.writeStartObject(obj);
+            obj.savePgf(writer);
+            writer.writeEndObject(idx, obj);
+         }
+
+         @Override
+         protected boolean isConcurrent(JDRCompleteObject obj)
+         {
+            // Large groups are written in place so that their
+            // members can be shared between the pool threads.
+
+            if (obj instanceof JDRGroup
+                && TeXFragments.countObjects((JDRGroup)obj) >= SPLIT_GROUP_SIZE)
+            {
+               return false;
+            }
+
+            return super.isConcurrent(obj);
+         }
+      };
+
+      fragments.setProgressBus(progressBus);
+
+      try
+      {
+         fragments.run(group);
+      }
+      catch (InvalidFormatException e)
+      {
+         // savePgf only throws IOException
+         throw new IOException(e);
+      }
+   }
+
+   /**
+    * Creates a writer for a fragment. Subclasses should override
+    * this method to create an instance of the subclass and copy any
+    * of their own settings that are needed to write an object. The
+    * settings provided by this class are copied by the caller.
+    * @param out the fragment buffer
+    * @return the new writer
+    */
+   protected TeX createFragmentWriter(Writer out)
+   {
+      return new TeX(basePath, out, exportSettings);
+   }
+
+   TeX createFragment(TeXFragments.Fragment buffer)
+   {
+      TeX tex = createFragmentWriter(buffer);
+
+      tex.fragment = buffer;
+      tex.affineTransform = affineTransform;
+      tex.storagePaperHeight = storagePaperHeight;
+      tex.supportOutline = supportOutline;
+      tex.supportTextPath = supportTextPath;
+
+      buffer.setWriter(tex);
+
+      return tex;
+   }
+
+   /**
+    * Copies the given fragment to the output and merges the
+    * information collected by its writer.
+    */
+   void writeFragment(TeXFragments.Fragment buffer)
+   throws IOException
+   {
+      buffer.writeTo(writer, objectArgs.size());
+
+      mergeFragment(buffer.getWriter());
+   }
+
+   /**
+    * Merges the information collected while writing a fragment.
+    * This is called on the thread that's writing the output, in
+    * stacking order. Subclasses that collect information while
+    * objects are written should override this method.
+    * @param fragmentWriter the writer used for the fragment
+    */
+   protected void mergeFragment(TeX fragmentWriter)
+   {
+      objectArgs.addAll(fragmentWriter.objectArgs);
+   }
+
+   /**
+    * Determines whether this is writing a fragment on a pool thread.
+    * @return true if this is a fragment writer
+    */
+   public boolean isFragmentWriter()
+   {
+      return fragment != null;
+   }
+
+   /**
+    * Gets a name for a new pgf shading. When an object is written by
+    * {@link TeXFragments} the name is made up of the object's
+    * position within the image and a count of the shadings used by
+    * that object, so it doesn't depend on which thread writes the
+    * object.
+    * @return the name (unique within the image)
+    */
+   public static String nextShadingId()
+   {
+      ShadingScope scope = shadingScope.get();
+
+      if (scope == null)
+      {
+         return ""+shadingCount.getAndIncrement();
+      }
+
+      return scope.prefix+"-"+(scope.count++);
+   }
+
+   static ShadingScope getShadingScope()
+   {
+      return shadingScope.get();
+   }
+
+   static void setShadingScope(ShadingScope scope)
+   {
+      if (scope == null)
+      {
+         shadingScope.remove();
+      }
+      else
+      {
+         shadingScope.set(scope);
+      }
+   }
+
+   /**
+    * Identifies the object that's being written for the purposes
+    * of naming shadings. Nested groups that are written by
+    * {@link TeXFragments} add their member's index to the group's
+    * prefix.
+    */
+   static class ShadingScope
+   {
+      ShadingScope(ShadingScope parent, int index)
+      {
+         prefix = (parent == null ? ""+index : parent.prefix+"-"+index);
+      }
+
+      private String prefix;
+      private int count = 0;
+   }
+
    public AffineTransform getTransform()
    {
       return affineTransform;
@@ -403,7 +609,7 @@ public class TeX
     */
    public static String format(double value)
    {
-      return df.format(value);
+      return decimalFormat.get().format(value);
    }
 
    public static String length(CanvasGraphics cg, double length)
@@ -638,6 +844,11 @@ public class TeX
       }
    }
 
+   public Path getBasePath()
+   {
+      return basePath;
+   }
+
    public Path relativize(String filename)
    {
       return relativize(new File(filename));
@@ -1014,12 +1225,36 @@ public class TeX
 
    /**
     * Number format to use to print decimal numbers in LaTeX file.
+    * This isn't thread safe, so {@link #format(double)} uses a
+    * copy for each thread.
     * @see #format(double)
     */
    public final static NumberFormat df
       = new DecimalFormat("#####0.0#####",
         new DecimalFormatSymbols(Locale.ENGLISH));
 
+   private final static ThreadLocal<NumberFormat> decimalFormat
+      = new ThreadLocal<NumberFormat>()
+   {
+      @Override
+      protected NumberFormat initialValue()
+      {
+         return (NumberFormat)df.clone();
+      }
+   };
+
+   private final static ThreadLocal<ShadingScope> shadingScope
+      = new ThreadLocal<ShadingScope>();
+
+   private final static AtomicInteger shadingCount = new AtomicInteger();
+
+   /**
+    * Groups with at least this number of objects (including the
+    * members of any subgroups) are split between threads by
+    * {@link #savePgfObjects(JDRGroup,ProgressBus)}.
+    */
+   public static final int SPLIT_GROUP_SIZE = 64;
+
    /**
     * Gets date format. (The creation date is written to the 
     * LaTeX file.)
@@ -1035,6 +1270,8 @@ public class TeX
 
    protected Vector<String> objectArgs;
 
+   private TeXFragments.Fragment fragment = null;
+
    protected boolean supportOutline=false, supportTextPath=false;
 
    protected double storagePaperHeight = 0;
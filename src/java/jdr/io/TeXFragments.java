@@ -0,0 +1,440 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdr.io;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.dickimawbooks.jdr.JDRBitmap;
+import com.dickimawbooks.jdr.JDRCompleteObject;
+import com.dickimawbooks.jdr.JDRGroup;
+import com.dickimawbooks.jdr.exceptions.InvalidFormatException;
+
+/**
+ * Writes the TeX code for each object in a group in stacking order.
+ * Objects that can be written independently are written in
+ * parallel, each to its own buffer (a fragment) using a writer
+ * created by {@link TeX#createFragmentWriter(Writer)}. The
+ * fragments are then copied to the output by the calling thread in
+ * stacking order, so the result is the same as when the objects
+ * are written one after the other. A limited number of objects
+ * are written ahead of the output, and the buffers are reused.
+ * <p>
+ * Any text (which may need to be converted to a path using the
+ * canvas graphics) and bitmaps (which may need to be converted
+ * to EPS files) are written by the calling thread when it reaches
+ * them, as are any objects that aren't considered independent by
+ * {@link #isConcurrent(JDRCompleteObject)}.
+ * <p>
+ * Object identifiers written by {@link TeX#writeStartObject(JDRCompleteObject)}
+ * are only known once the preceding objects have been written, so
+ * the fragment just records their position and they are inserted
+ * when the fragment is copied. Shading names are numbered
+ * relative to the object being written (see
+ * {@link TeX#nextShadingId()}) so they don't depend on which thread
+ * writes the object.
+ */
+public abstract class TeXFragments
+{
+   public TeXFragments(TeX tex)
+   {
+      this(tex, ForkJoinPool.commonPool());
+   }
+
+   public TeXFragments(TeX tex, ForkJoinPool pool)
+   {
+      this.tex = tex;
+      this.pool = pool;
+   }
+
+   /**
+    * Writes the TeX code for the given object. This may be called
+    * on a pool thread, in which case the writer is a fragment
+    * writer, or on the thread that called {@link #run(JDRGroup)}.
+    * @param writer the writer
+    * @param object the object
+    * @throws IOException if I/O error occurs
+    * @throws InvalidFormatException if the object can't be
+    * written
+    */
+   protected abstract void writeObject(TeX writer, JDRCompleteObject object)
+     throws IOException,InvalidFormatException;
+
+   /**
+    * Determines whether the given object may be written on a pool
+    * thread. Text and bitmaps must be written on the calling
+    * thread. A group may be written on a pool thread if all its
+    * members can.
+    * @param object the object
+    * @return true if the object may be written on a pool thread
+    */
+   protected boolean isConcurrent(JDRCompleteObject object)
+   {
+      if (object instanceof JDRGroup)
+      {
+         JDRGroup group = (JDRGroup)object;
+
+         for (int i = 0; i < group.size(); i++)
+         {
+            if (!isConcurrent(group.get(i)))
+            {
+               return false;
+            }
+         }
+
+         return true;
+      }
+
+      return !(object.hasTextual() || object instanceof JDRBitmap);
+   }
+
+   /**
+    * Counts the objects in the given group, including the members
+    * of any subgroups.
+    * @param group the group
+    * @return the number of objects
+    */
+   public static int countObjects(JDRGroup group)
+   {
+      int n = group.size();
+
+      for (int i = 0; i < group.size(); i++)
+      {
+         JDRCompleteObject object = group.get(i);
+
+         if (object instanceof JDRGroup)
+         {
+            n += countObjects((JDRGroup)object);
+         }
+      }
+
+      return n;
+   }
+
+   /**
+    * Sets the progress bus that's incremented as each object is
+    * written to the output.
+    * @param progressBus the progress bus or null if the progress
+    * shouldn't be updated
+    */
+   public void setProgressBus(ProgressBus progressBus)
+   {
+      this.progressBus = progressBus;
+   }
+
+   /**
+    * Writes all the objects in the given group.
+    * @param group the group
+    * @throws IOException if I/O error occurs
+    * @throws InvalidFormatException if an object can't be written
+    */
+   public void run(JDRGroup group)
+     throws IOException,InvalidFormatException
+   {
+      int n = group.size();
+
+      TeX.ShadingScope scope = TeX.getShadingScope();
+
+      // A fragment writer is already on a pool thread, so its
+      // objects are written in place.
+
+      if (n < 2 || pool.getParallelism() < 2 || tex.isFragmentWriter()
+           || !tex.getExportSettings().parallelTeXExport)
+      {
+         for (int i = 0; i < n; i++)
+         {
+            writeInPlace(group.get(i), scope, i);
+         }
+
+         return;
+      }
+
+      int window = WINDOW_FACTOR*pool.getParallelism();
+
+      Vector<Future<Fragment>> futures = new Vector<Future<Fragment>>(n);
+      futures.setSize(n);
+
+      int next = 0;
+
+      try
+      {
+         for (int i = 0; i < n; i++)
+         {
+            for (; next < n && next < i+window; next++)
+            {
+               JDRCompleteObject object = group.get(next);
+
+               if (isConcurrent(object))
+               {
+                  futures.set(next, submit(object, scope, next));
+               }
+            }
+
+            Future<Fragment> future = futures.get(i);
+
+            if (future == null)
+            {
+               writeInPlace(group.get(i), scope, i);
+            }
+            else
+            {
+               Fragment fragment = waitFor(future);
+               futures.set(i, null);
+
+               fragment.throwError();
+
+               tex.writeFragment(fragment);
+
+               fragment.release();
+               buffers.offer(fragment);
+
+               if (progressBus != null)
+               {
+                  progressBus.incrementProgress();
+               }
+            }
+         }
+      }
+      finally
+      {
+         for (Future<Fragment> future : futures)
+         {
+            if (future != null)
+            {
+               future.cancel(false);
+            }
+         }
+      }
+   }
+
+   private void writeInPlace(JDRCompleteObject object,
+     TeX.ShadingScope scope, int index)
+     throws IOException,InvalidFormatException
+   {
+      TeX.setShadingScope(new TeX.ShadingScope(scope, index));
+
+      try
+      {
+         writeObject(tex, object);
+      }
+      finally
+      {
+         TeX.setShadingScope(scope);
+      }
+
+      if (progressBus != null)
+      {
+         progressBus.incrementProgress();
+      }
+   }
+
+   private Future<Fragment> submit(final JDRCompleteObject object,
+     final TeX.ShadingScope scope, final int index)
+   {
+      return pool.submit(new Callable<Fragment>()
+      {
+         @Override
+         public Fragment call()
+         {
+            Fragment fragment = buffers.poll();
+
+            if (fragment == null)
+            {
+               fragment = new Fragment();
+            }
+
+            TeX writer = tex.createFragment(fragment);
+
+            TeX.setShadingScope(new TeX.ShadingScope(scope, index));
+
+            // The pool wraps checked exceptions, so they are passed
+            // back in the fragment instead.
+
+            try
+            {
+               writeObject(writer, object);
+            }
+            catch (IOException e)
+            {
+               fragment.setError(e);
+            }
+            catch (InvalidFormatException e)
+            {
+               fragment.setError(e);
+            }
+            finally
+            {
+               TeX.setShadingScope(null);
+            }
+
+            return fragment;
+         }
+      });
+   }
+
+   private Fragment waitFor(Future<Fragment> future)
+     throws IOException
+   {
+      try
+      {
+         return future.get();
+      }
+      catch (InterruptedException e)
+      {
+         InterruptedIOException ioe = new InterruptedIOException();
+         ioe.initCause(e);
+         throw ioe;
+      }
+      catch (ExecutionException e)
+      {
+         Throwable cause = e.getCause();
+
+         if (cause instanceof RuntimeException)
+         {
+            throw (RuntimeException)cause;
+         }
+         else if (cause instanceof Error)
+         {
+            throw (Error)cause;
+         }
+
+         throw new IllegalStateException(cause);
+      }
+   }
+
+   private TeX tex;
+   private ForkJoinPool pool;
+   private ProgressBus progressBus = null;
+
+   private ConcurrentLinkedQueue<Fragment> buffers
+     = new ConcurrentLinkedQueue<Fragment>();
+
+   /**
+    * The maximum number of objects (relative to the pool's
+    * parallelism) that may be written ahead of the output.
+    */
+   public static final int WINDOW_FACTOR = 4;
+
+   /**
+    * Buffer that holds the TeX code for one object together with
+    * the positions of the object identifiers that need to be
+    * inserted when the buffer is copied to the output.
+    */
+   static class Fragment extends CharArrayWriter
+   {
+      Fragment()
+      {
+         super(INITIAL_SIZE);
+      }
+
+      /**
+       * Records the position of an object identifier.
+       * @param localId the identifier relative to the first
+       * object in this fragment
+       */
+      void addObjectId(int localId)
+      {
+         if (numIds == idPositions.length)
+         {
+            idPositions = java.util.Arrays.copyOf(idPositions, 2*numIds);
+            localIds = java.util.Arrays.copyOf(localIds, 2*numIds);
+         }
+
+         idPositions[numIds] = count;
+         localIds[numIds] = localId;
+         numIds++;
+      }
+
+      /**
+       * Copies the buffer to the given writer, inserting the object
+       * identifiers.
+       * @param out the writer
+       * @param offset the identifier of the first object in this
+       * fragment
+       */
+      void writeTo(Writer out, int offset) throws IOException
+      {
+         int start = 0;
+
+         for (int i = 0; i < numIds; i++)
+         {
+            out.write(buf, start, idPositions[i]-start);
+            out.write("{"+(offset+localIds[i])+"}");
+            start = idPositions[i];
+         }
+
+         out.write(buf, start, count-start);
+      }
+
+      void setWriter(TeX writer)
+      {
+         this.writer = writer;
+      }
+
+      TeX getWriter()
+      {
+         return writer;
+      }
+
+      void setError(Exception error)
+      {
+         this.error = error;
+      }
+
+      /**
+       * Throws the exception that occurred while writing this
+       * fragment, if any.
+       */
+      void throwError() throws IOException,InvalidFormatException
+      {
+         if (error instanceof IOException)
+         {
+            throw (IOException)error;
+         }
+         else if (error instanceof InvalidFormatException)
+         {
+            throw (InvalidFormatException)error;
+         }
+      }
+
+      void release()
+      {
+         reset();
+         numIds = 0;
+         writer = null;
+         error = null;
+      }
+
+      private int[] idPositions = new int[8];
+      private int[] localIds = new int[8];
+      private int numIds = 0;
+      private TeX writer;
+      private Exception error = null;
+
+      private static final int INITIAL_SIZE = 4096;
+   }
+}
@@ -316,7 +316,7 @@ public class EPSFont implements EPSDictionaryInterface
       weight += (shape == JDRFont.SHAPE_UPRIGHT?
                  0 : Font.ITALIC);
 
-      Font font = new Font(family, weight, 1000);
+      Font font = FontCatalogue.getFont(family, weight, 1000);
 
       AffineTransform af = getAffineTransform();
 
@@ -1037,6 +1037,8 @@ public class GraphicsState implements EPSObject
       jdrpath = JDRPath.getPath(eps_.getCanvasGraphics(),
          rect.getPathIterator(af, flatness));
 
+      jdrpath.setStroke(getStroke());
+
       JDRPaint fillPaint = getPaint();
       JDRPaint linePaint = new JDRTransparent(eps_.getCanvasGraphics());
 
@@ -1062,6 +1064,8 @@ public class GraphicsState implements EPSObject
       jdrpath = JDRPath.getPath(eps_.getCanvasGraphics(),
          rect.getPathIterator(af, flatness));
 
+      jdrpath.setStroke(getStroke());
+
       JDRPaint linePaint = getPaint();
       JDRPaint fillPaint = new JDRTransparent(eps_.getCanvasGraphics());
 
@@ -2037,6 +2041,8 @@ public class GraphicsState implements EPSObject
       JDRPath jdrpath = JDRPath.getPath(eps_.getCanvasGraphics(),
          clippingPath.getPathIterator(null));
 
+      jdrpath.setStroke(new JDRBasicStroke(eps_.getCanvasGraphics()));
+
       jdrpath.getStroke().setWindingRule(
          clippingPath.getWindingRule());
 
@@ -2456,6 +2462,7 @@ public class GraphicsState implements EPSObject
          {
             jdrpath = JDRPath.getPath(eps_.getCanvasGraphics(),
               area.getPathIterator(null));
+            jdrpath.setStroke(new JDRBasicStroke(eps_.getCanvasGraphics()));
          }
          catch (EmptyPathException e)
          {
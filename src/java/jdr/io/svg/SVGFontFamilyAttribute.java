@@ -48,7 +48,9 @@ public class SVGFontFamilyAttribute extends SVGAbstractAttribute
 
             String family = HelpFontSettings.getFontNameFromCss(cssName);
 
-            if (handler.isFontFamilyAvailable(family))
+            family = handler.getAvailableFontFamily(family);
+
+            if (family != null)
             {
                fontFamily = family;
                break;
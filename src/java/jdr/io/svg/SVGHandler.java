@@ -5,7 +5,6 @@ import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.awt.GraphicsEnvironment;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 
@@ -31,10 +30,6 @@ public class SVGHandler extends DefaultHandler
       msgSystem = group.getCanvasGraphics().getMessageSystem();
 
       debugMessage("SVG handler initialised");
-
-      GraphicsEnvironment env = 
-         GraphicsEnvironment.getLocalGraphicsEnvironment();
-      availableFontFamilies = env.getAvailableFontFamilyNames();
    }
 
    public void startDocument()
@@ -277,7 +272,7 @@ public class SVGHandler extends DefaultHandler
    {
       if (getVerbosity() > 0)
       {
-         msgSystem.getPublisher().publishMessages(MessageInfo.createIncProgress());
+         msgSystem.getProgressBus().incrementProgress();
       }
    }
 
@@ -356,18 +351,18 @@ public class SVGHandler extends DefaultHandler
 
    public boolean isFontFamilyAvailable(String family)
    {
-      if (family.equals("Serif") || family.equals("SansSerif")
-          || family.equals("Monospaced"))
-      {
-         return true;
-      }
-
-      for (String f : availableFontFamilies)
-      {
-         if (f.equals(family)) return true;
-      }
+      return FontCatalogue.isFamilyAvailable(family);
+   }
 
-      return false;
+   /**
+    * Gets the name of the given font family as it's known to the
+    * system.
+    * @param family the font family (case-insensitive)
+    * @return the family name or null if not available
+    */
+   public String getAvailableFontFamily(String family)
+   {
+      return FontCatalogue.getCanonicalFamily(family);
    }
 
    public JDRBasicStroke createDefaultStroke()
@@ -531,7 +526,6 @@ public class SVGHandler extends DefaultHandler
    private boolean requiresTypeblock = false;
 
    private JDRMessage msgSystem;
-   private String[] availableFontFamilies;
 
    private HashMap<String,SVGAbstractElement> idElementMap;
 
@@ -439,7 +439,76 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
    {
       CanvasGraphics cg = getCanvasGraphics();
 
-      out.println("gsave");
+      EPSWriter writer = EPS.getResourceWriter(out);
+
+      if (writer == null)
+      {
+         out.println("gsave");
+      }
+      else
+      {
+         // The outline is defined as a procedure in storage units
+         // the first time it's used.
+
+         GeneralPath outline = MarkerGeometryCache.getPrimaryPath(this);
+
+         String name = writer.getResourceName(outline);
+
+         if (name == null)
+         {
+            name = writer.addResource(outline, "Mk");
+
+            out.println("/"+name+" {");
+            EPS.savePath(outline, out);
+            out.println("} bind def");
+         }
+
+         out.println("gsave");
+
+         JDRPaint paint = (fillPaint == null ? pathPaint : fillPaint);
+
+         paint.saveEPS(out, bpPathBBox);
+
+         AffineTransform af = getStorageTransform(segment, start);
+
+         if (cg.getStorageUnitID() != JDRUnit.BP)
+         {
+            double storageToBp = cg.storageToBp(1.0);
+
+            af.preConcatenate(
+              AffineTransform.getScaleInstance(storageToBp, storageToBp));
+         }
+
+         double[] matrix = new double[6];
+         af.getMatrix(matrix);
+
+         // The path is constructed in the marker's co-ordinate
+         // system but the original matrix is restored before
+         // filling, so that any shading isn't transformed.
+
+         out.println("matrix currentmatrix ["+matrix[0]+" "+matrix[1]
+          +" "+matrix[2]+" "+matrix[3]+" "+matrix[4]+" "+matrix[5]
+          +"] concat "+name+" setmatrix");
+
+         if ((paint instanceof JDRGradient)
+            || (paint instanceof JDRRadial))
+         {
+            out.println("clip shfill");
+         }
+         else
+         {
+            out.println("fill");
+         }
+
+         out.println("grestore");
+
+         if (composite != null)
+         {
+            composite.saveEPS(pathPaint, bpPathBBox, segment, start, out);
+         }
+
+         return;
+      }
 
       Shape shape = getStorageShape(segment, start);
 
@@ -518,6 +587,25 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
     * (<code>false</code>) of the segment
     */
    public Shape getStorageShape(JDRPathSegment segment, boolean start)
+   {
+      // The cached outline is shared, so it mustn't be modified.
+      // Any reflection is included in the transformation instead.
+
+      return MarkerGeometryCache.getPrimaryPath(this).createTransformedShape(
+        getStorageTransform(segment, start));
+   }
+
+   /**
+    * Gets the transformation that moves this marker's primary
+    * outline into position on the given segment.
+    * @param segment the segment on which this marker should be
+    * drawn
+    * @param start indicates whether this marker should be
+    * drawn at the start or end of the segment
+    * @return the transformation (in storage units)
+    */
+   private AffineTransform getStorageTransform(JDRPathSegment segment,
+     boolean start)
    {
       double p0x=0, p0y=0, p1x=0, p1y=0;
 
@@ -580,10 +668,8 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
          }
       }
 
-      Shape shape = getStorageShape(p0x, p0y, p1x, p1y,
+      return getStorageTransform(p0x, p0y, p1x, p1y,
          start && !hasXAxisSymmetry());
-
-      return shape;
    }
 
    /**
@@ -623,14 +709,12 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
     * @param p1y the y co-ordinate of the end point
     * @param reflect indicates whether to reflect marker
     */
-   private Shape getStorageShape(double p0x, double p0y,
+   private AffineTransform getStorageTransform(double p0x, double p0y,
                          double p1x, double p1y,
                          boolean reflect)
    {
       AffineTransform af = new AffineTransform();
 
-      GeneralPath marker = getStoragePrimaryGeneralPath();
-
       // rotate so that the x-axis lies along 
       // the line defined by p0 -> p1
 
@@ -638,13 +722,6 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
 
       if (autoOrient_)
       {
-         if (reflect)
-         {
-            af.scale(1, -1);
-            marker.transform(af);
-            af.setToIdentity();
-         }
-
          double dx = p1x-p0x;
          double dy = p1y-p0y;
 
@@ -678,13 +755,12 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
       // shift so that marker origin lies at p1
       af.preConcatenate(AffineTransform.getTranslateInstance(p1x-r1.getX(), p1y-r1.getY()));
 
-      Shape shape;
-
-      shape = marker.createTransformedShape(af);
-
-      double[] coords = new double[6];
+      if (autoOrient_ && reflect)
+      {
+         af.scale(1, -1);
+      }
 
-      return shape;
+      return af;
    }
 
    /**
@@ -785,7 +861,7 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
     */
    public double getStorageWidth()
    {
-      GeneralPath path = getStorageCompleteGeneralPath();
+      GeneralPath path = MarkerGeometryCache.getCompletePath(this);
 
       return path.getBounds2D().getWidth();
    }
@@ -796,7 +872,7 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
     */
    public BBox getStorageBBox()
    {
-      GeneralPath path = getStorageCompleteGeneralPath();
+      GeneralPath path = MarkerGeometryCache.getCompletePath(this);
 
       return new BBox(getCanvasGraphics(), path.getBounds2D());
    }
@@ -834,6 +910,16 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
     * {@link #repeated}
     */
    public GeneralPath getStoragePrimaryGeneralPath()
+   {
+      return new GeneralPath(MarkerGeometryCache.getPrimaryPath(this));
+   }
+
+   /**
+    * Creates the primary path. This is only called by
+    * {@link MarkerGeometryCache} if the path for this marker's
+    * settings isn't already cached.
+    */
+   GeneralPath createStoragePrimaryGeneralPath()
    {
       GeneralPath path = getGeneralPath();
       GeneralPath marker;
@@ -890,17 +976,7 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
     */
    public GeneralPath getStorageCompleteGeneralPath(boolean reverseComposite)
    {
-      GeneralPath path = getGeneralPath();
-      GeneralPath markerPath;
-
-      markerPath = getStoragePrimaryGeneralPath();
-
-      if (composite != null)
-      {
-         markerPath.append(composite.getStorageCompleteGeneralPath(), false);
-      }
-
-      return markerPath;
+      return new GeneralPath(MarkerGeometryCache.getCompletePath(this));
    }
 
    public Shape getBpCompleteGeneralPath()
@@ -2171,6 +2247,20 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
          id += fillPaint.getID();
       }
 
+      // The orientation and composite also affect the definition,
+      // so markers that only differ in these settings mustn't
+      // share an identifier.
+
+      if (!autoOrient_)
+      {
+         id += "-a"+angle_.svg();
+      }
+
+      if (composite != null)
+      {
+         id += "-"+composite.getID(start, fillPaint == null ? p : fillPaint);
+      }
+
       return id;
    }
 
@@ -2298,20 +2388,23 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
 
       if (start.getType() != ARROW_NONE)
       {
-         start = (JDRMarker)start.clone();
-
-         if (start.fillPaint == null)
-         {
-            start.fillPaint = linePaint;
-         }
+         // Only clone if the marker hasn't already been defined.
+         // (A null fill paint is identified by the line paint.)
 
          String id = start.getID(true, linePaint);
 
-         start.reversed = !start.reversed;
-         start.isStart_ = true;
-
          if (!id.equals("none") && svg.addReferenceID(id))
          {
+            start = (JDRMarker)start.clone();
+
+            if (start.fillPaint == null)
+            {
+               start.fillPaint = linePaint;
+            }
+
+            start.reversed = !start.reversed;
+            start.isStart_ = true;
+
             start.svgDef(svg, id);
          }
       }
@@ -2322,19 +2415,19 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
 
       if (mid.getType() != ARROW_NONE)
       {
-         mid = (JDRMarker)mid.clone();
+         String id = mid.getID(false, linePaint);
 
-         if (mid.fillPaint == null)
+         if (!id.equals("none") && svg.addReferenceID(id))
          {
-            mid.fillPaint = linePaint;
-         }
+            mid = (JDRMarker)mid.clone();
 
-         mid.isStart_=false;
+            if (mid.fillPaint == null)
+            {
+               mid.fillPaint = linePaint;
+            }
 
-         String id = mid.getID(false, linePaint);
+            mid.isStart_=false;
 
-         if (!id.equals("none") && svg.addReferenceID(id))
-         {
             mid.svgDef(svg, id);
          }
       }
@@ -2345,19 +2438,19 @@ public class JDRMarker implements Serializable,Cloneable,JDRConstants
 
       if (end.getType() != ARROW_NONE)
       {
-         end = (JDRMarker)end.clone();
+         String id = end.getID(false, linePaint);
 
-         if (end.fillPaint == null)
+         if (!id.equals("none") && svg.addReferenceID(id))
          {
-            end.fillPaint = linePaint;
-         }
+            end = (JDRMarker)end.clone();
 
-         end.isStart_=false;
+            if (end.fillPaint == null)
+            {
+               end.fillPaint = linePaint;
+            }
 
-         String id = end.getID(false, linePaint);
+            end.isStart_=false;
 
-         if (!id.equals("none") && svg.addReferenceID(id))
-         {
             end.svgDef(svg, id);
          }
       }
@@ -0,0 +1,188 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdr.marker;
+
+import java.awt.geom.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dickimawbooks.jdr.*;
+
+/**
+ * Process-wide cache of marker outlines. The outline of a marker
+ * (before it's rotated and moved into position on a segment)
+ * only depends on the marker type, the pen width, the size and
+ * width, the repeat factor and offset, whether or not it's
+ * reversed and the storage unit, so markers with the same settings
+ * can share the same outline. The outlines are keyed on these
+ * values rather than on the marker objects, so there's no need to
+ * invalidate an entry if a marker is modified.
+ * <p>
+ * The cached paths must not be modified. Methods that return a
+ * marker outline to the caller must return a copy.
+ */
+class MarkerGeometryCache
+{
+   private MarkerGeometryCache()
+   {
+   }
+
+   /**
+    * Gets the primary outline of the given marker. This includes
+    * repeats and reflections but not composites or rotation.
+    * @param marker the marker
+    * @return the shared outline (must not be modified)
+    */
+   static GeneralPath getPrimaryPath(JDRMarker marker)
+   {
+      Key key = new Key(marker, false);
+
+      GeneralPath path = primaryPaths.get(key);
+
+      if (path == null)
+      {
+         path = marker.createStoragePrimaryGeneralPath();
+         put(primaryPaths, key, path);
+      }
+
+      return path;
+   }
+
+   /**
+    * Gets the complete outline of the given marker. This includes
+    * repeats, reflections and composites but not rotation.
+    * @param marker the marker
+    * @return the shared outline (must not be modified)
+    */
+   static GeneralPath getCompletePath(JDRMarker marker)
+   {
+      Key key = new Key(marker, true);
+
+      GeneralPath path = completePaths.get(key);
+
+      if (path == null)
+      {
+         path = new GeneralPath(getPrimaryPath(marker));
+
+         if (marker.composite != null)
+         {
+            path.append(getCompletePath(marker.composite), false);
+         }
+
+         put(completePaths, key, path);
+      }
+
+      return path;
+   }
+
+   private static void put(ConcurrentHashMap<Key,GeneralPath> map,
+     Key key, GeneralPath path)
+   {
+      if (map.size() >= MAX_PATHS)
+      {
+         map.clear();
+      }
+
+      map.put(key, path);
+   }
+
+   private static class Key
+   {
+      Key(JDRMarker marker, boolean includeComposite)
+      {
+         JDRUnit unit = marker.getCanvasGraphics().getStorageUnit();
+
+         markerClass = marker.getClass();
+         type = marker.type;
+         unitID = unit.getID();
+         penWidth = marker.penWidth.getValue(unit);
+         size = marker.size.getValue(unit);
+         width = marker.width == null ? Double.NaN : marker.width.getValue(unit);
+         repeated = marker.repeated;
+         repeatOffset = marker.getRepeatOffset().getValue(unit);
+         reversed = marker.reversed;
+
+         composite = (includeComposite && marker.composite != null)
+           ? new Key(marker.composite, true) : null;
+
+         int h = markerClass.hashCode();
+         h = 31*h + type;
+         h = 31*h + unitID;
+         h = 31*h + Double.hashCode(penWidth);
+         h = 31*h + Double.hashCode(size);
+         h = 31*h + Double.hashCode(width);
+         h = 31*h + repeated;
+         h = 31*h + Double.hashCode(repeatOffset);
+         h = 31*h + (reversed ? 1 : 0);
+         h = 31*h + (composite == null ? 0 : composite.hashCode());
+
+         hashCode = h;
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (!(obj instanceof Key)) return false;
+
+         Key key = (Key)obj;
+
+         if (hashCode != key.hashCode
+          || markerClass != key.markerClass
+          || type != key.type
+          || unitID != key.unitID
+          || repeated != key.repeated
+          || reversed != key.reversed
+          || Double.compare(penWidth, key.penWidth) != 0
+          || Double.compare(size, key.size) != 0
+          || Double.compare(width, key.width) != 0
+          || Double.compare(repeatOffset, key.repeatOffset) != 0)
+         {
+            return false;
+         }
+
+         return composite == null ? key.composite == null
+           : composite.equals(key.composite);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hashCode;
+      }
+
+      private final Class<?> markerClass;
+      private final int type, unitID, repeated;
+      private final double penWidth, size, width, repeatOffset;
+      private final boolean reversed;
+      private final Key composite;
+      private final int hashCode;
+   }
+
+   private static final ConcurrentHashMap<Key,GeneralPath> primaryPaths
+     = new ConcurrentHashMap<Key,GeneralPath>();
+
+   private static final ConcurrentHashMap<Key,GeneralPath> completePaths
+     = new ConcurrentHashMap<Key,GeneralPath>();
+
+   /**
+    * Upper bound on the number of cached outlines of each kind.
+    * The cache is simply cleared if this is reached.
+    */
+   private static final int MAX_PATHS = 512;
+}
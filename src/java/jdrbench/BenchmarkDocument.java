@@ -0,0 +1,115 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrbench;
+
+import java.io.File;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dickimawbooks.jdr.*;
+
+/**
+ * Shared benchmark state: a synthetic document built by
+ * {@link DocumentGenerator} from the size, mix and seed
+ * parameters. Subclasses add any further data (for example,
+ * the document in a particular file format) required by
+ * their benchmarks.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDocument
+{
+   @Setup(Level.Trial)
+   public void createDocument() throws Exception
+   {
+      try
+      {
+         bitmapDir = java.nio.file.Files.createTempDirectory("jdrbench").toFile();
+      }
+      catch (java.io.IOException e)
+      {
+         // the generator leaves out bitmaps if it can't create the
+         // image file
+
+         bitmapDir = null;
+      }
+
+      DocumentGenerator generator = new DocumentGenerator(seed, mix);
+      generator.setSegmentsPerPath(segments);
+      generator.setBitmapDir(bitmapDir);
+
+      canvasGraphics = createCanvasGraphics();
+
+      image = generator.generate(canvasGraphics, size);
+   }
+
+   @TearDown(Level.Trial)
+   public void deleteBitmaps()
+   {
+      if (bitmapDir != null)
+      {
+         File[] files = bitmapDir.listFiles();
+
+         if (files != null)
+         {
+            for (File file : files)
+            {
+               file.delete();
+            }
+         }
+
+         bitmapDir.delete();
+      }
+   }
+
+   /**
+    * Creates new canvas graphics with a silent message system.
+    */
+   public CanvasGraphics createCanvasGraphics()
+   {
+      CanvasGraphics cg = new CanvasGraphics(new BenchmarkMessage());
+      cg.setStorageUnit(JDRUnit.bp);
+
+      return cg;
+   }
+
+   /**
+    * Number of top-level objects.
+    */
+   @Param({"100", "1000"})
+   public int size;
+
+   /**
+    * Object mix (see {@link DocumentGenerator}).
+    */
+   @Param({DocumentGenerator.DEFAULT_MIX})
+   public String mix;
+
+   @Param({"20250101"})
+   public long seed;
+
+   /**
+    * Number of segments in each generated path.
+    */
+   @Param({"10"})
+   public int segments;
+
+   public CanvasGraphics canvasGraphics;
+   public JDRGroup image;
+   public File bitmapDir;
+}
@@ -0,0 +1,48 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrbench;
+
+import com.dickimawbooks.jdr.io.JDRDefaultMessage;
+import com.dickimawbooks.jdr.io.MessageInfo;
+
+/**
+ * Message system used by the benchmarks. Only errors are
+ * reported so that progress and informational messages don't
+ * distort the timings.
+ */
+public class BenchmarkMessage extends JDRDefaultMessage
+{
+   public BenchmarkMessage()
+   {
+      super(null, "jdrbench", "1.0");
+   }
+
+   @Override
+   public void postMessage(MessageInfo info)
+   {
+      String action = info.getAction();
+
+      if (action.equals(MessageInfo.ERROR)
+       || action.equals(MessageInfo.FATAL_ERROR)
+       || action.equals(MessageInfo.INTERNAL_ERROR))
+      {
+         super.postMessage(info);
+      }
+   }
+}
@@ -0,0 +1,509 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrbench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+
+import com.dickimawbooks.jdr.*;
+import com.dickimawbooks.jdr.exceptions.*;
+import com.dickimawbooks.jdr.marker.JDRMarker;
+
+/**
+ * Builds synthetic documents for the benchmarks. The same seed,
+ * size and mix always produce the same document so that timings
+ * can be compared between releases.
+ * <p>
+ * The mix is specified as a semicolon-separated list of
+ * <em>type</em>=<em>weight</em> pairs, where the type is one of
+ * the {@link ObjectType} names (case-insensitive), for example
+ * <code>path=4;bezier=4;text=2;text_path=1;pattern=1;marker=2;bitmap=1</code>.
+ * (A comma is also accepted as a separator, but JMH uses commas to
+ * separate parameter values on the command line.)
+ * Any type omitted from the list has a weight of 0.
+ * <p>
+ * Bitmap objects need an image file. If it can't be written (for
+ * example, if there's no writable bitmap or temporary directory),
+ * bitmaps are left out of the mix and the other weights are used.
+ */
+public class DocumentGenerator
+{
+   public DocumentGenerator(long seed)
+   {
+      this(seed, DEFAULT_MIX);
+   }
+
+   public DocumentGenerator(long seed, String mix)
+   {
+      this.seed = seed;
+      setMix(mix);
+   }
+
+   /**
+    * Sets the relative frequency of each object type.
+    * @param mix the semicolon-separated list of type=weight pairs
+    * @throws IllegalArgumentException if the list can't be parsed
+    * or all weights are zero
+    */
+   public void setMix(String mix)
+   {
+      ObjectType[] types = ObjectType.values();
+      int[] newWeights = new int[types.length];
+      int total = 0;
+
+      for (String item : mix.split("[;,]"))
+      {
+         item = item.trim();
+
+         if (item.isEmpty()) continue;
+
+         int idx = item.indexOf('=');
+
+         if (idx < 1)
+         {
+            throw new IllegalArgumentException("Invalid mix item: "+item);
+         }
+
+         ObjectType type = ObjectType.valueOf(
+           item.substring(0, idx).trim().toUpperCase());
+
+         int weight = Integer.parseInt(item.substring(idx+1).trim());
+
+         if (weight < 0)
+         {
+            throw new IllegalArgumentException("Invalid mix weight: "+item);
+         }
+
+         newWeights[type.ordinal()] = weight;
+         total += weight;
+      }
+
+      if (total == 0)
+      {
+         throw new IllegalArgumentException("Invalid mix (no weights): "+mix);
+      }
+
+      weights = newWeights;
+      totalWeight = total;
+   }
+
+   /**
+    * Sets the directory in which to write the image file used by
+    * bitmap objects. If not set, a temporary directory is created
+    * when the first bitmap is required.
+    */
+   public void setBitmapDir(File dir)
+   {
+      bitmapDir = dir;
+      bitmapFile = null;
+   }
+
+   public int getSegmentsPerPath()
+   {
+      return segmentsPerPath;
+   }
+
+   public void setSegmentsPerPath(int n)
+   {
+      if (n < 1)
+      {
+         throw new IllegalArgumentException("Invalid number of segments: "+n);
+      }
+
+      segmentsPerPath = n;
+   }
+
+   /**
+    * Generates a document.
+    * @param cg the canvas graphics for the new document
+    * @param numObjects the number of top-level objects
+    * @return the new document
+    */
+   public JDRGroup generate(CanvasGraphics cg, int numObjects)
+   throws InvalidFormatException,IOException
+   {
+      Random random = new Random(seed);
+
+      int[] typeWeights = weights;
+      int typeTotal = totalWeight;
+
+      int bitmapWeight = weights[ObjectType.BITMAP.ordinal()];
+
+      if (bitmapWeight > 0 && !isBitmapAvailable())
+      {
+         typeTotal -= bitmapWeight;
+
+         if (typeTotal == 0)
+         {
+            throw new IOException(
+              "Can't create bitmap file for mix containing only bitmaps");
+         }
+
+         typeWeights = weights.clone();
+         typeWeights[ObjectType.BITMAP.ordinal()] = 0;
+      }
+
+      JDRGroup group = new JDRGroup(cg, numObjects);
+
+      double width = cg.getStoragePaperWidth();
+      double height = cg.getStoragePaperHeight();
+
+      for (int i = 0; i < numObjects; i++)
+      {
+         JDRCompleteObject object;
+
+         switch (nextType(random, typeWeights, typeTotal))
+         {
+            case PATH:
+              object = createPath(cg, random, width, height, false);
+            break;
+            case BEZIER:
+              object = createPath(cg, random, width, height, true);
+            break;
+            case TEXT:
+              object = createText(cg, random, width, height);
+            break;
+            case TEXT_PATH:
+              object = createTextPath(cg, random, width, height);
+            break;
+            case PATTERN:
+              object = createPattern(cg, random, width, height);
+            break;
+            case MARKER:
+              object = createMarkerPath(cg, random, width, height);
+            break;
+            case BITMAP:
+              object = createBitmap(cg, random, width, height);
+            break;
+            default:
+              throw new IllegalStateException();
+         }
+
+         group.add(object);
+      }
+
+      return group;
+   }
+
+   private ObjectType nextType(Random random, int[] typeWeights,
+      int typeTotal)
+   {
+      int value = random.nextInt(typeTotal);
+
+      for (int i = 0; i < typeWeights.length; i++)
+      {
+         value -= typeWeights[i];
+
+         if (value < 0)
+         {
+            return ObjectType.values()[i];
+         }
+      }
+
+      // shouldn't happen
+      return ObjectType.PATH;
+   }
+
+   private JDRPaint randomColor(CanvasGraphics cg, Random random)
+   {
+      return new JDRColor(cg, random.nextDouble(), random.nextDouble(),
+        random.nextDouble());
+   }
+
+   private JDRPaint randomFill(CanvasGraphics cg, Random random)
+   {
+      switch (random.nextInt(4))
+      {
+         case 0:
+           return new JDRTransparent(cg);
+         case 1:
+           return new JDRGradient(random.nextInt(JDRGradient.NORTH_WEST+1),
+             randomColor(cg, random), randomColor(cg, random));
+         case 2:
+           return new JDRRadial(random.nextInt(JDRRadial.CENTER+1),
+             randomColor(cg, random), randomColor(cg, random));
+      }
+
+      return randomColor(cg, random);
+   }
+
+   private JDRPath createPath(CanvasGraphics cg, Random random,
+      double width, double height, boolean curves)
+   throws InvalidPathException
+   {
+      JDRBasicStroke stroke = new JDRBasicStroke(cg,
+        0.5+2*random.nextDouble(), random.nextInt(3), random.nextInt(3));
+
+      JDRPath path = new JDRPath(segmentsPerPath,
+        randomColor(cg, random), randomFill(cg, random), stroke);
+
+      double size = 0.05*Math.min(width, height);
+
+      double x = width*random.nextDouble();
+      double y = height*random.nextDouble();
+
+      for (int i = 0; i < segmentsPerPath; i++)
+      {
+         double x1 = clamp(x + size*(2*random.nextDouble()-1), width);
+         double y1 = clamp(y + size*(2*random.nextDouble()-1), height);
+
+         if (curves)
+         {
+            path.add(new JDRBezier(cg, x, y,
+              clamp(x + size*(2*random.nextDouble()-1), width),
+              clamp(y + size*(2*random.nextDouble()-1), height),
+              clamp(x1 + size*(2*random.nextDouble()-1), width),
+              clamp(y1 + size*(2*random.nextDouble()-1), height),
+              x1, y1));
+         }
+         else
+         {
+            path.add(new JDRLine(cg, x, y, x1, y1));
+         }
+
+         x = x1;
+         y = y1;
+      }
+
+      if (random.nextBoolean())
+      {
+         path.close();
+      }
+
+      return path;
+   }
+
+   private JDRPath createMarkerPath(CanvasGraphics cg, Random random,
+      double width, double height)
+   throws InvalidPathException
+   {
+      JDRPath path = createPath(cg, random, width, height,
+        random.nextBoolean());
+
+      if (path.isClosed())
+      {
+         path.open();
+      }
+
+      path.setShapeFillPaint(new JDRTransparent(cg));
+
+      JDRBasicStroke stroke = (JDRBasicStroke)path.getStroke();
+
+      JDRLength penWidth = stroke.getPenWidth();
+
+      stroke.setStartArrow(JDRMarker.getPredefinedMarker(cg,
+        1+random.nextInt(MAX_MARKER_ID), penWidth, 1+random.nextInt(2),
+        random.nextBoolean()));
+
+      stroke.setEndArrow(JDRMarker.getPredefinedMarker(cg,
+        1+random.nextInt(MAX_MARKER_ID), penWidth, 1+random.nextInt(2),
+        random.nextBoolean()));
+
+      if (random.nextBoolean())
+      {
+         stroke.setMidArrow(JDRMarker.getPredefinedMarker(cg,
+           1+random.nextInt(MAX_MARKER_ID), penWidth, 1, false));
+      }
+
+      return path;
+   }
+
+   private JDRText createText(CanvasGraphics cg, Random random,
+      double width, double height)
+   {
+      JDRFont font = new JDRFont(FAMILIES[random.nextInt(FAMILIES.length)],
+        random.nextBoolean() ? JDRFont.SERIES_MEDIUM : JDRFont.SERIES_BOLD,
+        random.nextBoolean() ? JDRFont.SHAPE_UPRIGHT : JDRFont.SHAPE_ITALIC,
+        new JDRLength(cg, 6+random.nextInt(20), JDRUnit.bp));
+
+      JDRText text = new JDRText(cg,
+        new Point2D.Double(width*random.nextDouble(),
+                           height*random.nextDouble()),
+        font, LABELS[random.nextInt(LABELS.length)]);
+
+      text.setTextPaint(randomColor(cg, random));
+
+      return text;
+   }
+
+   private JDRTextPath createTextPath(CanvasGraphics cg, Random random,
+      double width, double height)
+   throws InvalidPathException
+   {
+      JDRPath path = createPath(cg, random, width, height, true);
+
+      if (path.isClosed())
+      {
+         path.open();
+      }
+
+      return new JDRTextPath(path, createText(cg, random, width, height));
+   }
+
+   private JDRCompleteObject createPattern(CanvasGraphics cg, Random random,
+      double width, double height)
+   throws InvalidPathException
+   {
+      JDRPath path = createPath(cg, random, width, height,
+         random.nextBoolean());
+
+      JDRPoint anchor = new JDRPoint(cg, width*random.nextDouble(),
+        height*random.nextDouble());
+
+      int replicas = 2+random.nextInt(10);
+
+      switch (random.nextInt(3))
+      {
+         case 0:
+           return new JDRRotationalPattern(cg, path, anchor,
+             new JDRAngle(cg, 360.0/(replicas+1), JDRAngle.DEGREE),
+             replicas, random.nextBoolean());
+         case 1:
+           return new JDRScaledPattern(cg, path, anchor,
+             new JDRPoint(cg, anchor.getX()+10, anchor.getY()),
+             0.8, 0.8, replicas, random.nextBoolean(), true);
+      }
+
+      return new JDRSpiralPattern(cg, path, anchor,
+        new JDRPoint(cg, anchor.getX()+10, anchor.getY()),
+        new JDRAngle(cg, 30.0, JDRAngle.DEGREE), 5.0,
+        replicas, random.nextBoolean(), true);
+   }
+
+   private JDRBitmap createBitmap(CanvasGraphics cg, Random random,
+      double width, double height)
+   throws InvalidFormatException,IOException
+   {
+      JDRBitmap bitmap = new JDRBitmap(cg, getBitmapFile());
+
+      bitmap.translate(width*random.nextDouble(), height*random.nextDouble());
+
+      return bitmap;
+   }
+
+   /**
+    * Determines whether the image file used by bitmap objects can
+    * be created.
+    * @return true if the image file exists or has been created
+    */
+   private boolean isBitmapAvailable()
+   {
+      try
+      {
+         return getBitmapFile().exists();
+      }
+      catch (IOException e)
+      {
+         return false;
+      }
+      catch (SecurityException e)
+      {
+         return false;
+      }
+   }
+
+   private File getBitmapFile() throws IOException
+   {
+      if (bitmapFile == null)
+      {
+         if (bitmapDir == null)
+         {
+            bitmapDir = java.nio.file.Files.createTempDirectory(
+              "jdrbench").toFile();
+            bitmapDir.deleteOnExit();
+         }
+
+         bitmapFile = new File(bitmapDir, "jdrbench-bitmap.png");
+
+         if (!bitmapFile.exists())
+         {
+            Random random = new Random(seed);
+
+            BufferedImage image = new BufferedImage(BITMAP_SIZE, BITMAP_SIZE,
+              BufferedImage.TYPE_INT_RGB);
+
+            Graphics2D g2 = image.createGraphics();
+
+            try
+            {
+               for (int i = 0; i < 20; i++)
+               {
+                  g2.setColor(new Color(random.nextInt(0xFFFFFF)));
+                  g2.fillOval(random.nextInt(BITMAP_SIZE),
+                    random.nextInt(BITMAP_SIZE),
+                    random.nextInt(BITMAP_SIZE/2),
+                    random.nextInt(BITMAP_SIZE/2));
+               }
+            }
+            finally
+            {
+               g2.dispose();
+            }
+
+            ImageIO.write(image, "png", bitmapFile);
+            bitmapFile.deleteOnExit();
+         }
+      }
+
+      return bitmapFile;
+   }
+
+   private static double clamp(double value, double max)
+   {
+      return value < 0 ? 0 : (value > max ? max : value);
+   }
+
+   /**
+    * The object types that may be generated.
+    */
+   public static enum ObjectType
+   {
+      PATH, BEZIER, TEXT, TEXT_PATH, PATTERN, MARKER, BITMAP;
+   }
+
+   private long seed;
+   private int[] weights;
+   private int totalWeight;
+   private int segmentsPerPath = 10;
+   private File bitmapDir = null, bitmapFile = null;
+
+   public static final String DEFAULT_MIX
+    = "path=4;bezier=4;text=2;text_path=1;pattern=1;marker=2;bitmap=1";
+
+   private static final int MAX_MARKER_ID=JDRMarker.ARROW_INDEP_CENTRED_TRIANGLEDOWN2_OPEN;
+
+   private static final int BITMAP_SIZE=64;
+
+   private static final String[] FAMILIES = new String[]
+    { "Serif", "SansSerif", "Monospaced" };
+
+   private static final String[] LABELS = new String[]
+    {
+      "0", "10", "20", "50", "100", "Label", "Axis", "$x$", "$y = f(x)$",
+      "Figure 1", "Temperature (°C)", "naïve café",
+      "{\\em emphasis}", "50%", "A & B", "x_1", "#1", "~",
+      "The quick brown fox jumps over the lazy dog."
+    };
+}
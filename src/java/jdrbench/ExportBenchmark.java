@@ -0,0 +1,86 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrbench;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dickimawbooks.jdr.*;
+import com.dickimawbooks.jdr.io.*;
+
+/**
+ * Benchmarks exporting to PGF (TeX), SVG and EPS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(value=1, jvmArgsAppend={"-Djava.awt.headless=true"})
+public class ExportBenchmark
+{
+   @State(Scope.Benchmark)
+   public static class ExportDocument extends BenchmarkDocument
+   {
+      @Setup(Level.Trial)
+      public void createSettings()
+      {
+         exportSettings = new ExportSettings(
+           canvasGraphics.getMessageDictionary());
+      }
+
+      public ExportSettings exportSettings;
+   }
+
+   @Benchmark
+   public String savePGF(ExportDocument doc) throws IOException
+   {
+      StringWriter writer = new StringWriter();
+      PrintWriter out = new PrintWriter(writer);
+
+      PGF pgf = new PGF(doc.bitmapDir, out, doc.exportSettings);
+      pgf.save(doc.image);
+      out.flush();
+
+      return writer.toString();
+   }
+
+   @Benchmark
+   public String saveSVG(ExportDocument doc) throws IOException
+   {
+      StringWriter writer = new StringWriter();
+
+      SVG.save(doc.image, "jdrbench", writer, doc.exportSettings);
+
+      return writer.toString();
+   }
+
+   @Benchmark
+   public String saveEPS(ExportDocument doc) throws IOException
+   {
+      StringWriter writer = new StringWriter();
+      PrintWriter out = new PrintWriter(writer);
+
+      EPS.save(doc.image, out, "jdrbench");
+      out.flush();
+
+      return writer.toString();
+   }
+}
@@ -0,0 +1,87 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrbench;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dickimawbooks.jdr.*;
+import com.dickimawbooks.jdr.io.*;
+
+/**
+ * Benchmarks importing SVG and EPS. The files are created by
+ * exporting the generated document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(value=1, jvmArgsAppend={"-Djava.awt.headless=true"})
+public class ImportBenchmark
+{
+   @State(Scope.Benchmark)
+   public static class ExportedDocument extends BenchmarkDocument
+   {
+      @Setup(Level.Trial)
+      public void export() throws IOException
+      {
+         ExportSettings exportSettings = new ExportSettings(
+           canvasGraphics.getMessageDictionary());
+
+         StringWriter writer = new StringWriter();
+
+         SVG.save(image, "jdrbench", writer, exportSettings);
+
+         // The SVG reader doesn't accept a document type declaration
+         // so strip the one written by the SVG export.
+
+         svgData = writer.toString().replaceFirst("<!DOCTYPE[^>]*>", "");
+
+         writer = new StringWriter();
+         PrintWriter out = new PrintWriter(writer);
+
+         EPS.save(image, out, "jdrbench");
+         out.flush();
+
+         epsData = writer.toString();
+      }
+
+      public String svgData, epsData;
+   }
+
+   @Benchmark
+   public JDRGroup loadSVG(ExportedDocument doc) throws Exception
+   {
+      CanvasGraphics cg = doc.createCanvasGraphics();
+
+      return SVG.load(cg, doc.bitmapDir, new StringReader(doc.svgData),
+        new ImportSettings(cg.getMessageDictionary()));
+   }
+
+   @Benchmark
+   public JDRGroup loadEPS(ExportedDocument doc) throws Exception
+   {
+      CanvasGraphics cg = doc.createCanvasGraphics();
+
+      return EPS.load(cg, new BufferedReader(new StringReader(doc.epsData)),
+        new ImportSettings(cg.getMessageDictionary()));
+   }
+}
@@ -0,0 +1,112 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrbench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dickimawbooks.jdr.*;
+import com.dickimawbooks.jdr.io.*;
+import com.dickimawbooks.jdr.exceptions.*;
+
+/**
+ * Benchmarks loading and saving in the native JDR (binary) and
+ * AJR (text) formats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(value=1, jvmArgsAppend={"-Djava.awt.headless=true"})
+public class JDRAJRBenchmark
+{
+   @State(Scope.Benchmark)
+   public static class SavedDocument extends BenchmarkDocument
+   {
+      @Setup(Level.Trial)
+      public void save() throws IOException
+      {
+         ByteArrayOutputStream bout = new ByteArrayOutputStream();
+         DataOutputStream dout = new DataOutputStream(bout);
+
+         new JDR().save(image, dout, JDR.ALL_SETTINGS);
+         dout.flush();
+
+         jdrData = bout.toByteArray();
+
+         StringWriter writer = new StringWriter();
+         PrintWriter out = new PrintWriter(writer);
+
+         new AJR().save(image, out, StandardCharsets.UTF_8, JDR.ALL_SETTINGS);
+         out.flush();
+
+         ajrData = writer.toString();
+      }
+
+      public byte[] jdrData;
+      public String ajrData;
+   }
+
+   @Benchmark
+   public byte[] saveJDR(SavedDocument doc) throws IOException
+   {
+      ByteArrayOutputStream bout = new ByteArrayOutputStream(doc.jdrData.length);
+      DataOutputStream dout = new DataOutputStream(bout);
+
+      new JDR().save(doc.image, dout, JDR.ALL_SETTINGS);
+      dout.flush();
+
+      return bout.toByteArray();
+   }
+
+   @Benchmark
+   public JDRGroup loadJDR(SavedDocument doc) throws IOException,InvalidFormatException
+   {
+      JDR jdr = new JDR();
+      jdr.setBaseDir(doc.bitmapDir);
+
+      return jdr.load(new DataInputStream(
+        new ByteArrayInputStream(doc.jdrData)), doc.createCanvasGraphics());
+   }
+
+   @Benchmark
+   public String saveAJR(SavedDocument doc) throws IOException
+   {
+      StringWriter writer = new StringWriter(doc.ajrData.length());
+      PrintWriter out = new PrintWriter(writer);
+
+      new AJR().save(doc.image, out, StandardCharsets.UTF_8, JDR.ALL_SETTINGS);
+      out.flush();
+
+      return writer.toString();
+   }
+
+   @Benchmark
+   public JDRGroup loadAJR(SavedDocument doc) throws IOException,InvalidFormatException
+   {
+      AJR ajr = new AJR();
+      ajr.setBaseDir(doc.bitmapDir);
+
+      return ajr.load(new BufferedReader(new StringReader(doc.ajrData)),
+        StandardCharsets.UTF_8, doc.createCanvasGraphics());
+   }
+}
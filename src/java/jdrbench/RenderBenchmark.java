@@ -0,0 +1,102 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrbench;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dickimawbooks.jdr.*;
+
+/**
+ * Benchmarks drawing into an offscreen image, printing (as used
+ * by PNG export) and computing the bounding box.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2)
+@Measurement(iterations=5, time=2)
+@Fork(value=1, jvmArgsAppend={"-Djava.awt.headless=true"})
+public class RenderBenchmark
+{
+   @State(Scope.Benchmark)
+   public static class Offscreen extends BenchmarkDocument
+   {
+      @Setup(Level.Trial)
+      public void createImage()
+      {
+         offscreen = new BufferedImage(
+           (int)Math.ceil(canvasGraphics.getPaperWidth()),
+           (int)Math.ceil(canvasGraphics.getPaperHeight()),
+           BufferedImage.TYPE_INT_RGB);
+
+         g2 = offscreen.createGraphics();
+
+         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                             RenderingHints.VALUE_ANTIALIAS_ON);
+         g2.setRenderingHint(RenderingHints.KEY_RENDERING,
+                             RenderingHints.VALUE_RENDER_QUALITY);
+
+         canvasGraphics.setGraphicsDevice(g2);
+      }
+
+      @Setup(Level.Invocation)
+      public void clear()
+      {
+         g2.setColor(Color.white);
+         g2.fillRect(0, 0, offscreen.getWidth(), offscreen.getHeight());
+      }
+
+      @TearDown(Level.Trial)
+      public void dispose()
+      {
+         canvasGraphics.setGraphicsDevice(null);
+         g2.dispose();
+      }
+
+      public BufferedImage offscreen;
+      public Graphics2D g2;
+   }
+
+   @Benchmark
+   public BufferedImage draw(Offscreen state)
+   {
+      state.image.draw(false);
+
+      return state.offscreen;
+   }
+
+   @Benchmark
+   public BufferedImage print(Offscreen state)
+   {
+      state.image.print(state.g2);
+
+      return state.offscreen;
+   }
+
+   @Benchmark
+   public BBox storageBBox(BenchmarkDocument state)
+   {
+      return state.image.getStorageBBox();
+   }
+}
@@ -0,0 +1,8 @@
+/**
+ * Provides JMH benchmarks for the jdr library.
+ * <p>
+ * The benchmarks run over synthetic documents created by 
+ * {@link com.dickimawbooks.jdrbench.DocumentGenerator}.
+ * Use <code>make bench</code> to run them.
+*/
+package com.dickimawbooks.jdrbench;
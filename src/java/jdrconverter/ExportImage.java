@@ -169,11 +169,12 @@ public abstract class ExportImage
       return basename;
    }
 
-   protected void createTeXFile(PrintWriter out)
-     throws IOException,
-     MissingTypeBlockException,
-     InvalidShapeException,
-     MissplacedTypeBlockException
+   /**
+    * Gets the directory used to resolve relative bitmap links.
+    * This is the directory containing the input file.
+    * @return the base directory
+    */
+   protected File getBaseDirectory()
    {
       File src = converter.getInputFile();
       File base = src.getParentFile();
@@ -183,6 +184,17 @@ public abstract class ExportImage
          base = src.getAbsoluteFile().getParentFile();
       }
 
+      return base;
+   }
+
+   protected void createTeXFile(PrintWriter out)
+     throws IOException,
+     MissingTypeBlockException,
+     InvalidShapeException,
+     MissplacedTypeBlockException
+   {
+      File base = getBaseDirectory();
+
       String preamble = converter.getConfigPreamble();
 
       if (preamble == null)
@@ -240,8 +252,48 @@ public abstract class ExportImage
          out.close();
          out = null;
 
+         ExportCache cache = converter.getExportCache();
+         String cacheKey = null;
+         String extension = ExportCache.getExtension(outputFile);
+
+         if (cache != null)
+         {
+            cacheKey = cache.computeKey(texFile,
+              converter.getExportSettings(), image,
+              getBaseDirectory().toPath());
+
+            File cached = cache.get(cacheKey, extension);
+
+            if (cached != null)
+            {
+               converter.verboseln(converter.getMessageWithFallback(
+                 "info.export_cache_hit", "Using cached export for {0}",
+                 outputFile));
+
+               Files.copy(cached.toPath(), outputFile.toPath(),
+                  StandardCopyOption.REPLACE_EXISTING);
+
+               return;
+            }
+         }
+
          File result = processImage(texBase);
 
+         if (cacheKey != null && result != null && result.isFile())
+         {
+            // exec() throws an exception if a process fails so
+            // only successful results get here
+
+            try
+            {
+               cache.put(cacheKey, extension, result);
+            }
+            catch (IOException e)
+            {
+               converter.debug(e.getMessage(), e);
+            }
+         }
+
          if (result != null)
          {
             converter.verboseln(
@@ -658,6 +658,8 @@ public class JDRConverter
 
       helpLib.printSyntaxItem(getMessage("syntax.rm-tmp-files", "--[no-]rm-tmp-files"));
 
+      helpLib.printSyntaxItem(getMessage("syntax.export-cache", "--[no-]export-cache"));
+
       helpLib.printSyntaxItem(getMessage("clisyntax.version2", "--version", "-V"));
 
       helpLib.printSyntaxItem(getMessage("clisyntax.help2", "--help", "-h"));
@@ -983,6 +985,14 @@ public class JDRConverter
             {
                removeTempFiles = false;
             }
+            else if (arg.equals("--export-cache"))
+            {
+               useExportCache = true;
+            }
+            else if (arg.equals("--no-export-cache"))
+            {
+               useExportCache = false;
+            }
             else if (arg.equals("--no-settings"))
             {
                saveSettingsType = SaveSettingsType.NONE;
@@ -1669,7 +1679,7 @@ public class JDRConverter
 
          in = Files.newBufferedReader(inFile.toPath(), inCharset);
       }
-      else
+      else if (inFormat != FileFormatType.ACORN_DRAWFILE)
       {
          din = new DataInputStream(new BufferedInputStream(new FileInputStream(inFile)));
       }
@@ -1728,7 +1738,7 @@ public class JDRConverter
                paths = SVG.load(canvasGraphics, inDir, in, importSettings);
             break;
             case ACORN_DRAWFILE:
-               paths = loadAcornDrawFile(din, canvasGraphics);
+               paths = loadAcornDrawFile(inFile, canvasGraphics);
                settingsFlag = JDR.ALL_SETTINGS;
             break;
             default:
@@ -1922,10 +1932,10 @@ public class JDRConverter
       msgPublisher.clearEol();
    }
 
-   protected JDRGroup loadAcornDrawFile(DataInputStream din, CanvasGraphics canvasGraphics)
+   protected JDRGroup loadAcornDrawFile(File file, CanvasGraphics canvasGraphics)
      throws IOException,InvalidFormatException
    {
-      AcornDrawFile adf = new AcornDrawFile(canvasGraphics, din, importSettings);
+      AcornDrawFile adf = new AcornDrawFile(canvasGraphics, file, importSettings);
 
       if (importSettings.useMappings)
       {
@@ -2279,6 +2289,22 @@ public class JDRConverter
       return removeTempFiles;
    }
 
+   /**
+    * Gets the cache used for exports that require external
+    * processes.
+    * @return the cache or null if the cache is off or there's no
+    * configuration directory
+    */
+   public ExportCache getExportCache()
+   {
+      if (exportCache == null && useExportCache && userConfigDir != null)
+      {
+         exportCache = new ExportCache(new File(userConfigDir, "exportcache"));
+      }
+
+      return useExportCache ? exportCache : null;
+   }
+
    public void shutdown()
    {
       if (msgPublisher != null)
@@ -2329,6 +2355,8 @@ public class JDRConverter
    protected boolean debugMode = false;
    protected boolean silent = false;
    protected boolean removeTempFiles = true;
+   protected boolean useExportCache = true; // --[no-]export-cache
+   private ExportCache exportCache = null;
    protected boolean shownVersion = false;
    protected File inFile, outFile; // --in / -i , --output / -o
 
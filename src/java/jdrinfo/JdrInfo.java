@@ -28,7 +28,10 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.io.FileNotFoundException;
 
+import java.text.DecimalFormat;
+
 import java.util.Locale;
+import java.util.Map;
 import java.util.Vector;
 
 import com.dickimawbooks.texjavahelplib.TeXJavaHelpLib;
@@ -45,8 +48,10 @@ import com.dickimawbooks.jdr.exceptions.*;
 import com.dickimawbooks.jdrresources.JDRResources;
 
 /**
- * Gets information about a JDR or AJR file.
- * TODO: add options to obtain extra information (via JDRAJR.FileInfo)
+ * Gets information about a JDR or AJR file. With the
+ * <code>--stats</code> option, a summary of the image contents is
+ * also shown. The summary is collected as each object is read, so
+ * the image isn't kept in memory.
  * @author Nicola L C Talbot
  */
 public class JdrInfo implements FileFilter
@@ -236,6 +241,8 @@ public class JdrInfo implements FileFilter
 
       System.out.println();
 
+      helpLib.printSyntaxItem(getMessage("syntax.stats", "--[no]stats", "-s"));
+
       helpLib.printSyntaxItem(getMessage("syntax.debug", "--[no]debug"));
 
       helpLib.printSyntaxItem(getMessage("clisyntax.version2", "--version", "-v"));
@@ -317,9 +324,21 @@ public class JdrInfo implements FileFilter
 
       try
       {
-         String fileFormat = JDRAJR.getFileFormat(canvasGraphics, file);
+         if (showStatistics)
+         {
+            JDRAJR.FileInfo info = JDRAJR.FileInfo.parseFile(canvasGraphics,
+              file, JDRAJR.FileInfo.STATISTICS_FLAG);
+
+            System.out.println(file.toString()+": "+info.getFileFormat());
+
+            printStatistics(info.getStatistics());
+         }
+         else
+         {
+            String fileFormat = JDRAJR.getFileFormat(canvasGraphics, file);
 
-         System.out.println(file.toString()+": "+fileFormat);
+            System.out.println(file.toString()+": "+fileFormat);
+         }
       }
       catch (InvalidFormatException e)
       {
@@ -331,6 +350,85 @@ public class JdrInfo implements FileFilter
       }
    }
 
+   private void printStatistics(DocumentStatistics stats)
+   {
+      printStatistic(getMessageWithFallback("stats.storage_unit",
+        "Storage unit: {0}", stats.getStorageUnit().getLabel()));
+
+      printStatistic(getMessageWithFallback("stats.objects",
+        "Objects: {0}", stats.getObjectCount()));
+
+      for (int i = 0; i < OBJECT_TYPES.length; i++)
+      {
+         int count = stats.getObjectCount(i);
+
+         if (count > 0)
+         {
+            printStatistic("  "+getMessageWithFallback(
+              "stats.objects."+OBJECT_TYPES[i],
+              OBJECT_TYPES[i]+": {0}", count));
+         }
+      }
+
+      printStatistic(getMessageWithFallback("stats.segments",
+        "Segments: {0}", stats.getSegmentCount()));
+
+      printStatistic(getMessageWithFallback("stats.characters",
+        "Characters: {0}", stats.getCharacterCount()));
+
+      printStatistic(getMessageWithFallback("stats.flowframes",
+        "Flow frames: {0}", stats.getFlowFrameCount()));
+
+      Map<String,Integer> fonts = stats.getFonts();
+
+      if (!fonts.isEmpty())
+      {
+         StringBuilder builder = new StringBuilder();
+
+         for (Map.Entry<String,Integer> entry : fonts.entrySet())
+         {
+            if (builder.length() > 0)
+            {
+               builder.append(", ");
+            }
+
+            builder.append(getMessageWithFallback("stats.font_count",
+              "{0} ({1})", entry.getKey(), entry.getValue()));
+         }
+
+         printStatistic(getMessageWithFallback("stats.fonts",
+           "Fonts: {0}", builder));
+      }
+
+      Map<String,Integer> bitmapFiles = stats.getBitmapFiles();
+
+      if (!bitmapFiles.isEmpty())
+      {
+         printStatistic(getMessageWithFallback("stats.bitmap_files",
+           "Bitmap files: {0}", bitmapFiles.size()));
+      }
+
+      BBox box = stats.getStorageBBox();
+
+      if (box == null)
+      {
+         printStatistic(getMessageWithFallback("stats.bounds",
+           "Bounds: {0}", getMessageWithFallback("stats.empty", "empty")));
+      }
+      else
+      {
+         printStatistic(getMessageWithFallback("stats.bounds",
+           "Bounds: {0}", String.format("%s %s %s %s",
+            df.format(box.getMinX()), df.format(box.getMinY()),
+            df.format(box.getMaxX()), df.format(box.getMaxY()))));
+      }
+   }
+
+   private void printStatistic(String line)
+   {
+      System.out.println("  "+line);
+   }
+
    protected void run() throws IOException
    {
       canvasGraphics = new CanvasGraphics(
@@ -447,7 +545,15 @@ public class JdrInfo implements FileFilter
          protected boolean parseArg(String arg, CLIArgValue[] returnVals)
          throws InvalidSyntaxException
          {
-            if (isArg(arg, "--in", "-i", returnVals))
+            if (arg.equals("--stats") || arg.equals("-s"))
+            {
+               showStatistics = true;
+            }
+            else if (arg.equals("--nostats") || arg.equals("--no-stats"))
+            {
+               showStatistics = false;
+            }
+            else if (isArg(arg, "--in", "-i", returnVals))
             {
                if (returnVals[0] == null)
                {
@@ -504,6 +610,7 @@ public class JdrInfo implements FileFilter
    protected boolean shownVersion = false;
    protected boolean debugMode = false;
    protected int verboseLevel = 0;
+   protected boolean showStatistics = false;
 
    private Vector<String> inFileNames;
 
@@ -513,4 +620,12 @@ public class JdrInfo implements FileFilter
    private CanvasGraphics canvasGraphics;
 
    public static final String NAME = "jdrinfo";
+
+   private static final String[] OBJECT_TYPES = new String[]
+   {
+      "groups", "paths", "text", "textpaths", "symmetricpaths",
+      "patterns", "bitmaps", "other"
+   };
+
+   private static final DecimalFormat df = new DecimalFormat("0.##");
 }
@@ -230,11 +230,13 @@ public class JDRGuiMessage extends JDRMessagePublisher
    public void suspend()
    {
       isSuspended = true;
+      getProgressBus().setEnabled(false);
    }
 
    public void resume()
    {
       isSuspended = false;
+      getProgressBus().setEnabled(true);
    }
 
    public void setIndeterminate(boolean indeterminate)
@@ -296,6 +298,8 @@ public class JDRGuiMessage extends JDRMessagePublisher
    {
       if (isSuspended || !isInitialised) return 0;
 
+      getProgressBus().flush();
+
       return progressBar.getValue();
    }
 
@@ -648,12 +652,13 @@ public class JDRGuiMessage extends JDRMessagePublisher
    {
    }
 
-   public void publishMessages(MessageInfo... chunks)
+   @Override
+   protected void dispatchMessages(MessageInfo... chunks)
    {
       if (isSuspended || !isInitialised) return;
 
-      int max = getMaxProgress();
-      int progress = getProgress();
+      int max = progressBar.getMaximum();
+      int progress = progressBar.getValue();
       boolean indeterminate = isIndeterminate();
 
       for (MessageInfo info : chunks)
@@ -0,0 +1,101 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+package com.dickimawbooks.jdrresources;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+import java.awt.print.PrinterException;
+import java.util.HashMap;
+
+import com.dickimawbooks.jdr.DisplayList;
+import com.dickimawbooks.jdr.RecordingGraphics2D;
+
+/**
+ * Printable that only asks the source to draw each page once. The
+ * print system may call {@link #print(Graphics,PageFormat,int)}
+ * several times for the same page (once for each band of a banded
+ * printer, once for each copy and an initial call to determine the
+ * page's capabilities). The first time a page is requested, the
+ * source draws it on a {@link RecordingGraphics2D} and the
+ * resulting display list is replayed for that call and any
+ * subsequent call for the same page.
+ * <p>
+ * The spooler should only be used for the duration of a single
+ * print job, as it assumes the image doesn't change once a page
+ * has been recorded.
+ */
+public class PrintSpooler implements Printable
+{
+   public PrintSpooler(Printable source)
+   {
+      if (source == null)
+      {
+         throw new NullPointerException();
+      }
+
+      this.source = source;
+   }
+
+   @Override
+   public int print(Graphics g, PageFormat pf, int pageIndex)
+     throws PrinterException
+   {
+      if (!(g instanceof Graphics2D))
+      {
+         return source.print(g, pf, pageIndex);
+      }
+
+      Graphics2D g2 = (Graphics2D)g;
+
+      DisplayList list = pages.get(Integer.valueOf(pageIndex));
+
+      if (list == null)
+      {
+         RecordingGraphics2D recorder = new RecordingGraphics2D(g2);
+
+         int result = source.print(recorder, pf, pageIndex);
+
+         if (result != PAGE_EXISTS)
+         {
+            return result;
+         }
+
+         list = recorder.getDisplayList();
+         pages.put(Integer.valueOf(pageIndex), list);
+      }
+
+      list.replay(g2);
+
+      return PAGE_EXISTS;
+   }
+
+   /**
+    * Discards all recorded pages.
+    */
+   public void clear()
+   {
+      pages.clear();
+   }
+
+   private Printable source;
+   private HashMap<Integer,DisplayList> pages
+     = new HashMap<Integer,DisplayList>();
+}
@@ -116,6 +116,19 @@ public class JDRPropertiesDialog extends JDialog
       row.add(boundsLabel);
       row.add(boundsField);
 
+      // Image contents
+
+      row = Box.createHorizontalBox();
+      row.setAlignmentX(0);
+      mainComp.add(row);
+
+      contentsField = createField();
+
+      contentsLabel = helpLib.createJLabel(labelGrp,
+          "fileproperties.contents", contentsField);
+      row.add(contentsLabel);
+      row.add(contentsField);
+
       // Paper size
 
       row = Box.createHorizontalBox();
@@ -193,7 +206,7 @@ public class JDRPropertiesDialog extends JDialog
    }
 
    public void display(File file, String format, JDRGroup image,
-      JDRPaper paper)
+      DocumentStatistics stats, JDRPaper paper)
    {
       nameField.setText(file.getName());
 
@@ -232,14 +245,21 @@ public class JDRPropertiesDialog extends JDialog
          DateFormat.getDateInstance().format(
             new Date(file.lastModified())));
 
-      if (image == null)
+      if (image == null || stats == null)
       {
          boundsField.setText(
             getResources().getMessage("fileproperties.empty"));
+         contentsField.setText("");
       }
       else
       {
-         BBox box = image.getStorageBBox();
+         contentsField.setText(getResources().getMessage(
+            "fileproperties.contents_summary",
+            stats.getObjectCount(), stats.getSegmentCount(),
+            stats.getCharacterCount(),
+            stats.getObjectCount(DocumentStatistics.BITMAP)));
+
+         BBox box = stats.getStorageBBox();
 
          if (box == null)
          {
@@ -279,10 +299,10 @@ public class JDRPropertiesDialog extends JDialog
    private JDRView app;
 
    private JLabel nameLabel, sizeLabel, formatLabel, boundsLabel,
-      descriptionLabel, modifiedLabel, paperLabel;
+      contentsLabel, descriptionLabel, modifiedLabel, paperLabel;
 
    private JTextField nameField, sizeField, formatField, boundsField,
-      descriptionField, modifiedField, paperField;
+      contentsField, descriptionField, modifiedField, paperField;
 
    private static DecimalFormat df = new DecimalFormat("0.##");
 }
@@ -27,6 +27,8 @@
 package com.dickimawbooks.jdrview;
 
 import java.io.*;
+import java.util.List;
+import java.util.Vector;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
@@ -208,6 +210,12 @@ public class JDRView extends JFrame
 
       setAntiAlias(antiAlias);
 
+      // progressive loading
+
+      progressiveItem = helpLib.createJCheckBoxMenuItem("menu.settings",
+       "progressive", true, this);
+      settingsM.add(progressiveItem);
+
       // Zoom sub menu
 
       zoomM = helpLib.createJMenu("menu.settings.zoom");
@@ -318,6 +326,22 @@ public class JDRView extends JFrame
       // initialise panel
       panel = new JDRViewPanel(this);
 
+      if (panel.getRenderStatistics() != null)
+      {
+         // write the render-time statistics when the window is
+         // closed, while still on the event dispatch thread (a
+         // shutdown hook can't wait for it as the exit is initiated
+         // on that thread)
+
+         addWindowListener(new WindowAdapter()
+         {
+            public void windowClosing(WindowEvent evt)
+            {
+               writeRenderStatistics();
+            }
+         });
+      }
+
       scrollPane = new JScrollPane(panel);
 
       getContentPane().add(scrollPane);
@@ -531,7 +555,7 @@ public class JDRView extends JFrame
          if (currentFile != null)
          {
             propertiesDialog.display(currentFile, currentFormat,
-               image, (settingsFlag == JDR.NO_SETTINGS ? null :
+               image, getStatistics(), (settingsFlag == JDR.NO_SETTINGS ? null :
                getPaper()));
          }
       }
@@ -541,6 +565,7 @@ public class JDRView extends JFrame
       }
       else if (source == quitItem)
       {
+         writeRenderStatistics();
          getResources().closeLogWriter();
          System.exit(0);
       }
@@ -642,7 +667,7 @@ public class JDRView extends JFrame
          // obtain printer job
          PrinterJob printJob = PrinterJob.getPrinterJob();
 
-         printJob.setPrintable(this);
+         printJob.setPrintable(new PrintSpooler(this));
 
          try
          {
@@ -1012,6 +1037,27 @@ public class JDRView extends JFrame
       return image;
    }
 
+   /**
+    * Gets the objects received so far while an image is being
+    * loaded progressively.
+    * @return the objects received so far or null if an image
+    * isn't being loaded progressively or the loader hasn't started
+    * reading the objects
+    */
+   public Vector<JDRCompleteObject> getLoadingObjects()
+   {
+      return loadingObjects;
+   }
+
+   /**
+    * Gets the canvas graphics used by the viewer.
+    * @return the canvas graphics
+    */
+   public CanvasGraphics getCanvasGraphics()
+   {
+      return canvasGraphics;
+   }
+
    /**
     * Adds handbook to the given menu.
     */
@@ -1030,15 +1076,26 @@ public class JDRView extends JFrame
 
       try
       {
+         boolean isAJR;
+
          if (lc.endsWith(".jdr"))
          {
-            loadJDRImage(file);
+            isAJR = false;
          }
          else if (lc.endsWith(".ajr"))
          {
-            loadAJRImage(file);
+            isAJR = true;
+         }
+         else
+         {
+            isAJR = AJR.isAJR(file);
+         }
+
+         if (progressiveItem.isSelected())
+         {
+            loadImageProgressively(file, isAJR);
          }
-         else if (AJR.isAJR(file))
+         else if (isAJR)
          {
             loadAJRImage(file);
          }
@@ -1054,12 +1111,34 @@ public class JDRView extends JFrame
    }
 
    /**
-    * Loads image from given filename (JDR format).
+    * Starts loading the given file in the background. The objects
+    * are displayed in batches as they are loaded.
     * @param file the file containing the image
+    * @param isAJR true if the file is in AJR format
     */
-   public void loadJDRImage(File file)
-     throws InvalidFormatException,IOException
+   public void loadImageProgressively(File file, boolean isAJR)
+   {
+      startLoading(file);
+
+      propertiesItem.setEnabled(false);
+      printItem.setEnabled(false);
+
+      loader = new ProgressiveImageLoader(this, file, isAJR,
+         createLoaderCanvasGraphics());
+      loader.execute();
+   }
+
+   /**
+    * Resets the current image before a new file is loaded.
+    */
+   private void startLoading(File file)
    {
+      if (loader != null)
+      {
+         loader.cancel(false);
+         loader = null;
+      }
+
       currentFile = file;
       currentFormat = "?";
 
@@ -1068,38 +1147,191 @@ public class JDRView extends JFrame
       reloadItem.setEnabled(true);
       printItem.setEnabled(true);
       image=null;
+      loadingObjects=null;
+      statistics=null;
+   }
 
-      DataInputStream in=null;
+   /**
+    * Gets the statistics for the current image. These are
+    * collected as the objects are received from the progressive
+    * loader (using the bounds computed for display), otherwise
+    * they are collected the first time they're needed.
+    * @return the statistics or null if there's no image
+    */
+   public DocumentStatistics getStatistics()
+   {
+      if (statistics == null && image != null)
+      {
+         statistics = new DocumentStatistics(image.getCanvasGraphics());
 
-      try
+         for (int i = 0, n = image.size(); i < n; i++)
+         {
+            statistics.add(image.get(i));
+         }
+      }
+
+      return statistics;
+   }
+
+   /**
+    * Displays the objects received from the progressive loader. The
+    * objects belong to the loader's image, so they are kept in a
+    * separate list rather than added to a group (which would change
+    * their parent). A null object indicates that the loader has
+    * read the settings and is about to start loading the objects.
+    * @param source the loader
+    * @param chunks the loaded objects
+    */
+   void objectsLoaded(ProgressiveImageLoader source,
+      List<JDRCompleteObject> chunks)
+   {
+      if (source != loader)
       {
-         in = new DataInputStream(new BufferedInputStream(new FileInputStream(currentFile)));
+         return;
+      }
 
-         JDR jdr = new JDR();
+      Vector<JDRCompleteObject> objects 
+         = new Vector<JDRCompleteObject>(chunks.size());
 
-         image = jdr.load(in, canvasGraphics);
+      for (JDRCompleteObject object : chunks)
+      {
+         if (object == null)
+         {
+            // (re)starting so discard anything already received
 
-         currentFormat = "JDR "+jdr.getLastLoadedVersion();
+            applyLoadedSettings(source.getCanvasGraphics());
 
-         settingsFlag = jdr.getLastLoadedSettingsID();
+            loadingObjects = new Vector<JDRCompleteObject>();
+            statistics = new DocumentStatistics(canvasGraphics);
+            objects.clear();
 
-         if (settingsFlag == JDR.NO_SETTINGS)
+            setCurrentMagnification(magnification);
+         }
+         else
          {
-            BBox bounds = image.getBpBBox();
+            objects.add(object);
+         }
+      }
 
-            double width = (bounds == null ? 0 : Math.max(100, bounds.getMaxX()));
-            double height = (bounds == null ? 0 : Math.max(100, bounds.getMaxY()));
+      if (loadingObjects != null && !objects.isEmpty())
+      {
+         int startIndex = loadingObjects.size();
 
-            JDRPaper paper = JDRPaper.getClosestEnclosingPredefinedPaper(
-               width, height, jdr.getVersion());
+         // The objects were read into the loader's canvas graphics
+         // and the bounds are computed here rather than on the
+         // loader thread as text bounds depend on the graphics
+         // device.
 
-            if (paper == null)
-            {
-               paper = new JDRPaper(getMessageSystem(), width, height);
-            }
+         adoptObjects(objects);
+
+         Vector<BBox> bounds = new Vector<BBox>(objects.size());
 
-            canvasGraphics.setPaper(paper);
+         for (JDRCompleteObject object : objects)
+         {
+            BBox box = object.getStorageBBox();
+
+            loadingObjects.add(object);
+            bounds.add(box);
+            statistics.add(object, box);
          }
+
+         panel.objectsAdded(startIndex, objects, bounds);
+      }
+   }
+
+   /**
+    * Called when the progressive loader has finished.
+    * @param source the loader
+    * @param loadedImage the complete image and its details or null
+    * if the load failed or was cancelled
+    * @param cause the cause of failure or null
+    */
+   void loadingFinished(ProgressiveImageLoader source, LoadedImage loadedImage,
+      Throwable cause)
+   {
+      if (source != loader)
+      {
+         return;
+      }
+
+      loader = null;
+      image = null;
+
+      if (loadedImage != null)
+      {
+         setLoadedImage(loadedImage);
+
+         // the complete image contains the objects already displayed
+
+         panel.imageLoaded(loadingObjects, image);
+      }
+
+      loadingObjects = null;
+
+      if (image == null)
+      {
+         statistics = null;
+      }
+
+      if (cause != null)
+      {
+         getResources().error(this, cause);
+      }
+
+      propertiesItem.setEnabled(true);
+      printItem.setEnabled(image != null);
+
+      setCurrentMagnification(magnification);
+   }
+
+   /**
+    * Loads image from given filename (JDR format).
+    * @param file the file containing the image
+    */
+   public void loadJDRImage(File file)
+     throws InvalidFormatException,IOException
+   {
+      startLoading(file);
+
+      setLoadedImage(readJDRImage(file, createLoaderCanvasGraphics(), null));
+
+      setCurrentMagnification(magnification);
+   }
+
+   /**
+    * Reads image from given filename (JDR format). This doesn't
+    * update the display or the viewer settings so it may be called
+    * on a background thread. The result should be passed to
+    * {@link #setLoadedImage(LoadedImage)} on the event dispatch
+    * thread.
+    * @param file the file containing the image
+    * @param cg the canvas graphics to load the image into (see
+    * {@link #createLoaderCanvasGraphics()})
+    * @param listener the listener to notify as the objects are
+    * loaded or null if not required
+    * @return the image and its details
+    */
+   LoadedImage readJDRImage(File file, CanvasGraphics cg,
+      JDRImageLoadListener listener)
+     throws InvalidFormatException,IOException
+   {
+      LoadedImage loadedImage = null;
+
+      DataInputStream in=null;
+
+      try
+      {
+         in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+         JDR jdr = new JDR();
+
+         jdr.setImageLoadListener(listener);
+
+         JDRGroup group = jdr.load(in, cg);
+
+         loadedImage = new LoadedImage(group,
+            "JDR "+jdr.getLastLoadedVersion(),
+            jdr.getLastLoadedSettingsID(), jdr.getVersion(), false);
       }
       finally
       {
@@ -1109,7 +1341,7 @@ public class JDRView extends JFrame
          }
       }
 
-      setCurrentMagnification(magnification);
+      return loadedImage;
    }
 
    /**
@@ -1119,41 +1351,174 @@ public class JDRView extends JFrame
    public void loadAJRImage(File file)
      throws InvalidFormatException,IOException
    {
-      currentFile = file;
-      currentFormat = "?";
+      startLoading(file);
 
-      setTitle(invoker.getName()+" - "+file.toString());
-      propertiesItem.setEnabled(true);
-      reloadItem.setEnabled(true);
-      printItem.setEnabled(true);
+      setLoadedImage(readAJRImage(file, createLoaderCanvasGraphics(), null));
+
+      setCurrentMagnification(magnification);
+   }
 
+   /**
+    * Reads image from given filename (AJR format). This doesn't
+    * update the display or the viewer settings so it may be called
+    * on a background thread. The result should be passed to
+    * {@link #setLoadedImage(LoadedImage)} on the event dispatch
+    * thread.
+    * @param file the file containing the image
+    * @param cg the canvas graphics to load the image into (see
+    * {@link #createLoaderCanvasGraphics()})
+    * @param listener the listener to notify as the objects are
+    * loaded or null if not required
+    * @return the image and its details
+    */
+   LoadedImage readAJRImage(File file, CanvasGraphics cg,
+      JDRImageLoadListener listener)
+     throws InvalidFormatException,IOException
+   {
       AJR ajr = new AJR();
 
-      image = ajr.load(currentFile, canvasGraphics);
+      ajr.setImageLoadListener(listener);
 
-      currentFormat = "AJR "+ajr.getLastLoadedVersion();
+      JDRGroup group = ajr.load(file, cg);
 
-      settingsFlag = ajr.getLastLoadedSettingsID();
+      return new LoadedImage(group, "AJR "+ajr.getLastLoadedVersion(),
+         ajr.getLastLoadedSettingsID(), ajr.getVersion(), true);
+   }
+
+   /**
+    * Creates the canvas graphics that an image is loaded into. The
+    * reader changes the settings of the canvas graphics as it reads
+    * the file, so a background loader mustn't use the viewer's
+    * canvas graphics, which may be in use for painting. The new
+    * canvas graphics has no graphics device. This should be called
+    * on the event dispatch thread.
+    * @return new canvas graphics with the viewer's settings
+    */
+   CanvasGraphics createLoaderCanvasGraphics()
+   {
+      CanvasGraphics cg = (CanvasGraphics)canvasGraphics.clone();
+      cg.setGraphicsDevice(null);
+
+      return cg;
+   }
+
+   /**
+    * Copies the settings read from a file from the canvas graphics
+    * the image was loaded into to the viewer's canvas graphics.
+    * This should be called on the event dispatch thread.
+    * @param cg the canvas graphics the image was loaded into
+    */
+   void applyLoadedSettings(CanvasGraphics cg)
+   {
+      canvasGraphics.setStorageUnit(cg.getStorageUnit());
+      canvasGraphics.setPaper(cg.getPaper());
+      canvasGraphics.setLaTeXNormalSize(cg.getLaTeXNormalSize());
+      canvasGraphics.setPreamble(cg.getPreamble());
+      canvasGraphics.setMidPreamble(cg.getMidPreamble());
+      canvasGraphics.setEndPreamble(cg.getEndPreamble());
+      canvasGraphics.setDocBody(cg.getDocBody());
+      canvasGraphics.setMagicComments(cg.getMagicComments());
+      canvasGraphics.setDocClass(cg.getDocClass());
+      canvasGraphics.setUseAbsolutePages(cg.useAbsolutePages());
+      canvasGraphics.setClipTag(cg.getClipTag());
+   }
+
+   /**
+    * Moves the given objects from the canvas graphics they were
+    * loaded into to the viewer's canvas graphics (which should
+    * already have the loaded settings) and updates their bounds.
+    * Text bounds depend on the graphics device, so the panel's
+    * graphics is used while the bounds are updated. This should be
+    * called on the event dispatch thread.
+    * @param objects the objects
+    */
+   private void adoptObjects(List<? extends JDRCompleteObject> objects)
+   {
+      Graphics2D oldDevice = canvasGraphics.getGraphics();
+      Graphics2D g2 = (Graphics2D)panel.getGraphics();
+
+      if (g2 != null)
+      {
+         g2.setRenderingHints(getRenderingHints());
+         canvasGraphics.setGraphicsDevice(g2);
+      }
+
+      try
+      {
+         for (JDRCompleteObject object : objects)
+         {
+            object.applyCanvasGraphics(canvasGraphics);
+            object.updateBounds();
+         }
+      }
+      finally
+      {
+         if (g2 != null)
+         {
+            canvasGraphics.setGraphicsDevice(oldDevice);
+            g2.dispose();
+         }
+      }
+   }
+
+   /**
+    * Makes the given image the current image and applies its
+    * format and settings. If the file didn't include the paper
+    * size, the paper is chosen to fit the image. This should be
+    * called on the event dispatch thread.
+    * @param loadedImage the image and its details
+    */
+   void setLoadedImage(LoadedImage loadedImage)
+   {
+      JDRGroup group = loadedImage.getImage();
+
+      if (group.getCanvasGraphics() != canvasGraphics)
+      {
+         applyLoadedSettings(group.getCanvasGraphics());
+
+         Vector<JDRCompleteObject> objects = new Vector<JDRCompleteObject>(1);
+         objects.add(group);
+         adoptObjects(objects);
+      }
+
+      image = group;
+      currentFormat = loadedImage.getFormat();
+      settingsFlag = loadedImage.getSettingsFlag();
 
       if (settingsFlag == JDR.NO_SETTINGS)
       {
          BBox bounds = image.getBpBBox();
 
-         double width = Math.max(100, bounds.getMaxX());
-         double height = Math.max(100, bounds.getMinX());
+         double width = (bounds == null ? 0 : Math.max(100, bounds.getMaxX()));
+         JDRPaper paper;
 
-         JDRPaper paper = JDRPaper.getClosestPredefinedPaper(
-            width, height, ajr.getVersion());
+         if (loadedImage.isAJR())
+         {
+            double height = (bounds == null ? 0 : Math.max(100, bounds.getMinX()));
 
-         if (paper == null)
+            paper = JDRPaper.getClosestPredefinedPaper(
+               width, height, loadedImage.getVersion());
+
+            if (paper == null)
+            {
+               paper = new JDRPaper(getMessageSystem(), width, height);
+            }
+         }
+         else
          {
-            paper = new JDRPaper(getMessageSystem(), width, height);
+            double height = (bounds == null ? 0 : Math.max(100, bounds.getMaxY()));
+
+            paper = JDRPaper.getClosestEnclosingPredefinedPaper(
+               width, height, loadedImage.getVersion());
+
+            if (paper == null)
+            {
+               paper = new JDRPaper(getMessageSystem(), width, height);
+            }
          }
 
          canvasGraphics.setPaper(paper);
       }
-
-      setCurrentMagnification(magnification);
    }
 
    @Deprecated
@@ -1167,6 +1532,25 @@ public class JDRView extends JFrame
       return invoker.getResources();
    }
 
+   /**
+    * Writes the render-time statistics in JSON format to STDOUT.
+    * Statistics are only recorded in debug mode. This should be
+    * called on the event dispatch thread.
+    */
+   public void writeRenderStatistics()
+   {
+      RenderStatistics stats = panel.getRenderStatistics();
+
+      if (stats != null)
+      {
+         PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out));
+
+         stats.writeJSON(out);
+         out.println();
+         out.flush();
+      }
+   }
+
    public JDRGuiMessage getMessageSystem()
    {
       return invoker.getMessageSystem();
@@ -1176,6 +1560,8 @@ public class JDRView extends JFrame
    private String currentFormat="";
 
    private JDRGroup image=null;
+   private Vector<JDRCompleteObject> loadingObjects=null;
+   private DocumentStatistics statistics=null;
    private CanvasGraphics canvasGraphics;
 
    private int settingsFlag=JDRAJR.NO_SETTINGS;
@@ -1191,7 +1577,7 @@ public class JDRView extends JFrame
       zoomWidthItem, zoomHeightItem, zoomPageItem,
       propertiesItem, printItem;
 
-   private JCheckBoxMenuItem antiAliasItem;
+   private JCheckBoxMenuItem antiAliasItem, progressiveItem;
 
    private JRadioButtonMenuItem zoomSettingsItem, zoom25Item,
       zoom50Item, zoom75Item, zoom100Item, zoom200Item, zoom400Item,
@@ -1211,4 +1597,6 @@ public class JDRView extends JFrame
    private HashPrintRequestAttributeSet printRequestAttributeSet;
 
    private JDRViewInvoker invoker;
+
+   private ProgressiveImageLoader loader = null;
 }
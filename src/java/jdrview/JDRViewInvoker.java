@@ -112,6 +112,9 @@ public class JDRViewInvoker
       helpLib.printSyntaxItem(
          helpLib.getMessage("syntax.cwd", "--cwd"));
 
+      helpLib.printSyntaxItem(
+         helpLib.getMessage("syntax.debug", "--[no]debug"));
+
       helpLib.printSyntaxItem(
          helpLib.getMessage("syntax.in", "--in", "-i"));
 
@@ -163,6 +166,38 @@ public class JDRViewInvoker
             System.exit(0);
          }
 
+         @Override
+         public boolean setDebugOption(String option, Integer value)
+         throws InvalidSyntaxException
+         {
+            resources.debugMode = true;
+
+            return true;
+         }
+
+         @Override
+         protected boolean preparseCheckArg()
+         throws InvalidSyntaxException
+         {
+            if (super.preparseCheckArg())
+            {
+               return true;
+            }
+
+            if (originalArgList[preparseIndex].equals("--nodebug")
+                   || originalArgList[preparseIndex].equals("--no-debug")
+                    )
+            {
+               resources.debugMode = false;
+            }
+            else
+            {
+               return false;
+            }
+
+            return true;
+         }
+
          @Override
          protected void version()
          {
@@ -25,6 +25,7 @@
 package com.dickimawbooks.jdrview;
 
 import java.io.*;
+import java.util.Vector;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
@@ -50,6 +51,11 @@ public class JDRViewPanel extends JPanel
 
       setBackground(Color.lightGray);
 
+      if (app.getResources().debugMode)
+      {
+         renderStatistics = new RenderStatistics();
+      }
+
       ToolTipManager toolTipManager = ToolTipManager.sharedInstance();
 
       toolTipManager.registerComponent(this);
@@ -104,17 +110,29 @@ public class JDRViewPanel extends JPanel
       super.paintComponent(g);
 
       JDRGroup paths = app.getImage();
+      Vector<JDRCompleteObject> loadingObjects = app.getLoadingObjects();
 
-      if (paths == null)
+      if (paths == null && loadingObjects == null)
       {
          return;
       }
 
       Graphics2D g2 = (Graphics2D)g;
 
-      CanvasGraphics cg = paths.getCanvasGraphics();
+      Rectangle rect = g.getClipBounds();
+
+      long paintStartTime = 0L;
+
+      if (renderStatistics != null)
+      {
+         paintStartTime = renderStatistics.start();
+         renderStatistics.beginPaint();
+      }
+
+      CanvasGraphics cg = app.getCanvasGraphics();
 
       cg.setGraphicsDevice(g2);
+      cg.setRenderStatistics(renderStatistics);
 
       AffineTransform oldAf = g2.getTransform();
       Stroke oldStroke = g2.getStroke();
@@ -125,6 +143,17 @@ public class JDRViewPanel extends JPanel
       double storageToCompYScale = cg.storageToComponentY(1.0);
       double bpToStorage = cg.bpToStorage(1.0);
 
+      Rectangle2D clipBounds = null;
+
+      if (rect != null)
+      {
+         clipBounds = new Rectangle2D.Double(
+            rect.getX()/storageToCompXScale,
+            rect.getY()/storageToCompYScale,
+            rect.getWidth()/storageToCompXScale,
+            rect.getHeight()/storageToCompYScale);
+      }
+
       double bpPaperWidth = cg.getPaperWidth();
       double bpPaperHeight = cg.getPaperHeight();
 
@@ -143,7 +172,7 @@ public class JDRViewPanel extends JPanel
 
       g2.setPaint(Color.lightGray);
 
-      FlowFrame typeblock = paths.getFlowFrame();
+      FlowFrame typeblock = (paths == null ? null : paths.getFlowFrame());
 
       if (typeblock != null)
       {
@@ -152,17 +181,186 @@ public class JDRViewPanel extends JPanel
                               bpPaperHeight*bpToStorage));
       }
 
-      for (int i = 0, n=paths.size(); i < n; i++)
+      Object displayed = (paths == null ? loadingObjects : paths);
+
+      if (compiledImage != displayed)
       {
-          JDRCompleteObject object = paths.get(i);
+         compiler = new DisplayListCompiler(cg);
+         compiledImage = displayed;
+      }
+
+      int n = (paths == null ? loadingObjects.size() : paths.size());
 
-          object.draw(false);
+      for (int i = 0; i < n; i++)
+      {
+          JDRCompleteObject object = (paths == null ?
+             loadingObjects.get(i) : paths.get(i));
+
+          if (clipBounds != null)
+          {
+             BBox box = getObjectBounds(i, object);
+
+             if (box == null || !box.intersects(clipBounds))
+             {
+                continue;
+             }
+          }
+
+          if (renderStatistics == null)
+          {
+             compiler.draw(object, false);
+          }
+          else
+          {
+             long startTime = renderStatistics.start();
+
+             compiler.draw(object, false);
+
+             renderStatistics.objectDrawn(object, i, startTime);
+          }
       }
 
       g2.setRenderingHints(oldHints);
 
       g2.setTransform(oldAf);
+
+      // the canvas graphics is also used outside of painting (for
+      // example, to compute bounds) so don't record those times
+
+      cg.setRenderStatistics(null);
+
+      if (renderStatistics != null)
+      {
+         renderStatistics.endPaint(paintStartTime);
+         renderStatistics.drawOverlay(g2, getVisibleRect());
+      }
+   }
+
+   /**
+    * Gets the bounds of the given top-level object. The bounds are
+    * cached, since the viewer doesn't modify the image. The cache
+    * entry is only used if it belongs to the same object, so a new
+    * image automatically replaces the cached bounds.
+    * @param index the index of the object in the image
+    * @param object the object
+    * @return the storage bounding box of the object
+    */
+   private BBox getObjectBounds(int index, JDRCompleteObject object)
+   {
+      if (index < boundsObjects.size())
+      {
+         if (boundsObjects.get(index) == object)
+         {
+            return objectBounds.get(index);
+         }
+
+         boundsObjects.setSize(index);
+         objectBounds.setSize(index);
+      }
+
+      BBox box = object.getStorageBBox();
+
+      if (index == boundsObjects.size())
+      {
+         boundsObjects.add(object);
+         objectBounds.add(box);
+      }
+
+      return box;
+   }
+
+   /**
+    * Notifies this panel that objects have been received from the
+    * progressive loader. The bounds are supplied by the caller (which may have
+    * computed them on another thread) and only the area they cover
+    * is repainted.
+    * @param startIndex the index of the first new object
+    * @param objects the new objects
+    * @param bounds the storage bounding boxes of the new objects
+    */
+   public void objectsAdded(int startIndex, Vector<JDRCompleteObject> objects,
+      Vector<BBox> bounds)
+   {
+      BBox region = null;
+
+      for (int i = 0; i < objects.size(); i++)
+      {
+         JDRCompleteObject object = objects.get(i);
+         BBox box = bounds.get(i);
+
+         if (startIndex+i == boundsObjects.size())
+         {
+            boundsObjects.add(object);
+            objectBounds.add(box);
+         }
+
+         if (box != null)
+         {
+            if (region == null)
+            {
+               region = (BBox)box.clone();
+            }
+            else
+            {
+               region.encompass(box);
+            }
+         }
+      }
+
+      if (region != null)
+      {
+         CanvasGraphics cg = app.getCanvasGraphics();
+
+         double x = cg.storageToComponentX(region.getMinX());
+         double y = cg.storageToComponentY(region.getMinY());
+
+         // allow for anti-aliasing at the edges
+
+         repaint((int)Math.floor(x)-1, (int)Math.floor(y)-1,
+           (int)Math.ceil(cg.storageToComponentX(region.getMaxX())-x)+3,
+           (int)Math.ceil(cg.storageToComponentY(region.getMaxY())-y)+3);
+      }
+   }
+
+   /**
+    * Notifies this panel that the progressive loader has finished
+    * and the objects that have been displayed while loading have
+    * been replaced by the complete image. The complete image
+    * contains the same objects, so their compiled display lists are
+    * kept.
+    * @param loadingObjects the objects displayed while loading
+    * @param image the complete image
+    */
+   public void imageLoaded(Vector<JDRCompleteObject> loadingObjects,
+      JDRGroup image)
+   {
+      if (compiledImage != null && compiledImage == loadingObjects)
+      {
+         compiledImage = image;
+      }
+   }
+
+   /**
+    * Gets the render-time statistics. These are only recorded
+    * in debug mode.
+    * @return the statistics or null if not in debug mode
+    */
+   public RenderStatistics getRenderStatistics()
+   {
+      return renderStatistics;
    }
 
    private JDRView app;
+
+   // The viewer doesn't modify the image, so the objects are only
+   // compiled once for each magnification and rendering setting.
+   private DisplayListCompiler compiler = null;
+   private Object compiledImage = null;
+
+   private RenderStatistics renderStatistics = null;
+
+   private Vector<JDRCompleteObject> boundsObjects
+      = new Vector<JDRCompleteObject>();
+
+   private Vector<BBox> objectBounds = new Vector<BBox>();
 }
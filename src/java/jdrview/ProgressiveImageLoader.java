@@ -0,0 +1,191 @@
+/*
+    Copyright (C) 2025 Nicola L.C. Talbot
+    www.dickimaw-books.com
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+*/
+
+package com.dickimawbooks.jdrview;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingWorker;
+
+import com.dickimawbooks.jdr.*;
+import com.dickimawbooks.jdr.io.*;
+import com.dickimawbooks.jdr.exceptions.*;
+
+/**
+ * Loads an image in the background. Each top-level object is
+ * published as soon as it has been read. The viewer displays the
+ * objects in batches on the event dispatch thread, so the start
+ * of a large image can be viewed while the rest is still loading.
+ * The image is read into the loader's own canvas graphics, so the
+ * viewer's canvas graphics isn't modified while it's painting. The
+ * published objects belong to the loader's image, so the viewer
+ * doesn't add them to a group. The viewer also collects the image
+ * statistics as it receives the objects, since the statistics
+ * need the object bounds.
+ * @author Nicola L C Talbot
+ */
+class ProgressiveImageLoader extends SwingWorker<LoadedImage,JDRCompleteObject>
+  implements JDRImageLoadListener
+{
+   public ProgressiveImageLoader(JDRView view, File file, boolean isAJR,
+      CanvasGraphics cg)
+   {
+      this.view = view;
+      this.file = file;
+      this.isAJR = isAJR;
+      this.canvasGraphics = cg;
+   }
+
+   /**
+    * Gets the canvas graphics that the image is loaded into. This
+    * is only modified by the loader thread, and the settings it
+    * contains have been read by the time the null object is
+    * published.
+    * @return the loader's canvas graphics
+    */
+   public CanvasGraphics getCanvasGraphics()
+   {
+      return canvasGraphics;
+   }
+
+   @Override
+   protected LoadedImage doInBackground()
+     throws InvalidFormatException,java.io.IOException
+   {
+      if (isAJR)
+      {
+         return view.readAJRImage(file, canvasGraphics, this);
+      }
+      else
+      {
+         return view.readJDRImage(file, canvasGraphics, this);
+      }
+   }
+
+   @Override
+   public void settingsLoaded(JDRAJR jdr)
+   {
+      // null indicates that the settings have been read
+      publish((JDRCompleteObject)null);
+   }
+
+   @Override
+   public void objectLoaded(JDRCompleteObject object)
+   {
+      if (isCancelled())
+      {
+         // stop reading the rest of the file
+         throw new CancellationException();
+      }
+
+      publish(object);
+   }
+
+   @Override
+   protected void process(List<JDRCompleteObject> chunks)
+   {
+      view.objectsLoaded(this, chunks);
+   }
+
+   @Override
+   protected void done()
+   {
+      LoadedImage image = null;
+      Throwable cause = null;
+
+      try
+      {
+         image = get();
+      }
+      catch (CancellationException e)
+      {
+      }
+      catch (InterruptedException e)
+      {
+      }
+      catch (ExecutionException e)
+      {
+         cause = e.getCause();
+
+         if (cause == null)
+         {
+            cause = e;
+         }
+      }
+
+      view.loadingFinished(this, image, cause);
+   }
+
+   private JDRView view;
+   private File file;
+   private boolean isAJR;
+   private CanvasGraphics canvasGraphics;
+}
+
+/**
+ * An image read by the viewer together with the details that
+ * need to be applied to the viewer once it has been read. These
+ * are collected on the loader thread and applied on the event
+ * dispatch thread.
+ */
+class LoadedImage
+{
+   public LoadedImage(JDRGroup image, String format, int settingsFlag,
+      float version, boolean isAJR)
+   {
+      this.image = image;
+      this.format = format;
+      this.settingsFlag = settingsFlag;
+      this.version = version;
+      this.isAJR = isAJR;
+   }
+
+   public JDRGroup getImage()
+   {
+      return image;
+   }
+
+   public String getFormat()
+   {
+      return format;
+   }
+
+   public int getSettingsFlag()
+   {
+      return settingsFlag;
+   }
+
+   public float getVersion()
+   {
+      return version;
+   }
+
+   public boolean isAJR()
+   {
+      return isAJR;
+   }
+
+   private JDRGroup image;
+   private String format;
+   private int settingsFlag;
+   private float version;
+   private boolean isAJR;
+}